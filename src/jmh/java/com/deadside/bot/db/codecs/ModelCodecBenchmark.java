@@ -0,0 +1,171 @@
+package com.deadside.bot.db.codecs;
+
+import com.deadside.bot.db.MongoDBConnection;
+import com.deadside.bot.db.models.Faction;
+import com.deadside.bot.db.models.FactionMember;
+import com.deadside.bot.db.models.GameServer;
+import com.deadside.bot.db.models.GuildConfig;
+import com.deadside.bot.db.models.KillRecord;
+import com.deadside.bot.db.models.Player;
+import com.mongodb.MongoClientSettings;
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.bson.codecs.pojo.PojoCodecProvider;
+import org.bson.io.BasicOutputBuffer;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import static org.bson.codecs.configuration.CodecRegistries.fromProviders;
+import static org.bson.codecs.configuration.CodecRegistries.fromRegistries;
+
+/**
+ * Benchmarks for encoding and decoding the hot models with the hand-written codecs against the automatic POJO codec
+ * Each codec decodes the documents it writes itself. The document sizes are printed at setup. Run with
+ * {@code -Djmh.args="ModelCodec -prof gc"} to see the allocation per operation.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ModelCodecBenchmark {
+    
+    @Param({"Player", "KillRecord", "GameServer", "Faction", "GuildConfig"})
+    private String model;
+    
+    private Codec<Object> pojoCodec;
+    private Codec<Object> modelCodec;
+    private Object value;
+    private byte[] pojoBytes;
+    private byte[] modelBytes;
+    private final BasicOutputBuffer buffer = new BasicOutputBuffer();
+    
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        CodecRegistry pojoRegistry = fromRegistries(
+                MongoClientSettings.getDefaultCodecRegistry(),
+                fromProviders(PojoCodecProvider.builder().automatic(true).build()));
+        CodecRegistry modelRegistry = MongoDBConnection.createCodecRegistry();
+        
+        value = sampleModel(model);
+        pojoCodec = (Codec<Object>) pojoRegistry.get(value.getClass());
+        modelCodec = (Codec<Object>) modelRegistry.get(value.getClass());
+        pojoBytes = toBytes(pojoCodec, value);
+        modelBytes = toBytes(modelCodec, value);
+        
+        System.out.printf("%n%s: POJO document %d bytes, hand-written codec document %d bytes%n",
+                model, pojoBytes.length, modelBytes.length);
+    }
+    
+    @Benchmark
+    public int encodePojo() {
+        return encode(pojoCodec);
+    }
+    
+    @Benchmark
+    public int encodeModel() {
+        return encode(modelCodec);
+    }
+    
+    @Benchmark
+    public Object decodePojo() {
+        return decode(pojoCodec, pojoBytes);
+    }
+    
+    @Benchmark
+    public Object decodeModel() {
+        return decode(modelCodec, modelBytes);
+    }
+    
+    private int encode(Codec<Object> codec) {
+        buffer.truncateToPosition(0);
+        try (BsonBinaryWriter writer = new BsonBinaryWriter(buffer)) {
+            codec.encode(writer, value, EncoderContext.builder().build());
+        }
+        return buffer.getPosition();
+    }
+    
+    private static Object decode(Codec<Object> codec, byte[] bytes) {
+        try (BsonBinaryReader reader = new BsonBinaryReader(ByteBuffer.wrap(bytes))) {
+            return codec.decode(reader, DecoderContext.builder().build());
+        }
+    }
+    
+    private static byte[] toBytes(Codec<Object> codec, Object value) {
+        BasicOutputBuffer output = new BasicOutputBuffer();
+        try (BsonBinaryWriter writer = new BsonBinaryWriter(output)) {
+            codec.encode(writer, value, EncoderContext.builder().build());
+        }
+        return output.toByteArray();
+    }
+    
+    private static Object sampleModel(String model) {
+        switch (model) {
+            case "Player": {
+                Player player = new Player("76561198000000000", "BenchmarkPlayer");
+                player.setId(new ObjectId());
+                player.setKills(1234);
+                player.setDeaths(567);
+                player.setSuicides(12);
+                player.setMostUsedWeapon("AK-74");
+                player.setMostUsedWeaponKills(321);
+                player.setMostKilledPlayer("Victim");
+                player.setMostKilledPlayerCount(25);
+                player.setKilledByMost("Nemesis");
+                player.setKilledByMostCount(19);
+                player.getCurrency().addCoins(45000);
+                player.getCurrency().depositToBank(20000);
+                ObjectId factionId = new ObjectId();
+                player.setFactionMember(new FactionMember(factionId, "Benchmark Faction", "BNCH", 1));
+                player.setFactionId(factionId);
+                player.setFactionJoinDate(Instant.now());
+                return player;
+            }
+            case "KillRecord": {
+                KillRecord record = new KillRecord(123456789012345678L, "Benchmark Server", "Killer", "Victim", "AK-74",
+                        187, System.currentTimeMillis(), "2024.05.01-12.00.00;Killer;1;Victim;2;AK-74;187;PC;PC");
+                record.setId(new ObjectId());
+                return record;
+            }
+            case "GameServer": {
+                GameServer server = new GameServer(123456789012345678L, "Benchmark Server", "127.0.0.1", 22,
+                        "user", "password", 4242);
+                server.setId(new ObjectId());
+                server.setKillfeedChannelId(223456789012345678L);
+                server.setLogChannelId(323456789012345678L);
+                server.updateKillfeedProgress("2024.05.01-00.00.00.csv", 1500);
+                server.setDigestEnabled("join_leave", true);
+                return server;
+            }
+            case "Faction": {
+                Faction faction = new Faction("Benchmark Faction", "BNCH", "A faction for benchmarks",
+                        123456789012345678L, 423456789012345678L, "#FF0000");
+                faction.setId(new ObjectId());
+                for (long member = 1; member <= 8; member++) {
+                    faction.addMember(523456789012345678L + member);
+                }
+                faction.promoteMember(523456789012345679L);
+                return faction;
+            }
+            case "GuildConfig": {
+                GuildConfig config = new GuildConfig(123456789012345678L);
+                config.setKillfeedChannelId("223456789012345678");
+                config.setLogChannelId("323456789012345678");
+                config.setPremiumSlots(2);
+                return config;
+            }
+            default:
+                throw new IllegalArgumentException("Unknown model: " + model);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.deadside.bot.db.repositories;
+
+import com.deadside.bot.db.MongoDBConnection;
+import com.deadside.bot.db.models.Currency;
+import com.deadside.bot.db.models.FactionMember;
+import com.deadside.bot.db.models.Player;
+import com.deadside.bot.db.models.PlayerSummary;
+import org.bson.BsonDocument;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.BsonDocumentCodec;
+import org.bson.codecs.Codec;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for decoding a page of players as full documents against projected summaries
+ * Documents are decoded from their wire form with the same codec registry as MongoDBConnection.
+ * The bytes the server sends for each page are printed at setup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PlayerProjectionBenchmark {
+    
+    @Param({"100", "1000"})
+    private int players;
+    
+    private Codec<Player> playerCodec;
+    private Codec<PlayerSummary> summaryCodec;
+    private List<RawBsonDocument> fullDocuments;
+    private List<RawBsonDocument> projectedDocuments;
+    
+    @Setup
+    public void setup() {
+        CodecRegistry registry = MongoDBConnection.createCodecRegistry();
+        playerCodec = registry.get(Player.class);
+        summaryCodec = registry.get(PlayerSummary.class);
+        
+        Random random = new Random(42);
+        fullDocuments = new ArrayList<>(players);
+        projectedDocuments = new ArrayList<>(players);
+        long fullBytes = 0;
+        long projectedBytes = 0;
+        
+        for (int i = 0; i < players; i++) {
+            RawBsonDocument full = new RawBsonDocument(samplePlayer(i, random), playerCodec);
+            
+            // Keep only the projected fields, as the server would
+            BsonDocument projected = new BsonDocument();
+            for (String field : List.of("playerId", "name", "kills", "deaths", "mostUsedWeapon", "mostUsedWeaponKills")) {
+                if (full.containsKey(field)) {
+                    projected.put(field, full.get(field));
+                }
+            }
+            RawBsonDocument summary = new RawBsonDocument(projected, new BsonDocumentCodec());
+            
+            fullDocuments.add(full);
+            projectedDocuments.add(summary);
+            fullBytes += full.getByteBuffer().remaining();
+            projectedBytes += summary.getByteBuffer().remaining();
+        }
+        
+        System.out.printf("%n%d players: full documents %d bytes, projected summaries %d bytes (%.0f%%)%n",
+                players, fullBytes, projectedBytes, 100.0 * projectedBytes / fullBytes);
+    }
+    
+    @Benchmark
+    public List<Player> decodeFullDocuments() {
+        List<Player> decoded = new ArrayList<>(fullDocuments.size());
+        for (RawBsonDocument document : fullDocuments) {
+            decoded.add(document.decode(playerCodec));
+        }
+        return decoded;
+    }
+    
+    @Benchmark
+    public List<PlayerSummary> decodeProjectedSummaries() {
+        List<PlayerSummary> decoded = new ArrayList<>(projectedDocuments.size());
+        for (RawBsonDocument document : projectedDocuments) {
+            decoded.add(document.decode(summaryCodec));
+        }
+        return decoded;
+    }
+    
+    private static Player samplePlayer(int index, Random random) {
+        Player player = new Player("player_" + index + "_id", "Player" + index);
+        player.setId(new ObjectId());
+        player.setKills(random.nextInt(2000));
+        player.setDeaths(random.nextInt(1500));
+        player.setSuicides(random.nextInt(50));
+        player.setMostUsedWeapon("AK-74");
+        player.setMostUsedWeaponKills(random.nextInt(500));
+        player.setMostKilledPlayer("Player" + random.nextInt(1000));
+        player.setMostKilledPlayerCount(random.nextInt(40));
+        player.setKilledByMost("Player" + random.nextInt(1000));
+        player.setKilledByMostCount(random.nextInt(40));
+        player.setLastUpdated(System.currentTimeMillis());
+        
+        Currency currency = new Currency();
+        currency.addCoins(random.nextInt(100000));
+        currency.setLastDailyReward(System.currentTimeMillis());
+        player.setCurrency(currency);
+        
+        ObjectId factionId = new ObjectId();
+        player.setFactionMember(new FactionMember(factionId, "Benchmark Faction", "BNCH", 0));
+        player.setFactionId(factionId);
+        player.setFactionJoinDate(Instant.now());
+        return player;
+    }
+}
@@ -0,0 +1,59 @@
+package com.deadside.bot.db.repositories;
+
+import com.deadside.bot.db.repositories.LeaderboardRepository.Type;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for ranking a player against a guild's players and for updating a player's stats
+ * The players' kills and deaths are drawn so that many players share the same kills and score and
+ * nearly every K/D is distinct, as on a real board.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RankIndexBenchmark {
+    private static final long GUILD_ID = 1L;
+    private static final String SERVER = "*";
+    
+    @Param({"1000", "100000"})
+    private int players;
+    
+    private RankIndex index;
+    private Random random;
+    
+    @Setup
+    public void setup() {
+        index = new RankIndex();
+        random = new Random(42);
+        for (int i = 0; i < players; i++) {
+            index.add(GUILD_ID, SERVER, "Player" + i, random.nextInt(500), random.nextInt(400));
+        }
+    }
+    
+    @Benchmark
+    public int rankByKills() {
+        return index.getRank(GUILD_ID, SERVER, Type.KILLS, random.nextInt(500));
+    }
+    
+    @Benchmark
+    public int rankByKd() {
+        return index.getRank(GUILD_ID, SERVER, Type.KD, random.nextDouble() * 5);
+    }
+    
+    @Benchmark
+    public int rankedCount() {
+        return index.getRankedCount(GUILD_ID, SERVER);
+    }
+    
+    @Benchmark
+    public void recordKill() {
+        index.add(GUILD_ID, SERVER, "Player" + random.nextInt(players), 1, 0);
+        index.add(GUILD_ID, SERVER, "Player" + random.nextInt(players), 0, 1);
+    }
+}
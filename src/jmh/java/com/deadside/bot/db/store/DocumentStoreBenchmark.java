@@ -0,0 +1,169 @@
+package com.deadside.bot.db.store;
+
+import com.deadside.bot.db.MongoDBConnection;
+import com.deadside.bot.db.models.GameServer;
+import com.deadside.bot.db.models.LinkedPlayer;
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Indexes;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Benchmarks for the link and server lookups and writes, on the embedded local store against MongoDB
+ * Player lookups are not covered, as players are not kept in the local store.
+ * The mongodb backend needs a running mongod, at {@code -Dbenchmark.mongo.uri} or localhost by default,
+ * and uses a scratch database that is dropped afterwards. Run only the local store with
+ * {@code -Djmh.args="DocumentStore -p backend=local,local-nofsync"}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DocumentStoreBenchmark {
+    private static final int LINKS = 10_000;
+    private static final int GUILDS = 500;
+    private static final int SERVERS_PER_GUILD = 4;
+    
+    @Param({"local", "local-nofsync", "mongodb"})
+    private String backend;
+    
+    private DocumentStore<LinkedPlayer> links;
+    private DocumentStore<GameServer> servers;
+    private List<GameServer> serverList;
+    private Path directory;
+    private List<LocalCollection> localCollections;
+    private MongoClient mongoClient;
+    private MongoDatabase mongoDatabase;
+    private int next;
+    
+    @Setup
+    public void setup() throws IOException {
+        CodecRegistry registry = MongoDBConnection.createCodecRegistry();
+        if (backend.startsWith("local")) {
+            boolean fsync = backend.equals("local");
+            directory = Files.createTempDirectory("document-store-benchmark");
+            LocalCollection linkCollection = new LocalCollection("linked_players", directory,
+                    List.of("discordId", "mainPlayerId", "altPlayerIds"), fsync, 10_000);
+            LocalCollection serverCollection = new LocalCollection("game_servers", directory,
+                    List.of("guildId"), fsync, 10_000);
+            localCollections = List.of(linkCollection, serverCollection);
+            links = new LocalDocumentStore<>(linkCollection, LinkedPlayer.class, registry);
+            servers = new LocalDocumentStore<>(serverCollection, GameServer.class, registry);
+        } else {
+            mongoClient = MongoClients.create(MongoClientSettings.builder()
+                    .applyConnectionString(new ConnectionString(System.getProperty("benchmark.mongo.uri", "mongodb://localhost:27017")))
+                    .codecRegistry(registry)
+                    .build());
+            mongoDatabase = mongoClient.getDatabase("deadside_benchmark");
+            mongoDatabase.drop();
+            // The same indexes as IndexManager creates
+            mongoDatabase.getCollection("linked_players").createIndex(Indexes.ascending("discordId"));
+            mongoDatabase.getCollection("linked_players").createIndex(Indexes.ascending("mainPlayerId"));
+            mongoDatabase.getCollection("linked_players").createIndex(Indexes.ascending("altPlayerIds"));
+            mongoDatabase.getCollection("game_servers").createIndex(Indexes.ascending("guildId", "name"));
+            links = new MongoDocumentStore<>(mongoDatabase.getCollection("linked_players", LinkedPlayer.class));
+            servers = new MongoDocumentStore<>(mongoDatabase.getCollection("game_servers", GameServer.class));
+        }
+        
+        for (int i = 0; i < LINKS; i++) {
+            LinkedPlayer link = new LinkedPlayer(100_000L + i, "Player" + i, "player-" + i);
+            link.addAltPlayerId("alt-" + i);
+            link.setId(new ObjectId());
+            links.save(link.getId(), link);
+        }
+        serverList = new ArrayList<>(GUILDS * SERVERS_PER_GUILD);
+        for (int guild = 0; guild < GUILDS; guild++) {
+            for (int i = 0; i < SERVERS_PER_GUILD; i++) {
+                GameServer server = new GameServer(guild, "Server " + i, "10.0.0." + i, 22, "user", "password", 1000 + i);
+                server.setId(new ObjectId());
+                servers.save(server.getId(), server);
+                serverList.add(server);
+            }
+        }
+    }
+    
+    @TearDown
+    public void tearDown() throws IOException {
+        if (localCollections != null) {
+            for (LocalCollection collection : localCollections) {
+                collection.close();
+            }
+            try (Stream<Path> files = Files.walk(directory)) {
+                for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(file);
+                }
+            }
+        }
+        if (mongoClient != null) {
+            mongoDatabase.drop();
+            mongoClient.close();
+        }
+    }
+    
+    private int nextIndex(int size) {
+        next = (next + 7919) % size;
+        return next;
+    }
+    
+    @Benchmark
+    public LinkedPlayer findLinkByDiscordId() {
+        return links.findOne(Map.of("discordId", 100_000L + nextIndex(LINKS)));
+    }
+    
+    @Benchmark
+    public LinkedPlayer findLinkByAltPlayerId() {
+        return links.findOne(Map.of("altPlayerIds", "alt-" + nextIndex(LINKS)));
+    }
+    
+    @Benchmark
+    public List<GameServer> findServersByGuild() {
+        return servers.find(Map.of("guildId", (long) nextIndex(GUILDS)));
+    }
+    
+    @Benchmark
+    public GameServer findServerByGuildAndName() {
+        GameServer server = serverList.get(nextIndex(serverList.size()));
+        return servers.findOne(Map.of("guildId", server.getGuildId(), "name", server.getName()));
+    }
+    
+    @Benchmark
+    public void saveServer() {
+        GameServer server = serverList.get(nextIndex(serverList.size()));
+        server.setLastProcessedKillfeedLine(server.getLastProcessedKillfeedLine() + 1);
+        servers.save(server.getId(), server);
+    }
+    
+    @Benchmark
+    public boolean updateServerField() {
+        GameServer server = serverList.get(nextIndex(serverList.size()));
+        return servers.update(Map.of("_id", server.getId()), Map.of("statusBoardMessageId", System.nanoTime()));
+    }
+    
+    @Benchmark
+    public int updateServerProgressBulk() {
+        List<DocumentStore.Update> updates = new ArrayList<>(SERVERS_PER_GUILD * 10);
+        for (int i = 0; i < SERVERS_PER_GUILD * 10; i++) {
+            GameServer server = serverList.get(nextIndex(serverList.size()));
+            updates.add(new DocumentStore.Update(Map.of("_id", server.getId()),
+                    Map.of("lastProcessedKillfeedLine", System.nanoTime())));
+        }
+        return servers.updateAll(updates);
+    }
+}
@@ -0,0 +1,43 @@
+package com.deadside.bot.parsers;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for CSV death log parsing
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DeadsideCsvParserBenchmark {
+    
+    @Param({"100", "1000"})
+    private int lines;
+    
+    private String content;
+    
+    @Setup
+    public void setup() {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < lines; i++) {
+            if (i % 10 == 0) {
+                builder.append(String.format("2024.05.16-04.%02d.%02d;Victim%d;%d;Victim%d;%d;falling;0;%n",
+                        (i / 60) % 60, i % 60, i, 1000 + i, i, 1000 + i));
+            } else {
+                builder.append(String.format("2024.05.16-04.%02d.%02d;Victim%d;%d;Killer%d;%d;AK-74;%d;%n",
+                        (i / 60) % 60, i % 60, i, 1000 + i, i % 25, 2000 + i % 25, i % 300));
+            }
+        }
+        content = builder.toString();
+    }
+    
+    @Benchmark
+    public List<DeadsideCsvParser.DeathEntry> processDeathLog() {
+        return DeadsideCsvParser.parseDeathLog(content, 0L);
+    }
+}
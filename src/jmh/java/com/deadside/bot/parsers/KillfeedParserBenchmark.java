@@ -0,0 +1,34 @@
+package com.deadside.bot.parsers;
+
+import com.deadside.bot.db.models.GameServer;
+import com.deadside.bot.db.models.KillRecord;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for killfeed CSV record parsing
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class KillfeedParserBenchmark {
+    
+    private static final String KILL_LINE =
+            "\"2024/05/16-04:51:05\",\"SurvivorOne\",\"killed\",\"SurvivorTwo\",\"with\",\"AK-74\",\"from\",\"152m\"";
+    
+    private GameServer server;
+    
+    @Setup
+    public void setup() {
+        server = new GameServer("Benchmark", "localhost", 22, "user", "pass", 1L);
+    }
+    
+    @Benchmark
+    public KillRecord parseKillRecord() {
+        return KillfeedParser.parseKillRecord(KILL_LINE, server);
+    }
+}
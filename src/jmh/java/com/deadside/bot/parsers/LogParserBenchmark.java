@@ -0,0 +1,49 @@
+package com.deadside.bot.parsers;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for Deadside.log line classification
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LogParserBenchmark {
+    
+    // A typical mix: most lines in Deadside.log are not events
+    private static final String[] LINES = {
+            "[2024.05.16-04.51.05:123][  1]LogNet: Join succeeded: Player_1",
+            "[2024.05.16-04.51.05:124][  2]LogSFPS: [Login] Player SurvivorOne connected",
+            "[2024.05.16-04.51.06:001][  3]LogStreaming: Display: Flushing async loaders.",
+            "[2024.05.16-04.51.07:002][  4]LogSFPS: [Kill] SurvivorOne killed SurvivorTwo with AK-74 at distance 152",
+            "[2024.05.16-04.51.08:003][  5]LogSFPS: [Death] SurvivorThree died from falling",
+            "[2024.05.16-04.51.09:004][  6]LogSFPS: AirDrop switched to Dropped",
+            "[2024.05.16-04.51.10:005][  7]LogSFPS: Mission GA_Military_02_Mis1 switched to READY",
+            "[2024.05.16-04.51.11:006][  8]LogSFPS: [Logout] Player SurvivorTwo disconnected",
+            "[2024.05.16-04.51.12:007][  9]LogGarbage: Collecting garbage and resetting GC timer.",
+            "[2024.05.16-04.51.13:008][ 10]LogSFPS: Helicopter crash spawned at position X=1.0 Y=2.0 Z=3.0"
+    };
+    
+    @Benchmark
+    public void classifyLines(Blackhole blackhole) {
+        for (String line : LINES) {
+            blackhole.consume(DeadsideLogParser.classifyLine(line));
+        }
+    }
+    
+    @Benchmark
+    public Object classifyNonEventLine() {
+        return DeadsideLogParser.classifyLine(LINES[2]);
+    }
+    
+    @Benchmark
+    public Object classifyLastPatternLine() {
+        return DeadsideLogParser.classifyLine(LINES[6]);
+    }
+}
@@ -0,0 +1,28 @@
+package com.deadside.bot.parsers;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.text.ParseException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the timestamp formats used by the killfeed and death log parsers
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TimestampParsingBenchmark {
+    
+    @Benchmark
+    public long killfeedTimestamp() throws ParseException {
+        return KillfeedParser.parseTimestamp("2024/05/16-04:51:05");
+    }
+    
+    @Benchmark
+    public long deathLogTimestamp() throws ParseException {
+        return DeadsideCsvParser.parseTimestamp("2024.05.16-04.51.05");
+    }
+}
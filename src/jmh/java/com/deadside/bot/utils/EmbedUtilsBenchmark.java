@@ -0,0 +1,41 @@
+package com.deadside.bot.utils;
+
+import net.dv8tion.jda.api.EmbedBuilder;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for embed construction on the notification paths
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EmbedUtilsBenchmark {
+    
+    private static final String KILL_DESCRIPTION = "**SurvivorOne** killed **SurvivorTwo**\n" +
+            "Weapon: **AK-74**\nDistance: **152 m**\nTime: <t:1715835065:R>";
+    
+    @Benchmark
+    public MessageEmbed killfeedEmbed() {
+        return EmbedUtils.killfeedEmbed("Killfeed", KILL_DESCRIPTION);
+    }
+    
+    @Benchmark
+    public MessageEmbed infoEmbed() {
+        return EmbedUtils.infoEmbed("Player Ranking", KILL_DESCRIPTION);
+    }
+    
+    @Benchmark
+    public MessageEmbed playerStatsEmbed() {
+        EmbedBuilder builder = EmbedUtils.playerStatsEmbed("SurvivorOne");
+        builder.addField("Kills", "120", true);
+        builder.addField("Deaths", "45", true);
+        builder.addField("K/D", "2.67", true);
+        return builder.build();
+    }
+}
@@ -2,10 +2,23 @@ package com.deadside.bot;
 
 import com.deadside.bot.bot.DeadsideBot;
 import com.deadside.bot.config.Config;
+import com.deadside.bot.db.IndexManager;
 import com.deadside.bot.db.MongoDBConnection;
+import com.deadside.bot.db.repositories.EconomyLedgerRepository;
+import com.deadside.bot.db.repositories.KillMatrixRepository;
+import com.deadside.bot.db.repositories.KillRecordRepository;
+import com.deadside.bot.db.repositories.LeaderboardRepository;
+import com.deadside.bot.db.repositories.LeaderboardStore;
+import com.deadside.bot.db.repositories.PlayerCache;
+import com.deadside.bot.db.repositories.PlayerRepository;
+import com.deadside.bot.db.repositories.WeaponStatsRepository;
+import com.deadside.bot.db.store.LocalStorage;
+import com.deadside.bot.economy.EconomyLedger;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.file.Path;
+
 /**
  * Main entry point for the Deadside Discord Bot
  */
@@ -21,6 +34,32 @@ public class Main {
             
             // Initialize MongoDB connection
             MongoDBConnection.initialize(config.getMongoUri());
+            IndexManager.ensureIndexes(MongoDBConnection.getInstance().getDatabase());
+            if (config.isKillRecordsTimeSeriesEnabled()) {
+                KillRecordRepository.ensureTimeSeriesCollection(MongoDBConnection.getInstance().getDatabase(),
+                        config.getKillRecordsRetentionDays());
+            }
+            
+            // Keep guild configs, game servers and account links in the embedded store if configured;
+            // everything else, players included, needs the MongoDB connection above either way
+            if (config.isLocalStorageEnabled()) {
+                LocalStorage.initialize(Path.of(config.getLocalStorageDirectory()), config.isLocalStorageFsync(),
+                        config.getLocalStorageCompactionRecords());
+            }
+            
+            // Record economy transactions, taking existing balances as the opening ledger balances
+            EconomyLedger.initialize(new EconomyLedgerRepository(), config.getEconomyLedgerFlushIntervalMillis(),
+                    config.getEconomySnapshotIntervalMinutes());
+            EconomyLedger.getInstance().seedIfEmpty(new PlayerRepository());
+            PlayerCache.initialize(new PlayerRepository(), config.getPlayerCacheTtlSeconds(),
+                    config.getPlayerCacheMaxSize());
+            
+            // Seed the leaderboards, head-to-head matrix and weapon stats before ingestion starts so no kill is counted twice
+            LeaderboardStore.initialize(new LeaderboardRepository(), config.getLeaderboardKdMinKills());
+            LeaderboardStore.getInstance().rebuildIfIncomplete(new KillRecordRepository());
+            LeaderboardStore.getInstance().loadRanks();
+            new KillMatrixRepository().rebuildIfEmpty(new KillRecordRepository());
+            new WeaponStatsRepository().rebuildIfEmpty(new KillRecordRepository());
             
             // Initialize and start the bot
             DeadsideBot bot = new DeadsideBot(config.getDiscordToken());
@@ -30,7 +69,11 @@ public class Main {
             Runtime.getRuntime().addShutdownHook(new Thread(() -> {
                 logger.info("Shutting down bot...");
                 bot.shutdown();
+                EconomyLedger.getInstance().shutdown();
                 MongoDBConnection.getInstance().close();
+                if (config.isLocalStorageEnabled()) {
+                    LocalStorage.getInstance().close();
+                }
                 logger.info("Bot shutdown complete");
             }));
             
@@ -2,6 +2,11 @@ package com.deadside.bot.bot;
 
 import com.deadside.bot.commands.CommandManager;
 import com.deadside.bot.config.Config;
+import com.deadside.bot.db.QueryMetrics;
+import com.deadside.bot.delivery.ChannelRouter;
+import com.deadside.bot.delivery.EmbedBatcher;
+import com.deadside.bot.delivery.OutboundDispatcher;
+import com.deadside.bot.economy.EconomyService;
 import com.deadside.bot.db.models.GameServer;
 import com.deadside.bot.listeners.ButtonListener;
 import com.deadside.bot.listeners.CommandListener;
@@ -9,10 +14,13 @@ import com.deadside.bot.listeners.ModalListener;
 import com.deadside.bot.listeners.StringSelectMenuListener;
 import com.deadside.bot.parsers.DeadsideCsvParser;
 import com.deadside.bot.parsers.DeadsideLogParser;
+import com.deadside.bot.parsers.StatusBoard;
 import com.deadside.bot.premium.PremiumManager;
 import com.deadside.bot.premium.Tip4servWebhookController;
 import com.deadside.bot.schedulers.KillfeedScheduler;
 import com.deadside.bot.db.repositories.GameServerRepository;
+import com.deadside.bot.db.repositories.GuildConfigRepository;
+import com.deadside.bot.db.repositories.KillRecordRepository;
 import com.deadside.bot.db.repositories.PlayerRepository;
 import com.deadside.bot.sftp.SftpConnector;
 import net.dv8tion.jda.api.JDA;
@@ -42,8 +50,16 @@ public class DeadsideBot {
     private JDA jda;
     private CommandManager commandManager;
     private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(3);
+    // Long daily and periodic maintenance runs here, one job at a time, so it never holds up ingestion ticks
+    private final ScheduledExecutorService maintenanceScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "maintenance");
+        thread.setDaemon(true);
+        return thread;
+    });
     private KillfeedScheduler killfeedScheduler;
+    private EmbedBatcher embedBatcher;
     private DeadsideLogParser logParser;
+    private StatusBoard statusBoard;
     private DeadsideCsvParser csvParser;
     private PremiumManager premiumManager;
     private Tip4servWebhookController webhookController;
@@ -63,6 +79,10 @@ public class DeadsideBot {
             // Initialize the command manager
             commandManager = new CommandManager();
             
+            // Initialize the prioritized outbound queue used for notifications and command animations
+            Config config = Config.getInstance();
+            OutboundDispatcher.initialize(config.getDeliveryShedThreshold(), config.getDeliveryMaxInFlight());
+            
             // Build the JDA instance with necessary intents
             jda = JDABuilder.createDefault(token)
                     .setStatus(OnlineStatus.ONLINE)
@@ -92,6 +112,9 @@ public class DeadsideBot {
             // Wait for JDA to be ready
             jda.awaitReady();
             logger.info("JDA initialized and connected to Discord gateway");
+            
+            // Resolve notification channels once and drop them on channel, permission and guild changes
+            ChannelRouter.initialize(jda);
 
             // Register slash commands
             commandManager.registerCommands(jda);
@@ -154,8 +177,8 @@ public class DeadsideBot {
             webhookController.start();
             
             // Schedule regular check for expired premium subscriptions
-            scheduler.scheduleAtFixedRate(
-                    premiumManager::checkExpiredSubscriptions,
+            maintenanceScheduler.scheduleAtFixedRate(
+                    QueryMetrics.getInstance().track("premium expiry", premiumManager::checkExpiredSubscriptions),
                     1, // Initial delay of 1 hour to allow bot to fully initialize
                     24, // Check daily
                     TimeUnit.HOURS
@@ -174,14 +197,17 @@ public class DeadsideBot {
     private void startSchedulers() {
         Config config = Config.getInstance();
         
+        // Notification embeds are batched per channel to stay under Discord rate limits
+        embedBatcher = new EmbedBatcher(config.getDeliveryBatchLingerMillis(), OutboundDispatcher.getInstance());
+        
         // Initialize killfeed scheduler
         killfeedScheduler = new KillfeedScheduler();
-        killfeedScheduler.initialize(jda);
+        killfeedScheduler.initialize(jda, embedBatcher);
         int killfeedInterval = config.getKillfeedUpdateInterval();
         
         // Schedule killfeed updates
         scheduler.scheduleAtFixedRate(
-                killfeedScheduler::processAllServers,
+                QueryMetrics.getInstance().track("killfeed", killfeedScheduler::processAllServers),
                 1, // Initial delay of 1 second to allow bot to fully initialize
                 killfeedInterval,
                 TimeUnit.SECONDS
@@ -193,24 +219,38 @@ public class DeadsideBot {
         SftpConnector sftpConnector = new SftpConnector();
         
         // Initialize and start log parser
-        logParser = new DeadsideLogParser(jda, gameServerRepository, sftpConnector);
+        statusBoard = new StatusBoard(gameServerRepository, OutboundDispatcher.getInstance(),
+                config.getStatusBoardRefreshInterval());
+        logParser = new DeadsideLogParser(jda, gameServerRepository, sftpConnector, embedBatcher, statusBoard);
         int logParserInterval = config.getLogParsingInterval();
         
         // Schedule log parsing
         scheduler.scheduleAtFixedRate(
-                logParser::processAllServerLogs,
+                QueryMetrics.getInstance().track("log parsing", logParser::processAllServerLogs),
                 5, // Initial delay of 5 seconds to allow full initialization
                 logParserInterval,
                 TimeUnit.SECONDS
         );
         
+        // Send per-server log digests as their windows end
+        scheduler.scheduleAtFixedRate(
+                QueryMetrics.getInstance().track("log digests", logParser::flushDueDigests),
+                DeadsideLogParser.DIGEST_CHECK_INTERVAL,
+                DeadsideLogParser.DIGEST_CHECK_INTERVAL,
+                TimeUnit.SECONDS
+        );
+        
+        // Edit live status boards, each at most once per refresh interval
+        scheduler.scheduleAtFixedRate(QueryMetrics.getInstance().track("status boards", statusBoard::refreshDue),
+                5, 5, TimeUnit.SECONDS);
+        
         // Initialize and start CSV death log parser
-        csvParser = new DeadsideCsvParser(jda, sftpConnector, playerRepository);
+        csvParser = new DeadsideCsvParser(jda, sftpConnector, playerRepository, embedBatcher);
         int csvParserInterval = config.getLogParsingInterval(); // Use same interval as log parser
         
         // Schedule CSV death log parsing
         scheduler.scheduleAtFixedRate(
-                () -> {
+                QueryMetrics.getInstance().track("death logs", () -> {
                     try {
                         List<GameServer> servers = gameServerRepository.findAll();
                         for (GameServer server : servers) {
@@ -219,17 +259,64 @@ public class DeadsideBot {
                     } catch (Exception e) {
                         logger.error("Error processing CSV death logs: {}", e.getMessage(), e);
                     }
-                },
+                }),
                 10, // Initial delay of 10 seconds
                 csvParserInterval,
                 TimeUnit.SECONDS
         );
         
+        // Remove kill records past each guild's retention
+        KillRecordRepository killRecordRepository = new KillRecordRepository();
+        GuildConfigRepository guildConfigRepository = new GuildConfigRepository();
+        maintenanceScheduler.scheduleAtFixedRate(
+                QueryMetrics.getInstance().track("kill retention",
+                        () -> killRecordRepository.applyGuildRetention(guildConfigRepository)),
+                1, // Initial delay of 1 hour
+                24, // Run daily
+                TimeUnit.HOURS
+        );
+        
+        // Roll old kill records up into daily rollups
+        int rollupAfterDays = config.getKillRecordsRollupAfterDays();
+        if (rollupAfterDays > 0) {
+            maintenanceScheduler.scheduleAtFixedRate(
+                    QueryMetrics.getInstance().track("kill rollup",
+                            () -> killRecordRepository.compact(rollupAfterDays)),
+                    2, // Initial delay of 2 hours
+                    24, // Run daily
+                    TimeUnit.HOURS
+            );
+        }
+        
+        // Finish or refund coin transfers interrupted part way
+        EconomyService economyService = new EconomyService();
+        maintenanceScheduler.scheduleAtFixedRate(
+                QueryMetrics.getInstance().track("transfer recovery", economyService::recoverTransfers),
+                1, // Initial delay of 1 minute
+                10, // Check every 10 minutes
+                TimeUnit.MINUTES
+        );
+        
         logger.info("Scheduled killfeed updates every {} seconds", killfeedInterval);
         logger.info("Scheduled log parsing every {} seconds", logParserInterval);
         logger.info("Scheduled CSV death log parsing every {} seconds", csvParserInterval);
     }
     
+    /**
+     * Stop a scheduler, waiting for its running job to finish
+     */
+    private static void stopScheduler(ScheduledExecutorService executor) {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+    
     /**
      * Shutdown the bot gracefully
      */
@@ -240,14 +327,18 @@ public class DeadsideBot {
         }
         
         logger.info("Shutting down schedulers...");
-        scheduler.shutdown();
-        try {
-            if (!scheduler.awaitTermination(30, TimeUnit.SECONDS)) {
-                scheduler.shutdownNow();
-            }
-        } catch (InterruptedException e) {
-            scheduler.shutdownNow();
-            Thread.currentThread().interrupt();
+        stopScheduler(scheduler);
+        stopScheduler(maintenanceScheduler);
+        
+        // Deliver anything still waiting in the linger window before JDA goes away
+        if (logParser != null) {
+            logParser.flushAllDigests();
+            statusBoard.refreshAll();
+        }
+        if (embedBatcher != null) {
+            embedBatcher.shutdown();
+            OutboundDispatcher.getInstance().shutdown();
+            ChannelRouter.getInstance().logStats();
         }
         
         logger.info("Shutting down JDA...");
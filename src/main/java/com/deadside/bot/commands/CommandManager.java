@@ -15,6 +15,8 @@ import com.deadside.bot.commands.player.LinkCommand;
 import com.deadside.bot.commands.stats.LeaderboardCommand;
 import com.deadside.bot.commands.stats.StatsCommand;
 import com.deadside.bot.config.Config;
+import com.deadside.bot.db.QueryMetrics;
+import com.deadside.bot.delivery.CommandReplies;
 import net.dv8tion.jda.api.JDA;
 import net.dv8tion.jda.api.events.interaction.command.CommandAutoCompleteInteractionEvent;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
@@ -87,6 +89,7 @@ public class CommandManager {
         ICommand command = commands.get(commandName);
         
         if (command != null) {
+            QueryMetrics.Operation operation = QueryMetrics.getInstance().begin("/" + commandName);
             try {
                 command.execute(event);
             } catch (Exception e) {
@@ -94,14 +97,15 @@ public class CommandManager {
                 
                 // If the interaction has not been acknowledged, reply with an error
                 if (!event.isAcknowledged()) {
-                    event.reply("An error occurred while executing this command. Please try again later.")
-                         .setEphemeral(true)
-                         .queue();
+                    CommandReplies.queue(event, event.reply("An error occurred while executing this command. Please try again later.")
+                         .setEphemeral(true));
                 }
+            } finally {
+                operation.close();
             }
         } else {
             logger.warn("Unknown command received: {}", commandName);
-            event.reply("Unknown command.").setEphemeral(true).queue();
+            CommandReplies.queue(event, event.reply("Unknown command.").setEphemeral(true));
         }
     }
     
@@ -113,6 +117,7 @@ public class CommandManager {
         ICommand command = commands.get(commandName);
         
         if (command != null) {
+            QueryMetrics.Operation operation = QueryMetrics.getInstance().begin("/" + commandName + " autocomplete");
             try {
                 List<Choice> choices = command.handleAutoComplete(event);
                 
@@ -126,6 +131,8 @@ public class CommandManager {
             } catch (Exception e) {
                 logger.error("Error handling autocomplete for command: {}", commandName, e);
                 event.replyChoices().queue(); // Reply with no choices on error
+            } finally {
+                operation.close();
             }
         } else {
             logger.warn("Autocomplete requested for unknown command: {}", commandName);
@@ -3,6 +3,7 @@ package com.deadside.bot.commands.admin;
 import com.deadside.bot.commands.ICommand;
 import com.deadside.bot.db.models.GameServer;
 import com.deadside.bot.db.repositories.GameServerRepository;
+import com.deadside.bot.delivery.CommandReplies;
 import com.deadside.bot.premium.PremiumManager;
 import com.deadside.bot.utils.EmbedUtils;
 import net.dv8tion.jda.api.Permission;
@@ -48,26 +49,23 @@ public class PremiumCommand implements ICommand {
         Guild guild = event.getGuild();
         
         if (guild == null || member == null) {
-            event.replyEmbeds(EmbedUtils.errorEmbed("Error", "This command can only be used in a server."))
-                .setEphemeral(true)
-                .queue();
+            CommandReplies.queue(event, event.replyEmbeds(EmbedUtils.errorEmbed("Error", "This command can only be used in a server."))
+                .setEphemeral(true));
             return;
         }
         
         // Check if user has admin permissions
         if (!member.hasPermission(Permission.ADMINISTRATOR)) {
-            event.replyEmbeds(EmbedUtils.errorEmbed("Permission Denied", 
+            CommandReplies.queue(event, event.replyEmbeds(EmbedUtils.errorEmbed("Permission Denied", 
                     "You need Administrator permission to manage premium features."))
-                .setEphemeral(true)
-                .queue();
+                .setEphemeral(true));
             return;
         }
         
         String subcommand = event.getSubcommandName();
         if (subcommand == null) {
-            event.replyEmbeds(EmbedUtils.errorEmbed("Error", "Invalid subcommand."))
-                .setEphemeral(true)
-                .queue();
+            CommandReplies.queue(event, event.replyEmbeds(EmbedUtils.errorEmbed("Error", "Invalid subcommand."))
+                .setEphemeral(true));
             return;
         }
         
@@ -75,35 +73,34 @@ public class PremiumCommand implements ICommand {
             case "status":
                 handleStatusSubcommand(event, guild);
                 break;
-                
+            
             case "enable":
                 handleEnableSubcommand(event, guild);
                 break;
-                
+            
             case "disable":
                 handleDisableSubcommand(event, guild);
                 break;
-                
+            
             case "verify":
                 handleVerifySubcommand(event, guild, member);
                 break;
-                
+            
             case "assign":
                 handleAssignSubcommand(event, guild);
                 break;
-                
+            
             case "unassign":
                 handleUnassignSubcommand(event, guild);
                 break;
-                
+            
             case "list":
                 handleListSubcommand(event, guild);
                 break;
-                
+            
             default:
-                event.replyEmbeds(EmbedUtils.errorEmbed("Error", "Unknown subcommand."))
-                    .setEphemeral(true)
-                    .queue();
+                CommandReplies.queue(event, event.replyEmbeds(EmbedUtils.errorEmbed("Error", "Unknown subcommand."))
+                    .setEphemeral(true));
                 break;
         }
     }
@@ -116,7 +113,7 @@ public class PremiumCommand implements ICommand {
         boolean hasPremium = premiumManager.hasPremium(guild.getIdLong());
         
         if (hasPremium) {
-            event.replyEmbeds(EmbedUtils.customEmbed(
+            CommandReplies.queue(event, event.replyEmbeds(EmbedUtils.customEmbed(
                     "✨ Premium Status",
                     "This server has **PREMIUM** features enabled!\n\n" + statusDetails + 
                     "\n\nPremium features include:\n" +
@@ -126,10 +123,9 @@ public class PremiumCommand implements ICommand {
                     "• Real-time event notifications\n" +
                     "• Server monitoring and detailed logs",
                     PREMIUM_COLOR
-                ))
-                .queue();
+                )));
         } else {
-            event.replyEmbeds(EmbedUtils.customEmbed(
+            CommandReplies.queue(event, event.replyEmbeds(EmbedUtils.customEmbed(
                     "Premium Status",
                     "This server is using the **FREE** tier.\n\n" + statusDetails + 
                     "\n\nOnly the basic killfeed feature is available. Upgrade to premium to unlock:\n" +
@@ -140,8 +136,7 @@ public class PremiumCommand implements ICommand {
                     "• Server monitoring and detailed logs\n\n" +
                     "Use `/premium verify` to check payment status or visit our website to purchase premium.",
                     new Color(189, 195, 199) // Light gray for free tier
-                ))
-                .queue();
+                )));
         }
     }
     
@@ -151,10 +146,9 @@ public class PremiumCommand implements ICommand {
     private void handleEnableSubcommand(SlashCommandInteractionEvent event, Guild guild) {
         // Only bot owner can manually enable premium
         if (!isOwner(event.getUser().getIdLong())) {
-            event.replyEmbeds(EmbedUtils.errorEmbed("Permission Denied", 
+            CommandReplies.queue(event, event.replyEmbeds(EmbedUtils.errorEmbed("Permission Denied", 
                     "Only the bot owner can manually enable premium. Please use `/premium verify` to activate your premium subscription."))
-                .setEphemeral(true)
-                .queue();
+                .setEphemeral(true));
             return;
         }
         
@@ -164,14 +158,13 @@ public class PremiumCommand implements ICommand {
         premiumManager.enablePremium(guild.getIdLong(), days);
         
         String durationText = days > 0 ? "for " + days + " days" : "with no expiration";
-        event.replyEmbeds(EmbedUtils.customEmbed(
+        CommandReplies.queue(event, event.replyEmbeds(EmbedUtils.customEmbed(
                 "✨ Premium Enabled",
                 "Premium features have been enabled for this server " + durationText + "!\n\n" +
                 "All premium features are now available.",
                 PREMIUM_COLOR
-            ))
-            .queue();
-            
+            )));
+        
         logger.info("Premium manually enabled for guild ID: {} by user ID: {} for {} days", 
                 guild.getId(), event.getUser().getId(), days);
     }
@@ -182,23 +175,21 @@ public class PremiumCommand implements ICommand {
     private void handleDisableSubcommand(SlashCommandInteractionEvent event, Guild guild) {
         // Only bot owner can manually disable premium
         if (!isOwner(event.getUser().getIdLong())) {
-            event.replyEmbeds(EmbedUtils.errorEmbed("Permission Denied", 
+            CommandReplies.queue(event, event.replyEmbeds(EmbedUtils.errorEmbed("Permission Denied", 
                     "Only the bot owner can manually disable premium."))
-                .setEphemeral(true)
-                .queue();
+                .setEphemeral(true));
             return;
         }
         
         premiumManager.disablePremium(guild.getIdLong());
         
-        event.replyEmbeds(EmbedUtils.customEmbed(
+        CommandReplies.queue(event, event.replyEmbeds(EmbedUtils.customEmbed(
                 "Premium Disabled",
                 "Premium features have been disabled for this server.\n\n" +
                 "Only the basic killfeed feature is now available.",
                 new Color(189, 195, 199) // Light gray
-            ))
-            .queue();
-            
+            )));
+        
         logger.info("Premium manually disabled for guild ID: {} by user ID: {}", 
                 guild.getId(), event.getUser().getId());
     }
@@ -207,32 +198,30 @@ public class PremiumCommand implements ICommand {
      * Handle the /premium verify subcommand
      */
     private void handleVerifySubcommand(SlashCommandInteractionEvent event, Guild guild, Member member) {
-        event.deferReply().queue(); // This might take a while, so defer the reply
+        CommandReplies.queue(event, event.deferReply()); // This might take a while, so defer the reply
         
         boolean verified = premiumManager.verifyTip4servPayment(guild.getIdLong(), member.getIdLong());
         
         if (verified) {
-            event.getHook().sendMessageEmbeds(EmbedUtils.customEmbed(
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(EmbedUtils.customEmbed(
                     "✨ Payment Verified",
                     "Your payment has been verified and premium features are now enabled for this server!\n\n" +
                     "All premium features are now available.",
                     PREMIUM_COLOR
-                ))
-                .queue();
-                
+                )));
+            
             logger.info("Premium payment verified for guild ID: {} by user ID: {}", 
                     guild.getId(), member.getId());
         } else {
-            event.getHook().sendMessageEmbeds(EmbedUtils.customEmbed(
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(EmbedUtils.customEmbed(
                     "Payment Verification",
                     "No active payment was found for this server.\n\n" +
                     "If you recently purchased premium, it may take a few minutes to process. " +
                     "If the problem persists, please check you used the correct Discord account during checkout " +
                     "or contact support with your purchase confirmation.",
                     new Color(189, 195, 199) // Light gray
-                ))
-                .queue();
-                
+                )));
+            
             logger.info("Premium payment verification failed for guild ID: {} by user ID: {}", 
                     guild.getId(), member.getId());
         }
@@ -245,28 +234,25 @@ public class PremiumCommand implements ICommand {
     private void handleAssignSubcommand(SlashCommandInteractionEvent event, Guild guild) {
         String serverName = event.getOption("server", OptionMapping::getAsString);
         if (serverName == null) {
-            event.replyEmbeds(EmbedUtils.errorEmbed("Error", "You must specify a server name."))
-                .setEphemeral(true)
-                .queue();
+            CommandReplies.queue(event, event.replyEmbeds(EmbedUtils.errorEmbed("Error", "You must specify a server name."))
+                .setEphemeral(true));
             return;
         }
         
         // Check if the server exists
         GameServer server = serverRepository.findByGuildIdAndName(guild.getIdLong(), serverName);
         if (server == null) {
-            event.replyEmbeds(EmbedUtils.errorEmbed("Error", 
+            CommandReplies.queue(event, event.replyEmbeds(EmbedUtils.errorEmbed("Error", 
                     "Server '" + serverName + "' does not exist. Use `/server add` to create it first."))
-                .setEphemeral(true)
-                .queue();
+                .setEphemeral(true));
             return;
         }
         
         // The server already has premium
         if (server.isPremium()) {
-            event.replyEmbeds(EmbedUtils.customEmbed("Already Premium", 
+            CommandReplies.queue(event, event.replyEmbeds(EmbedUtils.customEmbed("Already Premium", 
                     "The server '" + serverName + "' already has premium features enabled.",
-                    PREMIUM_COLOR))
-                .queue();
+                    PREMIUM_COLOR)));
             return;
         }
         
@@ -277,15 +263,14 @@ public class PremiumCommand implements ICommand {
         
         if (remainingSlots <= 0 && !premiumManager.hasGuildPremium(guild.getIdLong())) {
             // No slots available, suggest purchasing more
-            event.replyEmbeds(EmbedUtils.customEmbed("No Premium Slots Available", 
+            CommandReplies.queue(event, event.replyEmbeds(EmbedUtils.customEmbed("No Premium Slots Available", 
                     "You don't have any available premium slots. You currently have " + usedSlots + 
                     " premium servers out of " + availableSlots + " slots.\n\n" +
                     "You can:\n" +
                     "• Purchase more premium slots\n" +
                     "• Free up a slot by using `/premium unassign` on another server\n\n" +
                     "Use `/premium list` to see all your servers and their premium status.",
-                    new Color(189, 195, 199)))
-                .queue();
+                    new Color(189, 195, 199))));
             return;
         }
         
@@ -293,18 +278,16 @@ public class PremiumCommand implements ICommand {
         boolean success = premiumManager.enableServerPremium(guild.getIdLong(), serverName, 30); // Default to 30 days
         
         if (success) {
-            event.replyEmbeds(EmbedUtils.successEmbed("Premium Assigned", 
+            CommandReplies.queue(event, event.replyEmbeds(EmbedUtils.successEmbed("Premium Assigned", 
                     "✨ Successfully assigned premium to server '" + serverName + "'.\n\n" +
                     "This server now has access to all premium features!\n\n" +
-                    "You now have " + (usedSlots + 1) + " premium servers out of " + availableSlots + " available slots."))
-                .queue();
+                    "You now have " + (usedSlots + 1) + " premium servers out of " + availableSlots + " available slots.")));
             
             logger.info("Premium assigned to server '{}' in guild {}", serverName, guild.getId());
         } else {
-            event.replyEmbeds(EmbedUtils.errorEmbed("Error", 
+            CommandReplies.queue(event, event.replyEmbeds(EmbedUtils.errorEmbed("Error", 
                     "Failed to assign premium to server '" + serverName + "'. Please try again later."))
-                .setEphemeral(true)
-                .queue();
+                .setEphemeral(true));
         }
     }
     
@@ -315,38 +298,34 @@ public class PremiumCommand implements ICommand {
     private void handleUnassignSubcommand(SlashCommandInteractionEvent event, Guild guild) {
         String serverName = event.getOption("server", OptionMapping::getAsString);
         if (serverName == null) {
-            event.replyEmbeds(EmbedUtils.errorEmbed("Error", "You must specify a server name."))
-                .setEphemeral(true)
-                .queue();
+            CommandReplies.queue(event, event.replyEmbeds(EmbedUtils.errorEmbed("Error", "You must specify a server name."))
+                .setEphemeral(true));
             return;
         }
         
         // Check if the server exists
         GameServer server = serverRepository.findByGuildIdAndName(guild.getIdLong(), serverName);
         if (server == null) {
-            event.replyEmbeds(EmbedUtils.errorEmbed("Error", 
+            CommandReplies.queue(event, event.replyEmbeds(EmbedUtils.errorEmbed("Error", 
                     "Server '" + serverName + "' does not exist."))
-                .setEphemeral(true)
-                .queue();
+                .setEphemeral(true));
             return;
         }
         
         // The server doesn't have premium
         if (!server.isPremium()) {
-            event.replyEmbeds(EmbedUtils.customEmbed("Not Premium", 
+            CommandReplies.queue(event, event.replyEmbeds(EmbedUtils.customEmbed("Not Premium", 
                     "The server '" + serverName + "' doesn't have premium features enabled.",
-                    new Color(189, 195, 199)))
-                .queue();
+                    new Color(189, 195, 199))));
             return;
         }
         
         // Check if it's a guild-wide premium
         if (premiumManager.hasGuildPremium(guild.getIdLong())) {
-            event.replyEmbeds(EmbedUtils.customEmbed("Guild Premium", 
+            CommandReplies.queue(event, event.replyEmbeds(EmbedUtils.customEmbed("Guild Premium", 
                     "This guild has guild-wide premium, which affects all servers. " +
                     "You need to disable guild premium before managing individual servers.",
-                    PREMIUM_COLOR))
-                .queue();
+                    PREMIUM_COLOR)));
             return;
         }
         
@@ -358,19 +337,17 @@ public class PremiumCommand implements ICommand {
         boolean success = premiumManager.disableServerPremium(guild.getIdLong(), serverName);
         
         if (success) {
-            event.replyEmbeds(EmbedUtils.successEmbed("Premium Unassigned", 
+            CommandReplies.queue(event, event.replyEmbeds(EmbedUtils.successEmbed("Premium Unassigned", 
                     "Premium has been removed from server '" + serverName + "'.\n\n" +
                     "This server now has only basic (killfeed) features.\n\n" +
                     "You now have " + (usedSlots - 1) + " premium servers out of " + availableSlots + " available slots.\n\n" +
-                    "You can assign this free slot to another server with `/premium assign`."))
-                .queue();
+                    "You can assign this free slot to another server with `/premium assign`.")));
             
             logger.info("Premium unassigned from server '{}' in guild {}", serverName, guild.getId());
         } else {
-            event.replyEmbeds(EmbedUtils.errorEmbed("Error", 
+            CommandReplies.queue(event, event.replyEmbeds(EmbedUtils.errorEmbed("Error", 
                     "Failed to unassign premium from server '" + serverName + "'. Please try again later."))
-                .setEphemeral(true)
-                .queue();
+                .setEphemeral(true));
         }
     }
     
@@ -382,10 +359,9 @@ public class PremiumCommand implements ICommand {
         List<GameServer> servers = serverRepository.findAllByGuildId(guild.getIdLong());
         
         if (servers.isEmpty()) {
-            event.replyEmbeds(EmbedUtils.customEmbed("No Servers", 
+            CommandReplies.queue(event, event.replyEmbeds(EmbedUtils.customEmbed("No Servers", 
                     "You don't have any game servers configured yet. Use `/server add` to add your first server.",
-                    new Color(189, 195, 199)))
-                .queue();
+                    new Color(189, 195, 199))));
             return;
         }
         
@@ -452,9 +428,8 @@ public class PremiumCommand implements ICommand {
         message.append("• Use `/server add` to add a new game server\n");
         message.append("• Purchase more premium slots to enable premium features on more servers");
         
-        event.replyEmbeds(EmbedUtils.customEmbed("Server Premium Status", message.toString(), 
-                PREMIUM_COLOR))
-            .queue();
+        CommandReplies.queue(event, event.replyEmbeds(EmbedUtils.customEmbed("Server Premium Status", message.toString(), 
+                PREMIUM_COLOR)));
     }
     
     @Override
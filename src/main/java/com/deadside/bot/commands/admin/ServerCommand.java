@@ -6,11 +6,14 @@ import com.deadside.bot.db.models.GameServer;
 import com.deadside.bot.db.models.GuildConfig;
 import com.deadside.bot.db.repositories.GameServerRepository;
 import com.deadside.bot.db.repositories.GuildConfigRepository;
+import com.deadside.bot.db.repositories.KillRecordRepository;
+import com.deadside.bot.delivery.CommandReplies;
 import com.deadside.bot.sftp.SftpManager;
 import com.deadside.bot.utils.EmbedUtils;
 import net.dv8tion.jda.api.Permission;
 import net.dv8tion.jda.api.entities.Guild;
 import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.channel.ChannelType;
 import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
 import net.dv8tion.jda.api.events.interaction.command.CommandAutoCompleteInteractionEvent;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
@@ -70,26 +73,44 @@ public class ServerCommand implements ICommand {
                                 .addOption(OptionType.CHANNEL, "channel", "Channel for killfeed updates", true),
                         new SubcommandData("setlogs", "Set the server log channel for events")
                                 .addOptions(serverNameOption)
-                                .addOption(OptionType.CHANNEL, "channel", "Channel for server events and player join/leave logs", true)
+                                .addOption(OptionType.CHANNEL, "channel", "Channel for server events and player join/leave logs", true),
+                        new SubcommandData("digest", "Summarize log notifications into one message per window")
+                                .addOptions(serverNameOption)
+                                .addOptions(new OptionData(OptionType.STRING, "type", "Which notifications to summarize", true)
+                                        .addChoice("Player joins", GameServer.DIGEST_JOINS)
+                                        .addChoice("Player leaves", GameServer.DIGEST_LEAVES)
+                                        .addChoice("Player deaths", GameServer.DIGEST_DEATHS)
+                                        .addChoice("Server events", GameServer.DIGEST_EVENTS)
+                                        .addChoice("All of the above", "all"))
+                                .addOption(OptionType.BOOLEAN, "enabled", "Whether to summarize these notifications", true)
+                                .addOptions(new OptionData(OptionType.INTEGER, "window", "Digest window in seconds (default 60)", false)
+                                        .setRequiredRange(10, 3600)),
+                        new SubcommandData("statusboard", "Keep a live status message for a server instead of posting each event")
+                                .addOptions(serverNameOption)
+                                .addOption(OptionType.BOOLEAN, "enabled", "Whether to show the status board", true)
+                                .addOption(OptionType.CHANNEL, "channel", "Channel for the status board (defaults to this channel)", false),
+                        new SubcommandData("retention", "Set how many days of kill history this Discord server keeps")
+                                .addOptions(new OptionData(OptionType.INTEGER, "days", "Days to keep kill records (0 for the bot default)", true)
+                                        .setRequiredRange(0, 3650))
                 );
     }
     
     @Override
     public void execute(SlashCommandInteractionEvent event) {
         if (event.getGuild() == null) {
-            event.reply("This command can only be used in a server.").setEphemeral(true).queue();
+            CommandReplies.queue(event, event.reply("This command can only be used in a server.").setEphemeral(true));
             return;
         }
         
         Member member = event.getMember();
         if (member == null || !member.hasPermission(Permission.ADMINISTRATOR)) {
-            event.reply("You need Administrator permission to use this command.").setEphemeral(true).queue();
+            CommandReplies.queue(event, event.reply("You need Administrator permission to use this command.").setEphemeral(true));
             return;
         }
         
         String subCommand = event.getSubcommandName();
         if (subCommand == null) {
-            event.reply("Invalid command usage.").setEphemeral(true).queue();
+            CommandReplies.queue(event, event.reply("Invalid command usage.").setEphemeral(true));
             return;
         }
         
@@ -101,11 +122,14 @@ public class ServerCommand implements ICommand {
                 case "test" -> testServerConnection(event);
                 case "setkillfeed" -> setKillfeed(event);
                 case "setlogs" -> setLogs(event);
-                default -> event.reply("Unknown subcommand: " + subCommand).setEphemeral(true).queue();
+                case "digest" -> setDigest(event);
+                case "statusboard" -> setStatusBoard(event);
+                case "retention" -> setRetention(event);
+                default -> CommandReplies.queue(event, event.reply("Unknown subcommand: " + subCommand).setEphemeral(true));
             }
         } catch (Exception e) {
             logger.error("Error executing server command", e);
-            event.reply("An error occurred: " + e.getMessage()).setEphemeral(true).queue();
+            CommandReplies.queue(event, event.reply("An error occurred: " + e.getMessage()).setEphemeral(true));
         }
     }
     
@@ -122,7 +146,7 @@ public class ServerCommand implements ICommand {
         int gameServerId = event.getOption("gameserver", OptionMapping::getAsInt);
         
         // Acknowledge the command immediately
-        event.deferReply(true).queue();
+        CommandReplies.queue(event, event.deferReply(true));
         
         // Check if guild config exists, create if not
         GuildConfig guildConfig = guildConfigRepository.findByGuildId(guild.getIdLong());
@@ -133,7 +157,7 @@ public class ServerCommand implements ICommand {
         
         // Check if server already exists
         if (serverRepository.findByGuildIdAndName(guild.getIdLong(), name) != null) {
-            event.getHook().sendMessage("A server with this name already exists.").queue();
+            CommandReplies.queue(event, event.getHook().sendMessage("A server with this name already exists."));
             return;
         }
         
@@ -148,12 +172,12 @@ public class ServerCommand implements ICommand {
             
             // Allow one free server per guild (killfeed only)
             if (existingServerCount > 0 && premiumServerCount < existingServerCount) {
-                event.getHook().sendMessageEmbeds(
+                CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                     EmbedUtils.errorEmbed("Premium Required", 
                             "You need to purchase premium for this server before adding it.\n\n" +
                             "Each additional server beyond the first requires its own premium subscription.\n" +
                             "Please use the `/premium purchase` command to get premium for this server.")
-                ).queue();
+                ));
                 return;
             }
         }
@@ -173,7 +197,7 @@ public class ServerCommand implements ICommand {
         try {
             boolean connectionResult = sftpManager.testConnection(gameServer);
             if (!connectionResult) {
-                event.getHook().sendMessage("Failed to connect to the SFTP server. Please check your credentials and try again.").queue();
+                CommandReplies.queue(event, event.getHook().sendMessage("Failed to connect to the SFTP server. Please check your credentials and try again."));
                 return;
             }
             
@@ -222,14 +246,14 @@ public class ServerCommand implements ICommand {
             successMessage.append("The bot will look for logs in: ").append(gameServer.getLogDirectory()).append("\n");
             successMessage.append("And deathlogs in: ").append(gameServer.getDeathlogsDirectory());
             
-            event.getHook().sendMessageEmbeds(
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                     EmbedUtils.successEmbed("Server Added", successMessage.toString())
-            ).queue();
+            ));
             
             logger.info("Added new game server '{}' for guild {}", name, guild.getId());
         } catch (Exception e) {
             logger.error("Error adding server", e);
-            event.getHook().sendMessage("Error adding server: " + e.getMessage()).queue();
+            CommandReplies.queue(event, event.getHook().sendMessage("Error adding server: " + e.getMessage()));
         }
     }
     
@@ -243,7 +267,7 @@ public class ServerCommand implements ICommand {
         // Look up the server
         GameServer server = serverRepository.findByGuildIdAndName(guild.getIdLong(), serverName);
         if (server == null) {
-            event.reply("No server found with name: " + serverName).setEphemeral(true).queue();
+            CommandReplies.queue(event, event.reply("No server found with name: " + serverName).setEphemeral(true));
             return;
         }
         
@@ -251,7 +275,7 @@ public class ServerCommand implements ICommand {
         server.setKillfeedChannelId(channel.getIdLong());
         serverRepository.save(server);
         
-        event.reply("Killfeed channel for server **" + serverName + "** has been set to <#" + channel.getId() + ">.").queue();
+        CommandReplies.queue(event, event.reply("Killfeed channel for server **" + serverName + "** has been set to <#" + channel.getId() + ">."));
         logger.info("Updated killfeed channel for server '{}' to {}", serverName, channel.getId());
     }
     
@@ -264,14 +288,14 @@ public class ServerCommand implements ICommand {
         // Look up the server
         GameServer server = serverRepository.findByGuildIdAndName(guild.getIdLong(), name);
         if (server == null) {
-            event.reply("No server found with name: " + name).setEphemeral(true).queue();
+            CommandReplies.queue(event, event.reply("No server found with name: " + name).setEphemeral(true));
             return;
         }
         
         // Remove the server
         serverRepository.delete(server);
         
-        event.reply("Server **" + name + "** has been removed.").queue();
+        CommandReplies.queue(event, event.reply("Server **" + name + "** has been removed."));
         logger.info("Removed game server '{}' from guild {}", name, guild.getId());
     }
     
@@ -283,7 +307,7 @@ public class ServerCommand implements ICommand {
         List<GameServer> servers = serverRepository.findAllByGuildId(guild.getIdLong());
         
         if (servers.isEmpty()) {
-            event.reply("No game servers have been configured for this Discord server.").queue();
+            CommandReplies.queue(event, event.reply("No game servers have been configured for this Discord server."));
             return;
         }
         
@@ -295,9 +319,9 @@ public class ServerCommand implements ICommand {
             description.append("Killfeed Channel: <#").append(server.getKillfeedChannelId()).append(">\n\n");
         }
         
-        event.replyEmbeds(
+        CommandReplies.queue(event, event.replyEmbeds(
                 EmbedUtils.infoEmbed("Configured Game Servers", description.toString())
-        ).queue();
+        ));
     }
     
     private void testServerConnection(SlashCommandInteractionEvent event) {
@@ -307,12 +331,12 @@ public class ServerCommand implements ICommand {
         String name = event.getOption("name", OptionMapping::getAsString);
         
         // Acknowledge the command immediately
-        event.deferReply(true).queue();
+        CommandReplies.queue(event, event.deferReply(true));
         
         // Look up the server
         GameServer server = serverRepository.findByGuildIdAndName(guild.getIdLong(), name);
         if (server == null) {
-            event.getHook().sendMessage("No server found with name: " + name).queue();
+            CommandReplies.queue(event, event.getHook().sendMessage("No server found with name: " + name));
             return;
         }
         
@@ -321,23 +345,23 @@ public class ServerCommand implements ICommand {
             boolean result = sftpManager.testConnection(server);
             
             if (result) {
-                event.getHook().sendMessageEmbeds(
+                CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                         EmbedUtils.successEmbed("Connection Successful", 
                                 "Successfully connected to SFTP server **" + server.getName() + "**")
-                ).queue();
+                ));
             } else {
-                event.getHook().sendMessageEmbeds(
+                CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                         EmbedUtils.errorEmbed("Connection Failed", 
                                 "Failed to connect to SFTP server **" + server.getName() + "**\n" +
                                 "Please check your credentials and try again.")
-                ).queue();
+                ));
             }
         } catch (Exception e) {
             logger.error("Error testing connection to server", e);
-            event.getHook().sendMessageEmbeds(
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                     EmbedUtils.errorEmbed("Connection Error", 
                             "Error testing connection to server: " + e.getMessage())
-            ).queue();
+            ));
         }
     }
     
@@ -349,14 +373,14 @@ public class ServerCommand implements ICommand {
         TextChannel channel = event.getOption("channel", OptionMapping::getAsChannel).asTextChannel();
         
         if (channel == null) {
-            event.reply("Invalid channel specified.").setEphemeral(true).queue();
+            CommandReplies.queue(event, event.reply("Invalid channel specified.").setEphemeral(true));
             return;
         }
         
         // Look up the server
         GameServer server = serverRepository.findByGuildIdAndName(guild.getIdLong(), serverName);
         if (server == null) {
-            event.reply("No server found with name: " + serverName).setEphemeral(true).queue();
+            CommandReplies.queue(event, event.reply("No server found with name: " + serverName).setEphemeral(true));
             return;
         }
         
@@ -364,11 +388,119 @@ public class ServerCommand implements ICommand {
         server.setLogChannelId(channel.getIdLong());
         serverRepository.save(server);
         
-        event.reply("Server log channel for **" + serverName + "** has been set to <#" + channel.getId() + ">. " +
-                "You will now receive notifications for player joins/leaves and server events.").queue();
+        CommandReplies.queue(event, event.reply("Server log channel for **" + serverName + "** has been set to <#" + channel.getId() + ">. " +
+                "You will now receive notifications for player joins/leaves and server events."));
         logger.info("Updated log channel for server '{}' to {}", serverName, channel.getId());
     }
     
+    private void setDigest(SlashCommandInteractionEvent event) {
+        Guild guild = event.getGuild();
+        if (guild == null) return;
+        
+        String serverName = event.getOption("name", OptionMapping::getAsString);
+        String type = event.getOption("type", OptionMapping::getAsString);
+        boolean enabled = event.getOption("enabled", false, OptionMapping::getAsBoolean);
+        Integer window = event.getOption("window", OptionMapping::getAsInt);
+        
+        // Look up the server
+        GameServer server = serverRepository.findByGuildIdAndName(guild.getIdLong(), serverName);
+        if (server == null) {
+            CommandReplies.queue(event, event.reply("No server found with name: " + serverName).setEphemeral(true));
+            return;
+        }
+        
+        List<String> types = "all".equals(type)
+                ? List.of(GameServer.DIGEST_JOINS, GameServer.DIGEST_LEAVES, GameServer.DIGEST_DEATHS, GameServer.DIGEST_EVENTS)
+                : List.of(type);
+        for (String digestType : types) {
+            server.setDigestEnabled(digestType, enabled);
+        }
+        if (window != null) {
+            server.setDigestWindowSeconds(window);
+        }
+        serverRepository.save(server);
+        
+        String summary = server.getDigestEventTypes().isEmpty()
+                ? "All log notifications for **" + serverName + "** will be sent individually."
+                : "Log notifications for **" + serverName + "** summarized every " + server.getDigestWindowSeconds() +
+                        " seconds: " + String.join(", ", server.getDigestEventTypes()) + ". Kills are always sent individually.";
+        CommandReplies.queue(event, event.reply(summary));
+        logger.info("Updated digest settings for server '{}': {} (window {}s)", serverName,
+                server.getDigestEventTypes(), server.getDigestWindowSeconds());
+    }
+    
+    private void setStatusBoard(SlashCommandInteractionEvent event) {
+        Guild guild = event.getGuild();
+        if (guild == null) return;
+        
+        String serverName = event.getOption("name", OptionMapping::getAsString);
+        boolean enabled = event.getOption("enabled", false, OptionMapping::getAsBoolean);
+        
+        // Look up the server
+        GameServer server = serverRepository.findByGuildIdAndName(guild.getIdLong(), serverName);
+        if (server == null) {
+            CommandReplies.queue(event, event.reply("No server found with name: " + serverName).setEphemeral(true));
+            return;
+        }
+        
+        if (!enabled) {
+            server.setStatusBoardChannelId(0);
+            server.setStatusBoardMessageId(0);
+            serverRepository.save(server);
+            
+            CommandReplies.queue(event, event.reply("Status board for **" + serverName + "** has been disabled. Server events will be posted individually again."));
+            logger.info("Disabled status board for server '{}'", serverName);
+            return;
+        }
+        
+        OptionMapping channelOption = event.getOption("channel");
+        ChannelType channelType = channelOption != null ? channelOption.getChannelType() : event.getChannelType();
+        if (channelType != ChannelType.TEXT) {
+            CommandReplies.queue(event, event.reply("The status board can only be kept in a text channel.").setEphemeral(true));
+            return;
+        }
+        TextChannel channel = channelOption != null ? channelOption.getAsChannel().asTextChannel()
+                : event.getChannel().asTextChannel();
+        
+        // A new board message is posted and pinned on the next refresh
+        server.setStatusBoardChannelId(channel.getIdLong());
+        server.setStatusBoardMessageId(0);
+        serverRepository.save(server);
+        
+        CommandReplies.queue(event, event.reply("Status board for **" + serverName + "** will be kept in <#" + channel.getId() + ">. " +
+                "Airdrops, missions, helicopter crashes and trader events will be shown there instead of posted individually."));
+        logger.info("Updated status board channel for server '{}' to {}", serverName, channel.getId());
+    }
+    
+    private void setRetention(SlashCommandInteractionEvent event) {
+        Guild guild = event.getGuild();
+        if (guild == null) return;
+        
+        int days = event.getOption("days", 0, OptionMapping::getAsInt);
+        
+        GuildConfig guildConfig = guildConfigRepository.findByGuildId(guild.getIdLong());
+        if (guildConfig == null) {
+            guildConfig = new GuildConfig(guild.getIdLong());
+        }
+        
+        if (days == 0) {
+            guildConfig.getSettings().remove(KillRecordRepository.RETENTION_SETTING);
+        } else {
+            guildConfig.setSetting(KillRecordRepository.RETENTION_SETTING, String.valueOf(days));
+        }
+        guildConfigRepository.save(guildConfig);
+        
+        int defaultDays = Config.getInstance().getKillRecordsRetentionDays();
+        String defaultRetention = defaultDays > 0 ? defaultDays + " days" : "forever";
+        if (days == 0) {
+            CommandReplies.queue(event, event.reply("Kill records for this server will be kept for the default period (" + defaultRetention + ")."));
+        } else {
+            CommandReplies.queue(event, event.reply("Kill records for this server will be kept for " + days + " days. " +
+                    "Older records are removed once a day."));
+        }
+        logger.info("Updated kill record retention for guild {} to {} days", guild.getId(), days);
+    }
+    
     @Override
     public List<Choice> handleAutoComplete(CommandAutoCompleteInteractionEvent event) {
         Guild guild = event.getGuild();
@@ -2,10 +2,15 @@ package com.deadside.bot.commands.economy;
 
 import com.deadside.bot.commands.ICommand;
 import com.deadside.bot.config.Config;
+import com.deadside.bot.db.models.BalanceSnapshot;
+import com.deadside.bot.db.models.Currency;
+import com.deadside.bot.db.models.EconomyTransaction;
 import com.deadside.bot.db.models.LinkedPlayer;
 import com.deadside.bot.db.models.Player;
 import com.deadside.bot.db.repositories.LinkedPlayerRepository;
-import com.deadside.bot.db.repositories.PlayerRepository;
+import com.deadside.bot.delivery.CommandReplies;
+import com.deadside.bot.economy.EconomyLedger;
+import com.deadside.bot.economy.EconomyService;
 import com.deadside.bot.utils.EmbedUtils;
 import net.dv8tion.jda.api.entities.Member;
 import net.dv8tion.jda.api.entities.User;
@@ -30,8 +35,9 @@ import java.util.stream.Collectors;
  */
 public class AdminEconomyCommand implements ICommand {
     private static final Logger logger = LoggerFactory.getLogger(AdminEconomyCommand.class);
+    private static final int AUDIT_TRANSACTIONS = 10;
     private final LinkedPlayerRepository linkedPlayerRepository = new LinkedPlayerRepository();
-    private final PlayerRepository playerRepository = new PlayerRepository();
+    private final EconomyService economyService = new EconomyService();
     private final Config config = Config.getInstance();
     
     @Override
@@ -54,7 +60,7 @@ public class AdminEconomyCommand implements ICommand {
                 .setAutoComplete(true);
         OptionData workMinAmountOption = new OptionData(OptionType.INTEGER, "amount", "The new minimum work reward amount", true)
                 .setAutoComplete(true);
-                
+        
         return Commands.slash(getName(), "Admin commands for managing the economy system")
                 .addSubcommands(
                         new SubcommandData("give", "Give coins to a player")
@@ -72,6 +78,8 @@ public class AdminEconomyCommand implements ICommand {
                         new SubcommandData("reset", "Reset a player's economy data")
                                 .addOption(OptionType.USER, "user", "The user to reset economy data for", true)
                                 .addOption(OptionType.BOOLEAN, "confirm", "Confirm the reset", true),
+                        new SubcommandData("audit", "Compare a player's balance with the economy ledger")
+                                .addOption(OptionType.USER, "user", "The user to audit", true),
                         new SubcommandData("setdaily", "Set the daily reward amount for all users")
                                 .addOptions(dailyAmountOption),
                         new SubcommandData("setworkmax", "Set the maximum work reward amount")
@@ -85,17 +93,15 @@ public class AdminEconomyCommand implements ICommand {
     public void execute(SlashCommandInteractionEvent event) {
         // Check if user is owner or admin
         if (!isAdminOrOwner(event.getUser().getIdLong())) {
-            event.replyEmbeds(EmbedUtils.errorEmbed("Unauthorized", "You don't have permission to use admin economy commands."))
-                    .setEphemeral(true)
-                    .queue();
+            CommandReplies.queue(event, event.replyEmbeds(EmbedUtils.errorEmbed("Unauthorized", "You don't have permission to use admin economy commands."))
+                    .setEphemeral(true));
             return;
         }
         
         String subcommand = event.getSubcommandName();
         if (subcommand == null) {
-            event.replyEmbeds(EmbedUtils.errorEmbed("Error", "No subcommand provided."))
-                    .setEphemeral(true)
-                    .queue();
+            CommandReplies.queue(event, event.replyEmbeds(EmbedUtils.errorEmbed("Error", "No subcommand provided."))
+                    .setEphemeral(true));
             return;
         }
         
@@ -104,12 +110,13 @@ public class AdminEconomyCommand implements ICommand {
             case "take" -> handleTakeCommand(event);
             case "set" -> handleSetCommand(event);
             case "reset" -> handleResetCommand(event);
+            case "audit" -> handleAuditCommand(event);
             case "setdaily" -> handleSetDailyCommand(event);
             case "setworkmax" -> handleSetWorkMaxCommand(event);
             case "setworkmin" -> handleSetWorkMinCommand(event);
-            default -> event.replyEmbeds(EmbedUtils.errorEmbed("Error", "Unknown subcommand: " + subcommand))
-                    .setEphemeral(true)
-                    .queue();
+            default -> CommandReplies.queue(event,
+                    event.replyEmbeds(EmbedUtils.errorEmbed("Error", "Unknown subcommand: " + subcommand))
+                            .setEphemeral(true));
         }
     }
     
@@ -122,58 +129,58 @@ public class AdminEconomyCommand implements ICommand {
         String reason = event.getOption("reason", "No reason provided", OptionMapping::getAsString);
         
         if (targetUser == null) {
-            event.replyEmbeds(EmbedUtils.errorEmbed("Error", "No user specified."))
-                    .setEphemeral(true)
-                    .queue();
+            CommandReplies.queue(event, event.replyEmbeds(EmbedUtils.errorEmbed("Error", "No user specified."))
+                    .setEphemeral(true));
             return;
         }
         
         if (amount <= 0) {
-            event.replyEmbeds(EmbedUtils.errorEmbed("Error", "Amount must be greater than 0."))
-                    .setEphemeral(true)
-                    .queue();
+            CommandReplies.queue(event, event.replyEmbeds(EmbedUtils.errorEmbed("Error", "Amount must be greater than 0."))
+                    .setEphemeral(true));
             return;
         }
         
         // Find linked player
         LinkedPlayer linkedPlayer = linkedPlayerRepository.findByDiscordId(targetUser.getIdLong());
         if (linkedPlayer == null) {
-            event.replyEmbeds(EmbedUtils.errorEmbed("Player Not Linked", 
+            CommandReplies.queue(event, event.replyEmbeds(EmbedUtils.errorEmbed("Player Not Linked", 
                     targetUser.getAsMention() + " doesn't have a linked Deadside account."))
-                    .setEphemeral(true)
-                    .queue();
+                    .setEphemeral(true));
             return;
         }
         
         // Find player
-        Player player = playerRepository.findByPlayerId(linkedPlayer.getMainPlayerId());
+        Player player = economyService.getPlayer(linkedPlayer.getMainPlayerId());
         if (player == null) {
-            event.replyEmbeds(EmbedUtils.errorEmbed("Player Not Found", 
+            CommandReplies.queue(event, event.replyEmbeds(EmbedUtils.errorEmbed("Player Not Found", 
                     "Unable to find player data for " + targetUser.getAsMention() + "."))
-                    .setEphemeral(true)
-                    .queue();
+                    .setEphemeral(true));
             return;
         }
         
         // Add coins
         long oldBalance = player.getCurrency().getCoins();
-        player.getCurrency().addCoins(amount);
-        
-        // Save player
-        playerRepository.save(player);
+        Currency balance = economyService.credit(player.getPlayerId(), amount, EconomyTransaction.Type.ADMIN,
+                event.getUser().getId() + ": " + reason);
+        if (balance == null) {
+            CommandReplies.queue(event, event.replyEmbeds(EmbedUtils.errorEmbed("Transaction Failed",
+                    "Failed to give coins to " + targetUser.getAsMention() + ". Please try again later."))
+                    .setEphemeral(true));
+            return;
+        }
+        player.setCurrency(balance);
         
         // Log transaction
         logger.info("Admin {} gave {} coins to {} ({}). Reason: {}", 
                 event.getUser().getId(), amount, targetUser.getId(), player.getName(), reason);
         
         // Reply with success message
-        event.replyEmbeds(EmbedUtils.successEmbed("Coins Added",
+        CommandReplies.queue(event, event.replyEmbeds(EmbedUtils.successEmbed("Coins Added",
                 String.format("Successfully gave **%,d coins** to %s.\n\n" +
                         "Old balance: **%,d coins**\n" +
                         "New balance: **%,d coins**\n\n" +
                         "Reason: %s",
-                        amount, targetUser.getAsMention(), oldBalance, player.getCurrency().getCoins(), reason)))
-                .queue();
+                        amount, targetUser.getAsMention(), oldBalance, player.getCurrency().getCoins(), reason))));
     }
     
     /**
@@ -185,68 +192,67 @@ public class AdminEconomyCommand implements ICommand {
         String reason = event.getOption("reason", "No reason provided", OptionMapping::getAsString);
         
         if (targetUser == null) {
-            event.replyEmbeds(EmbedUtils.errorEmbed("Error", "No user specified."))
-                    .setEphemeral(true)
-                    .queue();
+            CommandReplies.queue(event, event.replyEmbeds(EmbedUtils.errorEmbed("Error", "No user specified."))
+                    .setEphemeral(true));
             return;
         }
         
         if (amount <= 0) {
-            event.replyEmbeds(EmbedUtils.errorEmbed("Error", "Amount must be greater than 0."))
-                    .setEphemeral(true)
-                    .queue();
+            CommandReplies.queue(event, event.replyEmbeds(EmbedUtils.errorEmbed("Error", "Amount must be greater than 0."))
+                    .setEphemeral(true));
             return;
         }
         
         // Find linked player
         LinkedPlayer linkedPlayer = linkedPlayerRepository.findByDiscordId(targetUser.getIdLong());
         if (linkedPlayer == null) {
-            event.replyEmbeds(EmbedUtils.errorEmbed("Player Not Linked", 
+            CommandReplies.queue(event, event.replyEmbeds(EmbedUtils.errorEmbed("Player Not Linked", 
                     targetUser.getAsMention() + " doesn't have a linked Deadside account."))
-                    .setEphemeral(true)
-                    .queue();
+                    .setEphemeral(true));
             return;
         }
         
         // Find player
-        Player player = playerRepository.findByPlayerId(linkedPlayer.getMainPlayerId());
+        Player player = economyService.getPlayer(linkedPlayer.getMainPlayerId());
         if (player == null) {
-            event.replyEmbeds(EmbedUtils.errorEmbed("Player Not Found", 
+            CommandReplies.queue(event, event.replyEmbeds(EmbedUtils.errorEmbed("Player Not Found", 
                     "Unable to find player data for " + targetUser.getAsMention() + "."))
-                    .setEphemeral(true)
-                    .queue();
+                    .setEphemeral(true));
             return;
         }
         
         // Check if player has enough coins
         long currentBalance = player.getCurrency().getCoins();
         if (currentBalance < amount) {
-            event.replyEmbeds(EmbedUtils.errorEmbed("Insufficient Funds", 
+            CommandReplies.queue(event, event.replyEmbeds(EmbedUtils.errorEmbed("Insufficient Funds", 
                     String.format("%s only has %,d coins, cannot take %,d.", 
                             targetUser.getAsMention(), currentBalance, amount)))
-                    .setEphemeral(true)
-                    .queue();
+                    .setEphemeral(true));
             return;
         }
         
-        // Remove coins
-        player.getCurrency().removeCoins(amount);
-        
-        // Save player
-        playerRepository.save(player);
+        // Remove coins, the balance may have changed since it was checked
+        Currency balance = economyService.debit(player.getPlayerId(), amount, EconomyTransaction.Type.ADMIN,
+                event.getUser().getId() + ": " + reason);
+        if (balance == null) {
+            CommandReplies.queue(event, event.replyEmbeds(EmbedUtils.errorEmbed("Insufficient Funds", 
+                    targetUser.getAsMention() + " no longer has enough coins."))
+                    .setEphemeral(true));
+            return;
+        }
+        player.setCurrency(balance);
         
         // Log transaction
         logger.info("Admin {} took {} coins from {} ({}). Reason: {}", 
                 event.getUser().getId(), amount, targetUser.getId(), player.getName(), reason);
         
         // Reply with success message
-        event.replyEmbeds(EmbedUtils.successEmbed("Coins Removed",
+        CommandReplies.queue(event, event.replyEmbeds(EmbedUtils.successEmbed("Coins Removed",
                 String.format("Successfully took **%,d coins** from %s.\n\n" +
                         "Old balance: **%,d coins**\n" +
                         "New balance: **%,d coins**\n\n" +
                         "Reason: %s",
-                        amount, targetUser.getAsMention(), currentBalance, player.getCurrency().getCoins(), reason)))
-                .queue();
+                        amount, targetUser.getAsMention(), currentBalance, player.getCurrency().getCoins(), reason))));
     }
     
     /**
@@ -258,36 +264,32 @@ public class AdminEconomyCommand implements ICommand {
         String reason = event.getOption("reason", "No reason provided", OptionMapping::getAsString);
         
         if (targetUser == null) {
-            event.replyEmbeds(EmbedUtils.errorEmbed("Error", "No user specified."))
-                    .setEphemeral(true)
-                    .queue();
+            CommandReplies.queue(event, event.replyEmbeds(EmbedUtils.errorEmbed("Error", "No user specified."))
+                    .setEphemeral(true));
             return;
         }
         
         if (amount < 0) {
-            event.replyEmbeds(EmbedUtils.errorEmbed("Error", "Amount cannot be negative."))
-                    .setEphemeral(true)
-                    .queue();
+            CommandReplies.queue(event, event.replyEmbeds(EmbedUtils.errorEmbed("Error", "Amount cannot be negative."))
+                    .setEphemeral(true));
             return;
         }
         
         // Find linked player
         LinkedPlayer linkedPlayer = linkedPlayerRepository.findByDiscordId(targetUser.getIdLong());
         if (linkedPlayer == null) {
-            event.replyEmbeds(EmbedUtils.errorEmbed("Player Not Linked", 
+            CommandReplies.queue(event, event.replyEmbeds(EmbedUtils.errorEmbed("Player Not Linked", 
                     targetUser.getAsMention() + " doesn't have a linked Deadside account."))
-                    .setEphemeral(true)
-                    .queue();
+                    .setEphemeral(true));
             return;
         }
         
         // Find player
-        Player player = playerRepository.findByPlayerId(linkedPlayer.getMainPlayerId());
+        Player player = economyService.getPlayer(linkedPlayer.getMainPlayerId());
         if (player == null) {
-            event.replyEmbeds(EmbedUtils.errorEmbed("Player Not Found", 
+            CommandReplies.queue(event, event.replyEmbeds(EmbedUtils.errorEmbed("Player Not Found", 
                     "Unable to find player data for " + targetUser.getAsMention() + "."))
-                    .setEphemeral(true)
-                    .queue();
+                    .setEphemeral(true));
             return;
         }
         
@@ -295,23 +297,27 @@ public class AdminEconomyCommand implements ICommand {
         long oldBalance = player.getCurrency().getCoins();
         
         // Set coins
-        player.getCurrency().setCoins(amount);
-        
-        // Save player
-        playerRepository.save(player);
+        Currency balance = economyService.setCoins(player.getPlayerId(), amount,
+                event.getUser().getId() + ": " + reason);
+        if (balance == null) {
+            CommandReplies.queue(event, event.replyEmbeds(EmbedUtils.errorEmbed("Transaction Failed",
+                    "Failed to set the balance of " + targetUser.getAsMention() + ". Please try again later."))
+                    .setEphemeral(true));
+            return;
+        }
+        player.setCurrency(balance);
         
         // Log transaction
         logger.info("Admin {} set {} coins for {} ({}). Reason: {}", 
                 event.getUser().getId(), amount, targetUser.getId(), player.getName(), reason);
         
         // Reply with success message
-        event.replyEmbeds(EmbedUtils.successEmbed("Balance Set",
+        CommandReplies.queue(event, event.replyEmbeds(EmbedUtils.successEmbed("Balance Set",
                 String.format("Successfully set %s's balance to **%,d coins**.\n\n" +
                         "Old balance: **%,d coins**\n" +
                         "New balance: **%,d coins**\n\n" +
                         "Reason: %s",
-                        targetUser.getAsMention(), amount, oldBalance, player.getCurrency().getCoins(), reason)))
-                .queue();
+                        targetUser.getAsMention(), amount, oldBalance, player.getCurrency().getCoins(), reason))));
     }
     
     /**
@@ -322,55 +328,117 @@ public class AdminEconomyCommand implements ICommand {
         boolean confirm = event.getOption("confirm", false, OptionMapping::getAsBoolean);
         
         if (targetUser == null) {
-            event.replyEmbeds(EmbedUtils.errorEmbed("Error", "No user specified."))
-                    .setEphemeral(true)
-                    .queue();
+            CommandReplies.queue(event, event.replyEmbeds(EmbedUtils.errorEmbed("Error", "No user specified."))
+                    .setEphemeral(true));
             return;
         }
         
         if (!confirm) {
-            event.replyEmbeds(EmbedUtils.warningEmbed("Confirmation Required", 
+            CommandReplies.queue(event, event.replyEmbeds(EmbedUtils.warningEmbed("Confirmation Required", 
                     "You must confirm this action by setting the confirm option to true. " +
                     "This will reset all economy data for " + targetUser.getAsMention() + "."))
-                    .setEphemeral(true)
-                    .queue();
+                    .setEphemeral(true));
             return;
         }
         
         // Find linked player
         LinkedPlayer linkedPlayer = linkedPlayerRepository.findByDiscordId(targetUser.getIdLong());
         if (linkedPlayer == null) {
-            event.replyEmbeds(EmbedUtils.errorEmbed("Player Not Linked", 
+            CommandReplies.queue(event, event.replyEmbeds(EmbedUtils.errorEmbed("Player Not Linked", 
                     targetUser.getAsMention() + " doesn't have a linked Deadside account."))
-                    .setEphemeral(true)
-                    .queue();
+                    .setEphemeral(true));
             return;
         }
         
         // Find player
-        Player player = playerRepository.findByPlayerId(linkedPlayer.getMainPlayerId());
+        Player player = economyService.getPlayer(linkedPlayer.getMainPlayerId());
         if (player == null) {
-            event.replyEmbeds(EmbedUtils.errorEmbed("Player Not Found", 
+            CommandReplies.queue(event, event.replyEmbeds(EmbedUtils.errorEmbed("Player Not Found", 
                     "Unable to find player data for " + targetUser.getAsMention() + "."))
-                    .setEphemeral(true)
-                    .queue();
+                    .setEphemeral(true));
             return;
         }
         
         // Reset economy data
-        player.setCurrency(new com.deadside.bot.db.models.Currency());
-        
-        // Save player
-        playerRepository.save(player);
+        if (economyService.resetBalance(player.getPlayerId(), event.getUser().getId() + ": reset") == null) {
+            CommandReplies.queue(event, event.replyEmbeds(EmbedUtils.errorEmbed("Reset Failed",
+                    "Failed to reset economy data for " + targetUser.getAsMention() + ". Please try again later."))
+                    .setEphemeral(true));
+            return;
+        }
         
         // Log action
         logger.info("Admin {} reset economy data for {} ({})", 
                 event.getUser().getId(), targetUser.getId(), player.getName());
         
         // Reply with success message
-        event.replyEmbeds(EmbedUtils.successEmbed("Economy Data Reset",
-                "Successfully reset all economy data for " + targetUser.getAsMention() + "."))
-                .queue();
+        CommandReplies.queue(event, event.replyEmbeds(EmbedUtils.successEmbed("Economy Data Reset",
+                "Successfully reset all economy data for " + targetUser.getAsMention() + ".")));
+    }
+    
+    /**
+     * Handle audit command - compare a player's balance with the ledger and list recent transactions
+     */
+    private void handleAuditCommand(SlashCommandInteractionEvent event) {
+        User targetUser = event.getOption("user", OptionMapping::getAsUser);
+        
+        if (targetUser == null) {
+            CommandReplies.queue(event, event.replyEmbeds(EmbedUtils.errorEmbed("Error", "No user specified."))
+                    .setEphemeral(true));
+            return;
+        }
+        
+        // Find linked player
+        LinkedPlayer linkedPlayer = linkedPlayerRepository.findByDiscordId(targetUser.getIdLong());
+        if (linkedPlayer == null) {
+            CommandReplies.queue(event, event.replyEmbeds(EmbedUtils.errorEmbed("Player Not Linked", 
+                    targetUser.getAsMention() + " doesn't have a linked Deadside account."))
+                    .setEphemeral(true));
+            return;
+        }
+        
+        // Find player
+        Player player = economyService.getPlayer(linkedPlayer.getMainPlayerId());
+        if (player == null) {
+            CommandReplies.queue(event, event.replyEmbeds(EmbedUtils.errorEmbed("Player Not Found", 
+                    "Unable to find player data for " + targetUser.getAsMention() + "."))
+                    .setEphemeral(true));
+            return;
+        }
+        
+        CommandReplies.queue(event, event.deferReply(true));
+        
+        EconomyLedger ledger = EconomyLedger.getInstance();
+        BalanceSnapshot ledgerBalance = ledger.getBalance(player.getPlayerId());
+        List<EconomyTransaction> recent = ledger.getRecentTransactions(player.getPlayerId(), AUDIT_TRANSACTIONS);
+        
+        Currency currency = player.getCurrency();
+        boolean matches = ledgerBalance.getCoins() == currency.getCoins()
+                && ledgerBalance.getBankCoins() == currency.getBankCoins();
+        
+        StringBuilder description = new StringBuilder();
+        description.append(String.format("**Balance**: %,d wallet / %,d bank\n", currency.getCoins(), currency.getBankCoins()));
+        description.append(String.format("**Ledger**: %,d wallet / %,d bank\n", ledgerBalance.getCoins(), ledgerBalance.getBankCoins()));
+        description.append(matches ? "✅ The ledger matches the balance\n\n" : "⚠️ The ledger does not match the balance\n\n");
+        
+        description.append("**Recent transactions**\n");
+        if (recent.isEmpty()) {
+            description.append("None recorded");
+        }
+        for (EconomyTransaction transaction : recent) {
+            description.append(String.format("<t:%d:R> `%s` %+,d wallet", transaction.getTimestamp() / 1000,
+                    transaction.getType(), transaction.getCoins()));
+            if (transaction.getBankCoins() != 0) {
+                description.append(String.format(", %+,d bank", transaction.getBankCoins()));
+            }
+            if (transaction.getSource() != null) {
+                description.append(" (").append(transaction.getSource()).append(")");
+            }
+            description.append("\n");
+        }
+        
+        CommandReplies.queue(event, event.getHook().sendMessageEmbeds(EmbedUtils.economyEmbed("Economy Audit: " + player.getName(),
+                description.toString())));
     }
     
     /**
@@ -380,9 +448,8 @@ public class AdminEconomyCommand implements ICommand {
         long amount = event.getOption("amount", 0L, OptionMapping::getAsLong);
         
         if (amount <= 0) {
-            event.replyEmbeds(EmbedUtils.errorEmbed("Error", "Daily reward amount must be greater than 0."))
-                    .setEphemeral(true)
-                    .queue();
+            CommandReplies.queue(event, event.replyEmbeds(EmbedUtils.errorEmbed("Error", "Daily reward amount must be greater than 0."))
+                    .setEphemeral(true));
             return;
         }
         
@@ -394,9 +461,8 @@ public class AdminEconomyCommand implements ICommand {
                 event.getUser().getId(), amount);
         
         // Reply with success message
-        event.replyEmbeds(EmbedUtils.successEmbed("Daily Reward Updated",
-                String.format("Successfully set the daily reward amount to **%,d coins** for all users.", amount)))
-                .queue();
+        CommandReplies.queue(event, event.replyEmbeds(EmbedUtils.successEmbed("Daily Reward Updated",
+                String.format("Successfully set the daily reward amount to **%,d coins** for all users.", amount))));
     }
     
     /**
@@ -406,20 +472,18 @@ public class AdminEconomyCommand implements ICommand {
         long amount = event.getOption("amount", 0L, OptionMapping::getAsLong);
         
         if (amount <= 0) {
-            event.replyEmbeds(EmbedUtils.errorEmbed("Error", "Maximum work reward amount must be greater than 0."))
-                    .setEphemeral(true)
-                    .queue();
+            CommandReplies.queue(event, event.replyEmbeds(EmbedUtils.errorEmbed("Error", "Maximum work reward amount must be greater than 0."))
+                    .setEphemeral(true));
             return;
         }
         
         // Get the current min work amount
         long minWorkAmount = config.getWorkMinAmount();
         if (amount < minWorkAmount) {
-            event.replyEmbeds(EmbedUtils.errorEmbed("Error", 
+            CommandReplies.queue(event, event.replyEmbeds(EmbedUtils.errorEmbed("Error", 
                     String.format("Maximum work reward amount (%,d) cannot be less than minimum work reward amount (%,d).", 
                             amount, minWorkAmount)))
-                    .setEphemeral(true)
-                    .queue();
+                    .setEphemeral(true));
             return;
         }
         
@@ -431,9 +495,8 @@ public class AdminEconomyCommand implements ICommand {
                 event.getUser().getId(), amount);
         
         // Reply with success message
-        event.replyEmbeds(EmbedUtils.successEmbed("Work Reward Updated",
-                String.format("Successfully set the maximum work reward amount to **%,d coins**.", amount)))
-                .queue();
+        CommandReplies.queue(event, event.replyEmbeds(EmbedUtils.successEmbed("Work Reward Updated",
+                String.format("Successfully set the maximum work reward amount to **%,d coins**.", amount))));
     }
     
     /**
@@ -443,20 +506,18 @@ public class AdminEconomyCommand implements ICommand {
         long amount = event.getOption("amount", 0L, OptionMapping::getAsLong);
         
         if (amount <= 0) {
-            event.replyEmbeds(EmbedUtils.errorEmbed("Error", "Minimum work reward amount must be greater than 0."))
-                    .setEphemeral(true)
-                    .queue();
+            CommandReplies.queue(event, event.replyEmbeds(EmbedUtils.errorEmbed("Error", "Minimum work reward amount must be greater than 0."))
+                    .setEphemeral(true));
             return;
         }
         
         // Get the current max work amount
         long maxWorkAmount = config.getWorkMaxAmount();
         if (amount > maxWorkAmount) {
-            event.replyEmbeds(EmbedUtils.errorEmbed("Error", 
+            CommandReplies.queue(event, event.replyEmbeds(EmbedUtils.errorEmbed("Error", 
                     String.format("Minimum work reward amount (%,d) cannot be greater than maximum work reward amount (%,d).", 
                             amount, maxWorkAmount)))
-                    .setEphemeral(true)
-                    .queue();
+                    .setEphemeral(true));
             return;
         }
         
@@ -468,9 +529,8 @@ public class AdminEconomyCommand implements ICommand {
                 event.getUser().getId(), amount);
         
         // Reply with success message
-        event.replyEmbeds(EmbedUtils.successEmbed("Work Reward Updated",
-                String.format("Successfully set the minimum work reward amount to **%,d coins**.", amount)))
-                .queue();
+        CommandReplies.queue(event, event.replyEmbeds(EmbedUtils.successEmbed("Work Reward Updated",
+                String.format("Successfully set the minimum work reward amount to **%,d coins**.", amount))));
     }
     
     /**
@@ -536,7 +596,7 @@ public class AdminEconomyCommand implements ICommand {
             LinkedPlayer linkedPlayer = linkedPlayerRepository.findByDiscordId(targetUser.getIdLong());
             
             if (linkedPlayer != null) {
-                Player player = playerRepository.findByPlayerId(linkedPlayer.getMainPlayerId());
+                Player player = economyService.getPlayer(linkedPlayer.getMainPlayerId());
                 if (player != null) {
                     // Add balance-based suggestions
                     long balance = player.getCurrency().getCoins();
@@ -575,7 +635,7 @@ public class AdminEconomyCommand implements ICommand {
             LinkedPlayer linkedPlayer = linkedPlayerRepository.findByDiscordId(targetUser.getIdLong());
             
             if (linkedPlayer != null) {
-                Player player = playerRepository.findByPlayerId(linkedPlayer.getMainPlayerId());
+                Player player = economyService.getPlayer(linkedPlayer.getMainPlayerId());
                 if (player != null) {
                     // Add balance-based suggestions
                     long balance = player.getCurrency().getCoins();
@@ -623,7 +683,7 @@ public class AdminEconomyCommand implements ICommand {
             LinkedPlayer linkedPlayer = linkedPlayerRepository.findByDiscordId(targetUser.getIdLong());
             
             if (linkedPlayer != null) {
-                Player player = playerRepository.findByPlayerId(linkedPlayer.getMainPlayerId());
+                Player player = economyService.getPlayer(linkedPlayer.getMainPlayerId());
                 if (player != null) {
                     // Add balance-based suggestions
                     long balance = player.getCurrency().getCoins();
@@ -1,10 +1,10 @@
 package com.deadside.bot.commands.economy;
 
 import com.deadside.bot.commands.ICommand;
-import com.deadside.bot.db.models.LinkedPlayer;
 import com.deadside.bot.db.models.Player;
 import com.deadside.bot.db.repositories.LinkedPlayerRepository;
-import com.deadside.bot.db.repositories.PlayerRepository;
+import com.deadside.bot.delivery.CommandReplies;
+import com.deadside.bot.economy.EconomyService;
 import com.deadside.bot.premium.FeatureGate;
 import com.deadside.bot.utils.EmbedUtils;
 import net.dv8tion.jda.api.entities.User;
@@ -24,7 +24,7 @@ import java.awt.Color;
 public class BalanceCommand implements ICommand {
     private static final Logger logger = LoggerFactory.getLogger(BalanceCommand.class);
     private final LinkedPlayerRepository linkedPlayerRepository = new LinkedPlayerRepository();
-    private final PlayerRepository playerRepository = new PlayerRepository();
+    private final EconomyService economyService = new EconomyService();
     
     @Override
     public String getName() {
@@ -47,50 +47,56 @@ public class BalanceCommand implements ICommand {
             }
             
             // Defer reply to give us time to process
-            event.deferReply().queue();
+            CommandReplies.queue(event, event.deferReply());
             
             // Check if we're looking up another user or self
             User targetUser = event.getOption("user", event.getUser(), OptionMapping::getAsUser);
             boolean isSelf = targetUser.getId().equals(event.getUser().getId());
             
-            // Get linked player information
-            LinkedPlayer linkedPlayer = linkedPlayerRepository.findByDiscordId(targetUser.getIdLong());
-            
-            if (linkedPlayer == null) {
-                // Not linked
-                if (isSelf) {
-                    event.getHook().sendMessageEmbeds(
-                            EmbedUtils.errorEmbed("Not Linked", 
-                                    "You don't have a linked Deadside account. Use `/link` to connect your Discord and Deadside accounts.")
-                    ).queue();
-                } else {
-                    event.getHook().sendMessageEmbeds(
-                            EmbedUtils.errorEmbed("Not Linked", 
-                                    targetUser.getName() + " doesn't have a linked Deadside account.")
-                    ).queue();
+            // Get linked player information without blocking the event thread
+            linkedPlayerRepository.findByDiscordIdAsync(targetUser.getIdLong()).thenAccept(linkedPlayer -> {
+                if (linkedPlayer == null) {
+                    // Not linked
+                    if (isSelf) {
+                        CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
+                                EmbedUtils.errorEmbed("Not Linked", 
+                                        "You don't have a linked Deadside account. Use `/link` to connect your Discord and Deadside accounts.")
+                        ));
+                    } else {
+                        CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
+                                EmbedUtils.errorEmbed("Not Linked", 
+                                        targetUser.getName() + " doesn't have a linked Deadside account.")
+                        ));
+                    }
+                    return;
                 }
-                return;
-            }
-            
-            // Get player stats
-            Player player = playerRepository.findByPlayerId(linkedPlayer.getMainPlayerId());
-            
-            if (player == null) {
-                event.getHook().sendMessageEmbeds(
-                        EmbedUtils.errorEmbed("Player Not Found", 
-                                "Unable to find player data. This could be because the player hasn't been active yet.")
-                ).queue();
-                return;
-            }
-            
-            // Display balance information
-            displayBalance(event, player, targetUser, isSelf);
+                
+                // Get player stats
+                Player player = economyService.getPlayer(linkedPlayer.getMainPlayerId());
+                
+                if (player == null) {
+                    CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
+                            EmbedUtils.errorEmbed("Player Not Found", 
+                                    "Unable to find player data. This could be because the player hasn't been active yet.")
+                    ));
+                    return;
+                }
+                
+                // Display balance information
+                displayBalance(event, player, targetUser, isSelf);
+            }).exceptionally(e -> {
+                logger.error("Error executing balance command", e);
+                CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
+                        EmbedUtils.errorEmbed("Error", "An error occurred while retrieving balance information.")
+                ));
+                return null;
+            });
             
         } catch (Exception e) {
             logger.error("Error executing balance command", e);
-            event.getHook().sendMessageEmbeds(
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                     EmbedUtils.errorEmbed("Error", "An error occurred while retrieving balance information.")
-            ).queue();
+            ));
         }
     }
     
@@ -128,9 +134,9 @@ public class BalanceCommand implements ICommand {
         }
         
         // Send the embed
-        event.getHook().sendMessageEmbeds(
+        CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                 EmbedUtils.customEmbed(title, description.toString(), Color.GREEN)
-        ).queue();
+        ));
     }
     
     /**
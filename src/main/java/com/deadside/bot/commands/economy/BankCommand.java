@@ -1,10 +1,12 @@
 package com.deadside.bot.commands.economy;
 
 import com.deadside.bot.commands.ICommand;
+import com.deadside.bot.db.models.Currency;
 import com.deadside.bot.db.models.LinkedPlayer;
 import com.deadside.bot.db.models.Player;
 import com.deadside.bot.db.repositories.LinkedPlayerRepository;
-import com.deadside.bot.db.repositories.PlayerRepository;
+import com.deadside.bot.delivery.CommandReplies;
+import com.deadside.bot.economy.EconomyService;
 import com.deadside.bot.utils.EmbedUtils;
 import net.dv8tion.jda.api.events.interaction.command.CommandAutoCompleteInteractionEvent;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
@@ -29,7 +31,7 @@ import java.util.stream.Collectors;
 public class BankCommand implements ICommand {
     private static final Logger logger = LoggerFactory.getLogger(BankCommand.class);
     private final LinkedPlayerRepository linkedPlayerRepository = new LinkedPlayerRepository();
-    private final PlayerRepository playerRepository = new PlayerRepository();
+    private final EconomyService economyService = new EconomyService();
     
     @Override
     public String getName() {
@@ -60,33 +62,33 @@ public class BankCommand implements ICommand {
         try {
             String subCommand = event.getSubcommandName();
             if (subCommand == null) {
-                event.reply("Invalid command usage.").setEphemeral(true).queue();
+                CommandReplies.queue(event, event.reply("Invalid command usage.").setEphemeral(true));
                 return;
             }
             
             // Defer reply to give us time to process
-            event.deferReply().queue();
+            CommandReplies.queue(event, event.deferReply());
             
             // Get linked player information
             long userId = event.getUser().getIdLong();
             LinkedPlayer linkedPlayer = linkedPlayerRepository.findByDiscordId(userId);
             
             if (linkedPlayer == null) {
-                event.getHook().sendMessageEmbeds(
+                CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                         EmbedUtils.errorEmbed("Not Linked", 
                                 "You don't have a linked Deadside account. Use `/link` to connect your Discord and Deadside accounts.")
-                ).queue();
+                ));
                 return;
             }
             
             // Get player stats
-            Player player = playerRepository.findByPlayerId(linkedPlayer.getMainPlayerId());
+            Player player = economyService.getPlayer(linkedPlayer.getMainPlayerId());
             
             if (player == null) {
-                event.getHook().sendMessageEmbeds(
+                CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                         EmbedUtils.errorEmbed("Player Not Found", 
                                 "Unable to find player data. This could be because the player hasn't been active yet.")
-                ).queue();
+                ));
                 return;
             }
             
@@ -95,17 +97,17 @@ public class BankCommand implements ICommand {
                 case "deposit" -> handleDeposit(event, player);
                 case "withdraw" -> handleWithdraw(event, player);
                 case "info" -> handleInfo(event, player);
-                default -> event.getHook().sendMessage("Unknown subcommand: " + subCommand).queue();
+                default -> CommandReplies.queue(event, event.getHook().sendMessage("Unknown subcommand: " + subCommand));
             }
             
         } catch (Exception e) {
             logger.error("Error executing bank command", e);
             if (event.isAcknowledged()) {
-                event.getHook().sendMessageEmbeds(
+                CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                         EmbedUtils.errorEmbed("Error", "An error occurred while processing your bank operation.")
-                ).queue();
+                ));
             } else {
-                event.reply("An error occurred: " + e.getMessage()).setEphemeral(true).queue();
+                CommandReplies.queue(event, event.reply("An error occurred: " + e.getMessage()).setEphemeral(true));
             }
         }
     }
@@ -118,36 +120,34 @@ public class BankCommand implements ICommand {
         
         // Validate amount
         if (amount <= 0) {
-            event.getHook().sendMessageEmbeds(
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                     EmbedUtils.errorEmbed("Invalid Amount", 
                             "Please specify a positive amount to deposit.")
-            ).queue();
+            ));
             return;
         }
         
         // Check if player has enough funds
         if (player.getCurrency().getCoins() < amount) {
-            event.getHook().sendMessageEmbeds(
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                     EmbedUtils.errorEmbed("Insufficient Funds", 
                             "You don't have enough coins in your wallet. You currently have " + 
                             formatAmount(player.getCurrency().getCoins()) + " coins.")
-            ).queue();
+            ));
             return;
         }
         
         // Deposit the amount
-        boolean success = player.getCurrency().depositToBank(amount);
+        Currency balance = economyService.deposit(player.getPlayerId(), amount);
         
-        if (!success) {
-            event.getHook().sendMessageEmbeds(
+        if (balance == null) {
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                     EmbedUtils.errorEmbed("Transaction Failed", 
                             "Failed to deposit the coins. Please try again later.")
-            ).queue();
+            ));
             return;
         }
-        
-        // Save the changes
-        playerRepository.save(player);
+        player.setCurrency(balance);
         
         // Send success message
         StringBuilder message = new StringBuilder();
@@ -156,9 +156,9 @@ public class BankCommand implements ICommand {
         message.append("💰 Wallet: `").append(formatAmount(player.getCurrency().getCoins())).append(" coins`\n");
         message.append("🏦 Bank: `").append(formatAmount(player.getCurrency().getBankCoins())).append(" coins`\n");
         
-        event.getHook().sendMessageEmbeds(
+        CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                 EmbedUtils.successEmbed("Deposit Successful", message.toString())
-        ).queue();
+        ));
         
         logger.info("User {} deposited {} coins to bank", event.getUser().getName(), amount);
     }
@@ -171,36 +171,34 @@ public class BankCommand implements ICommand {
         
         // Validate amount
         if (amount <= 0) {
-            event.getHook().sendMessageEmbeds(
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                     EmbedUtils.errorEmbed("Invalid Amount", 
                             "Please specify a positive amount to withdraw.")
-            ).queue();
+            ));
             return;
         }
         
         // Check if player has enough funds in bank
         if (player.getCurrency().getBankCoins() < amount) {
-            event.getHook().sendMessageEmbeds(
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                     EmbedUtils.errorEmbed("Insufficient Funds", 
                             "You don't have enough coins in your bank account. You currently have " + 
                             formatAmount(player.getCurrency().getBankCoins()) + " coins in the bank.")
-            ).queue();
+            ));
             return;
         }
         
         // Withdraw the amount
-        boolean success = player.getCurrency().withdrawFromBank(amount);
+        Currency balance = economyService.withdraw(player.getPlayerId(), amount);
         
-        if (!success) {
-            event.getHook().sendMessageEmbeds(
+        if (balance == null) {
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                     EmbedUtils.errorEmbed("Transaction Failed", 
                             "Failed to withdraw the coins. Please try again later.")
-            ).queue();
+            ));
             return;
         }
-        
-        // Save the changes
-        playerRepository.save(player);
+        player.setCurrency(balance);
         
         // Send success message
         StringBuilder message = new StringBuilder();
@@ -209,9 +207,9 @@ public class BankCommand implements ICommand {
         message.append("💰 Wallet: `").append(formatAmount(player.getCurrency().getCoins())).append(" coins`\n");
         message.append("🏦 Bank: `").append(formatAmount(player.getCurrency().getBankCoins())).append(" coins`\n");
         
-        event.getHook().sendMessageEmbeds(
+        CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                 EmbedUtils.successEmbed("Withdrawal Successful", message.toString())
-        ).queue();
+        ));
         
         logger.info("User {} withdrew {} coins from bank", event.getUser().getName(), amount);
     }
@@ -234,9 +232,9 @@ public class BankCommand implements ICommand {
         description.append("• Use `/bank deposit <amount>` to deposit coins\n");
         description.append("• Use `/bank withdraw <amount>` to withdraw coins\n");
         
-        event.getHook().sendMessageEmbeds(
+        CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                 EmbedUtils.customEmbed("Bank Account", description.toString(), new Color(0, 128, 255))
-        ).queue();
+        ));
     }
     
     /**
@@ -262,7 +260,7 @@ public class BankCommand implements ICommand {
                     return getDefaultAmountSuggestions(subcommand);
                 }
                 
-                Player player = playerRepository.findByPlayerId(linkedPlayer.getMainPlayerId());
+                Player player = economyService.getPlayer(linkedPlayer.getMainPlayerId());
                 if (player == null) {
                     return getDefaultAmountSuggestions(subcommand);
                 }
@@ -1,10 +1,13 @@
 package com.deadside.bot.commands.economy;
 
 import com.deadside.bot.commands.ICommand;
+import com.deadside.bot.db.models.Currency;
+import com.deadside.bot.db.models.EconomyTransaction;
 import com.deadside.bot.db.models.LinkedPlayer;
 import com.deadside.bot.db.models.Player;
 import com.deadside.bot.db.repositories.LinkedPlayerRepository;
-import com.deadside.bot.db.repositories.PlayerRepository;
+import com.deadside.bot.delivery.CommandReplies;
+import com.deadside.bot.economy.EconomyService;
 import com.deadside.bot.utils.EmbedUtils;
 import net.dv8tion.jda.api.entities.emoji.Emoji;
 import net.dv8tion.jda.api.events.interaction.command.CommandAutoCompleteInteractionEvent;
@@ -31,7 +34,7 @@ import java.util.stream.Collectors;
 public class BlackjackCommand implements ICommand {
     private static final Logger logger = LoggerFactory.getLogger(BlackjackCommand.class);
     private final LinkedPlayerRepository linkedPlayerRepository = new LinkedPlayerRepository();
-    private final PlayerRepository playerRepository = new PlayerRepository();
+    private final EconomyService economyService = new EconomyService();
     private final Random random = new Random();
     
     // Game sessions
@@ -67,7 +70,7 @@ public class BlackjackCommand implements ICommand {
             long userId = event.getUser().getIdLong();
             if (isOnCooldown(userId)) {
                 long timeLeft = getRemainingCooldown(userId);
-                event.reply("You need to wait " + timeLeft + " more seconds before playing again.").setEphemeral(true).queue();
+                CommandReplies.queue(event, event.reply("You need to wait " + timeLeft + " more seconds before playing again.").setEphemeral(true));
                 return;
             }
             
@@ -75,17 +78,17 @@ public class BlackjackCommand implements ICommand {
             setCooldown(userId);
             
             // Defer reply to give us time to process
-            event.deferReply().queue();
+            CommandReplies.queue(event, event.deferReply());
             
             // Get bet amount
             int betAmount = event.getOption("bet", 0, OptionMapping::getAsInt);
             
             // Validate bet amount
             if (betAmount < 50 || betAmount > 2000) {
-                event.getHook().sendMessageEmbeds(
+                CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                         EmbedUtils.errorEmbed("Invalid Bet", 
                                 "Bet amount must be between 50 and 2000 coins.")
-                ).queue();
+                ));
                 return;
             }
             
@@ -93,40 +96,40 @@ public class BlackjackCommand implements ICommand {
             LinkedPlayer linkedPlayer = linkedPlayerRepository.findByDiscordId(userId);
             
             if (linkedPlayer == null) {
-                event.getHook().sendMessageEmbeds(
+                CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                         EmbedUtils.errorEmbed("Not Linked", 
                                 "You don't have a linked Deadside account. Use `/link` to connect your Discord and Deadside accounts.")
-                ).queue();
+                ));
                 return;
             }
             
             // Get player stats
-            Player player = playerRepository.findByPlayerId(linkedPlayer.getMainPlayerId());
+            Player player = economyService.getPlayer(linkedPlayer.getMainPlayerId());
             
             if (player == null) {
-                event.getHook().sendMessageEmbeds(
+                CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                         EmbedUtils.errorEmbed("Player Not Found", 
                                 "Unable to find player data. This could be because the player hasn't been active yet.")
-                ).queue();
+                ));
                 return;
             }
             
             // Check if player has enough coins
             if (player.getCurrency().getCoins() < betAmount) {
-                event.getHook().sendMessageEmbeds(
+                CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                         EmbedUtils.errorEmbed("Insufficient Funds", 
                                 "You don't have enough coins to place this bet. Your current balance is " + 
                                 formatAmount(player.getCurrency().getCoins()) + " coins.")
-                ).queue();
+                ));
                 return;
             }
             
             // Check if player already has an active game
             if (activeGames.containsKey(userId)) {
-                event.getHook().sendMessageEmbeds(
+                CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                         EmbedUtils.warningEmbed("Game In Progress", 
                                 "You already have a blackjack game in progress. Finish that game first.")
-                ).queue();
+                ));
                 return;
             }
             
@@ -136,11 +139,11 @@ public class BlackjackCommand implements ICommand {
         } catch (Exception e) {
             logger.error("Error executing blackjack command", e);
             if (event.isAcknowledged()) {
-                event.getHook().sendMessageEmbeds(
+                CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                         EmbedUtils.errorEmbed("Error", "An error occurred while starting the blackjack game.")
-                ).queue();
+                ));
             } else {
-                event.reply("An error occurred: " + e.getMessage()).setEphemeral(true).queue();
+                CommandReplies.queue(event, event.reply("An error occurred: " + e.getMessage()).setEphemeral(true));
             }
         }
     }
@@ -149,9 +152,15 @@ public class BlackjackCommand implements ICommand {
      * Start a new blackjack game
      */
     private void startBlackjackGame(SlashCommandInteractionEvent event, Player player, int betAmount) {
-        // Take the bet
-        player.getCurrency().removeCoins(betAmount);
-        playerRepository.save(player);
+        // Take the bet, the balance may have changed since it was checked
+        Currency balance = economyService.debit(player.getPlayerId(), betAmount, EconomyTransaction.Type.BET, "blackjack");
+        if (balance == null) {
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
+                    EmbedUtils.errorEmbed("Insufficient Funds", "You don't have enough coins to place this bet.")
+            ));
+            return;
+        }
+        player.setCurrency(balance);
         
         // Create a new game
         BlackjackGame game = new BlackjackGame(betAmount, player);
@@ -189,14 +198,16 @@ public class BlackjackCommand implements ICommand {
             Button halfButton = Button.secondary("blackjack:newHalf:" + betAmount + ":" + event.getUser().getId(), "Half Bet");
             
             // Send response
-            event.getHook().sendMessageEmbeds(
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                     EmbedUtils.customEmbed("Blackjack - Blackjack! You Win!", message, Color.GREEN)
-            ).addActionRow(halfButton, playAgainButton, doubleButton).queue();
+            ).addActionRow(halfButton, playAgainButton, doubleButton));
             
             // End game and give payout (blackjack pays 3:2)
             int payout = (int) (betAmount * 2.5);
-            player.getCurrency().addCoins(payout);
-            playerRepository.save(player);
+            Currency paid = economyService.credit(player.getPlayerId(), payout, EconomyTransaction.Type.PAYOUT, "blackjack");
+            if (paid != null) {
+                player.setCurrency(paid);
+            }
             
             // Remove the game
             activeGames.remove(event.getUser().getIdLong());
@@ -210,9 +221,9 @@ public class BlackjackCommand implements ICommand {
         String message = createGameDisplay(game);
         
         // Send response with buttons
-        event.getHook().sendMessageEmbeds(
+        CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                 EmbedUtils.customEmbed("Blackjack - Your Turn", message, Color.BLUE)
-        ).addActionRow(hitButton, standButton, doubleDownButton).queue();
+        ).addActionRow(hitButton, standButton, doubleDownButton));
         
         logger.info("User {} started a blackjack game with {} coin bet", event.getUser().getName(), betAmount);
         
@@ -243,7 +254,7 @@ public class BlackjackCommand implements ICommand {
         
         // Verify that the user who clicked is the one who started the game
         if (!userId.equals(event.getUser().getId())) {
-            event.reply("This is not your game!").setEphemeral(true).queue();
+            CommandReplies.queue(event, event.reply("This is not your game!").setEphemeral(true));
             return;
         }
         
@@ -259,7 +270,7 @@ public class BlackjackCommand implements ICommand {
         
         // Check if the game exists
         if (game == null) {
-            event.reply("You don't have an active blackjack game.").setEphemeral(true).queue();
+            CommandReplies.queue(event, event.reply("You don't have an active blackjack game.").setEphemeral(true));
             return;
         }
         
@@ -269,7 +280,7 @@ public class BlackjackCommand implements ICommand {
             case "stand" -> handleStandAction(event, game);
             case "double" -> handleDoubleDownAction(event, game);
             default -> {
-                event.reply("Unknown action: " + action).setEphemeral(true).queue();
+                CommandReplies.queue(event, event.reply("Unknown action: " + action).setEphemeral(true));
                 logger.warn("Unknown blackjack button action: {}", action);
             }
         }
@@ -280,7 +291,7 @@ public class BlackjackCommand implements ICommand {
      */
     private void handleHitAction(ButtonInteractionEvent event, BlackjackGame game) {
         // Acknowledge the button click
-        event.deferEdit().queue();
+        CommandReplies.queue(event, event.deferEdit());
         
         // Deal a card to the player
         game.dealCardToPlayer();
@@ -304,9 +315,9 @@ public class BlackjackCommand implements ICommand {
             }
             
             // Update message
-            event.getHook().editOriginalEmbeds(
+            CommandReplies.queue(event, event.getHook().editOriginalEmbeds(
                     EmbedUtils.customEmbed("Blackjack - Busted! You Lose!", message, Color.RED)
-            ).setActionRow(halfButton, playAgainButton, doubleButton).queue();
+            ).setActionRow(halfButton, playAgainButton, doubleButton));
             
             // Remove the game
             activeGames.remove(event.getUser().getIdLong());
@@ -331,9 +342,9 @@ public class BlackjackCommand implements ICommand {
         String message = createGameDisplay(game);
         
         // Update message
-        event.getHook().editOriginalEmbeds(
+        CommandReplies.queue(event, event.getHook().editOriginalEmbeds(
                 EmbedUtils.customEmbed("Blackjack - Your Turn", message, Color.BLUE)
-        ).setActionRow(hitButton, standButton).queue();
+        ).setActionRow(hitButton, standButton));
     }
     
     /**
@@ -341,7 +352,7 @@ public class BlackjackCommand implements ICommand {
      */
     private void handleStandAction(ButtonInteractionEvent event, BlackjackGame game) {
         // Acknowledge the button click
-        event.deferEdit().queue();
+        CommandReplies.queue(event, event.deferEdit());
         
         // Dealer plays
         game.revealDealerCards();
@@ -381,8 +392,12 @@ public class BlackjackCommand implements ICommand {
         
         // Add payout to player's balance
         if (payout > 0) {
-            game.getPlayer().getCurrency().addCoins(payout);
-            playerRepository.save(game.getPlayer());
+            int winnings = payout;
+            Currency paid = economyService.credit(game.getPlayer().getPlayerId(), winnings,
+                    EconomyTransaction.Type.PAYOUT, "blackjack");
+            if (paid != null) {
+                game.getPlayer().setCurrency(paid);
+            }
         }
         
         // Add result details to the message
@@ -412,9 +427,9 @@ public class BlackjackCommand implements ICommand {
         }
         
         // Update message
-        event.getHook().editOriginalEmbeds(
+        CommandReplies.queue(event, event.getHook().editOriginalEmbeds(
                 EmbedUtils.customEmbed(title, message, color)
-        ).setActionRow(halfButton, playAgainButton, doubleButton).queue();
+        ).setActionRow(halfButton, playAgainButton, doubleButton));
         
         // Remove the game
         activeGames.remove(event.getUser().getIdLong());
@@ -429,16 +444,21 @@ public class BlackjackCommand implements ICommand {
     private void handleDoubleDownAction(ButtonInteractionEvent event, BlackjackGame game) {
         // Check if player has enough coins to double down
         if (game.getPlayer().getCurrency().getCoins() < game.getBetAmount()) {
-            event.reply("You don't have enough coins to double down.").setEphemeral(true).queue();
+            CommandReplies.queue(event, event.reply("You don't have enough coins to double down.").setEphemeral(true));
             return;
         }
         
         // Acknowledge the button click
-        event.deferEdit().queue();
+        CommandReplies.queue(event, event.deferEdit());
         
         // Double the bet
-        game.getPlayer().getCurrency().removeCoins(game.getBetAmount());
-        playerRepository.save(game.getPlayer());
+        Currency balance = economyService.debit(game.getPlayer().getPlayerId(), game.getBetAmount(),
+                EconomyTransaction.Type.BET, "blackjack");
+        if (balance == null) {
+            CommandReplies.queue(event, event.getHook().sendMessage("You don't have enough coins to double down.").setEphemeral(true));
+            return;
+        }
+        game.getPlayer().setCurrency(balance);
         game.doubleBet();
         
         // Deal one card to player
@@ -482,8 +502,12 @@ public class BlackjackCommand implements ICommand {
         
         // Add payout to player's balance
         if (payout > 0) {
-            game.getPlayer().getCurrency().addCoins(payout);
-            playerRepository.save(game.getPlayer());
+            int winnings = payout;
+            Currency paid = economyService.credit(game.getPlayer().getPlayerId(), winnings,
+                    EconomyTransaction.Type.PAYOUT, "blackjack");
+            if (paid != null) {
+                game.getPlayer().setCurrency(paid);
+            }
         }
         
         // Add result details to the message
@@ -514,9 +538,9 @@ public class BlackjackCommand implements ICommand {
         }
         
         // Update message
-        event.getHook().editOriginalEmbeds(
+        CommandReplies.queue(event, event.getHook().editOriginalEmbeds(
                 EmbedUtils.customEmbed(title, message, color)
-        ).setActionRow(halfButton, playAgainButton, doubleButton).queue();
+        ).setActionRow(halfButton, playAgainButton, doubleButton));
         
         // Remove the game
         activeGames.remove(event.getUser().getIdLong());
@@ -548,24 +572,24 @@ public class BlackjackCommand implements ICommand {
         LinkedPlayer linkedPlayer = linkedPlayerRepository.findByDiscordId(event.getUser().getIdLong());
         
         if (linkedPlayer == null) {
-            event.reply("You don't have a linked Deadside account. Use `/link` to connect your Discord and Deadside accounts.")
-                 .setEphemeral(true).queue();
+            CommandReplies.queue(event, event.reply("You don't have a linked Deadside account. Use `/link` to connect your Discord and Deadside accounts.")
+                 .setEphemeral(true));
             return;
         }
         
         // Get player
-        Player player = playerRepository.findByPlayerId(linkedPlayer.getMainPlayerId());
+        Player player = economyService.getPlayer(linkedPlayer.getMainPlayerId());
         
         if (player == null) {
-            event.reply("Unable to find your player data. This could be because you haven't been active yet.")
-                 .setEphemeral(true).queue();
+            CommandReplies.queue(event, event.reply("Unable to find your player data. This could be because you haven't been active yet.")
+                 .setEphemeral(true));
             return;
         }
         
         // Check cooldown
         if (isOnCooldown(event.getUser().getIdLong())) {
             long timeLeft = getRemainingCooldown(event.getUser().getIdLong());
-            event.reply("You need to wait " + timeLeft + " more seconds before playing again.").setEphemeral(true).queue();
+            CommandReplies.queue(event, event.reply("You need to wait " + timeLeft + " more seconds before playing again.").setEphemeral(true));
             return;
         }
         
@@ -574,14 +598,14 @@ public class BlackjackCommand implements ICommand {
         
         // Check if player has enough balance
         if (player.getCurrency().getCoins() < betAmount) {
-            event.reply("You don't have enough coins for this bet. Your current balance is " + 
+            CommandReplies.queue(event, event.reply("You don't have enough coins for this bet. Your current balance is " + 
                        formatAmount(player.getCurrency().getCoins()) + " coins.")
-                 .setEphemeral(true).queue();
+                 .setEphemeral(true));
             return;
         }
         
         // Acknowledge the button click
-        event.deferEdit().queue();
+        CommandReplies.queue(event, event.deferEdit());
         
         // Start a new game
         startNewBlackjackGame(event, player, betAmount);
@@ -591,9 +615,13 @@ public class BlackjackCommand implements ICommand {
      * Start a new blackjack game from button interaction
      */
     private void startNewBlackjackGame(ButtonInteractionEvent event, Player player, int betAmount) {
-        // Take the bet
-        player.getCurrency().removeCoins(betAmount);
-        playerRepository.save(player);
+        // Take the bet, the balance may have changed since it was checked
+        Currency balance = economyService.debit(player.getPlayerId(), betAmount, EconomyTransaction.Type.BET, "blackjack");
+        if (balance == null) {
+            CommandReplies.queue(event, event.getHook().sendMessage("You don't have enough coins for this bet.").setEphemeral(true));
+            return;
+        }
+        player.setCurrency(balance);
         
         // Create a new game
         BlackjackGame game = new BlackjackGame(betAmount, player);
@@ -631,14 +659,16 @@ public class BlackjackCommand implements ICommand {
             Button halfButton = Button.secondary("blackjack:newHalf:" + betAmount + ":" + event.getUser().getId(), "Half Bet");
             
             // Update message
-            event.getHook().editOriginalEmbeds(
+            CommandReplies.queue(event, event.getHook().editOriginalEmbeds(
                     EmbedUtils.customEmbed("Blackjack - Blackjack! You Win!", message, Color.GREEN)
-            ).setActionRow(halfButton, playAgainButton, doubleButton).queue();
+            ).setActionRow(halfButton, playAgainButton, doubleButton));
             
             // End game and give payout (blackjack pays 3:2)
             int payout = (int) (betAmount * 2.5);
-            player.getCurrency().addCoins(payout);
-            playerRepository.save(player);
+            Currency paid = economyService.credit(player.getPlayerId(), payout, EconomyTransaction.Type.PAYOUT, "blackjack");
+            if (paid != null) {
+                player.setCurrency(paid);
+            }
             
             // Remove the game
             activeGames.remove(event.getUser().getIdLong());
@@ -652,9 +682,9 @@ public class BlackjackCommand implements ICommand {
         String message = createGameDisplay(game);
         
         // Update message with buttons
-        event.getHook().editOriginalEmbeds(
+        CommandReplies.queue(event, event.getHook().editOriginalEmbeds(
                 EmbedUtils.customEmbed("Blackjack - Your Turn", message, Color.BLUE)
-        ).setActionRow(hitButton, standButton, doubleDownButton).queue();
+        ).setActionRow(hitButton, standButton, doubleDownButton));
         
         logger.info("User {} started a new blackjack game with {} coin bet", event.getUser().getName(), betAmount);
         
@@ -794,7 +824,7 @@ public class BlackjackCommand implements ICommand {
                     return getDefaultBetSuggestions();
                 }
                 
-                Player player = playerRepository.findByPlayerId(linkedPlayer.getMainPlayerId());
+                Player player = economyService.getPlayer(linkedPlayer.getMainPlayerId());
                 if (player == null) {
                     return getDefaultBetSuggestions();
                 }
@@ -1,10 +1,12 @@
 package com.deadside.bot.commands.economy;
 
 import com.deadside.bot.commands.ICommand;
+import com.deadside.bot.db.models.Currency;
 import com.deadside.bot.db.models.LinkedPlayer;
 import com.deadside.bot.db.models.Player;
 import com.deadside.bot.db.repositories.LinkedPlayerRepository;
-import com.deadside.bot.db.repositories.PlayerRepository;
+import com.deadside.bot.delivery.CommandReplies;
+import com.deadside.bot.economy.EconomyService;
 import com.deadside.bot.utils.EmbedUtils;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
 import net.dv8tion.jda.api.interactions.commands.build.CommandData;
@@ -21,7 +23,7 @@ import java.util.Random;
 public class DailyCommand implements ICommand {
     private static final Logger logger = LoggerFactory.getLogger(DailyCommand.class);
     private final LinkedPlayerRepository linkedPlayerRepository = new LinkedPlayerRepository();
-    private final PlayerRepository playerRepository = new PlayerRepository();
+    private final EconomyService economyService = new EconomyService();
     private final Random random = new Random();
     
     // Daily reward amounts
@@ -43,28 +45,28 @@ public class DailyCommand implements ICommand {
     public void execute(SlashCommandInteractionEvent event) {
         try {
             // Defer reply to give us time to process
-            event.deferReply().queue();
+            CommandReplies.queue(event, event.deferReply());
             
             // Get linked player information
             long userId = event.getUser().getIdLong();
             LinkedPlayer linkedPlayer = linkedPlayerRepository.findByDiscordId(userId);
             
             if (linkedPlayer == null) {
-                event.getHook().sendMessageEmbeds(
+                CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                         EmbedUtils.errorEmbed("Not Linked", 
                                 "You don't have a linked Deadside account. Use `/link` to connect your Discord and Deadside accounts.")
-                ).queue();
+                ));
                 return;
             }
             
             // Get player stats
-            Player player = playerRepository.findByPlayerId(linkedPlayer.getMainPlayerId());
+            Player player = economyService.getPlayer(linkedPlayer.getMainPlayerId());
             
             if (player == null) {
-                event.getHook().sendMessageEmbeds(
+                CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                         EmbedUtils.errorEmbed("Player Not Found", 
                                 "Unable to find player data. This could be because the player hasn't been active yet.")
-                ).queue();
+                ));
                 return;
             }
             
@@ -79,11 +81,11 @@ public class DailyCommand implements ICommand {
                 long hoursLeft = timeUntilNext / (60 * 60 * 1000);
                 long minutesLeft = (timeUntilNext % (60 * 60 * 1000)) / (60 * 1000);
                 
-                event.getHook().sendMessageEmbeds(
+                CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                         EmbedUtils.warningEmbed("Already Claimed", 
                                 "You've already claimed your daily reward today. You can claim again in " + 
                                 hoursLeft + " hours and " + minutesLeft + " minutes.")
-                ).queue();
+                ));
                 return;
             }
             
@@ -97,18 +99,17 @@ public class DailyCommand implements ICommand {
             int totalReward = baseReward + streakBonus;
             
             // Give the reward
-            boolean success = player.getCurrency().claimDailyReward(totalReward);
+            Currency balance = economyService.claimDailyReward(player.getPlayerId(), totalReward);
             
-            if (!success) {
-                event.getHook().sendMessageEmbeds(
+            if (balance == null) {
+                CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                         EmbedUtils.errorEmbed("Claim Failed", 
                                 "Failed to claim daily reward. Please try again later.")
-                ).queue();
+                ));
                 return;
             }
             
-            // Save player
-            playerRepository.save(player);
+            player.setCurrency(balance);
             
             // Send success message
             displayRewardMessage(event, player, baseReward, streakBonus, totalReward, streak + 1);
@@ -118,9 +119,9 @@ public class DailyCommand implements ICommand {
             
         } catch (Exception e) {
             logger.error("Error executing daily command", e);
-            event.getHook().sendMessageEmbeds(
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                     EmbedUtils.errorEmbed("Error", "An error occurred while claiming your daily reward.")
-            ).queue();
+            ));
         }
     }
     
@@ -164,9 +165,9 @@ public class DailyCommand implements ICommand {
         description.append("\n\n**New Balance**: `")
                   .append(formatAmount(player.getCurrency().getCoins())).append(" coins`");
         
-        event.getHook().sendMessageEmbeds(
+        CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                 EmbedUtils.customEmbed("Daily Reward Claimed", description.toString(), Color.YELLOW)
-        ).queue();
+        ));
     }
     
     /**
@@ -1,10 +1,13 @@
 package com.deadside.bot.commands.economy;
 
 import com.deadside.bot.commands.ICommand;
+import com.deadside.bot.db.models.Currency;
+import com.deadside.bot.db.models.EconomyTransaction;
 import com.deadside.bot.db.models.LinkedPlayer;
 import com.deadside.bot.db.models.Player;
 import com.deadside.bot.db.repositories.LinkedPlayerRepository;
-import com.deadside.bot.db.repositories.PlayerRepository;
+import com.deadside.bot.delivery.CommandReplies;
+import com.deadside.bot.economy.EconomyService;
 import com.deadside.bot.utils.EmbedUtils;
 import net.dv8tion.jda.api.EmbedBuilder;
 import net.dv8tion.jda.api.entities.emoji.Emoji;
@@ -43,7 +46,7 @@ public class RouletteCommand implements ICommand {
     private static final Logger logger = LoggerFactory.getLogger(RouletteCommand.class);
     
     private final LinkedPlayerRepository linkedPlayerRepository = new LinkedPlayerRepository();
-    private final PlayerRepository playerRepository = new PlayerRepository();
+    private final EconomyService economyService = new EconomyService();
     private final SecureRandom random = new SecureRandom();
     private final ConcurrentHashMap<String, RouletteGame> activeGames = new ConcurrentHashMap<>();
     private final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(2);
@@ -164,13 +167,13 @@ public class RouletteCommand implements ICommand {
         String userId = event.getUser().getId();
         
         if (bet <= 0) {
-            event.replyEmbeds(EmbedUtils.errorEmbed("Error", "Bet amount must be greater than 0")).setEphemeral(true).queue();
+            CommandReplies.queue(event, event.replyEmbeds(EmbedUtils.errorEmbed("Error", "Bet amount must be greater than 0")).setEphemeral(true));
             return;
         }
         
         // Check if user already has an active game
         if (activeGames.containsKey(userId)) {
-            event.replyEmbeds(EmbedUtils.errorEmbed("Error", "You already have an active roulette game")).setEphemeral(true).queue();
+            CommandReplies.queue(event, event.replyEmbeds(EmbedUtils.errorEmbed("Error", "You already have an active roulette game")).setEphemeral(true));
             return;
         }
         
@@ -178,34 +181,39 @@ public class RouletteCommand implements ICommand {
         LinkedPlayer linkedPlayer = linkedPlayerRepository.findByDiscordId(Long.parseLong(userId));
         
         if (linkedPlayer == null) {
-            event.replyEmbeds(EmbedUtils.errorEmbed("Account Not Linked", 
+            CommandReplies.queue(event, event.replyEmbeds(EmbedUtils.errorEmbed("Account Not Linked", 
                               "You don't have a linked Deadside account. Use `/link` to connect your Discord and Deadside accounts."))
-                 .setEphemeral(true).queue();
+                 .setEphemeral(true));
             return;
         }
         
         // Get player
-        Player player = playerRepository.findByPlayerId(linkedPlayer.getMainPlayerId());
+        Player player = economyService.getPlayer(linkedPlayer.getMainPlayerId());
         
         if (player == null) {
-            event.replyEmbeds(EmbedUtils.errorEmbed("Player Not Found", 
+            CommandReplies.queue(event, event.replyEmbeds(EmbedUtils.errorEmbed("Player Not Found", 
                               "Unable to find your player data. This could be because you haven't been active yet."))
-                 .setEphemeral(true).queue();
+                 .setEphemeral(true));
             return;
         }
         
         // Check if player has enough balance
         if (player.getCurrency().getCoins() < bet) {
-            event.replyEmbeds(EmbedUtils.errorEmbed("Insufficient Funds", 
+            CommandReplies.queue(event, event.replyEmbeds(EmbedUtils.errorEmbed("Insufficient Funds", 
                              "You don't have enough coins. You have " + 
                              String.format("%,d", player.getCurrency().getCoins()) + " coins."))
-                 .setEphemeral(true).queue();
+                 .setEphemeral(true));
             return;
         }
         
-        // Deduct bet amount
-        player.getCurrency().removeCoins(bet);
-        playerRepository.save(player);
+        // Deduct bet amount, the balance may have changed since it was checked
+        Currency balance = economyService.debit(player.getPlayerId(), bet, EconomyTransaction.Type.BET, "roulette");
+        if (balance == null) {
+            CommandReplies.queue(event, event.replyEmbeds(EmbedUtils.errorEmbed("Insufficient Funds", "You don't have enough coins for this bet."))
+                 .setEphemeral(true));
+            return;
+        }
+        player.setCurrency(balance);
         
         // Create new game
         RouletteGame game = new RouletteGame(userId, bet);
@@ -220,13 +228,8 @@ public class RouletteCommand implements ICommand {
                     // Refund bet amount - get the player again in case data changed
                     try {
                         LinkedPlayer lp = linkedPlayerRepository.findByDiscordId(Long.parseLong(userId));
-                        if (lp != null) {
-                            Player p = playerRepository.findByPlayerId(lp.getMainPlayerId());
-                            if (p != null) {
-                                p.getCurrency().addCoins(bet);
-                                playerRepository.save(p);
-                                logger.info("Roulette game for user {} timed out and bet was refunded", userId);
-                            }
+                        if (lp != null && economyService.credit(lp.getMainPlayerId(), bet, EconomyTransaction.Type.REFUND, "roulette") != null) {
+                            logger.info("Roulette game for user {} timed out and bet was refunded", userId);
                         }
                     } catch (Exception e) {
                         logger.error("Error refunding bet for timed out roulette game", e);
@@ -277,10 +280,9 @@ public class RouletteCommand implements ICommand {
                 )
                 .build();
         
-        event.replyEmbeds(embed.build())
+        CommandReplies.queue(event, event.replyEmbeds(embed.build())
                 .addActionRow(betTypeMenu)
-                .addActionRow(Button.danger("roulette:cancel:" + userId, "Cancel and Refund"))
-                .queue();
+                .addActionRow(Button.danger("roulette:cancel:" + userId, "Cancel and Refund")));
     }
     
     /**
@@ -298,13 +300,13 @@ public class RouletteCommand implements ICommand {
         
         // Only the game owner can interact with the buttons
         if (!event.getUser().getId().equals(userId)) {
-            event.reply("This is not your game!").setEphemeral(true).queue();
+            CommandReplies.queue(event, event.reply("This is not your game!").setEphemeral(true));
             return;
         }
         
         RouletteGame game = activeGames.get(userId);
         if (game == null || !game.isActive()) {
-            event.reply("This game has expired or does not exist.").setEphemeral(true).queue();
+            CommandReplies.queue(event, event.reply("This game has expired or does not exist.").setEphemeral(true));
             return;
         }
         
@@ -312,7 +314,7 @@ public class RouletteCommand implements ICommand {
             case "cancel" -> handleCancelAction(event, game);
             case "spin" -> handleSpinAction(event, game);
             case "playAgain" -> handlePlayAgainAction(event, game);
-            default -> event.reply("Unknown action: " + action).setEphemeral(true).queue();
+            default -> CommandReplies.queue(event, event.reply("Unknown action: " + action).setEphemeral(true));
         }
     }
     
@@ -331,13 +333,13 @@ public class RouletteCommand implements ICommand {
         
         // Only the game owner can interact with the menus
         if (!event.getUser().getId().equals(userId)) {
-            event.reply("This is not your game!").setEphemeral(true).queue();
+            CommandReplies.queue(event, event.reply("This is not your game!").setEphemeral(true));
             return;
         }
         
         RouletteGame game = activeGames.get(userId);
         if (game == null || !game.isActive()) {
-            event.reply("This game has expired or does not exist.").setEphemeral(true).queue();
+            CommandReplies.queue(event, event.reply("This game has expired or does not exist.").setEphemeral(true));
             return;
         }
         
@@ -346,7 +348,7 @@ public class RouletteCommand implements ICommand {
         switch (menuAction) {
             case "betType" -> handleBetTypeSelection(event, game, selectedValue);
             case "betValue" -> handleBetValueSelection(event, game, selectedValue);
-            default -> event.reply("Unknown menu action: " + menuAction).setEphemeral(true).queue();
+            default -> CommandReplies.queue(event, event.reply("Unknown menu action: " + menuAction).setEphemeral(true));
         }
     }
     
@@ -470,10 +472,9 @@ public class RouletteCommand implements ICommand {
                 new ActionRow[] { ActionRow.of(valueMenu), ActionRow.of(Button.danger("roulette:cancel:" + game.getUserId(), "Cancel and Refund")) } :
                 new ActionRow[] { ActionRow.of(Button.danger("roulette:cancel:" + game.getUserId(), "Cancel and Refund")) };
         
-        event.replyEmbeds(embed.build())
+        CommandReplies.queue(event, event.replyEmbeds(embed.build())
                 .setComponents(List.of(actionRows))
-                .setEphemeral(false)
-                .queue();
+                .setEphemeral(false));
     }
     
     /**
@@ -495,13 +496,12 @@ public class RouletteCommand implements ICommand {
                 .setThumbnail("https://i.imgur.com/GUWr3LA.png");
         
         // Spin and Cancel buttons
-        event.replyEmbeds(embed.build())
+        CommandReplies.queue(event, event.replyEmbeds(embed.build())
                 .addActionRow(
                         Button.success("roulette:spin:" + game.getUserId(), "Spin the Wheel")
                                 .withEmoji(Emoji.fromUnicode("🎲")),
                         Button.danger("roulette:cancel:" + game.getUserId(), "Cancel and Refund")
-                )
-                .queue();
+                ));
     }
     
     /**
@@ -511,7 +511,7 @@ public class RouletteCommand implements ICommand {
      */
     private void handleSpinAction(ButtonInteractionEvent event, RouletteGame game) {
         if (game.getBetType() == null || game.getBetValue() == null) {
-            event.reply("You need to place a bet first!").setEphemeral(true).queue();
+            CommandReplies.queue(event, event.reply("You need to place a bet first!").setEphemeral(true));
             return;
         }
         
@@ -526,9 +526,8 @@ public class RouletteCommand implements ICommand {
                 .setColor(Color.YELLOW)
                 .setImage("https://i.imgur.com/bEhNi0y.gif"); // Spinning wheel animation GIF
         
-        event.replyEmbeds(spinningEmbed.build())
-                .setEphemeral(false)
-                .queue();
+        CommandReplies.queue(event, event.replyEmbeds(spinningEmbed.build())
+                .setEphemeral(false));
         
         // Schedule the result to be shown after a delay (3 seconds)
         scheduler.schedule(() -> {
@@ -545,11 +544,7 @@ public class RouletteCommand implements ICommand {
             if (won) {
                 LinkedPlayer linkedPlayer = linkedPlayerRepository.findByDiscordId(Long.parseLong(game.getUserId()));
                 if (linkedPlayer != null) {
-                    Player player = playerRepository.findByPlayerId(linkedPlayer.getMainPlayerId());
-                    if (player != null) {
-                        player.getCurrency().addCoins(winAmount);
-                        playerRepository.save(player);
-                    }
+                    economyService.credit(linkedPlayer.getMainPlayerId(), winAmount, EconomyTransaction.Type.PAYOUT, "roulette");
                 }
             }
             
@@ -597,12 +592,11 @@ public class RouletteCommand implements ICommand {
             
             // Play again button
             try {
-                event.getHook().editOriginalEmbeds(resultEmbed.build())
+                CommandReplies.queue(event, event.getHook().editOriginalEmbeds(resultEmbed.build())
                         .setActionRow(
                                 Button.primary("roulette:playAgain:" + game.getUserId(), "Play Again")
                                         .withEmoji(Emoji.fromUnicode("🔄"))
-                        )
-                        .queue();
+                        ));
             } catch (Exception e) {
                 logger.error("Error updating roulette result", e);
             }
@@ -623,11 +617,7 @@ public class RouletteCommand implements ICommand {
         // Refund the bet
         LinkedPlayer linkedPlayer = linkedPlayerRepository.findByDiscordId(Long.parseLong(game.getUserId()));
         if (linkedPlayer != null) {
-            Player player = playerRepository.findByPlayerId(linkedPlayer.getMainPlayerId());
-            if (player != null) {
-                player.getCurrency().addCoins(game.getBet());
-                playerRepository.save(player);
-            }
+            economyService.credit(linkedPlayer.getMainPlayerId(), game.getBet(), EconomyTransaction.Type.REFUND, "roulette");
         }
         
         EmbedBuilder embed = new EmbedBuilder()
@@ -635,9 +625,8 @@ public class RouletteCommand implements ICommand {
                 .setDescription("Your bet of **" + game.getBet() + " coins** has been refunded.")
                 .setColor(Color.RED);
         
-        event.replyEmbeds(embed.build())
-                .setEphemeral(true)
-                .queue();
+        CommandReplies.queue(event, event.replyEmbeds(embed.build())
+                .setEphemeral(true));
         
         // End the game
         game.end();
@@ -656,7 +645,7 @@ public class RouletteCommand implements ICommand {
         
         // Make sure they're not already in a game
         if (activeGames.containsKey(userId)) {
-            event.reply("You already have an active roulette game").setEphemeral(true).queue();
+            CommandReplies.queue(event, event.reply("You already have an active roulette game").setEphemeral(true));
             return;
         }
         
@@ -664,31 +653,35 @@ public class RouletteCommand implements ICommand {
         LinkedPlayer linkedPlayer = linkedPlayerRepository.findByDiscordId(Long.parseLong(userId));
         
         if (linkedPlayer == null) {
-            event.reply("You don't have a linked Deadside account. Use `/link` to connect your Discord and Deadside accounts.")
-                 .setEphemeral(true).queue();
+            CommandReplies.queue(event, event.reply("You don't have a linked Deadside account. Use `/link` to connect your Discord and Deadside accounts.")
+                 .setEphemeral(true));
             return;
         }
         
         // Get player
-        Player player = playerRepository.findByPlayerId(linkedPlayer.getMainPlayerId());
+        Player player = economyService.getPlayer(linkedPlayer.getMainPlayerId());
         
         if (player == null) {
-            event.reply("Unable to find your player data. This could be because you haven't been active yet.")
-                 .setEphemeral(true).queue();
+            CommandReplies.queue(event, event.reply("Unable to find your player data. This could be because you haven't been active yet.")
+                 .setEphemeral(true));
             return;
         }
         
         // Check if player has enough balance
         if (player.getCurrency().getCoins() < bet) {
-            event.reply("You don't have enough coins for this bet. Your current balance is " + 
+            CommandReplies.queue(event, event.reply("You don't have enough coins for this bet. Your current balance is " + 
                    String.format("%,d", player.getCurrency().getCoins()) + " coins.")
-                 .setEphemeral(true).queue();
+                 .setEphemeral(true));
             return;
         }
         
-        // Deduct bet amount
-        player.getCurrency().removeCoins(bet);
-        playerRepository.save(player);
+        // Deduct bet amount, the balance may have changed since it was checked
+        Currency balance = economyService.debit(player.getPlayerId(), bet, EconomyTransaction.Type.BET, "roulette");
+        if (balance == null) {
+            CommandReplies.queue(event, event.reply("You don't have enough coins for this bet.").setEphemeral(true));
+            return;
+        }
+        player.setCurrency(balance);
         
         // Create new game
         RouletteGame newGame = new RouletteGame(userId, bet);
@@ -703,13 +696,8 @@ public class RouletteCommand implements ICommand {
                     // Refund bet amount - get the player again in case data changed
                     try {
                         LinkedPlayer lp = linkedPlayerRepository.findByDiscordId(Long.parseLong(userId));
-                        if (lp != null) {
-                            Player p = playerRepository.findByPlayerId(lp.getMainPlayerId());
-                            if (p != null) {
-                                p.getCurrency().addCoins(bet);
-                                playerRepository.save(p);
-                                logger.info("Roulette game for user {} timed out and bet was refunded", userId);
-                            }
+                        if (lp != null && economyService.credit(lp.getMainPlayerId(), bet, EconomyTransaction.Type.REFUND, "roulette") != null) {
+                            logger.info("Roulette game for user {} timed out and bet was refunded", userId);
                         }
                     } catch (Exception e) {
                         logger.error("Error refunding bet for timed out roulette game", e);
@@ -760,10 +748,9 @@ public class RouletteCommand implements ICommand {
                 )
                 .build();
         
-        event.replyEmbeds(embed.build())
+        CommandReplies.queue(event, event.replyEmbeds(embed.build())
                 .addActionRow(betTypeMenu)
-                .addActionRow(Button.danger("roulette:cancel:" + userId, "Cancel and Refund"))
-                .queue();
+                .addActionRow(Button.danger("roulette:cancel:" + userId, "Cancel and Refund")));
     }
     
     /**
@@ -782,19 +769,19 @@ public class RouletteCommand implements ICommand {
         switch (betType) {
             case "straight":
                 return betValue.equals(String.valueOf(winningNumber));
-                
+            
             case "color":
                 boolean isRed = RED_NUMBERS_SET.contains(winningNumber);
                 return (betValue.equals("red") && isRed) || (betValue.equals("black") && !isRed);
-                
+            
             case "evenodd":
                 boolean isEven = winningNumber % 2 == 0;
                 return (betValue.equals("even") && isEven) || (betValue.equals("odd") && !isEven);
-                
+            
             case "lowhigh":
                 boolean isLow = winningNumber >= 1 && winningNumber <= 18;
                 return (betValue.equals("low") && isLow) || (betValue.equals("high") && !isLow);
-                
+            
             case "dozen":
                 if (betValue.equals("1st12")) {
                     return winningNumber >= 1 && winningNumber <= 12;
@@ -804,7 +791,7 @@ public class RouletteCommand implements ICommand {
                     return winningNumber >= 25 && winningNumber <= 36;
                 }
                 return false;
-                
+            
             case "column":
                 if (betValue.equals("1st")) {
                     return winningNumber % 3 == 1;
@@ -814,7 +801,7 @@ public class RouletteCommand implements ICommand {
                     return winningNumber % 3 == 0 && winningNumber != 0;
                 }
                 return false;
-                
+            
             default:
                 return false;
         }
@@ -837,18 +824,18 @@ public class RouletteCommand implements ICommand {
             case "straight":
                 // Straight pays 35 to 1
                 return betAmount * 36; // Original bet + 35x payout
-                
+            
             case "color":
             case "evenodd":
             case "lowhigh":
                 // These all pay 1 to 1
                 return betAmount * 2; // Original bet + 1x payout
-                
+            
             case "dozen":
             case "column":
                 // These pay 2 to 1
                 return betAmount * 3; // Original bet + 2x payout
-                
+            
             default:
                 return 0;
         }
@@ -931,7 +918,7 @@ public class RouletteCommand implements ICommand {
                     return getDefaultBetSuggestions();
                 }
                 
-                Player player = playerRepository.findByPlayerId(linkedPlayer.getMainPlayerId());
+                Player player = economyService.getPlayer(linkedPlayer.getMainPlayerId());
                 if (player == null) {
                     return getDefaultBetSuggestions();
                 }
@@ -1,10 +1,15 @@
 package com.deadside.bot.commands.economy;
 
 import com.deadside.bot.commands.ICommand;
+import com.deadside.bot.db.models.Currency;
+import com.deadside.bot.db.models.EconomyTransaction;
 import com.deadside.bot.db.models.LinkedPlayer;
 import com.deadside.bot.db.models.Player;
 import com.deadside.bot.db.repositories.LinkedPlayerRepository;
-import com.deadside.bot.db.repositories.PlayerRepository;
+import com.deadside.bot.delivery.CommandReplies;
+import com.deadside.bot.economy.EconomyService;
+import com.deadside.bot.delivery.OutboundDispatcher;
+import com.deadside.bot.delivery.OutboundDispatcher.Lane;
 import com.deadside.bot.utils.EmbedUtils;
 import net.dv8tion.jda.api.entities.emoji.Emoji;
 import net.dv8tion.jda.api.events.interaction.command.CommandAutoCompleteInteractionEvent;
@@ -15,6 +20,7 @@ import net.dv8tion.jda.api.interactions.commands.OptionType;
 import net.dv8tion.jda.api.interactions.commands.build.CommandData;
 import net.dv8tion.jda.api.interactions.commands.build.Commands;
 import net.dv8tion.jda.api.interactions.commands.build.OptionData;
+import net.dv8tion.jda.api.requests.RestAction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -33,7 +39,7 @@ import java.util.stream.Collectors;
 public class SlotCommand implements ICommand {
     private static final Logger logger = LoggerFactory.getLogger(SlotCommand.class);
     private final LinkedPlayerRepository linkedPlayerRepository = new LinkedPlayerRepository();
-    private final PlayerRepository playerRepository = new PlayerRepository();
+    private final EconomyService economyService = new EconomyService();
     private final Random random = new Random();
     
     // Slot machine symbols and their weights (probability)
@@ -75,7 +81,7 @@ public class SlotCommand implements ICommand {
             long userId = event.getUser().getIdLong();
             if (isOnCooldown(userId)) {
                 long timeLeft = getRemainingCooldown(userId);
-                event.reply("You need to wait " + timeLeft + " more seconds before playing again.").setEphemeral(true).queue();
+                CommandReplies.queue(event, event.reply("You need to wait " + timeLeft + " more seconds before playing again.").setEphemeral(true));
                 return;
             }
             
@@ -83,17 +89,17 @@ public class SlotCommand implements ICommand {
             setCooldown(userId);
             
             // Defer reply to give us time to process
-            event.deferReply().queue();
+            CommandReplies.queue(event, event.deferReply());
             
             // Get bet amount
             int betAmount = event.getOption("amount", 0, OptionMapping::getAsInt);
             
             // Validate bet amount
             if (betAmount < 10 || betAmount > 1000) {
-                event.getHook().sendMessageEmbeds(
+                CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                         EmbedUtils.errorEmbed("Invalid Bet", 
                                 "Bet amount must be between 10 and 1000 coins.")
-                ).queue();
+                ));
                 return;
             }
             
@@ -101,31 +107,31 @@ public class SlotCommand implements ICommand {
             LinkedPlayer linkedPlayer = linkedPlayerRepository.findByDiscordId(userId);
             
             if (linkedPlayer == null) {
-                event.getHook().sendMessageEmbeds(
+                CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                         EmbedUtils.errorEmbed("Not Linked", 
                                 "You don't have a linked Deadside account. Use `/link` to connect your Discord and Deadside accounts.")
-                ).queue();
+                ));
                 return;
             }
             
             // Get player stats
-            Player player = playerRepository.findByPlayerId(linkedPlayer.getMainPlayerId());
+            Player player = economyService.getPlayer(linkedPlayer.getMainPlayerId());
             
             if (player == null) {
-                event.getHook().sendMessageEmbeds(
+                CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                         EmbedUtils.errorEmbed("Player Not Found", 
                                 "Unable to find player data. This could be because the player hasn't been active yet.")
-                ).queue();
+                ));
                 return;
             }
             
             // Check if player has enough coins
             if (player.getCurrency().getCoins() < betAmount) {
-                event.getHook().sendMessageEmbeds(
+                CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                         EmbedUtils.errorEmbed("Insufficient Funds", 
                                 "You don't have enough coins to place this bet. Your current balance is " + 
                                 formatAmount(player.getCurrency().getCoins()) + " coins.")
-                ).queue();
+                ));
                 return;
             }
             
@@ -135,11 +141,11 @@ public class SlotCommand implements ICommand {
         } catch (Exception e) {
             logger.error("Error executing slot command", e);
             if (event.isAcknowledged()) {
-                event.getHook().sendMessageEmbeds(
+                CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                         EmbedUtils.errorEmbed("Error", "An error occurred while playing the slot machine.")
-                ).queue();
+                ));
             } else {
-                event.reply("An error occurred: " + e.getMessage()).setEphemeral(true).queue();
+                CommandReplies.queue(event, event.reply("An error occurred: " + e.getMessage()).setEphemeral(true));
             }
         }
     }
@@ -148,8 +154,15 @@ public class SlotCommand implements ICommand {
      * Play the slot machine with animations
      */
     private void playSlots(SlashCommandInteractionEvent event, Player player, int betAmount) {
-        // First, take the bet
-        player.getCurrency().removeCoins(betAmount);
+        // First, take the bet, the balance may have changed since it was checked
+        Currency balance = economyService.debit(player.getPlayerId(), betAmount, EconomyTransaction.Type.BET, "slots");
+        if (balance == null) {
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
+                    EmbedUtils.errorEmbed("Insufficient Funds", "You don't have enough coins to place this bet.")
+            ));
+            return;
+        }
+        player.setCurrency(balance);
         
         // Animation phases
         final String[] spinningSymbols = {"🎰", "💫", "✨", "🎲", "🎯"};
@@ -165,9 +178,9 @@ public class SlotCommand implements ICommand {
         initialMessage.append("**Balance**: `").append(formatAmount(player.getCurrency().getCoins())).append(" coins`");
         
         // Send the initial spinning message
-        event.getHook().sendMessageEmbeds(
+        CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                 EmbedUtils.customEmbed("Slot Machine - Spinning", initialMessage.toString(), Color.BLUE)
-        ).queue(message -> {
+        ), message -> {
             // Start the spinning animation
             animateSlotMachine(message, player, betAmount);
         });
@@ -213,12 +226,12 @@ public class SlotCommand implements ICommand {
         
         // If win, add to player's balance
         if (isWin) {
-            player.getCurrency().addCoins(winAmount);
+            Currency paid = economyService.credit(player.getPlayerId(), winAmount, EconomyTransaction.Type.PAYOUT, "slots");
+            if (paid != null) {
+                player.setCurrency(paid);
+            }
         }
         
-        // Save player data
-        playerRepository.save(player);
-        
         // Create a thread to update the message multiple times for animation
         new Thread(() -> {
             try {
@@ -237,9 +250,9 @@ public class SlotCommand implements ICommand {
                     spinMessage.append("**Balance**: `").append(formatAmount(player.getCurrency().getCoins())).append(" coins`");
                     
                     // Update the message
-                    message.editMessageEmbeds(
+                    queueFrame(message, message.editMessageEmbeds(
                         EmbedUtils.customEmbed("Slot Machine - Spinning", spinMessage.toString(), Color.BLUE)
-                    ).queue();
+                    ));
                     
                     // Slight delay between frames (speed up toward the end)
                     Thread.sleep(Math.max(200, 500 - (frame * 50)));
@@ -253,9 +266,9 @@ public class SlotCommand implements ICommand {
                 revealMessage1.append("*Revealing results...*\n\n");
                 revealMessage1.append("**Balance**: `").append(formatAmount(player.getCurrency().getCoins())).append(" coins`");
                 
-                message.editMessageEmbeds(
+                queueFrame(message, message.editMessageEmbeds(
                     EmbedUtils.customEmbed("Slot Machine - Revealing", revealMessage1.toString(), Color.YELLOW)
-                ).queue();
+                ));
                 Thread.sleep(700);
                 
                 // Final reveal - second reel
@@ -266,9 +279,9 @@ public class SlotCommand implements ICommand {
                 revealMessage2.append("*Almost there...*\n\n");
                 revealMessage2.append("**Balance**: `").append(formatAmount(player.getCurrency().getCoins())).append(" coins`");
                 
-                message.editMessageEmbeds(
+                queueFrame(message, message.editMessageEmbeds(
                     EmbedUtils.customEmbed("Slot Machine - Revealing", revealMessage2.toString(), Color.YELLOW)
-                ).queue();
+                ));
                 Thread.sleep(1000);
                 
                 // Final result display
@@ -312,9 +325,9 @@ public class SlotCommand implements ICommand {
                     doubleButton = doubleButton.asDisabled();
                 }
                 
-                message.editMessageEmbeds(
+                queueFrame(message, message.editMessageEmbeds(
                     EmbedUtils.customEmbed(title, finalMessage.toString(), color)
-                ).setActionRow(halfButton, playAgainButton, doubleButton).queue();
+                ).setActionRow(halfButton, playAgainButton, doubleButton));
                 
                 // Log the result
                 if (isWin) {
@@ -344,13 +357,22 @@ public class SlotCommand implements ICommand {
                 
                 errorMessage.append("**Balance**: `").append(formatAmount(player.getCurrency().getCoins())).append(" coins`");
                 
-                message.editMessageEmbeds(
+                queueFrame(message, message.editMessageEmbeds(
                     EmbedUtils.customEmbed("Slot Machine - Result", errorMessage.toString(), Color.GRAY)
-                ).queue();
+                ));
             }
         }).start();
     }
     
+    /**
+     * Queue an edit of the slot message through the outbound dispatcher
+     * Frames keep their order and share the channel's rate limit fairly with notifications
+     */
+    private void queueFrame(net.dv8tion.jda.api.entities.Message message, RestAction<?> edit) {
+        long guildId = message.isFromGuild() ? message.getGuild().getIdLong() : 0L;
+        OutboundDispatcher.getInstance().submit(Lane.COMMAND, guildId, message.getChannel().getIdLong(), edit);
+    }
+    
     /**
      * Spin a single reel and get a random symbol based on weight
      */
@@ -476,7 +498,7 @@ public class SlotCommand implements ICommand {
                     return getDefaultBetSuggestions();
                 }
                 
-                Player player = playerRepository.findByPlayerId(linkedPlayer.getMainPlayerId());
+                Player player = economyService.getPlayer(linkedPlayer.getMainPlayerId());
                 if (player == null) {
                     return getDefaultBetSuggestions();
                 }
@@ -2,10 +2,13 @@ package com.deadside.bot.commands.economy;
 
 import com.deadside.bot.commands.ICommand;
 import com.deadside.bot.config.Config;
+import com.deadside.bot.db.models.Currency;
+import com.deadside.bot.db.models.EconomyTransaction;
 import com.deadside.bot.db.models.LinkedPlayer;
 import com.deadside.bot.db.models.Player;
 import com.deadside.bot.db.repositories.LinkedPlayerRepository;
-import com.deadside.bot.db.repositories.PlayerRepository;
+import com.deadside.bot.delivery.CommandReplies;
+import com.deadside.bot.economy.EconomyService;
 import com.deadside.bot.utils.EmbedUtils;
 import net.dv8tion.jda.api.EmbedBuilder;
 import net.dv8tion.jda.api.entities.User;
@@ -29,7 +32,7 @@ public class WorkCommand implements ICommand {
     private static final Logger logger = LoggerFactory.getLogger(WorkCommand.class);
     private final Config config = Config.getInstance();
     private final LinkedPlayerRepository linkedPlayerRepository = new LinkedPlayerRepository();
-    private final PlayerRepository playerRepository = new PlayerRepository();
+    private final EconomyService economyService = new EconomyService();
     private final Random random = new Random();
     
     // Work cooldown tracking - userid -> last work time
@@ -79,11 +82,11 @@ public class WorkCommand implements ICommand {
         if (isOnCooldown(userId)) {
             long remainingTime = getCooldownRemaining(userId);
             
-            event.replyEmbeds(EmbedUtils.errorEmbed(
+            CommandReplies.queue(event, event.replyEmbeds(EmbedUtils.errorEmbed(
                     "Cooldown Active",
                     "You're still tired from your last shift!\n" +
                     "You can work again in **" + formatTime(remainingTime) + "**."
-            )).setEphemeral(true).queue();
+            )).setEphemeral(true));
             
             return;
         }
@@ -91,22 +94,22 @@ public class WorkCommand implements ICommand {
         // Get linked player
         LinkedPlayer linkedPlayer = linkedPlayerRepository.findByDiscordId(userId);
         if (linkedPlayer == null) {
-            event.replyEmbeds(EmbedUtils.errorEmbed(
+            CommandReplies.queue(event, event.replyEmbeds(EmbedUtils.errorEmbed(
                     "Account Not Linked",
                     "You need to link your Discord account to your Deadside character first!\n" +
                     "Use the `/link` command to get started."
-            )).setEphemeral(true).queue();
+            )).setEphemeral(true));
             
             return;
         }
         
         // Get player
-        Player player = playerRepository.findByPlayerId(linkedPlayer.getMainPlayerId());
+        Player player = economyService.getPlayer(linkedPlayer.getMainPlayerId());
         if (player == null) {
-            event.replyEmbeds(EmbedUtils.errorEmbed(
+            CommandReplies.queue(event, event.replyEmbeds(EmbedUtils.errorEmbed(
                     "Player Not Found",
                     "Could not find your player data. Have you played on the server recently?"
-            )).setEphemeral(true).queue();
+            )).setEphemeral(true));
             
             return;
         }
@@ -120,8 +123,16 @@ public class WorkCommand implements ICommand {
         String workTask = WORK_TASKS[random.nextInt(WORK_TASKS.length)];
         
         // Add coins to player
-        player.getCurrency().addCoins(reward);
-        playerRepository.save(player);
+        Currency balance = economyService.credit(player.getPlayerId(), reward, EconomyTransaction.Type.WORK, "work");
+        if (balance == null) {
+            CommandReplies.queue(event, event.replyEmbeds(EmbedUtils.errorEmbed(
+                    "Work Failed",
+                    "Could not pay you for your work. Please try again later."
+            )).setEphemeral(true));
+            
+            return;
+        }
+        player.setCurrency(balance);
         
         // Set cooldown
         setWorkCooldown(userId);
@@ -136,7 +147,7 @@ public class WorkCommand implements ICommand {
                 .setFooter("💡 Use /balance to check your current balance");
         
         // Send response
-        event.replyEmbeds(embed.build()).queue();
+        CommandReplies.queue(event, event.replyEmbeds(embed.build()));
         
         // Log the transaction
         logger.info("User {} completed work and earned {} coins", userId, reward);
@@ -3,6 +3,7 @@ package com.deadside.bot.commands.faction;
 import com.deadside.bot.commands.ICommand;
 import com.deadside.bot.db.models.Faction;
 import com.deadside.bot.db.repositories.FactionRepository;
+import com.deadside.bot.delivery.CommandReplies;
 import com.deadside.bot.premium.FeatureGate;
 import com.deadside.bot.utils.EmbedUtils;
 import net.dv8tion.jda.api.entities.User;
@@ -86,7 +87,7 @@ public class FactionCommand implements ICommand {
         try {
             String subCommand = event.getSubcommandName();
             if (subCommand == null) {
-                event.reply("Invalid command usage.").setEphemeral(true).queue();
+                CommandReplies.queue(event, event.reply("Invalid command usage.").setEphemeral(true));
                 return;
             }
             
@@ -100,7 +101,7 @@ public class FactionCommand implements ICommand {
             long guildId = event.getGuild().getIdLong();
             User user = event.getUser();
             
-            event.deferReply().queue();
+            CommandReplies.queue(event, event.deferReply());
             
             switch (subCommand) {
                 case "create" -> createFaction(event, guildId, user);
@@ -111,14 +112,14 @@ public class FactionCommand implements ICommand {
                 case "member" -> manageMember(event, guildId, user);
                 case "update" -> updateFaction(event, guildId, user);
                 case "disband" -> disbandFaction(event, guildId, user);
-                default -> event.getHook().sendMessage("Unknown subcommand: " + subCommand).queue();
+                default -> CommandReplies.queue(event, event.getHook().sendMessage("Unknown subcommand: " + subCommand));
             }
         } catch (Exception e) {
             logger.error("Error executing faction command", e);
             if (event.isAcknowledged()) {
-                event.getHook().sendMessage("An error occurred: " + e.getMessage()).queue();
+                CommandReplies.queue(event, event.getHook().sendMessage("An error occurred: " + e.getMessage()));
             } else {
-                event.reply("An error occurred: " + e.getMessage()).setEphemeral(true).queue();
+                CommandReplies.queue(event, event.reply("An error occurred: " + e.getMessage()).setEphemeral(true));
             }
         }
     }
@@ -134,57 +135,57 @@ public class FactionCommand implements ICommand {
         
         // Validate inputs
         if (!NAME_PATTERN.matcher(name).matches()) {
-            event.getHook().sendMessageEmbeds(
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                     EmbedUtils.errorEmbed("Invalid Name", 
                             "Faction name must be 3-32 characters and contain only alphanumeric characters and spaces.")
-            ).queue();
+            ));
             return;
         }
         
         if (!TAG_PATTERN.matcher(tag).matches()) {
-            event.getHook().sendMessageEmbeds(
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                     EmbedUtils.errorEmbed("Invalid Tag", 
                             "Faction tag must be 2-8 characters and contain only alphanumeric characters.")
-            ).queue();
+            ));
             return;
         }
         
         if (!COLOR_PATTERN.matcher(color).matches()) {
-            event.getHook().sendMessageEmbeds(
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                     EmbedUtils.errorEmbed("Invalid Color", 
                             "Faction color must be a valid hex code (e.g. #FF0000).")
-            ).queue();
+            ));
             return;
         }
         
         // Check if user is already in a faction
         List<Faction> userFactions = factionRepository.findByMember(user.getIdLong());
         if (!userFactions.isEmpty()) {
-            event.getHook().sendMessageEmbeds(
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                     EmbedUtils.errorEmbed("Already in a Faction", 
                             "You are already a member of the faction **" + userFactions.get(0).getName() + "**.\n" +
                             "You must leave your current faction before creating a new one.")
-            ).queue();
+            ));
             return;
         }
         
         // Check if faction name already exists
         Faction existingFaction = factionRepository.findByNameInGuild(guildId, name);
         if (existingFaction != null) {
-            event.getHook().sendMessageEmbeds(
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                     EmbedUtils.errorEmbed("Faction Already Exists", 
                             "A faction with the name **" + name + "** already exists in this server.")
-            ).queue();
+            ));
             return;
         }
         
         // Check if faction tag already exists
         existingFaction = factionRepository.findByTagInGuild(guildId, tag);
         if (existingFaction != null) {
-            event.getHook().sendMessageEmbeds(
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                     EmbedUtils.errorEmbed("Tag Already Exists", 
                             "A faction with the tag **" + tag + "** already exists in this server.")
-            ).queue();
+            ));
             return;
         }
         
@@ -192,11 +193,11 @@ public class FactionCommand implements ICommand {
         Faction faction = new Faction(name, tag, description, guildId, user.getIdLong(), color);
         factionRepository.save(faction);
         
-        event.getHook().sendMessageEmbeds(
+        CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                 EmbedUtils.successEmbed("Faction Created", 
                         "Successfully created faction **" + name + "** [" + tag + "]!\n\n" +
                         "You are now the owner of this faction. Use `/faction member add @user` to add members.")
-        ).queue();
+        ));
         
         logger.info("User {} created faction {} [{}] in guild {}", 
                 user.getName(), name, tag, event.getGuild().getName());
@@ -215,10 +216,10 @@ public class FactionCommand implements ICommand {
             List<Faction> userFactions = factionRepository.findByMember(user.getIdLong());
             
             if (userFactions.isEmpty()) {
-                event.getHook().sendMessageEmbeds(
+                CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                         EmbedUtils.errorEmbed("Not in a Faction", 
                                 "You are not a member of any faction. Use `/faction join` to join a faction or `/faction create` to create your own.")
-                ).queue();
+                ));
                 return;
             }
             
@@ -233,10 +234,10 @@ public class FactionCommand implements ICommand {
             }
             
             if (faction == null) {
-                event.getHook().sendMessageEmbeds(
+                CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                         EmbedUtils.errorEmbed("Faction Not Found", 
                                 "No faction found with name or tag **" + factionName + "**.")
-                ).queue();
+                ));
                 return;
             }
         }
@@ -278,9 +279,9 @@ public class FactionCommand implements ICommand {
         
         description.append("\n**Created**: <t:").append(faction.getCreated() / 1000).append(":R>");
         
-        event.getHook().sendMessageEmbeds(
+        CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                 EmbedUtils.customEmbed("Faction: " + faction.getName(), description.toString(), embedColor)
-        ).queue();
+        ));
     }
     
     /**
@@ -292,11 +293,11 @@ public class FactionCommand implements ICommand {
         // Check if user is already in a faction
         List<Faction> userFactions = factionRepository.findByMember(user.getIdLong());
         if (!userFactions.isEmpty()) {
-            event.getHook().sendMessageEmbeds(
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                     EmbedUtils.errorEmbed("Already in a Faction", 
                             "You are already a member of the faction **" + userFactions.get(0).getName() + "**.\n" +
                             "You must leave your current faction before joining another one.")
-            ).queue();
+            ));
             return;
         }
         
@@ -308,40 +309,40 @@ public class FactionCommand implements ICommand {
         }
         
         if (faction == null) {
-            event.getHook().sendMessageEmbeds(
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                     EmbedUtils.errorEmbed("Faction Not Found", 
                             "No faction found with name or tag **" + factionName + "**.")
-            ).queue();
+            ));
             return;
         }
         
         // Check if faction is full
         if (faction.getTotalMemberCount() >= faction.getMaxMembers()) {
-            event.getHook().sendMessageEmbeds(
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                     EmbedUtils.errorEmbed("Faction is Full", 
                             "The faction **" + faction.getName() + "** is already at maximum capacity (" + 
                             faction.getMaxMembers() + " members).")
-            ).queue();
+            ));
             return;
         }
         
         // Add user to faction
         boolean added = faction.addMember(user.getIdLong());
         if (!added) {
-            event.getHook().sendMessageEmbeds(
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                     EmbedUtils.errorEmbed("Could Not Join", 
                             "Failed to join faction **" + faction.getName() + "**. You might already be a member.")
-            ).queue();
+            ));
             return;
         }
         
         // Save faction
         factionRepository.save(faction);
         
-        event.getHook().sendMessageEmbeds(
+        CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                 EmbedUtils.successEmbed("Joined Faction", 
                         "You have successfully joined the faction **" + faction.getName() + "** [" + faction.getTag() + "]!")
-        ).queue();
+        ));
         
         logger.info("User {} joined faction {} [{}] in guild {}", 
                 user.getName(), faction.getName(), faction.getTag(), event.getGuild().getName());
@@ -355,10 +356,10 @@ public class FactionCommand implements ICommand {
         List<Faction> userFactions = factionRepository.findByMember(user.getIdLong());
         
         if (userFactions.isEmpty()) {
-            event.getHook().sendMessageEmbeds(
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                     EmbedUtils.errorEmbed("Not in a Faction", 
                             "You are not a member of any faction.")
-            ).queue();
+            ));
             return;
         }
         
@@ -366,11 +367,11 @@ public class FactionCommand implements ICommand {
         
         // Check if user is the owner
         if (faction.isOwner(user.getIdLong())) {
-            event.getHook().sendMessageEmbeds(
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                     EmbedUtils.errorEmbed("Cannot Leave", 
                             "You are the owner of faction **" + faction.getName() + "**.\n" +
                             "You must transfer ownership using `/faction member promote @newowner` or disband the faction using `/faction disband`.")
-            ).queue();
+            ));
             return;
         }
         
@@ -378,20 +379,20 @@ public class FactionCommand implements ICommand {
         boolean removed = faction.removeMember(user.getIdLong());
         
         if (!removed) {
-            event.getHook().sendMessageEmbeds(
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                     EmbedUtils.errorEmbed("Could Not Leave", 
                             "Failed to leave faction **" + faction.getName() + "**.")
-            ).queue();
+            ));
             return;
         }
         
         // Save faction
         factionRepository.save(faction);
         
-        event.getHook().sendMessageEmbeds(
+        CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                 EmbedUtils.successEmbed("Left Faction", 
                         "You have successfully left the faction **" + faction.getName() + "**.")
-        ).queue();
+        ));
         
         logger.info("User {} left faction {} [{}] in guild {}", 
                 user.getName(), faction.getName(), faction.getTag(), event.getGuild().getName());
@@ -404,11 +405,11 @@ public class FactionCommand implements ICommand {
         List<Faction> factions = factionRepository.findByGuild(guildId);
         
         if (factions.isEmpty()) {
-            event.getHook().sendMessageEmbeds(
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                     EmbedUtils.infoEmbed("No Factions", 
                             "There are no factions in this server yet.\n" +
                             "Use `/faction create` to create your own faction!")
-            ).queue();
+            ));
             return;
         }
         
@@ -432,9 +433,9 @@ public class FactionCommand implements ICommand {
             }
         }
         
-        event.getHook().sendMessageEmbeds(
+        CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                 EmbedUtils.infoEmbed("Factions", description.toString())
-        ).queue();
+        ));
     }
     
     /**
@@ -448,10 +449,10 @@ public class FactionCommand implements ICommand {
         List<Faction> userFactions = factionRepository.findByMember(user.getIdLong());
         
         if (userFactions.isEmpty()) {
-            event.getHook().sendMessageEmbeds(
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                     EmbedUtils.errorEmbed("Not in a Faction", 
                             "You are not a member of any faction.")
-            ).queue();
+            ));
             return;
         }
         
@@ -462,18 +463,18 @@ public class FactionCommand implements ICommand {
         boolean isOfficer = faction.isOfficer(user.getIdLong());
         
         if (!isOwner && (action.equals("promote") || action.equals("demote"))) {
-            event.getHook().sendMessageEmbeds(
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                     EmbedUtils.errorEmbed("No Permission", 
                             "Only the faction owner can promote or demote members.")
-            ).queue();
+            ));
             return;
         }
         
         if (!isOwner && !isOfficer && (action.equals("add") || action.equals("remove"))) {
-            event.getHook().sendMessageEmbeds(
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                     EmbedUtils.errorEmbed("No Permission", 
                             "Only faction owners and officers can add or remove members.")
-            ).queue();
+            ));
             return;
         }
         
@@ -483,7 +484,7 @@ public class FactionCommand implements ICommand {
             case "remove" -> removeMember(event, faction, user, targetUser);
             case "promote" -> promoteMember(event, faction, targetUser);
             case "demote" -> demoteMember(event, faction, targetUser);
-            default -> event.getHook().sendMessage("Unknown action: " + action).queue();
+            default -> CommandReplies.queue(event, event.getHook().sendMessage("Unknown action: " + action));
         }
     }
     
@@ -495,21 +496,21 @@ public class FactionCommand implements ICommand {
         List<Faction> targetFactions = factionRepository.findByMember(targetUser.getIdLong());
         
         if (!targetFactions.isEmpty()) {
-            event.getHook().sendMessageEmbeds(
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                     EmbedUtils.errorEmbed("Already in a Faction", 
                             targetUser.getName() + " is already a member of the faction **" + 
                             targetFactions.get(0).getName() + "**.")
-            ).queue();
+            ));
             return;
         }
         
         // Check if faction is full
         if (faction.getTotalMemberCount() >= faction.getMaxMembers()) {
-            event.getHook().sendMessageEmbeds(
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                     EmbedUtils.errorEmbed("Faction is Full", 
                             "Your faction is already at maximum capacity (" + 
                             faction.getMaxMembers() + " members).")
-            ).queue();
+            ));
             return;
         }
         
@@ -517,20 +518,20 @@ public class FactionCommand implements ICommand {
         boolean added = faction.addMember(targetUser.getIdLong());
         
         if (!added) {
-            event.getHook().sendMessageEmbeds(
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                     EmbedUtils.errorEmbed("Could Not Add Member", 
                             "Failed to add " + targetUser.getName() + " to your faction.")
-            ).queue();
+            ));
             return;
         }
         
         // Save faction
         factionRepository.save(faction);
         
-        event.getHook().sendMessageEmbeds(
+        CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                 EmbedUtils.successEmbed("Member Added", 
                         "Successfully added " + targetUser.getAsMention() + " to your faction.")
-        ).queue();
+        ));
         
         logger.info("User {} added {} to faction {} [{}]", 
                 event.getUser().getName(), targetUser.getName(), faction.getName(), faction.getTag());
@@ -542,28 +543,28 @@ public class FactionCommand implements ICommand {
     private void removeMember(SlashCommandInteractionEvent event, Faction faction, User user, User targetUser) {
         // Check if target user is in the faction
         if (!faction.isMember(targetUser.getIdLong())) {
-            event.getHook().sendMessageEmbeds(
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                     EmbedUtils.errorEmbed("Not a Member", 
                             targetUser.getName() + " is not a member of your faction.")
-            ).queue();
+            ));
             return;
         }
         
         // Check if target is the owner
         if (faction.isOwner(targetUser.getIdLong())) {
-            event.getHook().sendMessageEmbeds(
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                     EmbedUtils.errorEmbed("Cannot Remove Owner", 
                             "You cannot remove the faction owner.")
-            ).queue();
+            ));
             return;
         }
         
         // Check if user is officer trying to remove another officer
         if (faction.isOfficer(targetUser.getIdLong()) && !faction.isOwner(user.getIdLong())) {
-            event.getHook().sendMessageEmbeds(
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                     EmbedUtils.errorEmbed("Cannot Remove Officer", 
                             "Only the faction owner can remove officers.")
-            ).queue();
+            ));
             return;
         }
         
@@ -571,20 +572,20 @@ public class FactionCommand implements ICommand {
         boolean removed = faction.removeMember(targetUser.getIdLong());
         
         if (!removed) {
-            event.getHook().sendMessageEmbeds(
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                     EmbedUtils.errorEmbed("Could Not Remove Member", 
                             "Failed to remove " + targetUser.getName() + " from your faction.")
-            ).queue();
+            ));
             return;
         }
         
         // Save faction
         factionRepository.save(faction);
         
-        event.getHook().sendMessageEmbeds(
+        CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                 EmbedUtils.successEmbed("Member Removed", 
                         "Successfully removed " + targetUser.getAsMention() + " from your faction.")
-        ).queue();
+        ));
         
         logger.info("User {} removed {} from faction {} [{}]", 
                 user.getName(), targetUser.getName(), faction.getName(), faction.getTag());
@@ -596,19 +597,19 @@ public class FactionCommand implements ICommand {
     private void promoteMember(SlashCommandInteractionEvent event, Faction faction, User targetUser) {
         // Special case - if target is the owner, this is actually transferring ownership
         if (faction.isOwner(targetUser.getIdLong())) {
-            event.getHook().sendMessageEmbeds(
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                     EmbedUtils.errorEmbed("Already Owner", 
                             targetUser.getName() + " is already the owner of this faction.")
-            ).queue();
+            ));
             return;
         }
         
         // Check if target user is in the faction
         if (!faction.isMember(targetUser.getIdLong())) {
-            event.getHook().sendMessageEmbeds(
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                     EmbedUtils.errorEmbed("Not a Member", 
                             targetUser.getName() + " is not a member of your faction.")
-            ).queue();
+            ));
             return;
         }
         
@@ -618,21 +619,21 @@ public class FactionCommand implements ICommand {
             boolean transferred = faction.transferOwnership(targetUser.getIdLong());
             
             if (!transferred) {
-                event.getHook().sendMessageEmbeds(
+                CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                         EmbedUtils.errorEmbed("Could Not Transfer Ownership", 
                                 "Failed to transfer ownership to " + targetUser.getName() + ".")
-                ).queue();
+                ));
                 return;
             }
             
             // Save faction
             factionRepository.save(faction);
             
-            event.getHook().sendMessageEmbeds(
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                     EmbedUtils.successEmbed("Ownership Transferred", 
                             "Successfully transferred faction ownership to " + targetUser.getAsMention() + ".\n" +
                             "You are now an officer of the faction.")
-            ).queue();
+            ));
             
             logger.info("User {} transferred ownership of faction {} [{}] to {}", 
                     event.getUser().getName(), faction.getName(), faction.getTag(), targetUser.getName());
@@ -643,20 +644,20 @@ public class FactionCommand implements ICommand {
         boolean promoted = faction.promoteMember(targetUser.getIdLong());
         
         if (!promoted) {
-            event.getHook().sendMessageEmbeds(
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                     EmbedUtils.errorEmbed("Could Not Promote", 
                             "Failed to promote " + targetUser.getName() + " to officer.")
-            ).queue();
+            ));
             return;
         }
         
         // Save faction
         factionRepository.save(faction);
         
-        event.getHook().sendMessageEmbeds(
+        CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                 EmbedUtils.successEmbed("Member Promoted", 
                         "Successfully promoted " + targetUser.getAsMention() + " to faction officer.")
-        ).queue();
+        ));
         
         logger.info("User {} promoted {} to officer in faction {} [{}]", 
                 event.getUser().getName(), targetUser.getName(), faction.getName(), faction.getTag());
@@ -668,10 +669,10 @@ public class FactionCommand implements ICommand {
     private void demoteMember(SlashCommandInteractionEvent event, Faction faction, User targetUser) {
         // Check if target is an officer
         if (!faction.isOfficer(targetUser.getIdLong())) {
-            event.getHook().sendMessageEmbeds(
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                     EmbedUtils.errorEmbed("Not an Officer", 
                             targetUser.getName() + " is not an officer of your faction.")
-            ).queue();
+            ));
             return;
         }
         
@@ -679,20 +680,20 @@ public class FactionCommand implements ICommand {
         boolean demoted = faction.demoteOfficer(targetUser.getIdLong());
         
         if (!demoted) {
-            event.getHook().sendMessageEmbeds(
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                     EmbedUtils.errorEmbed("Could Not Demote", 
                             "Failed to demote " + targetUser.getName() + " from officer.")
-            ).queue();
+            ));
             return;
         }
         
         // Save faction
         factionRepository.save(faction);
         
-        event.getHook().sendMessageEmbeds(
+        CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                 EmbedUtils.successEmbed("Officer Demoted", 
                         "Successfully demoted " + targetUser.getAsMention() + " to regular member.")
-        ).queue();
+        ));
         
         logger.info("User {} demoted {} from officer in faction {} [{}]", 
                 event.getUser().getName(), targetUser.getName(), faction.getName(), faction.getTag());
@@ -706,10 +707,10 @@ public class FactionCommand implements ICommand {
         List<Faction> userFactions = factionRepository.findByMember(user.getIdLong());
         
         if (userFactions.isEmpty()) {
-            event.getHook().sendMessageEmbeds(
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                     EmbedUtils.errorEmbed("Not in a Faction", 
                             "You are not a member of any faction.")
-            ).queue();
+            ));
             return;
         }
         
@@ -717,10 +718,10 @@ public class FactionCommand implements ICommand {
         
         // Check if user is the owner
         if (!faction.isOwner(user.getIdLong())) {
-            event.getHook().sendMessageEmbeds(
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                     EmbedUtils.errorEmbed("No Permission", 
                             "Only the faction owner can update faction settings.")
-            ).queue();
+            ));
             return;
         }
         
@@ -736,20 +737,20 @@ public class FactionCommand implements ICommand {
         // Update name if provided and valid
         if (name != null && !name.isEmpty()) {
             if (!NAME_PATTERN.matcher(name).matches()) {
-                event.getHook().sendMessageEmbeds(
+                CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                         EmbedUtils.errorEmbed("Invalid Name", 
                                 "Faction name must be 3-32 characters and contain only alphanumeric characters and spaces.")
-                ).queue();
+                ));
                 return;
             }
             
             // Check if name is already taken by another faction
             Faction existingFaction = factionRepository.findByNameInGuild(guildId, name);
             if (existingFaction != null && !existingFaction.getId().equals(faction.getId())) {
-                event.getHook().sendMessageEmbeds(
+                CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                         EmbedUtils.errorEmbed("Name Already Taken", 
                                 "A faction with the name **" + name + "** already exists in this server.")
-                ).queue();
+                ));
                 return;
             }
             
@@ -761,20 +762,20 @@ public class FactionCommand implements ICommand {
         // Update tag if provided and valid
         if (tag != null && !tag.isEmpty()) {
             if (!TAG_PATTERN.matcher(tag).matches()) {
-                event.getHook().sendMessageEmbeds(
+                CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                         EmbedUtils.errorEmbed("Invalid Tag", 
                                 "Faction tag must be 2-8 characters and contain only alphanumeric characters.")
-                ).queue();
+                ));
                 return;
             }
             
             // Check if tag is already taken by another faction
             Faction existingFaction = factionRepository.findByTagInGuild(guildId, tag);
             if (existingFaction != null && !existingFaction.getId().equals(faction.getId())) {
-                event.getHook().sendMessageEmbeds(
+                CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                         EmbedUtils.errorEmbed("Tag Already Taken", 
                                 "A faction with the tag **" + tag + "** already exists in this server.")
-                ).queue();
+                ));
                 return;
             }
             
@@ -786,10 +787,10 @@ public class FactionCommand implements ICommand {
         // Update color if provided and valid
         if (color != null && !color.isEmpty()) {
             if (!COLOR_PATTERN.matcher(color).matches()) {
-                event.getHook().sendMessageEmbeds(
+                CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                         EmbedUtils.errorEmbed("Invalid Color", 
                                 "Faction color must be a valid hex code (e.g. #FF0000).")
-                ).queue();
+                ));
                 return;
             }
             
@@ -807,20 +808,20 @@ public class FactionCommand implements ICommand {
         
         // Check if anything was updated
         if (!updated) {
-            event.getHook().sendMessageEmbeds(
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                     EmbedUtils.infoEmbed("No Changes", 
                             "No faction settings were updated. Provide at least one value to change.")
-            ).queue();
+            ));
             return;
         }
         
         // Save faction
         factionRepository.save(faction);
         
-        event.getHook().sendMessageEmbeds(
+        CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                 EmbedUtils.successEmbed("Faction Updated", 
                         "Successfully updated faction settings:\n\n" + updateMessage)
-        ).queue();
+        ));
         
         logger.info("User {} updated faction {} [{}] settings", 
                 user.getName(), faction.getName(), faction.getTag());
@@ -834,10 +835,10 @@ public class FactionCommand implements ICommand {
         List<Faction> userFactions = factionRepository.findByMember(user.getIdLong());
         
         if (userFactions.isEmpty()) {
-            event.getHook().sendMessageEmbeds(
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                     EmbedUtils.errorEmbed("Not in a Faction", 
                             "You are not a member of any faction.")
-            ).queue();
+            ));
             return;
         }
         
@@ -845,10 +846,10 @@ public class FactionCommand implements ICommand {
         
         // Check if user is the owner
         if (!faction.isOwner(user.getIdLong())) {
-            event.getHook().sendMessageEmbeds(
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                     EmbedUtils.errorEmbed("No Permission", 
                             "Only the faction owner can disband a faction.")
-            ).queue();
+            ));
             return;
         }
         
@@ -858,18 +859,18 @@ public class FactionCommand implements ICommand {
         boolean deleted = factionRepository.delete(faction);
         
         if (!deleted) {
-            event.getHook().sendMessageEmbeds(
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                     EmbedUtils.errorEmbed("Could Not Disband", 
                             "Failed to disband your faction.")
-            ).queue();
+            ));
             return;
         }
         
-        event.getHook().sendMessageEmbeds(
+        CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                 EmbedUtils.warningEmbed("Faction Disbanded", 
                         "You have successfully disbanded the faction **" + factionName + "** [" + factionTag + "].\n" +
                         "All members have been removed from the faction.")
-        ).queue();
+        ));
         
         logger.info("User {} disbanded faction {} [{}] in guild {}", 
                 user.getName(), factionName, factionTag, event.getGuild().getName());
@@ -5,6 +5,7 @@ import com.deadside.bot.db.models.Faction;
 import com.deadside.bot.db.models.Player;
 import com.deadside.bot.db.repositories.FactionRepository;
 import com.deadside.bot.db.repositories.PlayerRepository;
+import com.deadside.bot.delivery.CommandReplies;
 import com.deadside.bot.utils.EmbedUtils;
 import net.dv8tion.jda.api.entities.Guild;
 import net.dv8tion.jda.api.entities.User;
@@ -28,22 +29,22 @@ public class FactionCreateCommand implements Command {
     private static final Logger logger = LoggerFactory.getLogger(FactionCreateCommand.class);
     private final FactionRepository factionRepository;
     private final PlayerRepository playerRepository;
-
+    
     public FactionCreateCommand(FactionRepository factionRepository, PlayerRepository playerRepository) {
         this.factionRepository = factionRepository;
         this.playerRepository = playerRepository;
     }
-
+    
     @Override
     public String getName() {
         return "factioncreate";
     }
-
+    
     @Override
     public String getDescription() {
         return "Create a new faction";
     }
-
+    
     @Override
     public List<OptionData> getOptions() {
         List<OptionData> options = new ArrayList<>();
@@ -55,59 +56,59 @@ public class FactionCreateCommand implements Command {
         
         return options;
     }
-
+    
     @Override
     public void execute(SlashCommandInteractionEvent event) {
         Guild guild = event.getGuild();
         if (guild == null) {
-            event.reply("This command can only be used in a server.").setEphemeral(true).queue();
+            CommandReplies.queue(event, event.reply("This command can only be used in a server.").setEphemeral(true));
             return;
         }
-
+        
         User user = event.getUser();
         String factionName = event.getOption("name", "", OptionMapping::getAsString);
         String description = event.getOption("description", "", OptionMapping::getAsString);
         String logoUrl = event.getOption("logo", "", OptionMapping::getAsString);
         String tag = event.getOption("tag", "", OptionMapping::getAsString);
-
+        
         // Validate faction name
         if (factionName.isEmpty() || factionName.length() < 3 || factionName.length() > 32) {
-            event.reply("Faction name must be between 3 and 32 characters.").setEphemeral(true).queue();
+            CommandReplies.queue(event, event.reply("Faction name must be between 3 and 32 characters.").setEphemeral(true));
             return;
         }
-
+        
         // Validate tag
         if (!tag.isEmpty() && tag.length() > 5) {
-            event.reply("Faction tag must be at most 5 characters.").setEphemeral(true).queue();
+            CommandReplies.queue(event, event.reply("Faction tag must be at most 5 characters.").setEphemeral(true));
             return;
         }
-
+        
         try {
             // Check if player exists and is linked
             Player player = playerRepository.findByDiscordId(user.getId());
             if (player == null) {
-                event.reply("You need to link your Deadside account first. Use the /link command.").setEphemeral(true).queue();
+                CommandReplies.queue(event, event.reply("You need to link your Deadside account first. Use the /link command.").setEphemeral(true));
                 return;
             }
-
+            
             // Check if player is already in a faction
             if (player.getFactionId() != null) {
-                event.reply("You are already a member of a faction. Leave your current faction first.").setEphemeral(true).queue();
+                CommandReplies.queue(event, event.reply("You are already a member of a faction. Leave your current faction first.").setEphemeral(true));
                 return;
             }
-
+            
             // Check if faction name is already taken
             if (factionRepository.findByName(factionName) != null) {
-                event.reply("A faction with that name already exists.").setEphemeral(true).queue();
+                CommandReplies.queue(event, event.reply("A faction with that name already exists.").setEphemeral(true));
                 return;
             }
-
+            
             // Check if faction tag is already taken
             if (!tag.isEmpty() && factionRepository.findByTag(tag) != null) {
-                event.reply("A faction with that tag already exists.").setEphemeral(true).queue();
+                CommandReplies.queue(event, event.reply("A faction with that tag already exists.").setEphemeral(true));
                 return;
             }
-
+            
             // Create the faction
             Faction faction = new Faction();
             faction.setId(new org.bson.types.ObjectId());
@@ -137,16 +138,16 @@ public class FactionCreateCommand implements Command {
             // Send success message
             String successMessage = "Congratulations! You have successfully created the faction " + faction.getName() + 
                                     "\nYou are now its leader. Use /faction commands to manage your faction.";
-                                    
-            event.replyEmbeds(
+            
+            CommandReplies.queue(event, event.replyEmbeds(
                 EmbedUtils.factionEmbed("Faction Created: " + faction.getName(),
                     successMessage, Color.GREEN)
-            ).queue();
+            ));
             
             logger.info("User {} created faction {}", user.getId(), factionName);
         } catch (Exception e) {
             logger.error("Error creating faction: {}", e.getMessage(), e);
-            event.reply("An error occurred while creating the faction: " + e.getMessage()).setEphemeral(true).queue();
+            CommandReplies.queue(event, event.reply("An error occurred while creating the faction: " + e.getMessage()).setEphemeral(true));
         }
     }
 }
\ No newline at end of file
@@ -3,6 +3,7 @@ package com.deadside.bot.commands.faction;
 import com.deadside.bot.commands.Command;
 import com.deadside.bot.db.models.Faction;
 import com.deadside.bot.db.repositories.FactionRepository;
+import com.deadside.bot.delivery.CommandReplies;
 import com.deadside.bot.faction.FactionStatsSync;
 import com.deadside.bot.utils.EmbedUtils;
 import net.dv8tion.jda.api.EmbedBuilder;
@@ -27,22 +28,22 @@ public class FactionStatsCommand implements Command {
     private static final Logger logger = LoggerFactory.getLogger(FactionStatsCommand.class);
     private final FactionRepository factionRepository;
     private final FactionStatsSync factionStatsSync;
-
+    
     public FactionStatsCommand(FactionRepository factionRepository) {
         this.factionRepository = factionRepository;
         this.factionStatsSync = new FactionStatsSync();
     }
-
+    
     @Override
     public String getName() {
         return "faction";
     }
-
+    
     @Override
     public String getDescription() {
         return "Get information about factions";
     }
-
+    
     @Override
     public List<OptionData> getOptions() {
         List<OptionData> options = new ArrayList<>();
@@ -61,15 +62,15 @@ public class FactionStatsCommand implements Command {
         
         return options;
     }
-
+    
     @Override
     public void execute(SlashCommandInteractionEvent event) {
         Guild guild = event.getGuild();
         if (guild == null) {
-            event.reply("This command can only be used in a server.").setEphemeral(true).queue();
+            CommandReplies.queue(event, event.reply("This command can only be used in a server.").setEphemeral(true));
             return;
         }
-
+        
         String factionName = event.getOption("name", null, OptionMapping::getAsString);
         String type = event.getOption("type", "all", OptionMapping::getAsString);
         
@@ -83,7 +84,7 @@ public class FactionStatsCommand implements Command {
             }
         } catch (Exception e) {
             logger.error("Error executing faction command: {}", e.getMessage(), e);
-            event.reply("An error occurred while retrieving faction statistics.").setEphemeral(true).queue();
+            CommandReplies.queue(event, event.reply("An error occurred while retrieving faction statistics.").setEphemeral(true));
         }
     }
     
@@ -96,7 +97,7 @@ public class FactionStatsCommand implements Command {
         
         Faction faction = factionRepository.findByName(factionName);
         if (faction == null) {
-            event.reply("Faction not found: " + factionName).setEphemeral(true).queue();
+            CommandReplies.queue(event, event.reply("Faction not found: " + factionName).setEphemeral(true));
             return;
         }
         
@@ -112,7 +113,7 @@ public class FactionStatsCommand implements Command {
                 .addField("K/D Ratio", String.format("%.2f", faction.getKdRatio()), true)
                 .addField("Territory Control", String.valueOf(faction.getTerritoryControl()) + "%", true)
                 .addField("Faction Founded", new java.util.Date(faction.getCreatedAt()).toString(), false);
-                
+        
         if (faction.getDescription() != null && !faction.getDescription().isEmpty()) {
             embed.setDescription(faction.getDescription());
         }
@@ -121,7 +122,7 @@ public class FactionStatsCommand implements Command {
             embed.setThumbnail(faction.getLogoUrl());
         }
         
-        event.replyEmbeds(embed.build()).queue();
+        CommandReplies.queue(event, event.replyEmbeds(embed.build()));
     }
     
     /**
@@ -133,7 +134,7 @@ public class FactionStatsCommand implements Command {
         
         List<Faction> factions = factionRepository.findAll();
         if (factions.isEmpty()) {
-            event.reply("No factions found.").setEphemeral(true).queue();
+            CommandReplies.queue(event, event.reply("No factions found.").setEphemeral(true));
             return;
         }
         
@@ -191,7 +192,7 @@ public class FactionStatsCommand implements Command {
         }
         
         embed.setDescription(description.toString());
-        event.replyEmbeds(embed.build()).queue();
+        CommandReplies.queue(event, event.replyEmbeds(embed.build()));
     }
     
     private String capitalizeFirstLetter(String input) {
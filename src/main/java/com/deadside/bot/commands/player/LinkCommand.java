@@ -3,8 +3,10 @@ package com.deadside.bot.commands.player;
 import com.deadside.bot.commands.ICommand;
 import com.deadside.bot.db.models.LinkedPlayer;
 import com.deadside.bot.db.models.Player;
+import com.deadside.bot.db.models.PlayerSummary;
 import com.deadside.bot.db.repositories.LinkedPlayerRepository;
 import com.deadside.bot.db.repositories.PlayerRepository;
+import com.deadside.bot.delivery.CommandReplies;
 import com.deadside.bot.utils.EmbedUtils;
 import net.dv8tion.jda.api.entities.User;
 import net.dv8tion.jda.api.events.interaction.command.CommandAutoCompleteInteractionEvent;
@@ -62,13 +64,13 @@ public class LinkCommand implements ICommand {
     @Override
     public void execute(SlashCommandInteractionEvent event) {
         if (event.getUser() == null) {
-            event.reply("Could not identify user.").setEphemeral(true).queue();
+            CommandReplies.queue(event, event.reply("Could not identify user.").setEphemeral(true));
             return;
         }
         
         String subCommand = event.getSubcommandName();
         if (subCommand == null) {
-            event.reply("Invalid command usage.").setEphemeral(true).queue();
+            CommandReplies.queue(event, event.reply("Invalid command usage.").setEphemeral(true));
             return;
         }
         
@@ -79,11 +81,11 @@ public class LinkCommand implements ICommand {
                 case "remove" -> removeAltPlayer(event);
                 case "list" -> listLinkedPlayers(event);
                 case "info" -> showLinkedPlayerInfo(event);
-                default -> event.reply("Unknown subcommand: " + subCommand).setEphemeral(true).queue();
+                default -> CommandReplies.queue(event, event.reply("Unknown subcommand: " + subCommand).setEphemeral(true));
             }
         } catch (Exception e) {
             logger.error("Error executing link command", e);
-            event.reply("An error occurred: " + e.getMessage()).setEphemeral(true).queue();
+            CommandReplies.queue(event, event.reply("An error occurred: " + e.getMessage()).setEphemeral(true));
         }
     }
     
@@ -92,53 +94,39 @@ public class LinkCommand implements ICommand {
         String playerName = event.getOption("player_name", OptionMapping::getAsString);
         
         // Acknowledge the command immediately
-        event.deferReply().queue();
+        CommandReplies.queue(event, event.deferReply());
         
         // Check if the user is already linked
         LinkedPlayer existingLink = linkedPlayerRepository.findByDiscordId(user.getIdLong());
         if (existingLink != null) {
-            event.getHook().sendMessageEmbeds(
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                     EmbedUtils.errorEmbed("Already Linked", 
                             "You are already linked to player: **" + existingLink.getMainPlayerName() + "**\n" +
                             "Use `/link add` to add alt accounts.")
-            ).queue();
+            ));
             return;
         }
         
         // Search for the player in the database
-        List<Player> matchingPlayers = playerRepository.findByNameLike(playerName);
+        PlayerSummary bestMatch = findBestMatch(playerName);
         
-        if (matchingPlayers.isEmpty()) {
-            event.getHook().sendMessageEmbeds(
+        if (bestMatch == null) {
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                     EmbedUtils.errorEmbed("Player Not Found", 
                             "Could not find a player with name: **" + playerName + "**\n" +
                             "Make sure you've entered your exact in-game name and that you've played on one of our tracked servers.")
-            ).queue();
+            ));
             return;
         }
         
-        // If we found multiple matches, use the best match (exact match or first result)
-        Player bestMatch = null;
-        for (Player player : matchingPlayers) {
-            if (player.getName().equalsIgnoreCase(playerName)) {
-                bestMatch = player;
-                break;
-            }
-        }
-        
-        // If no exact match, just use the first result
-        if (bestMatch == null) {
-            bestMatch = matchingPlayers.get(0);
-        }
-        
         // Check if player is already linked to another Discord user
         LinkedPlayer existingPlayerLink = linkedPlayerRepository.findByPlayerId(bestMatch.getPlayerId());
         if (existingPlayerLink != null) {
-            event.getHook().sendMessageEmbeds(
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                     EmbedUtils.errorEmbed("Player Already Linked", 
                             "Player **" + bestMatch.getName() + "** is already linked to another Discord user.\n" +
                             "If this is your player, please contact an administrator.")
-            ).queue();
+            ));
             return;
         }
         
@@ -146,11 +134,11 @@ public class LinkCommand implements ICommand {
         LinkedPlayer newLink = new LinkedPlayer(user.getIdLong(), bestMatch.getName(), bestMatch.getPlayerId());
         linkedPlayerRepository.save(newLink);
         
-        event.getHook().sendMessageEmbeds(
+        CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                 EmbedUtils.successEmbed("Link Created", 
                         "Successfully linked your Discord account to player: **" + bestMatch.getName() + "**\n" +
                         "All your stats and achievements will now be tracked under this profile.")
-        ).queue();
+        ));
         
         logger.info("Created new player link: Discord User [{}] to Player [{}]", user.getId(), bestMatch.getName());
     }
@@ -160,61 +148,47 @@ public class LinkCommand implements ICommand {
         String playerName = event.getOption("player_name", OptionMapping::getAsString);
         
         // Acknowledge the command immediately
-        event.deferReply().queue();
+        CommandReplies.queue(event, event.deferReply());
         
         // Check if the user is linked
         LinkedPlayer existingLink = linkedPlayerRepository.findByDiscordId(user.getIdLong());
         if (existingLink == null) {
-            event.getHook().sendMessageEmbeds(
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                     EmbedUtils.errorEmbed("Not Linked", 
                             "You need to link your main account first using `/link main`.")
-            ).queue();
+            ));
             return;
         }
         
         // Search for the player in the database
-        List<Player> matchingPlayers = playerRepository.findByNameLike(playerName);
+        PlayerSummary bestMatch = findBestMatch(playerName);
         
-        if (matchingPlayers.isEmpty()) {
-            event.getHook().sendMessageEmbeds(
+        if (bestMatch == null) {
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                     EmbedUtils.errorEmbed("Player Not Found", 
                             "Could not find a player with name: **" + playerName + "**\n" +
                             "Make sure you've entered your exact in-game name and that you've played on one of our tracked servers.")
-            ).queue();
+            ));
             return;
         }
         
-        // If we found multiple matches, use the best match (exact match or first result)
-        Player bestMatch = null;
-        for (Player player : matchingPlayers) {
-            if (player.getName().equalsIgnoreCase(playerName)) {
-                bestMatch = player;
-                break;
-            }
-        }
-        
-        // If no exact match, just use the first result
-        if (bestMatch == null) {
-            bestMatch = matchingPlayers.get(0);
-        }
-        
         // Check if player is already linked to another Discord user
         LinkedPlayer existingPlayerLink = linkedPlayerRepository.findByPlayerId(bestMatch.getPlayerId());
         if (existingPlayerLink != null && existingPlayerLink.getDiscordId() != user.getIdLong()) {
-            event.getHook().sendMessageEmbeds(
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                     EmbedUtils.errorEmbed("Player Already Linked", 
                             "Player **" + bestMatch.getName() + "** is already linked to another Discord user.\n" +
                             "If this is your player, please contact an administrator.")
-            ).queue();
+            ));
             return;
         }
         
         // Check if player is already linked to this user
         if (existingLink.hasPlayerId(bestMatch.getPlayerId())) {
-            event.getHook().sendMessageEmbeds(
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                     EmbedUtils.errorEmbed("Already Linked", 
                             "Player **" + bestMatch.getName() + "** is already linked to your account.")
-            ).queue();
+            ));
             return;
         }
         
@@ -222,10 +196,10 @@ public class LinkCommand implements ICommand {
         existingLink.addAltPlayerId(bestMatch.getPlayerId());
         linkedPlayerRepository.save(existingLink);
         
-        event.getHook().sendMessageEmbeds(
+        CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                 EmbedUtils.successEmbed("Alt Added", 
                         "Successfully added **" + bestMatch.getName() + "** as an alt account linked to your profile.")
-        ).queue();
+        ));
         
         logger.info("Added alt player to link: Discord User [{}], Alt Player [{}]", user.getId(), bestMatch.getName());
     }
@@ -235,57 +209,44 @@ public class LinkCommand implements ICommand {
         String playerName = event.getOption("player_name", OptionMapping::getAsString);
         
         // Acknowledge the command immediately
-        event.deferReply().queue();
+        CommandReplies.queue(event, event.deferReply());
         
         // Check if the user is linked
         LinkedPlayer existingLink = linkedPlayerRepository.findByDiscordId(user.getIdLong());
         if (existingLink == null) {
-            event.getHook().sendMessageEmbeds(
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                     EmbedUtils.errorEmbed("Not Linked", 
                             "You are not linked to any player.")
-            ).queue();
+            ));
             return;
         }
         
         // Search for the player
-        List<Player> matchingPlayers = playerRepository.findByNameLike(playerName);
+        PlayerSummary bestMatch = findBestMatch(playerName);
         
-        if (matchingPlayers.isEmpty()) {
-            event.getHook().sendMessageEmbeds(
+        if (bestMatch == null) {
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                     EmbedUtils.errorEmbed("Player Not Found", 
                             "Could not find a player with name: **" + playerName + "**")
-            ).queue();
+            ));
             return;
         }
         
-        // Find best match
-        Player bestMatch = null;
-        for (Player player : matchingPlayers) {
-            if (player.getName().equalsIgnoreCase(playerName)) {
-                bestMatch = player;
-                break;
-            }
-        }
-        
-        if (bestMatch == null) {
-            bestMatch = matchingPlayers.get(0);
-        }
-        
         // Check if this is the main player
         if (existingLink.getMainPlayerId().equals(bestMatch.getPlayerId())) {
-            event.getHook().sendMessageEmbeds(
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                     EmbedUtils.errorEmbed("Cannot Remove Main", 
                             "You cannot remove your main player. Use `/link main` with a different player to change your main account.")
-            ).queue();
+            ));
             return;
         }
         
         // Check if player is linked as an alt
         if (!existingLink.getAltPlayerIds().contains(bestMatch.getPlayerId())) {
-            event.getHook().sendMessageEmbeds(
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                     EmbedUtils.errorEmbed("Not an Alt", 
                             "Player **" + bestMatch.getName() + "** is not linked as an alt account to your profile.")
-            ).queue();
+            ));
             return;
         }
         
@@ -293,10 +254,10 @@ public class LinkCommand implements ICommand {
         existingLink.removeAltPlayerId(bestMatch.getPlayerId());
         linkedPlayerRepository.save(existingLink);
         
-        event.getHook().sendMessageEmbeds(
+        CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                 EmbedUtils.successEmbed("Alt Removed", 
                         "Successfully removed **" + bestMatch.getName() + "** from your linked profile.")
-        ).queue();
+        ));
         
         logger.info("Removed alt player from link: Discord User [{}], Alt Player [{}]", user.getId(), bestMatch.getName());
     }
@@ -307,7 +268,7 @@ public class LinkCommand implements ICommand {
         // Check if the user is linked
         LinkedPlayer existingLink = linkedPlayerRepository.findByDiscordId(user.getIdLong());
         if (existingLink == null) {
-            event.reply("You are not linked to any in-game players. Use `/link main` to link your account.").setEphemeral(true).queue();
+            CommandReplies.queue(event, event.reply("You are not linked to any in-game players. Use `/link main` to link your account.").setEphemeral(true));
             return;
         }
         
@@ -326,9 +287,9 @@ public class LinkCommand implements ICommand {
             description.append("No alt accounts linked.");
         }
         
-        event.replyEmbeds(
+        CommandReplies.queue(event, event.replyEmbeds(
                 EmbedUtils.infoEmbed("Your Linked Players", description.toString())
-        ).queue();
+        ));
     }
     
     private void showLinkedPlayerInfo(SlashCommandInteractionEvent event) {
@@ -337,7 +298,7 @@ public class LinkCommand implements ICommand {
         // Check if the target user is linked
         LinkedPlayer existingLink = linkedPlayerRepository.findByDiscordId(targetUser.getIdLong());
         if (existingLink == null) {
-            event.reply("User " + targetUser.getAsMention() + " is not linked to any in-game players.").queue();
+            CommandReplies.queue(event, event.reply("User " + targetUser.getAsMention() + " is not linked to any in-game players."));
             return;
         }
         
@@ -356,12 +317,26 @@ public class LinkCommand implements ICommand {
             description.append("No alt accounts linked.");
         }
         
-        event.replyEmbeds(
+        CommandReplies.queue(event, event.replyEmbeds(
                 EmbedUtils.infoEmbed(
                         targetUser.getName() + "'s Linked Players",
                         description.toString()
                 )
-        ).queue();
+        ));
+    }
+    
+    /**
+     * Find the player a name refers to
+     * A player with exactly that name (ignoring case) wins; otherwise the first player whose name contains it.
+     * @return The player's summary, or null if no name matches
+     */
+    private PlayerSummary findBestMatch(String playerName) {
+        PlayerSummary exactMatch = playerRepository.findSummaryByName(playerName);
+        if (exactMatch != null) {
+            return exactMatch;
+        }
+        List<PlayerSummary> matchingPlayers = playerRepository.findSummariesByNameLike(playerName, 1);
+        return matchingPlayers.isEmpty() ? null : matchingPlayers.get(0);
     }
     
     @Override
@@ -389,7 +364,7 @@ public class LinkCommand implements ICommand {
                 return List.of(); // No alts to remove
             } else {
                 // For main and add, show all existing players matching the input
-                List<Player> matchingPlayers = playerRepository.findByNameLike(currentInput);
+                List<PlayerSummary> matchingPlayers = playerRepository.findSummariesByNameLike(currentInput, 25);
                 
                 return matchingPlayers.stream()
                     .map(player -> new Choice(player.getName(), player.getName()))
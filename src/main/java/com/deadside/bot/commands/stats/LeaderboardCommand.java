@@ -1,28 +1,59 @@
 package com.deadside.bot.commands.stats;
 
 import com.deadside.bot.commands.ICommand;
-import com.deadside.bot.db.models.Player;
-import com.deadside.bot.db.repositories.PlayerRepository;
+import com.deadside.bot.config.Config;
+import com.deadside.bot.db.models.GameServer;
+import com.deadside.bot.db.models.KillRecord;
+import com.deadside.bot.db.models.LeaderboardEntry;
+import com.deadside.bot.db.repositories.GameServerRepository;
+import com.deadside.bot.db.repositories.KillRecordRepository;
+import com.deadside.bot.db.repositories.LeaderboardRepository;
+import com.deadside.bot.db.repositories.LeaderboardRepository.Type;
+import com.deadside.bot.db.repositories.LeaderboardStore;
+import com.deadside.bot.delivery.CommandReplies;
 import com.deadside.bot.premium.FeatureGate;
+import com.deadside.bot.ui.PageCache;
 import com.deadside.bot.utils.EmbedUtils;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import net.dv8tion.jda.api.entities.emoji.Emoji;
+import net.dv8tion.jda.api.events.interaction.command.CommandAutoCompleteInteractionEvent;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.events.interaction.component.ButtonInteractionEvent;
+import net.dv8tion.jda.api.interactions.commands.Command.Choice;
 import net.dv8tion.jda.api.interactions.commands.OptionMapping;
 import net.dv8tion.jda.api.interactions.commands.OptionType;
 import net.dv8tion.jda.api.interactions.commands.build.CommandData;
 import net.dv8tion.jda.api.interactions.commands.build.Commands;
 import net.dv8tion.jda.api.interactions.commands.build.OptionData;
+import net.dv8tion.jda.api.interactions.components.ActionRow;
+import net.dv8tion.jda.api.interactions.components.buttons.Button;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.text.DecimalFormat;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 /**
- * Command for viewing leaderboards
+ * Command for viewing leaderboards and the kill history
+ * The first page of a board is read from the {@link LeaderboardStore}, which is kept current as kills
+ * are ingested. Further pages are keyset reads from the cursor carried in the page button's ID, and
+ * rendered pages are cached for a short time so paging back and forth costs no reads.
  */
 public class LeaderboardCommand implements ICommand {
     private static final Logger logger = LoggerFactory.getLogger(LeaderboardCommand.class);
-    private final PlayerRepository playerRepository = new PlayerRepository();
+    private static final int LEADERBOARD_SIZE = 10;
+    private static final int CACHED_PAGES = 1000;
+    private static final String HISTORY = "history";
+    private static final Set<String> TYPES = Set.of("kills", "kd", "score", "weapons", HISTORY);
+    private final GameServerRepository serverRepository = new GameServerRepository();
+    private final LeaderboardRepository leaderboardRepository = new LeaderboardRepository();
+    private final KillRecordRepository killRecordRepository = new KillRecordRepository();
+    private final PageCache pageCache = new PageCache(
+            TimeUnit.SECONDS.toMillis(Config.getInstance().getLeaderboardPageCacheSeconds()), CACHED_PAGES);
     private final DecimalFormat df = new DecimalFormat("#.##");
     
     @Override
@@ -37,13 +68,18 @@ public class LeaderboardCommand implements ICommand {
                         new OptionData(OptionType.STRING, "type", "Leaderboard type", true)
                                 .addChoice("kills", "kills")
                                 .addChoice("kd", "kd")
+                                .addChoice("score", "score")
+                                .addChoice("weapons", "weapons")
+                                .addChoice("recent kills", HISTORY),
+                        new OptionData(OptionType.STRING, "server", "Only count kills on this server", false)
+                                .setAutoComplete(true)
                 );
     }
     
     @Override
     public void execute(SlashCommandInteractionEvent event) {
         if (event.getGuild() == null) {
-            event.reply("This command can only be used in a server.").setEphemeral(true).queue();
+            CommandReplies.queue(event, event.reply("This command can only be used in a server.").setEphemeral(true));
             return;
         }
         
@@ -54,89 +90,278 @@ public class LeaderboardCommand implements ICommand {
         }
         
         String type = event.getOption("type", "kills", OptionMapping::getAsString);
+        String server = event.getOption("server", LeaderboardEntry.ALL_SERVERS, OptionMapping::getAsString);
+        long guildId = event.getGuild().getIdLong();
         
-        event.deferReply().queue();
+        CommandReplies.queue(event, event.deferReply());
         
         try {
-            switch (type) {
-                case "kills" -> displayKillsLeaderboard(event);
-                case "kd" -> displayKDLeaderboard(event);
-                default -> event.getHook().sendMessage("Unknown leaderboard type: " + type).queue();
+            if (!TYPES.contains(type)) {
+                CommandReplies.queue(event, event.getHook().sendMessage("Unknown leaderboard type: " + type));
+                return;
+            }
+            
+            PageRows rows = readPage(guildId, type, server, 1, null, true);
+            if (rows.lines.isEmpty()) {
+                CommandReplies.queue(event, event.getHook().sendMessage(emptyMessage(type)));
+                return;
             }
+            
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(embed(type, server, rows))
+                    .setComponents(buttons(type, serverToken(guildId, server), 1, rows)));
         } catch (Exception e) {
             logger.error("Error retrieving leaderboard", e);
-            event.getHook().sendMessage("An error occurred while retrieving the leaderboard.").queue();
+            CommandReplies.queue(event, event.getHook().sendMessage("An error occurred while retrieving the leaderboard."));
         }
     }
     
-    private void displayKillsLeaderboard(SlashCommandInteractionEvent event) {
-        long guildId = event.getGuild().getIdLong();
+    /**
+     * Handle the page buttons of a leaderboard or kill history
+     * Button IDs are leaderboard:(next|prev):type:page:server:cursor, where the cursor is the last
+     * row of the current page for next and its first row for prev.
+     */
+    public void handleButtonInteraction(ButtonInteractionEvent event, String[] buttonData) {
+        if (buttonData.length < 6 || event.getGuild() == null) {
+            return;
+        }
         
-        // Get top players by kills
-        List<Player> allPlayers = playerRepository.getTopPlayersByKills(10);
+        long guildId = event.getGuild().getIdLong();
+        if (!FeatureGate.hasAccess(guildId, FeatureGate.Feature.LEADERBOARDS)) {
+            CommandReplies.queue(event, event.reply("Leaderboards require a premium subscription.").setEphemeral(true));
+            return;
+        }
         
-        if (allPlayers.isEmpty()) {
-            event.getHook().sendMessage("No player statistics found yet.").queue();
+        // Pages are cached by the button that leads to them
+        String key = guildId + ":" + event.getComponentId();
+        PageCache.Page cached = pageCache.get(key);
+        if (cached != null) {
+            CommandReplies.queue(event, event.editMessageEmbeds(cached.getEmbed()).setComponents(cached.getComponents()));
             return;
         }
         
-        // Build leaderboard
-        StringBuilder description = new StringBuilder();
+        boolean forward = "next".equals(buttonData[1]);
+        String type = buttonData[2];
+        String serverToken = buttonData[4];
+        String cursor = buttonData[5];
+        int page;
+        try {
+            page = Integer.parseInt(buttonData[3]);
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid leaderboard page button: {}", event.getComponentId());
+            return;
+        }
         
-        for (int i = 0; i < allPlayers.size(); i++) {
-            Player player = allPlayers.get(i);
-            description.append("`").append(i + 1).append(".` **")
-                    .append(player.getName()).append("** - ")
-                    .append(player.getKills()).append(" kills (")
-                    .append(player.getDeaths()).append(" deaths)\n");
+        String server = serverName(serverToken);
+        if (!TYPES.contains(type) || server == null) {
+            CommandReplies.queue(event, event.reply("This server no longer exists. Run /leaderboard again.").setEphemeral(true));
+            return;
         }
         
-        event.getHook().sendMessageEmbeds(
-                EmbedUtils.infoEmbed("Top Killers Leaderboard", description.toString())
-        ).queue();
+        CommandReplies.queue(event, event.deferEdit());
+        
+        try {
+            PageRows rows = page > 1 ? readPage(guildId, type, server, page, cursor, forward) : null;
+            if (rows == null || rows.lines.isEmpty() || (!forward && rows.lines.size() < LEADERBOARD_SIZE)) {
+                // Back to the first page, or the board changed under the cursor: start again from the top
+                page = 1;
+                rows = readPage(guildId, type, server, 1, null, true);
+            }
+            
+            MessageEmbed embed = rows.lines.isEmpty()
+                    ? EmbedUtils.infoEmbed(title(type, server), emptyMessage(type))
+                    : embed(type, server, rows);
+            List<ActionRow> components = buttons(type, serverToken, page, rows);
+            pageCache.put(key, embed, components);
+            CommandReplies.queue(event, event.getHook().editOriginalEmbeds(embed).setComponents(components));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid leaderboard page cursor: {}", event.getComponentId());
+        } catch (Exception e) {
+            logger.error("Error paging leaderboard", e);
+        }
     }
     
-    private void displayKDLeaderboard(SlashCommandInteractionEvent event) {
-        long guildId = event.getGuild().getIdLong();
+    /**
+     * Read the rows of a page with their cursors
+     * @param page The page number, from 1
+     * @param cursor The cursor to page from, or null for the first page
+     * @param forward True for the page after the cursor, false for the page before it
+     */
+    private PageRows readPage(long guildId, String type, String server, int page, String cursor, boolean forward) {
+        // One row more than a page shows whether there is another page
+        int limit = LEADERBOARD_SIZE + 1;
         
-        // Get top 10 players by K/D ratio (minimum 10 kills to qualify)
-        List<Player> kdPlayers = playerRepository.getTopPlayersByKD(10, 10);
-        
-        if (kdPlayers.isEmpty()) {
-            event.getHook().sendMessage("No player statistics found yet with enough kills to qualify.").queue();
-            return;
+        if (HISTORY.equals(type)) {
+            String serverId = LeaderboardEntry.ALL_SERVERS.equals(server) ? null : server;
+            List<KillRecord> records = trim(killRecordRepository.findHistoryPage(guildId, serverId, cursor, forward, limit), forward);
+            PageRows rows = new PageRows(records.size() > LEADERBOARD_SIZE || !forward);
+            records = rows.more && forward ? records.subList(0, LEADERBOARD_SIZE) : records;
+            for (KillRecord record : records) {
+                rows.lines.add(historyLine(record, serverId == null));
+            }
+            if (!records.isEmpty()) {
+                rows.firstCursor = KillRecordRepository.cursorOf(records.get(0));
+                rows.lastCursor = KillRecordRepository.cursorOf(records.get(records.size() - 1));
+            }
+            return rows;
         }
         
-        // Sort by K/D ratio
-        kdPlayers.sort((p1, p2) -> {
-            double kd1 = p1.getDeaths() > 0 ? (double) p1.getKills() / p1.getDeaths() : p1.getKills();
-            double kd2 = p2.getDeaths() > 0 ? (double) p2.getKills() / p2.getDeaths() : p2.getKills();
-            return Double.compare(kd2, kd1);
-        });
-        
-        // Limit to top 10
-        if (kdPlayers.size() > 10) {
-            kdPlayers = kdPlayers.subList(0, 10);
+        Type boardType = Type.valueOf(type.toUpperCase());
+        LeaderboardStore store = LeaderboardStore.getInstance();
+        List<LeaderboardEntry> entries = cursor == null
+                ? store.getTop(guildId, server, boardType, limit)
+                : leaderboardRepository.findPage(guildId, server, boardType,
+                        boardType == Type.KD ? store.getKdMinKills() : 0, cursor, forward, limit);
+        entries = trim(entries, forward);
+        PageRows rows = new PageRows(entries.size() > LEADERBOARD_SIZE || !forward);
+        entries = rows.more && forward ? entries.subList(0, LEADERBOARD_SIZE) : entries;
+        for (int i = 0; i < entries.size(); i++) {
+            rows.lines.add(boardLine(boardType, (page - 1) * LEADERBOARD_SIZE + i + 1, entries.get(i)));
         }
-        
-        // Build leaderboard
+        if (!entries.isEmpty()) {
+            rows.firstCursor = LeaderboardRepository.cursorOf(boardType, entries.get(0));
+            rows.lastCursor = LeaderboardRepository.cursorOf(boardType, entries.get(entries.size() - 1));
+        }
+        return rows;
+    }
+    
+    /**
+     * Drop the extra row read before a page when paging backwards
+     */
+    private static <T> List<T> trim(List<T> rows, boolean forward) {
+        return !forward && rows.size() > LEADERBOARD_SIZE ? rows.subList(rows.size() - LEADERBOARD_SIZE, rows.size()) : rows;
+    }
+    
+    private String boardLine(Type type, int rank, LeaderboardEntry entry) {
+        StringBuilder line = new StringBuilder("`").append(rank).append(".` **")
+                .append(entry.getName()).append("** - ");
+        switch (type) {
+            case KILLS -> line.append(entry.getKills()).append(" kills (")
+                    .append(entry.getDeaths()).append(" deaths)");
+            case KD -> line.append(df.format(entry.getKd())).append(" K/D (")
+                    .append(entry.getKills()).append("k/")
+                    .append(entry.getDeaths()).append("d)");
+            case SCORE -> line.append(entry.getScore()).append(" points (")
+                    .append(entry.getKills()).append("k/")
+                    .append(entry.getDeaths()).append("d)");
+            case WEAPONS -> line.append(entry.getKills()).append(" kills");
+        }
+        return line.toString();
+    }
+    
+    private static String historyLine(KillRecord record, boolean showServer) {
+        StringBuilder line = new StringBuilder("<t:").append(record.getTimestamp() / 1000).append(":R> ");
+        if (showServer && record.getServerId() != null) {
+            line.append("[").append(record.getServerId()).append("] ");
+        }
+        line.append("**").append(record.getKiller()).append("** killed **").append(record.getVictim()).append("**");
+        if (record.getWeapon() != null && !record.getWeapon().isEmpty()) {
+            line.append(" with ").append(record.getWeapon());
+        }
+        return line.append(" (").append(record.getDistance()).append("m)").toString();
+    }
+    
+    private MessageEmbed embed(String type, String server, PageRows rows) {
         StringBuilder description = new StringBuilder();
+        for (String line : rows.lines) {
+            description.append(line).append("\n");
+        }
+        if ("kd".equals(type)) {
+            description.append("\n*Minimum ").append(LeaderboardStore.getInstance().getKdMinKills()).append(" kills to qualify*");
+        }
+        return EmbedUtils.infoEmbed(title(type, server), description.toString());
+    }
+    
+    /**
+     * Build the page buttons, or none if everything fits on the first page or the server cannot be referenced
+     */
+    private static List<ActionRow> buttons(String type, String serverToken, int page, PageRows rows) {
+        if (serverToken == null || rows.lines.isEmpty() || (page == 1 && !rows.more)) {
+            return List.of();
+        }
+        
+        String prefix = "leaderboard:%s:" + type + ":%d:" + serverToken + ":%s";
+        Button prev = Button.secondary(String.format(prefix, "prev", page - 1, rows.firstCursor), "Prev")
+                .withEmoji(Emoji.fromUnicode("◀️"))
+                .withDisabled(page <= 1);
+        Button next = Button.primary(String.format(prefix, "next", page + 1, rows.lastCursor), "Next")
+                .withEmoji(Emoji.fromUnicode("▶️"))
+                .withDisabled(!rows.more);
+        if (prev.getId().length() > Button.ID_MAX_LENGTH || next.getId().length() > Button.ID_MAX_LENGTH) {
+            return List.of();
+        }
+        return List.of(ActionRow.of(prev, Button.secondary("leaderboard:page:" + page, "Page " + page).asDisabled(), next));
+    }
+    
+    /**
+     * Get the reference to a server used in page buttons
+     * @return "*" for the whole guild, the game server's ID, or null if there is no such server
+     */
+    private String serverToken(long guildId, String server) {
+        if (LeaderboardEntry.ALL_SERVERS.equals(server)) {
+            return LeaderboardEntry.ALL_SERVERS;
+        }
+        GameServer gameServer = serverRepository.findByGuildIdAndName(guildId, server);
+        return gameServer != null ? gameServer.getId().toHexString() : null;
+    }
+    
+    private String serverName(String serverToken) {
+        if (LeaderboardEntry.ALL_SERVERS.equals(serverToken)) {
+            return LeaderboardEntry.ALL_SERVERS;
+        }
+        GameServer gameServer = serverRepository.findById(serverToken);
+        return gameServer != null ? gameServer.getName() : null;
+    }
+    
+    private static String emptyMessage(String type) {
+        return switch (type) {
+            case "kd" -> "No player statistics found yet with enough kills to qualify.";
+            case "weapons" -> "No weapon statistics found yet.";
+            case HISTORY -> "No kills recorded yet.";
+            default -> "No player statistics found yet.";
+        };
+    }
+    
+    private static String title(String type, String server) {
+        String title = switch (type) {
+            case "kd" -> "Top K/D Ratio Leaderboard";
+            case "score" -> "Top Score Leaderboard";
+            case "weapons" -> "Top Weapons Leaderboard";
+            case HISTORY -> "Recent Kills";
+            default -> "Top Killers Leaderboard";
+        };
+        return LeaderboardEntry.ALL_SERVERS.equals(server) ? title : title + " - " + server;
+    }
+    
+    @Override
+    public List<Choice> handleAutoComplete(CommandAutoCompleteInteractionEvent event) {
+        if (event.getGuild() == null) return List.of();
         
-        for (int i = 0; i < kdPlayers.size(); i++) {
-            Player player = kdPlayers.get(i);
-            double kd = player.getDeaths() > 0 
-                    ? (double) player.getKills() / player.getDeaths() 
-                    : player.getKills();
+        // We only have autocomplete for server names
+        if ("server".equals(event.getFocusedOption().getName())) {
+            String currentInput = event.getFocusedOption().getValue().toLowerCase();
+            List<GameServer> servers = serverRepository.findAllByGuildId(event.getGuild().getIdLong());
             
-            description.append("`").append(i + 1).append(".` **")
-                    .append(player.getName()).append("** - ")
-                    .append(df.format(kd)).append(" K/D (")
-                    .append(player.getKills()).append("k/")
-                    .append(player.getDeaths()).append("d)\n");
+            return servers.stream()
+                .filter(server -> server.getName().toLowerCase().contains(currentInput))
+                .map(server -> new Choice(server.getName(), server.getName()))
+                .limit(25) // Discord has a max of 25 choices
+                .collect(Collectors.toList());
         }
         
-        event.getHook().sendMessageEmbeds(
-                EmbedUtils.infoEmbed("Top K/D Ratio Leaderboard", description.toString())
-        ).queue();
+        return List.of(); // Empty list for no suggestions
+    }
+    
+    /**
+     * The lines of one page, with the cursors of its first and last rows
+     */
+    private static final class PageRows {
+        private final List<String> lines = new ArrayList<>();
+        private final boolean more;  // Whether there is a page after this one
+        private String firstCursor;
+        private String lastCursor;
+        
+        private PageRows(boolean more) {
+            this.more = more;
+        }
     }
 }
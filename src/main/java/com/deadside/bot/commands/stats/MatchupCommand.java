@@ -1,27 +1,38 @@
 package com.deadside.bot.commands.stats;
 
 import com.deadside.bot.commands.ICommand;
-import com.deadside.bot.db.models.Player;
-import com.deadside.bot.db.repositories.PlayerRepository;
+import com.deadside.bot.db.models.LeaderboardEntry;
+import com.deadside.bot.db.models.MatchupEntry;
+import com.deadside.bot.db.repositories.KillMatrixRepository;
+import com.deadside.bot.db.repositories.LeaderboardRepository;
+import com.deadside.bot.db.repositories.LeaderboardRepository.Type;
+import com.deadside.bot.delivery.CommandReplies;
 import com.deadside.bot.premium.PremiumManager;
 import com.deadside.bot.utils.EmbedUtils;
+import net.dv8tion.jda.api.events.interaction.command.CommandAutoCompleteInteractionEvent;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.interactions.commands.Command.Choice;
 import net.dv8tion.jda.api.interactions.commands.OptionMapping;
 import net.dv8tion.jda.api.interactions.commands.OptionType;
 import net.dv8tion.jda.api.interactions.commands.build.CommandData;
 import net.dv8tion.jda.api.interactions.commands.build.Commands;
+import net.dv8tion.jda.api.interactions.commands.build.OptionData;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.text.DecimalFormat;
 import java.util.List;
+import java.util.stream.Collectors;
 
 /**
- * Command for viewing head-to-head matchups between players
+ * Command for viewing head-to-head matchups between players, or one player's rivals
+ * Counts come from the guild's head-to-head kill matrix and overall stats from the guild-wide leaderboard rows.
  */
 public class MatchupCommand implements ICommand {
     private static final Logger logger = LoggerFactory.getLogger(MatchupCommand.class);
-    private final PlayerRepository playerRepository = new PlayerRepository();
+    private static final int RIVALS_LIMIT = 5;
+    private final LeaderboardRepository leaderboardRepository = new LeaderboardRepository();
+    private final KillMatrixRepository killMatrixRepository = new KillMatrixRepository();
     private final PremiumManager premiumManager = new PremiumManager();
     private final DecimalFormat df = new DecimalFormat("#.##");
     
@@ -32,117 +43,130 @@ public class MatchupCommand implements ICommand {
     
     @Override
     public CommandData getCommandData() {
+        OptionData player1Option = new OptionData(OptionType.STRING, "player1", "First player's name", true)
+                .setAutoComplete(true);
+        OptionData player2Option = new OptionData(OptionType.STRING, "player2",
+                "Second player's name, leave out to see the first player's rivals", false)
+                .setAutoComplete(true);
+        
         return Commands.slash(getName(), "View head-to-head matchup between two players")
-                .addOption(OptionType.STRING, "player1", "First player's name", true)
-                .addOption(OptionType.STRING, "player2", "Second player's name", true);
+                .addOptions(player1Option, player2Option);
     }
     
     @Override
     public void execute(SlashCommandInteractionEvent event) {
         if (event.getGuild() == null) {
-            event.reply("This command can only be used in a server.").setEphemeral(true).queue();
+            CommandReplies.queue(event, event.reply("This command can only be used in a server.").setEphemeral(true));
             return;
         }
         
         // Check for premium if feature is restricted
         long guildId = event.getGuild().getIdLong();
         if (!premiumManager.hasPremium(guildId)) {
-            event.reply("This command is only available with premium. The killfeed is available for free.").setEphemeral(true).queue();
+            CommandReplies.queue(event, event.reply("This command is only available with premium. The killfeed is available for free.").setEphemeral(true));
             return;
         }
         
         String player1Name = event.getOption("player1", OptionMapping::getAsString);
         String player2Name = event.getOption("player2", OptionMapping::getAsString);
         
-        if (player1Name == null || player2Name == null) {
-            event.reply("Please provide both player names.").setEphemeral(true).queue();
+        if (player1Name == null) {
+            CommandReplies.queue(event, event.reply("Please provide a player name.").setEphemeral(true));
             return;
         }
         
-        event.deferReply().queue();
+        CommandReplies.queue(event, event.deferReply());
         
         try {
             // Find player 1
-            List<Player> player1Matches = playerRepository.findByNameLike(player1Name);
-            Player player1 = findBestMatch(player1Matches, player1Name);
+            LeaderboardEntry player1 = findPlayer(guildId, player1Name);
             
             if (player1 == null) {
-                event.getHook().sendMessage("No player found with name: " + player1Name).queue();
+                CommandReplies.queue(event, event.getHook().sendMessage("No player found with name: " + player1Name));
+                return;
+            }
+            
+            // Without a second player, show who the first player kills and is killed by most
+            if (player2Name == null) {
+                List<MatchupEntry> prey = killMatrixRepository.findTopVictims(guildId, player1.getName(), RIVALS_LIMIT);
+                List<MatchupEntry> nemeses = killMatrixRepository.findTopKillers(guildId, player1.getName(), RIVALS_LIMIT);
+                CommandReplies.queue(event, event.getHook().sendMessageEmbeds(createRivalsEmbed(player1, prey, nemeses)));
                 return;
             }
             
             // Find player 2
-            List<Player> player2Matches = playerRepository.findByNameLike(player2Name);
-            Player player2 = findBestMatch(player2Matches, player2Name);
+            LeaderboardEntry player2 = findPlayer(guildId, player2Name);
             
             if (player2 == null) {
-                event.getHook().sendMessage("No player found with name: " + player2Name).queue();
+                CommandReplies.queue(event, event.getHook().sendMessage("No player found with name: " + player2Name));
                 return;
             }
             
             // Get matchup data
-            int player1Kills = getKillsAgainst(player1, player2Name);
-            int player2Kills = getKillsAgainst(player2, player1Name);
+            int[] headToHead = killMatrixRepository.findHeadToHead(guildId, player1.getName(), player2.getName());
+            int player1Kills = headToHead[0];
+            int player2Kills = headToHead[1];
             
             // Build and send matchup embed
-            event.getHook().sendMessageEmbeds(
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                     createMatchupEmbed(player1, player2, player1Kills, player2Kills)
-            ).queue();
+            ));
             
         } catch (Exception e) {
             logger.error("Error retrieving player matchup", e);
-            event.getHook().sendMessage("An error occurred while retrieving matchup data.").queue();
+            CommandReplies.queue(event, event.getHook().sendMessage("An error occurred while retrieving matchup data."));
         }
     }
     
     /**
-     * Find the best matching player from a list of potential matches
+     * Find a player in this guild, preferring an exact name match over the most active partial match
      */
-    private Player findBestMatch(List<Player> players, String searchName) {
-        if (players.isEmpty()) {
-            return null;
+    private LeaderboardEntry findPlayer(long guildId, String searchName) {
+        LeaderboardEntry exact = leaderboardRepository.findPlayer(guildId, LeaderboardEntry.ALL_SERVERS, searchName);
+        if (exact != null) {
+            return exact;
         }
         
-        // Look for exact name match first
-        for (Player player : players) {
-            if (player.getName().equalsIgnoreCase(searchName)) {
-                return player;
-            }
-        }
-        
-        // If no exact match, return first result
-        return players.get(0);
+        List<LeaderboardEntry> matches = leaderboardRepository.findByNameContaining(
+                guildId, LeaderboardEntry.ALL_SERVERS, Type.KILLS, searchName, 1);
+        return matches.isEmpty() ? null : matches.get(0);
     }
     
     /**
-     * Get number of kills player1 has against player2
-     * For a complete implementation, this would query historical kill data
-     * This is a simplified version based on the existing data model
+     * Create embed with the players a player kills most and is killed by most
      */
-    private int getKillsAgainst(Player player1, String player2Name) {
-        // Check if player2 is player1's most killed player
-        if (player1.getMostKilledPlayer() != null && 
-            player1.getMostKilledPlayer().equalsIgnoreCase(player2Name)) {
-            return player1.getMostKilledPlayerCount();
+    private net.dv8tion.jda.api.entities.MessageEmbed createRivalsEmbed(
+            LeaderboardEntry player, List<MatchupEntry> prey, List<MatchupEntry> nemeses) {
+        
+        StringBuilder description = new StringBuilder();
+        description.append("# ").append(player.getName()).append("'s Rivals\n\n");
+        
+        description.append("## Most Killed\n");
+        if (prey.isEmpty()) {
+            description.append("No kills recorded\n");
+        }
+        for (MatchupEntry entry : prey) {
+            description.append("**").append(entry.getVictim()).append("**: ")
+                     .append(entry.getKills()).append(" kills\n");
         }
         
-        // If not most killed, we assume they've encountered each other occasionally
-        // In a full implementation, we would query a kill history collection
-        if (player1.getKilledByMost() != null && 
-            player1.getKilledByMost().equalsIgnoreCase(player2Name)) {
-            // They've encountered each other, so estimate a lower kill count
-            return Math.max(1, player1.getKilledByMostCount() / 2);
+        description.append("\n## Killed By Most\n");
+        if (nemeses.isEmpty()) {
+            description.append("No deaths recorded\n");
+        }
+        for (MatchupEntry entry : nemeses) {
+            description.append("**").append(entry.getKiller()).append("**: ")
+                     .append(entry.getKills()).append(" kills\n");
         }
         
-        // Default to 0 if no known encounters
-        return 0;
+        return EmbedUtils.infoEmbed("Player Rivals", description.toString());
     }
     
     /**
      * Create matchup comparison embed
      */
     private net.dv8tion.jda.api.entities.MessageEmbed createMatchupEmbed(
-            Player player1, Player player2, int player1Kills, int player2Kills) {
+            LeaderboardEntry player1, LeaderboardEntry player2, int player1Kills, int player2Kills) {
         
         StringBuilder description = new StringBuilder();
         
@@ -175,12 +199,12 @@ public class MatchupCommand implements ICommand {
         description.append("**").append(player1.getName()).append("**: ")
                  .append(player1.getKills()).append(" kills / ")
                  .append(player1.getDeaths()).append(" deaths / KD: ")
-                 .append(df.format(player1.getKdRatio())).append("\n");
+                 .append(df.format(player1.getKd())).append("\n");
         
         description.append("**").append(player2.getName()).append("**: ")
                  .append(player2.getKills()).append(" kills / ")
                  .append(player2.getDeaths()).append(" deaths / KD: ")
-                 .append(df.format(player2.getKdRatio())).append("\n\n");
+                 .append(df.format(player2.getKd())).append("\n\n");
         
         // Weapon comparison
         description.append("## Favorite Weapons\n");
@@ -198,4 +222,17 @@ public class MatchupCommand implements ICommand {
         
         return EmbedUtils.infoEmbed("Player Matchup", description.toString());
     }
+    
+    @Override
+    public List<Choice> handleAutoComplete(CommandAutoCompleteInteractionEvent event) {
+        if (event.getGuild() == null) return List.of();
+        
+        // Autocomplete player names seen in this guild
+        String currentInput = event.getFocusedOption().getValue().toLowerCase();
+        return leaderboardRepository.findByNameContaining(
+                        event.getGuild().getIdLong(), LeaderboardEntry.ALL_SERVERS, Type.KILLS, currentInput, 25)
+                .stream()
+                .map(player -> new Choice(player.getName(), player.getName()))
+                .collect(Collectors.toList());
+    }
 }
\ No newline at end of file
@@ -1,30 +1,48 @@
 package com.deadside.bot.commands.stats;
 
 import com.deadside.bot.commands.ICommand;
+import com.deadside.bot.db.models.GameServer;
+import com.deadside.bot.db.models.LeaderboardEntry;
+import com.deadside.bot.db.models.LinkedPlayer;
 import com.deadside.bot.db.models.Player;
+import com.deadside.bot.db.repositories.GameServerRepository;
+import com.deadside.bot.db.repositories.LeaderboardRepository;
+import com.deadside.bot.db.repositories.LeaderboardRepository.Type;
+import com.deadside.bot.db.repositories.LeaderboardStore;
+import com.deadside.bot.db.repositories.LinkedPlayerRepository;
 import com.deadside.bot.db.repositories.PlayerRepository;
+import com.deadside.bot.db.repositories.RankIndex;
+import com.deadside.bot.delivery.CommandReplies;
 import com.deadside.bot.premium.PremiumManager;
 import com.deadside.bot.utils.EmbedUtils;
 import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.events.interaction.command.CommandAutoCompleteInteractionEvent;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.interactions.commands.Command.Choice;
 import net.dv8tion.jda.api.interactions.commands.OptionMapping;
 import net.dv8tion.jda.api.interactions.commands.OptionType;
 import net.dv8tion.jda.api.interactions.commands.build.CommandData;
 import net.dv8tion.jda.api.interactions.commands.build.Commands;
+import net.dv8tion.jda.api.interactions.commands.build.OptionData;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.text.DecimalFormat;
 import java.util.List;
-import java.util.Comparator;
 import java.util.stream.Collectors;
 
 /**
  * Command for checking a player's rank in various statistics
+ * Players are ranked against the other players of the same guild, or of one of its servers.
  */
 public class RankCommand implements ICommand {
     private static final Logger logger = LoggerFactory.getLogger(RankCommand.class);
+    // Minimum threshold to be included in ranking
+    private static final int MIN_KILLS = RankIndex.MIN_KILLS;
     private final PlayerRepository playerRepository = new PlayerRepository();
+    private final LinkedPlayerRepository linkedPlayerRepository = new LinkedPlayerRepository();
+    private final LeaderboardRepository leaderboardRepository = new LeaderboardRepository();
+    private final GameServerRepository serverRepository = new GameServerRepository();
     private final PremiumManager premiumManager = new PremiumManager();
     private final DecimalFormat df = new DecimalFormat("#.##");
     
@@ -37,61 +55,58 @@ public class RankCommand implements ICommand {
     public CommandData getCommandData() {
         return Commands.slash(getName(), "View a player's ranking in various statistics")
                 .addOption(OptionType.STRING, "player", "In-game player name to check rank for", false)
-                .addOption(OptionType.USER, "user", "Discord user to check rank for", false);
+                .addOption(OptionType.USER, "user", "Discord user to check rank for", false)
+                .addOptions(new OptionData(OptionType.STRING, "server", "Rank among players on this server only", false)
+                        .setAutoComplete(true));
     }
     
     @Override
     public void execute(SlashCommandInteractionEvent event) {
         if (event.getGuild() == null) {
-            event.reply("This command can only be used in a server.").setEphemeral(true).queue();
+            CommandReplies.queue(event, event.reply("This command can only be used in a server.").setEphemeral(true));
             return;
         }
         
         // Check for premium if feature is restricted
         long guildId = event.getGuild().getIdLong();
         if (!premiumManager.hasPremium(guildId)) {
-            event.reply("This command is only available with premium. The killfeed is available for free.").setEphemeral(true).queue();
+            CommandReplies.queue(event, event.reply("This command is only available with premium. The killfeed is available for free.").setEphemeral(true));
             return;
         }
         
         String playerName = event.getOption("player", OptionMapping::getAsString);
         User targetUser = event.getOption("user", OptionMapping::getAsUser);
+        String server = event.getOption("server", LeaderboardEntry.ALL_SERVERS, OptionMapping::getAsString);
         
         // If neither option is provided, default to the command user
         if (playerName == null && targetUser == null) {
             targetUser = event.getUser();
         }
         
-        event.deferReply().queue();
+        CommandReplies.queue(event, event.deferReply());
         
         try {
-            Player player = null;
+            LeaderboardEntry player = null;
             
             if (playerName != null) {
-                // Find player by in-game name
-                List<Player> matchingPlayers = playerRepository.findByNameLike(playerName);
-                if (!matchingPlayers.isEmpty()) {
-                    // Try to find exact match first
-                    for (Player p : matchingPlayers) {
-                        if (p.getName().equalsIgnoreCase(playerName)) {
-                            player = p;
-                            break;
-                        }
-                    }
-                    
-                    // If no exact match, use first result
-                    if (player == null) {
+                // Find player by in-game name, trying an exact match first
+                player = leaderboardRepository.findPlayer(guildId, server, playerName);
+                if (player == null) {
+                    List<LeaderboardEntry> matchingPlayers =
+                            leaderboardRepository.findByNameContaining(guildId, server, Type.KILLS, playerName, 1);
+                    if (!matchingPlayers.isEmpty()) {
                         player = matchingPlayers.get(0);
                     }
                 }
             } else if (targetUser != null) {
                 // Find linked player by Discord user ID
-                com.deadside.bot.db.repositories.LinkedPlayerRepository linkedPlayerRepo = 
-                    new com.deadside.bot.db.repositories.LinkedPlayerRepository();
-                com.deadside.bot.db.models.LinkedPlayer linkedPlayer = linkedPlayerRepo.findByDiscordId(targetUser.getIdLong());
+                LinkedPlayer linkedPlayer = linkedPlayerRepository.findByDiscordId(targetUser.getIdLong());
+                Player mainPlayer = linkedPlayer != null
+                        ? playerRepository.findByPlayerId(linkedPlayer.getMainPlayerId())
+                        : null;
                 
-                if (linkedPlayer != null) {
-                    player = playerRepository.findByPlayerId(linkedPlayer.getMainPlayerId());
+                if (mainPlayer != null) {
+                    player = leaderboardRepository.findPlayer(guildId, server, mainPlayer.getName());
                 }
             }
             
@@ -99,64 +114,53 @@ public class RankCommand implements ICommand {
                 String errorMessage = playerName != null 
                     ? "No player found with name: " + playerName
                     : targetUser != null 
-                        ? targetUser.getName() + " hasn't linked a Deadside account yet."
+                        ? targetUser.getName() + " hasn't linked a Deadside account or has no kills here yet."
                         : "No player information found.";
                 
-                event.getHook().sendMessage(errorMessage).queue();
+                CommandReplies.queue(event, event.getHook().sendMessage(errorMessage));
                 return;
             }
             
-            // Get all ranked players to compute ranks
-            List<Player> allPlayers = playerRepository.getTopPlayersByKills(1000); // Get a lot of players
-            
             // Calculate ranks and send embed
-            event.getHook().sendMessageEmbeds(buildRankEmbed(player, allPlayers)).queue();
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(buildRankEmbed(guildId, server, player)));
             
         } catch (Exception e) {
             logger.error("Error retrieving player rank", e);
-            event.getHook().sendMessage("An error occurred while retrieving player rank.").queue();
+            CommandReplies.queue(event, event.getHook().sendMessage("An error occurred while retrieving player rank."));
         }
     }
     
     /**
      * Build the player rank embed with various stat rankings
+     * Each rank counts the guild's players ahead of this one in the in-memory rank index, without
+     * reading the database.
      */
-    private net.dv8tion.jda.api.entities.MessageEmbed buildRankEmbed(Player player, List<Player> allPlayers) {
-        // Minimum threshold to be included in ranking
-        final int MIN_KILLS = 5;
-        
-        // Filter players with minimum kills for ranking
-        List<Player> rankablePlayers = allPlayers.stream()
-                .filter(p -> p.getKills() >= MIN_KILLS)
-                .collect(Collectors.toList());
+    private net.dv8tion.jda.api.entities.MessageEmbed buildRankEmbed(long guildId, String server, LeaderboardEntry player) {
+        RankIndex ranks = LeaderboardStore.getInstance().getRanks();
         
         // Total number of ranked players
-        int totalPlayers = rankablePlayers.size();
+        int totalPlayers = ranks.getRankedCount(guildId, server);
         
         // If player doesn't meet minimum threshold, still show stats but indicate not ranked
         boolean isRanked = player.getKills() >= MIN_KILLS;
         
-        // Calculate kills rank
-        int killsRank = isRanked ? calculateRank(player, rankablePlayers, 
-                Comparator.comparingInt(Player::getKills).reversed()) : -1;
-        
-        // Calculate K/D rank (only for players with kills)
-        int kdRank = isRanked ? calculateRank(player, rankablePlayers,
-                Comparator.comparingDouble(Player::getKdRatio).reversed()) : -1;
+        // Calculate kills, K/D and score ranks
+        int killsRank = isRanked ? ranks.getRank(guildId, server, Type.KILLS, player.getKills()) : -1;
+        int kdRank = isRanked ? ranks.getRank(guildId, server, Type.KD, player.getKd()) : -1;
+        int scoreRank = isRanked ? ranks.getRank(guildId, server, Type.SCORE, player.getScore()) : -1;
         
-        // Calculate score rank
-        int scoreRank = isRanked ? calculateRank(player, rankablePlayers,
-                Comparator.comparingInt(Player::getScore).reversed()) : -1;
-                
         // Build embed description
         StringBuilder description = new StringBuilder();
         description.append("# ").append(player.getName()).append("'s Rankings\n\n");
+        if (!LeaderboardEntry.ALL_SERVERS.equals(server)) {
+            description.append("Server: **").append(server).append("**\n\n");
+        }
         
         // Player stats summary
         description.append("## Player Stats\n");
         description.append("Kills: **").append(player.getKills()).append("**\n");
         description.append("Deaths: **").append(player.getDeaths()).append("**\n");
-        description.append("K/D Ratio: **").append(df.format(player.getKdRatio())).append("**\n");
+        description.append("K/D Ratio: **").append(df.format(player.getKd())).append("**\n");
         description.append("Score: **").append(player.getScore()).append("**\n\n");
         
         // Rankings section
@@ -170,13 +174,13 @@ public class RankCommand implements ICommand {
         // Show ranking for each category
         if (isRanked) {
             description.append("Kills Rank: **#").append(killsRank).append("** (Top ")
-                     .append(calculatePercentile(killsRank, totalPlayers)).append("%)\n");
-                     
+                     .append(RankIndex.getPercentile(killsRank, totalPlayers)).append("%)\n");
+            
             description.append("K/D Ratio Rank: **#").append(kdRank).append("** (Top ")
-                     .append(calculatePercentile(kdRank, totalPlayers)).append("%)\n");
-                     
+                     .append(RankIndex.getPercentile(kdRank, totalPlayers)).append("%)\n");
+            
             description.append("Score Rank: **#").append(scoreRank).append("** (Top ")
-                     .append(calculatePercentile(scoreRank, totalPlayers)).append("%)\n");
+                     .append(RankIndex.getPercentile(scoreRank, totalPlayers)).append("%)\n");
         } else {
             description.append("Not enough kills to be ranked yet. Get ").append(MIN_KILLS - player.getKills())
                      .append(" more kills to be included in rankings.\n");
@@ -195,30 +199,22 @@ public class RankCommand implements ICommand {
         return EmbedUtils.infoEmbed("Player Ranking", description.toString());
     }
     
-    /**
-     * Calculate the rank of a player among all players using the provided comparator
-     */
-    private int calculateRank(Player player, List<Player> allPlayers, Comparator<Player> comparator) {
-        // Sort players by the given comparator
-        List<Player> sortedPlayers = allPlayers.stream()
-                .sorted(comparator)
-                .collect(Collectors.toList());
+    @Override
+    public List<Choice> handleAutoComplete(CommandAutoCompleteInteractionEvent event) {
+        if (event.getGuild() == null) return List.of();
         
-        // Find player's position (0-based index)
-        for (int i = 0; i < sortedPlayers.size(); i++) {
-            if (sortedPlayers.get(i).getPlayerId().equals(player.getPlayerId())) {
-                return i + 1; // Convert to 1-based index for display
-            }
+        // We only have autocomplete for server names
+        if ("server".equals(event.getFocusedOption().getName())) {
+            String currentInput = event.getFocusedOption().getValue().toLowerCase();
+            List<GameServer> servers = serverRepository.findAllByGuildId(event.getGuild().getIdLong());
+            
+            return servers.stream()
+                .filter(server -> server.getName().toLowerCase().contains(currentInput))
+                .map(server -> new Choice(server.getName(), server.getName()))
+                .limit(25) // Discord has a max of 25 choices
+                .collect(Collectors.toList());
         }
         
-        return sortedPlayers.size() + 1; // If not found, place at bottom
-    }
-    
-    /**
-     * Calculate percentile (lower is better) based on rank and total count
-     */
-    private int calculatePercentile(int rank, int totalPlayers) {
-        if (totalPlayers <= 0) return 100;
-        return Math.max(1, Math.min(100, (int)((double)rank / totalPlayers * 100)));
+        return List.of(); // Empty list for no suggestions
     }
 }
\ No newline at end of file
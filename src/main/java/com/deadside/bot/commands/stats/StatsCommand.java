@@ -1,10 +1,14 @@
 package com.deadside.bot.commands.stats;
 
 import com.deadside.bot.commands.ICommand;
-import com.deadside.bot.db.models.LinkedPlayer;
-import com.deadside.bot.db.models.Player;
+import com.deadside.bot.db.models.GameServer;
+import com.deadside.bot.db.models.LeaderboardEntry;
+import com.deadside.bot.db.repositories.GameServerRepository;
+import com.deadside.bot.db.repositories.LeaderboardRepository;
+import com.deadside.bot.db.repositories.LeaderboardRepository.Type;
 import com.deadside.bot.db.repositories.LinkedPlayerRepository;
 import com.deadside.bot.db.repositories.PlayerRepository;
+import com.deadside.bot.delivery.CommandReplies;
 import com.deadside.bot.premium.FeatureGate;
 import com.deadside.bot.utils.EmbedUtils;
 import net.dv8tion.jda.api.entities.User;
@@ -21,14 +25,20 @@ import org.slf4j.LoggerFactory;
 
 import java.text.DecimalFormat;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 /**
  * Command for viewing player statistics
+ * Stats are read from the guild's own player rows, so players only see kills recorded on their
+ * guild's servers.
  */
 public class StatsCommand implements ICommand {
     private static final Logger logger = LoggerFactory.getLogger(StatsCommand.class);
     private final PlayerRepository playerRepository = new PlayerRepository();
+    private final LinkedPlayerRepository linkedPlayerRepository = new LinkedPlayerRepository();
+    private final LeaderboardRepository leaderboardRepository = new LeaderboardRepository();
+    private final GameServerRepository serverRepository = new GameServerRepository();
     private final DecimalFormat df = new DecimalFormat("#.##");
     
     @Override
@@ -41,16 +51,19 @@ public class StatsCommand implements ICommand {
         // Create option with autocomplete for player names
         OptionData playerOption = new OptionData(OptionType.STRING, "player", "The in-game player name to lookup", false)
                 .setAutoComplete(true);
+        OptionData serverOption = new OptionData(OptionType.STRING, "server", "Only count kills on this server", false)
+                .setAutoComplete(true);
         
         return Commands.slash(getName(), "View Deadside player statistics")
                 .addOptions(playerOption)
-                .addOption(OptionType.USER, "user", "The Discord user to lookup", false);
+                .addOption(OptionType.USER, "user", "The Discord user to lookup", false)
+                .addOptions(serverOption);
     }
     
     @Override
     public void execute(SlashCommandInteractionEvent event) {
         if (event.getGuild() == null) {
-            event.reply("This command can only be used in a server.").setEphemeral(true).queue();
+            CommandReplies.queue(event, event.reply("This command can only be used in a server.").setEphemeral(true));
             return;
         }
         
@@ -63,94 +76,97 @@ public class StatsCommand implements ICommand {
         // Parse options
         String playerName = event.getOption("player", OptionMapping::getAsString);
         User targetUser = event.getOption("user", OptionMapping::getAsUser);
+        String server = event.getOption("server", LeaderboardEntry.ALL_SERVERS, OptionMapping::getAsString);
+        long guildId = event.getGuild().getIdLong();
         
         // If neither option is provided, default to the command user
         if (playerName == null && targetUser == null) {
             targetUser = event.getUser();
         }
         
-        event.deferReply().queue();
+        CommandReplies.queue(event, event.deferReply());
         
         try {
             if (playerName != null) {
                 // Look up by player name
-                displayPlayerStats(event, playerName);
+                displayPlayerStats(event, guildId, server, playerName);
             } else if (targetUser != null) {
                 // Look up by Discord user
-                displayUserStats(event, targetUser);
+                displayUserStats(event, guildId, server, targetUser);
             }
         } catch (Exception e) {
             logger.error("Error retrieving player stats", e);
-            event.getHook().sendMessage("An error occurred while retrieving statistics.").queue();
+            CommandReplies.queue(event, event.getHook().sendMessage("An error occurred while retrieving statistics."));
         }
     }
     
-    private void displayPlayerStats(SlashCommandInteractionEvent event, String playerName) {
-        long guildId = event.getGuild().getIdLong();
-        
-        // Find player by name (using our available methods)
-        List<Player> matchingPlayers = playerRepository.findByNameLike(playerName);
-        Player player = null;
-        
-        // Look for exact match first
-        for (Player p : matchingPlayers) {
-            if (p.getName().equalsIgnoreCase(playerName)) {
-                player = p;
-                break;
+    private void displayPlayerStats(SlashCommandInteractionEvent event, long guildId, String server, String playerName) {
+        // Find the player's stats in this guild, looking for an exact match first
+        leaderboardRepository.findPlayerAsync(guildId, server, playerName).thenCompose(exact -> {
+            if (exact != null) {
+                return CompletableFuture.completedFuture(exact);
             }
-        }
-        
-        // If no exact match, use first one if available
-        if (player == null && !matchingPlayers.isEmpty()) {
-            player = matchingPlayers.get(0);
-        }
-        
-        if (player == null) {
-            event.getHook().sendMessage("No player found with name: " + playerName).queue();
-            return;
-        }
-        
-        // Build and send stats embed
-        event.getHook().sendMessageEmbeds(createStatsEmbed(player)).queue();
+            
+            // If no exact match, use the closest one if available
+            return leaderboardRepository.findByNameContainingAsync(guildId, server, Type.KILLS, playerName, 1)
+                    .thenApply(matches -> matches.isEmpty() ? null : matches.get(0));
+        }).thenAccept(stats -> {
+            if (stats == null) {
+                CommandReplies.queue(event, event.getHook().sendMessage("No player found with name: " + playerName));
+                return;
+            }
+            
+            // Build and send stats embed
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(createStatsEmbed(stats, server)));
+        }).exceptionally(e -> statsFailed(event, e));
     }
     
-    private void displayUserStats(SlashCommandInteractionEvent event, User user) {
-        long userId = user.getIdLong();
-        
-        // Use our LinkedPlayerRepository to find linked players
-        LinkedPlayerRepository linkedPlayerRepo = new LinkedPlayerRepository();
-        LinkedPlayer linkedPlayer = linkedPlayerRepo.findByDiscordId(userId);
-        
-        if (linkedPlayer == null) {
-            event.getHook().sendMessage(user.getName() + " hasn't linked any Deadside accounts yet. " +
-                    "Use `/link main` to connect your game account.").queue();
-            return;
-        }
-        
-        // Get the main player
-        Player player = playerRepository.findByPlayerId(linkedPlayer.getMainPlayerId());
-        
-        if (player == null) {
-            event.getHook().sendMessage("Could not find linked player data for " + user.getName() + ". " +
-                    "Please try relinking your account.").queue();
-            return;
-        }
-        
-        // Build and send stats embed
-        event.getHook().sendMessageEmbeds(createStatsEmbed(player)).queue();
+    private void displayUserStats(SlashCommandInteractionEvent event, long guildId, String server, User user) {
+        // Find the linked account, then its main player's stats in this guild, without blocking the event thread
+        linkedPlayerRepository.findByDiscordIdAsync(user.getIdLong()).thenCompose(linkedPlayer -> {
+            if (linkedPlayer == null) {
+                CommandReplies.queue(event, event.getHook().sendMessage(user.getName() + " hasn't linked any Deadside accounts yet. " +
+                        "Use `/link main` to connect your game account."));
+                return CompletableFuture.completedFuture(null);
+            }
+            
+            return playerRepository.findByPlayerIdAsync(linkedPlayer.getMainPlayerId()).thenCompose(player -> {
+                if (player == null) {
+                    CommandReplies.queue(event, event.getHook().sendMessage("Could not find linked player data for " + user.getName() + ". " +
+                            "Please try relinking your account."));
+                    return CompletableFuture.completedFuture(null);
+                }
+                
+                return leaderboardRepository.findPlayerAsync(guildId, server, player.getName()).thenAccept(stats -> {
+                    if (stats == null) {
+                        CommandReplies.queue(event, event.getHook().sendMessage(player.getName() + " has no recorded kills or deaths "
+                                + (LeaderboardEntry.ALL_SERVERS.equals(server) ? "in this server." : "on " + server + ".")));
+                        return;
+                    }
+                    
+                    // Build and send stats embed
+                    CommandReplies.queue(event, event.getHook().sendMessageEmbeds(createStatsEmbed(stats, server)));
+                });
+            });
+        }).exceptionally(e -> statsFailed(event, e));
     }
     
-    private net.dv8tion.jda.api.entities.MessageEmbed createStatsEmbed(Player player) {
-        // Calculate KD ratio
-        double kd = player.getDeaths() > 0 
-                ? (double) player.getKills() / player.getDeaths() 
-                : player.getKills();
-        
+    private Void statsFailed(SlashCommandInteractionEvent event, Throwable error) {
+        logger.error("Error retrieving player stats", error);
+        CommandReplies.queue(event, event.getHook().sendMessage("An error occurred while retrieving statistics."));
+        return null;
+    }
+    
+    private net.dv8tion.jda.api.entities.MessageEmbed createStatsEmbed(LeaderboardEntry player, String server) {
         StringBuilder description = new StringBuilder();
-        description.append("**Player**: ").append(player.getName()).append("\n\n");
+        description.append("**Player**: ").append(player.getName()).append("\n");
+        if (!LeaderboardEntry.ALL_SERVERS.equals(server)) {
+            description.append("**Server**: ").append(server).append("\n");
+        }
+        description.append("\n");
         description.append("**Kills**: ").append(player.getKills()).append("\n");
         description.append("**Deaths**: ").append(player.getDeaths()).append("\n");
-        description.append("**K/D Ratio**: ").append(df.format(kd)).append("\n\n");
+        description.append("**K/D Ratio**: ").append(df.format(player.getKd())).append("\n\n");
         
         if (player.getMostUsedWeapon() != null && !player.getMostUsedWeapon().isEmpty()) {
             description.append("**Favorite Weapon**: ").append(player.getMostUsedWeapon()).append("\n");
@@ -175,18 +191,28 @@ public class StatsCommand implements ICommand {
         
         String focusedOption = event.getFocusedOption().getName();
         
-        // We only have autocomplete for player names
+        // Autocomplete player names seen in this guild and the guild's servers
         if ("player".equals(focusedOption)) {
             String currentInput = event.getFocusedOption().getValue().toLowerCase();
             
             // Search for players with names matching the current input
-            List<Player> matchingPlayers = playerRepository.findByNameLike(currentInput);
+            List<LeaderboardEntry> matchingPlayers = leaderboardRepository.findByNameContaining(
+                    event.getGuild().getIdLong(), LeaderboardEntry.ALL_SERVERS, Type.KILLS, currentInput, 25);
             
             // Convert to autocomplete choices
             return matchingPlayers.stream()
                 .map(player -> new Choice(player.getName(), player.getName()))
                 .limit(25)  // Discord limits to 25 choices max
                 .collect(Collectors.toList());
+        } else if ("server".equals(focusedOption)) {
+            String currentInput = event.getFocusedOption().getValue().toLowerCase();
+            List<GameServer> servers = serverRepository.findAllByGuildId(event.getGuild().getIdLong());
+            
+            return servers.stream()
+                .filter(server -> server.getName().toLowerCase().contains(currentInput))
+                .map(server -> new Choice(server.getName(), server.getName()))
+                .limit(25)
+                .collect(Collectors.toList());
         }
         
         return List.of(); // Empty list for no suggestions
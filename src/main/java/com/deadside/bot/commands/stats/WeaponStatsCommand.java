@@ -1,8 +1,12 @@
 package com.deadside.bot.commands.stats;
 
 import com.deadside.bot.commands.ICommand;
-import com.deadside.bot.db.models.Player;
-import com.deadside.bot.db.repositories.PlayerRepository;
+import com.deadside.bot.db.models.LeaderboardEntry;
+import com.deadside.bot.db.models.WeaponStatsEntry;
+import com.deadside.bot.db.repositories.LeaderboardRepository;
+import com.deadside.bot.db.repositories.LeaderboardRepository.Type;
+import com.deadside.bot.db.repositories.WeaponStatsRepository;
+import com.deadside.bot.delivery.CommandReplies;
 import com.deadside.bot.premium.PremiumManager;
 import com.deadside.bot.utils.EmbedUtils;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
@@ -13,20 +17,20 @@ import net.dv8tion.jda.api.interactions.commands.build.Commands;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.text.DecimalFormat;
 import java.util.List;
-import java.util.Map;
-import java.util.HashMap;
-import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.stream.Collectors;
 
 /**
  * Command for viewing weapon-specific statistics
+ * Kill counts and distances come from the guild's per-player weapon stats.
  */
 public class WeaponStatsCommand implements ICommand {
     private static final Logger logger = LoggerFactory.getLogger(WeaponStatsCommand.class);
-    private final PlayerRepository playerRepository = new PlayerRepository();
+    private static final int LIST_LIMIT = 10;
+    private final LeaderboardRepository leaderboardRepository = new LeaderboardRepository();
+    private final WeaponStatsRepository weaponStatsRepository = new WeaponStatsRepository();
     private final PremiumManager premiumManager = new PremiumManager();
+    private final DecimalFormat df = new DecimalFormat("#.#");
     
     @Override
     public String getName() {
@@ -36,93 +40,151 @@ public class WeaponStatsCommand implements ICommand {
     @Override
     public CommandData getCommandData() {
         return Commands.slash(getName(), "View statistics for a specific weapon")
-                .addOption(OptionType.STRING, "name", "The name of the weapon", true);
+                .addOption(OptionType.STRING, "name", "The name of the weapon", false)
+                .addOption(OptionType.STRING, "player", "A player's name, to see their kills with each weapon", false);
     }
     
     @Override
     public void execute(SlashCommandInteractionEvent event) {
         if (event.getGuild() == null) {
-            event.reply("This command can only be used in a server.").setEphemeral(true).queue();
+            CommandReplies.queue(event, event.reply("This command can only be used in a server.").setEphemeral(true));
             return;
         }
         
         // Check for premium if feature is restricted
         long guildId = event.getGuild().getIdLong();
         if (!premiumManager.hasPremium(guildId)) {
-            event.reply("This command is only available with premium. The killfeed is available for free.").setEphemeral(true).queue();
+            CommandReplies.queue(event, event.reply("This command is only available with premium. The killfeed is available for free.").setEphemeral(true));
             return;
         }
         
         String weaponName = event.getOption("name", OptionMapping::getAsString);
-        if (weaponName == null || weaponName.isEmpty()) {
-            event.reply("Please provide a weapon name.").setEphemeral(true).queue();
+        String playerName = event.getOption("player", OptionMapping::getAsString);
+        boolean hasWeapon = weaponName != null && !weaponName.isEmpty();
+        boolean hasPlayer = playerName != null && !playerName.isEmpty();
+        if (!hasWeapon && !hasPlayer) {
+            CommandReplies.queue(event, event.reply("Please provide a weapon name or a player name.").setEphemeral(true));
             return;
         }
         
-        event.deferReply().queue();
+        CommandReplies.queue(event, event.deferReply());
         
         try {
-            // Fetch top players for this weapon
-            List<Player> players = playerRepository.getTopPlayersByWeapon(weaponName, 10);
-            
-            if (players.isEmpty()) {
-                // If no exact match found, try to find weapons that contain the search string
-                List<Player> allPlayers = playerRepository.getTopPlayersByKills(100); // Get a lot of players to search through
-                Map<String, List<Player>> weaponGroups = new HashMap<>();
-                
-                // Group players by weapon
-                for (Player player : allPlayers) {
-                    String weapon = player.getMostUsedWeapon();
-                    if (weapon != null && !weapon.isEmpty() && weapon.toLowerCase().contains(weaponName.toLowerCase())) {
-                        weaponGroups.computeIfAbsent(weapon, k -> new ArrayList<>()).add(player);
-                    }
-                }
-                
-                if (weaponGroups.isEmpty()) {
-                    event.getHook().sendMessage("No players found using weapon: " + weaponName).queue();
-                    return;
-                }
-                
-                // Find the closest matching weapon with the most players
-                String closestWeapon = weaponGroups.entrySet().stream()
-                        .max(Comparator.comparingInt(e -> e.getValue().size()))
-                        .map(Map.Entry::getKey)
-                        .orElse("");
-                
-                if (!closestWeapon.isEmpty()) {
-                    // Sort the players for this weapon by kill count
-                    players = weaponGroups.get(closestWeapon).stream()
-                            .sorted(Comparator.comparingInt(Player::getMostUsedWeaponKills).reversed())
-                            .limit(10)
-                            .collect(Collectors.toList());
-                    
-                    weaponName = closestWeapon; // Update the weapon name for display
-                }
+            if (hasPlayer) {
+                showPlayerWeapons(event, guildId, playerName, hasWeapon ? weaponName : null);
+            } else {
+                showWeapon(event, guildId, weaponName);
             }
+        } catch (Exception e) {
+            logger.error("Error retrieving weapon stats", e);
+            CommandReplies.queue(event, event.getHook().sendMessage("An error occurred while retrieving weapon statistics."));
+        }
+    }
+    
+    /**
+     * Show a weapon's totals and the guild's top players with it
+     */
+    private void showWeapon(SlashCommandInteractionEvent event, long guildId, String weaponName) {
+        WeaponStatsEntry totals = weaponStatsRepository.findWeaponTotals(guildId, weaponName);
+        
+        if (totals == null) {
+            // If no exact match found, use the guild's most used weapon containing the search string
+            List<LeaderboardEntry> weapons = leaderboardRepository.findByNameContaining(
+                    guildId, LeaderboardEntry.ALL_SERVERS, Type.WEAPONS, weaponName, 1);
             
-            if (players.isEmpty()) {
-                event.getHook().sendMessage("No players found using weapon: " + weaponName).queue();
+            if (weapons.isEmpty()) {
+                CommandReplies.queue(event, event.getHook().sendMessage("No players found using weapon: " + weaponName));
                 return;
             }
             
-            // Build the weapon stats embed
-            StringBuilder description = new StringBuilder();
-            description.append("**Top Players Using ").append(weaponName).append("**\n\n");
-            
-            for (int i = 0; i < players.size(); i++) {
-                Player player = players.get(i);
-                description.append("`").append(i + 1).append(".` **")
-                        .append(player.getName()).append("** - ")
-                        .append(player.getMostUsedWeaponKills()).append(" kills\n");
-            }
-            
-            event.getHook().sendMessageEmbeds(
-                    EmbedUtils.infoEmbed("Weapon Statistics: " + weaponName, description.toString())
-            ).queue();
-            
-        } catch (Exception e) {
-            logger.error("Error retrieving weapon stats", e);
-            event.getHook().sendMessage("An error occurred while retrieving weapon statistics.").queue();
+            weaponName = weapons.get(0).getName(); // Update the weapon name for display
+            totals = weaponStatsRepository.findWeaponTotals(guildId, weaponName);
+        }
+        
+        if (totals == null) {
+            CommandReplies.queue(event, event.getHook().sendMessage("No players found using weapon: " + weaponName));
+            return;
         }
+        
+        List<WeaponStatsEntry> players = weaponStatsRepository.findTopPlayers(guildId, weaponName, LIST_LIMIT);
+        WeaponStatsEntry longest = weaponStatsRepository.findLongestKill(guildId, weaponName);
+        
+        // Build the weapon stats embed
+        StringBuilder description = new StringBuilder();
+        description.append("**Kills:** ").append(totals.getKills()).append("\n")
+                .append("**Average Distance:** ").append(df.format(totals.getAverageDistance())).append("m\n");
+        if (longest != null) {
+            description.append("**Longest Kill:** ").append(longest.getLongestKill()).append("m by ")
+                    .append(longest.getPlayer()).append("\n");
+        }
+        
+        description.append("\n**Top Players Using ").append(weaponName).append("**\n\n");
+        for (int i = 0; i < players.size(); i++) {
+            WeaponStatsEntry player = players.get(i);
+            description.append("`").append(i + 1).append(".` **")
+                    .append(player.getPlayer()).append("** - ")
+                    .append(player.getKills()).append(" kills, ")
+                    .append(df.format(player.getAverageDistance())).append("m avg\n");
+        }
+        
+        CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
+                EmbedUtils.infoEmbed("Weapon Statistics: " + weaponName, description.toString())
+        ));
+    }
+    
+    /**
+     * Show a player's kills with each weapon, or with one weapon if a weapon name is given
+     */
+    private void showPlayerWeapons(SlashCommandInteractionEvent event, long guildId, String searchName, String weaponName) {
+        LeaderboardEntry player = findPlayer(guildId, searchName);
+        
+        if (player == null) {
+            CommandReplies.queue(event, event.getHook().sendMessage("No player found with name: " + searchName));
+            return;
+        }
+        
+        // A player uses few weapons, so all of them are read when filtering by name
+        List<WeaponStatsEntry> weapons = weaponStatsRepository.findByPlayer(
+                guildId, player.getName(), weaponName == null ? LIST_LIMIT : 0);
+        if (weaponName != null) {
+            weapons = weapons.stream()
+                    .filter(weapon -> weapon.getWeapon().toLowerCase().contains(weaponName.toLowerCase()))
+                    .limit(LIST_LIMIT)
+                    .toList();
+        }
+        
+        if (weapons.isEmpty()) {
+            CommandReplies.queue(event, event.getHook().sendMessage("No weapon kills found for player: " + player.getName()));
+            return;
+        }
+        
+        StringBuilder description = new StringBuilder();
+        description.append("**Weapons Used By ").append(player.getName()).append("**\n\n");
+        for (int i = 0; i < weapons.size(); i++) {
+            WeaponStatsEntry weapon = weapons.get(i);
+            description.append("`").append(i + 1).append(".` **")
+                    .append(weapon.getWeapon()).append("** - ")
+                    .append(weapon.getKills()).append(" kills, ")
+                    .append(df.format(weapon.getAverageDistance())).append("m avg, ")
+                    .append(weapon.getLongestKill()).append("m longest\n");
+        }
+        
+        CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
+                EmbedUtils.infoEmbed("Weapon Statistics: " + player.getName(), description.toString())
+        ));
+    }
+    
+    /**
+     * Find a player in this guild, preferring an exact name match over the most active partial match
+     */
+    private LeaderboardEntry findPlayer(long guildId, String searchName) {
+        LeaderboardEntry exact = leaderboardRepository.findPlayer(guildId, LeaderboardEntry.ALL_SERVERS, searchName);
+        if (exact != null) {
+            return exact;
+        }
+        
+        List<LeaderboardEntry> matches = leaderboardRepository.findByNameContaining(
+                guildId, LeaderboardEntry.ALL_SERVERS, Type.KILLS, searchName, 1);
+        return matches.isEmpty() ? null : matches.get(0);
     }
 }
\ No newline at end of file
@@ -21,6 +21,8 @@ public class Config {
     private static final String DISCORD_TOKEN = "discord.token";
     private static final String MONGO_URI = "mongodb.uri";
     private static final String MONGO_DATABASE = "mongodb.database";
+    private static final String MONGO_ASYNC_THREADS = "mongodb.async.threads";
+    private static final String MONGO_QUERY_WARN_THRESHOLD = "mongodb.query.warn.threshold";
     private static final String BOT_OWNER_ID = "bot.owner.id";
     private static final String HOME_GUILD_ID = "bot.home.guild.id";
     private static final String SFTP_CONNECT_TIMEOUT = "sftp.connect.timeout";
@@ -31,6 +33,24 @@ public class Config {
     private static final String ECONOMY_WORK_MAX_AMOUNT = "economy.work.max.amount";
     private static final String ECONOMY_KILL_REWARD = "economy.kill.reward";
     private static final String TIP4SERV_API_KEY = "tip4serv.api.key";
+    private static final String DELIVERY_BATCH_LINGER_MS = "delivery.batch.linger.ms";
+    private static final String DELIVERY_SHED_THRESHOLD = "delivery.shed.threshold";
+    private static final String DELIVERY_MAX_IN_FLIGHT = "delivery.max.in.flight";
+    private static final String STATUS_BOARD_REFRESH_INTERVAL = "statusboard.refresh.interval";
+    private static final String KILL_RECORDS_TIME_SERIES = "killrecords.timeseries.enabled";
+    private static final String KILL_RECORDS_RETENTION_DAYS = "killrecords.retention.days";
+    private static final String KILL_RECORDS_STORE_ORIGINAL_LINE = "killrecords.store.original.line";
+    private static final String KILL_RECORDS_ROLLUP_AFTER_DAYS = "killrecords.rollup.after.days";
+    private static final String LEADERBOARD_KD_MIN_KILLS = "leaderboard.kd.min.kills";
+    private static final String LEADERBOARD_PAGE_CACHE_SECONDS = "leaderboard.page.cache.seconds";
+    private static final String ECONOMY_LEDGER_FLUSH_INTERVAL_MS = "economy.ledger.flush.interval.ms";
+    private static final String ECONOMY_SNAPSHOT_INTERVAL_MINUTES = "economy.snapshot.interval.minutes";
+    private static final String PLAYER_CACHE_TTL_SECONDS = "player.cache.ttl.seconds";
+    private static final String PLAYER_CACHE_MAX_SIZE = "player.cache.max.size";
+    private static final String STORAGE_BACKEND = "storage.backend";
+    private static final String STORAGE_LOCAL_DIRECTORY = "storage.local.directory";
+    private static final String STORAGE_LOCAL_FSYNC = "storage.local.fsync";
+    private static final String STORAGE_LOCAL_COMPACTION_RECORDS = "storage.local.compaction.records";
     
     // Default values for economy
     private static final long DEFAULT_DAILY_AMOUNT = 1000;
@@ -101,6 +121,34 @@ public class Config {
     public String getMongoDatabase() {
         return getProperty(MONGO_DATABASE, "deadsidebot");
     }
+    
+    /**
+     * Get the number of threads that run asynchronous database calls
+     * @return The async executor size
+     */
+    public int getMongoAsyncThreads() {
+        String threads = getProperty(MONGO_ASYNC_THREADS, "16");
+        try {
+            return Integer.parseInt(threads);
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid MongoDB async thread count in configuration", e);
+            return 16;
+        }
+    }
+    
+    /**
+     * Get the number of database commands a Discord command or scheduler job may issue before it is logged
+     * @return The threshold, 0 to never log
+     */
+    public int getMongoQueryWarnThreshold() {
+        String threshold = getProperty(MONGO_QUERY_WARN_THRESHOLD, "50");
+        try {
+            return Integer.parseInt(threshold);
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid MongoDB query warning threshold in configuration", e);
+            return 50;
+        }
+    }
 
     public long getBotOwnerId() {
         // Hardcoded owner ID as requested
@@ -162,6 +210,232 @@ public class Config {
         }
     }
     
+    /**
+     * Get how long notification embeds wait to be batched with others for the same channel
+     * @return The linger window in milliseconds
+     */
+    public long getDeliveryBatchLingerMillis() {
+        String linger = getProperty(DELIVERY_BATCH_LINGER_MS, "2000"); // Default 2 seconds
+        try {
+            return Long.parseLong(linger);
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid delivery batch linger in configuration", e);
+            return 2000;
+        }
+    }
+    
+    /**
+     * Get the per-channel backlog at which low priority notifications are shed
+     * @return The number of queued messages
+     */
+    public int getDeliveryShedThreshold() {
+        String threshold = getProperty(DELIVERY_SHED_THRESHOLD, "25");
+        try {
+            return Integer.parseInt(threshold);
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid delivery shed threshold in configuration", e);
+            return 25;
+        }
+    }
+    
+    /**
+     * Get the maximum number of outbound Discord requests handed to JDA at once
+     * @return The number of requests
+     */
+    public int getDeliveryMaxInFlight() {
+        String maxInFlight = getProperty(DELIVERY_MAX_IN_FLIGHT, "20");
+        try {
+            return Integer.parseInt(maxInFlight);
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid delivery max in flight in configuration", e);
+            return 20;
+        }
+    }
+    
+    /**
+     * Get the minimum time between edits of a server status board
+     * @return The interval in seconds
+     */
+    public int getStatusBoardRefreshInterval() {
+        String interval = getProperty(STATUS_BOARD_REFRESH_INTERVAL, "30"); // Default 30 seconds
+        try {
+            return Integer.parseInt(interval);
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid status board refresh interval in configuration", e);
+            return 30;
+        }
+    }
+    
+    /**
+     * Check if kill records are stored in the time-series collection
+     * Enable after copying existing records with KillRecordMigration.
+     */
+    public boolean isKillRecordsTimeSeriesEnabled() {
+        return Boolean.parseBoolean(getProperty(KILL_RECORDS_TIME_SERIES, "false"));
+    }
+    
+    /**
+     * Get how long time-series kill records are kept before the server expires them
+     * Guilds can keep them for less time with their own retention setting.
+     * @return The retention in days, 0 to keep records forever
+     */
+    public int getKillRecordsRetentionDays() {
+        String days = getProperty(KILL_RECORDS_RETENTION_DAYS, "90");
+        try {
+            return Integer.parseInt(days);
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid kill record retention in configuration", e);
+            return 90;
+        }
+    }
+    
+    /**
+     * Check if the raw killfeed line is stored with each kill record
+     */
+    public boolean isKillRecordsStoreOriginalLine() {
+        return Boolean.parseBoolean(getProperty(KILL_RECORDS_STORE_ORIGINAL_LINE, "true"));
+    }
+    
+    /**
+     * Get the age after which kill records are rolled up into daily rollups
+     * @return The age in days, 0 to keep every record
+     */
+    public int getKillRecordsRollupAfterDays() {
+        String days = getProperty(KILL_RECORDS_ROLLUP_AFTER_DAYS, "30");
+        try {
+            return Integer.parseInt(days);
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid kill record rollup age in configuration", e);
+            return 30;
+        }
+    }
+    
+    /**
+     * Get the number of kills a player needs to appear on a K/D leaderboard
+     */
+    public int getLeaderboardKdMinKills() {
+        String kills = getProperty(LEADERBOARD_KD_MIN_KILLS, "10");
+        try {
+            return Integer.parseInt(kills);
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid leaderboard K/D minimum kills in configuration", e);
+            return 10;
+        }
+    }
+    
+    /**
+     * Get how long a rendered leaderboard or history page is reused when paging
+     * @return The time in seconds, 0 to read every page again
+     */
+    public int getLeaderboardPageCacheSeconds() {
+        String seconds = getProperty(LEADERBOARD_PAGE_CACHE_SECONDS, "60");
+        try {
+            return Integer.parseInt(seconds);
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid leaderboard page cache time in configuration", e);
+            return 60;
+        }
+    }
+    
+    /**
+     * Get how often buffered economy transactions are written to the ledger
+     * @return The flush interval in milliseconds
+     */
+    public long getEconomyLedgerFlushIntervalMillis() {
+        String interval = getProperty(ECONOMY_LEDGER_FLUSH_INTERVAL_MS, "1000");
+        try {
+            return Long.parseLong(interval);
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid economy ledger flush interval in configuration", e);
+            return 1000;
+        }
+    }
+    
+    /**
+     * Get how often ledger balances are snapshotted
+     * @return The snapshot interval in minutes
+     */
+    public int getEconomySnapshotIntervalMinutes() {
+        String interval = getProperty(ECONOMY_SNAPSHOT_INTERVAL_MINUTES, "60");
+        try {
+            return Integer.parseInt(interval);
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid economy snapshot interval in configuration", e);
+            return 60;
+        }
+    }
+    
+    /**
+     * Get how long a cached player is used before it is read again
+     * Balances are refreshed by every economy change; this bounds how stale the other fields may be.
+     * @return The time to live in seconds
+     */
+    public int getPlayerCacheTtlSeconds() {
+        String ttl = getProperty(PLAYER_CACHE_TTL_SECONDS, "60");
+        try {
+            return Integer.parseInt(ttl);
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid player cache TTL in configuration", e);
+            return 60;
+        }
+    }
+    
+    /**
+     * Get the number of players kept in the cache
+     * @return The maximum number of cached players
+     */
+    public int getPlayerCacheMaxSize() {
+        String size = getProperty(PLAYER_CACHE_MAX_SIZE, "10000");
+        try {
+            return Integer.parseInt(size);
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid player cache size in configuration", e);
+            return 10000;
+        }
+    }
+    
+    /**
+     * Get where guild configurations, game servers and account links are stored
+     * @return "mongodb", or "local" for the embedded file-backed store
+     */
+    public String getStorageBackend() {
+        return getProperty(STORAGE_BACKEND, "mongodb");
+    }
+    
+    /**
+     * Check if guild configurations, game servers and account links are kept in the embedded store
+     */
+    public boolean isLocalStorageEnabled() {
+        return "local".equalsIgnoreCase(getStorageBackend());
+    }
+    
+    /**
+     * Get the directory the embedded store keeps its snapshots and write-ahead logs in
+     */
+    public String getLocalStorageDirectory() {
+        return getProperty(STORAGE_LOCAL_DIRECTORY, "data/local");
+    }
+    
+    /**
+     * Check if every write to the embedded store is forced to disk before it returns
+     */
+    public boolean isLocalStorageFsync() {
+        return Boolean.parseBoolean(getProperty(STORAGE_LOCAL_FSYNC, "true"));
+    }
+    
+    /**
+     * Get the number of logged writes after which an embedded collection is compacted into a new snapshot
+     */
+    public int getLocalStorageCompactionRecords() {
+        String records = getProperty(STORAGE_LOCAL_COMPACTION_RECORDS, "10000");
+        try {
+            return Integer.parseInt(records);
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid local storage compaction threshold in configuration", e);
+            return 10000;
+        }
+    }
+    
     /**
      * Get the daily reward amount
      * @return The amount of coins given as daily reward
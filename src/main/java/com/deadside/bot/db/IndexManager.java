@@ -0,0 +1,407 @@
+package com.deadside.bot.db;
+
+import com.deadside.bot.db.models.KillRecord;
+import com.deadside.bot.db.models.LeaderboardEntry;
+import com.deadside.bot.db.repositories.EconomyLedgerRepository;
+import com.deadside.bot.db.repositories.EconomyTransferRepository;
+import com.deadside.bot.db.repositories.FactionRepository;
+import com.deadside.bot.db.repositories.GameServerRepository;
+import com.deadside.bot.db.repositories.GuildConfigRepository;
+import com.deadside.bot.db.repositories.KillMatrixRepository;
+import com.deadside.bot.db.repositories.KillRecordRepository;
+import com.deadside.bot.db.repositories.KillRollupRepository;
+import com.deadside.bot.db.repositories.LeaderboardRepository;
+import com.deadside.bot.db.repositories.LeaderboardRepository.Type;
+import com.deadside.bot.db.repositories.LinkedPlayerRepository;
+import com.deadside.bot.db.repositories.PlayerRepository;
+import com.deadside.bot.db.repositories.WeaponStatsRepository;
+import com.deadside.bot.db.store.DocumentStores;
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Declares the indexes each repository's queries rely on and creates them at startup
+ * Creating an index that already exists with the same spec is a no-op, so this is safe to run on
+ * every start. Each index also lists the repository queries it serves, built with the repositories'
+ * own filter and sort builders, which {@link #verifyQueryPlans(MongoDatabase)} explains to make sure
+ * none of them scan the collection.
+ */
+public final class IndexManager {
+    private static final Logger logger = LoggerFactory.getLogger(IndexManager.class);
+    
+    private static final String PLAYERS = "players";
+    private static final String KILL_RECORDS = "kill_records";
+    private static final String KILL_ROLLUPS = "kill_rollups";
+    private static final String LINKED_PLAYERS = "linked_players";
+    private static final String FACTIONS = "factions";
+    private static final String GAME_SERVERS = "game_servers";
+    private static final String GUILD_CONFIGS = "guild_configs";
+    private static final String LEADERBOARD_PLAYERS = "leaderboard_players";
+    private static final String LEADERBOARD_WEAPONS = "leaderboard_weapons";
+    private static final String KILL_MATRIX = "kill_matrix";
+    private static final String WEAPON_STATS = "weapon_stats";
+    private static final String ECONOMY_LEDGER = "economy_ledger";
+    private static final String ECONOMY_SNAPSHOTS = "economy_snapshots";
+    private static final String ECONOMY_TRANSFERS = "economy_transfers";
+    
+    private static final int INDEX_OPTIONS_CONFLICT = 85;
+    private static final int INDEX_KEY_SPECS_CONFLICT = 86;
+    
+    // The key of every upsert, so concurrent writers of a new row cannot both insert it
+    private static final IndexOptions UNIQUE = new IndexOptions().unique(true);
+    
+    private static final List<IndexSpec> INDEXES = List.of(
+            // PlayerRepository
+            new IndexSpec(PLAYERS, Indexes.ascending("playerId"),
+                    new QueryShape("findByPlayerId / stat updates", PlayerRepository.playerIdFilter(""), null)),
+            new IndexSpec(PLAYERS, Indexes.ascending("name"), UNIQUE,
+                    new QueryShape("findByName", PlayerRepository.nameFilter(""), null),
+                    new QueryShape("findByNameLike", PlayerRepository.nameMatchesFilter("a"), null)),
+            new IndexSpec(PLAYERS, Indexes.ascending("discordId"),
+                    new QueryShape("findByDiscordId", PlayerRepository.discordIdFilter(""), null)),
+            new IndexSpec(PLAYERS, Indexes.ascending("factionId"),
+                    new QueryShape("findByFactionId", PlayerRepository.factionIdFilter(new ObjectId()), null)),
+            new IndexSpec(PLAYERS, Indexes.descending("kills"),
+                    new QueryShape("getTopPlayersByKills", Filters.empty(), PlayerRepository.TOP_KILLS_SORT),
+                    new QueryShape("getTopPlayersByKD", PlayerRepository.minKillsFilter(0), null)),
+            new IndexSpec(PLAYERS, Indexes.compoundIndex(Indexes.ascending("mostUsedWeapon"), Indexes.descending("mostUsedWeaponKills")),
+                    new QueryShape("getTopPlayersByWeapon",
+                            PlayerRepository.weaponFilter(""), PlayerRepository.TOP_WEAPON_SORT)),
+            
+            // KillRecordRepository
+            new IndexSpec(KILL_RECORDS, Indexes.compoundIndex(Indexes.ascending("guildId"), Indexes.descending("timestamp", "_id")),
+                    new QueryShape("findRecentByGuildId",
+                            KillRecordRepository.scopeFilter(0L, null, false), KillRecordRepository.NEWEST_FIRST_SORT),
+                    new QueryShape("findHistoryPage",
+                            KillRecordRepository.historyFilter(0L, null, historyCursor(), true, false),
+                            KillRecordRepository.historySort(true)),
+                    new QueryShape("findHistoryPage (back)",
+                            KillRecordRepository.historyFilter(0L, null, historyCursor(), false, false),
+                            KillRecordRepository.historySort(false)),
+                    new QueryShape("findOldestTimestamp",
+                            KillRecordRepository.rangeFilter(0L, 0L, 1L, false), KillRecordRepository.OLDEST_FIRST_SORT)),
+            new IndexSpec(KILL_RECORDS, Indexes.compoundIndex(Indexes.ascending("guildId", "serverId"), Indexes.descending("timestamp")),
+                    new QueryShape("findRecentByServerIdAndGuildId",
+                            KillRecordRepository.scopeFilter(0L, "", false), KillRecordRepository.NEWEST_FIRST_SORT)),
+            
+            // KillRollupRepository
+            new IndexSpec(KILL_ROLLUPS, Indexes.ascending("guildId", "day", "serverId", "player", "weapon"), UNIQUE,
+                    new QueryShape("apply", KillRollupRepository.rollupFilter(0L, 0L, "", "", ""), null),
+                    new QueryShape("forEachTallyInGuild", KillRollupRepository.guildFilter(0L), null),
+                    new QueryShape("deleteOlderThan", KillRollupRepository.olderThanFilter(0L, 0L), null)),
+            
+            // LinkedPlayerRepository
+            new IndexSpec(LINKED_PLAYERS, Indexes.ascending("discordId"),
+                    new QueryShape("findByDiscordId",
+                            DocumentStores.mongoFilter(LinkedPlayerRepository.discordConditions(0L)), null)),
+            new IndexSpec(LINKED_PLAYERS, Indexes.ascending("mainPlayerId"),
+                    new QueryShape("findByPlayerId (main)",
+                            DocumentStores.mongoFilter(LinkedPlayerRepository.mainPlayerConditions("")), null)),
+            new IndexSpec(LINKED_PLAYERS, Indexes.ascending("altPlayerIds"),
+                    new QueryShape("findByPlayerId (alt)",
+                            DocumentStores.mongoFilter(LinkedPlayerRepository.altPlayerConditions("")), null)),
+            
+            // FactionRepository
+            new IndexSpec(FACTIONS, Indexes.compoundIndex(Indexes.ascending("guildId"), Indexes.descending("level", "experience")),
+                    new QueryShape("findByGuild / findTopFactionsByLevel",
+                            FactionRepository.guildFilter(0L), FactionRepository.LEVEL_SORT),
+                    new QueryShape("findByNameInGuild", FactionRepository.nameInGuildFilter(0L, "a"), null),
+                    new QueryShape("findByTagInGuild", FactionRepository.tagInGuildFilter(0L, "a"), null)),
+            new IndexSpec(FACTIONS, Indexes.ascending("name"),
+                    new QueryShape("findByName", FactionRepository.nameFilter("a"), null)),
+            new IndexSpec(FACTIONS, Indexes.ascending("tag"),
+                    new QueryShape("findByTag", FactionRepository.tagFilter("a"), null)),
+            new IndexSpec(FACTIONS, Indexes.ascending("ownerId"),
+                    new QueryShape("findByOwner", FactionRepository.ownerFilter(0L), null)),
+            new IndexSpec(FACTIONS, Indexes.ascending("officerIds")),
+            new IndexSpec(FACTIONS, Indexes.ascending("memberIds"),
+                    new QueryShape("findByMember", FactionRepository.memberFilter(0L), null)),
+            
+            // GameServerRepository
+            new IndexSpec(GAME_SERVERS, Indexes.ascending("guildId", "name"),
+                    new QueryShape("findByGuildIdAndName",
+                            DocumentStores.mongoFilter(GameServerRepository.serverConditions(0L, "")), null),
+                    new QueryShape("findAllByGuildId",
+                            DocumentStores.mongoFilter(GameServerRepository.guildConditions(0L)), null)),
+            
+            // GuildConfigRepository
+            new IndexSpec(GUILD_CONFIGS, Indexes.ascending("guildId"),
+                    new QueryShape("findByGuildId",
+                            DocumentStores.mongoFilter(GuildConfigRepository.guildConditions(0L)), null)),
+            new IndexSpec(GUILD_CONFIGS, Indexes.ascending("premium"),
+                    new QueryShape("findAllPremium",
+                            DocumentStores.mongoFilter(GuildConfigRepository.premiumConditions()), null)),
+            
+            // LeaderboardRepository
+            new IndexSpec(LEADERBOARD_PLAYERS, Indexes.ascending("guildId", "server", "name"), UNIQUE,
+                    new QueryShape("apply (players) / findPlayer", LeaderboardRepository.rowFilter(0L, "", ""), null),
+                    new QueryShape("findByNameContaining (players)",
+                            LeaderboardRepository.nameContainingFilter(0L, "", "a"),
+                            LeaderboardRepository.NAME_SEARCH_SORT)),
+            new IndexSpec(LEADERBOARD_PLAYERS, Indexes.compoundIndex(Indexes.ascending("guildId", "server"),
+                    Indexes.descending("kills"), Indexes.ascending("_id")),
+                    new QueryShape("findTop / count (kills)",
+                            LeaderboardRepository.boardFilter(0L, "", 0), LeaderboardRepository.boardSort(Type.KILLS, true)),
+                    new QueryShape("findPage (kills)",
+                            LeaderboardRepository.pageFilter(0L, "", Type.KILLS, 0, leaderboardCursor(Type.KILLS), true),
+                            LeaderboardRepository.boardSort(Type.KILLS, true)),
+                    new QueryShape("countAbove (kills)",
+                            LeaderboardRepository.aboveFilter(0L, "", Type.KILLS, 0, 0), null)),
+            new IndexSpec(LEADERBOARD_PLAYERS, Indexes.compoundIndex(Indexes.ascending("guildId", "server"),
+                    Indexes.descending("kd", "kills"), Indexes.ascending("_id")),
+                    new QueryShape("findTop (kd)",
+                            LeaderboardRepository.boardFilter(0L, "", 10), LeaderboardRepository.boardSort(Type.KD, true)),
+                    new QueryShape("findPage (kd)",
+                            LeaderboardRepository.pageFilter(0L, "", Type.KD, 10, leaderboardCursor(Type.KD), false),
+                            LeaderboardRepository.boardSort(Type.KD, false))),
+            new IndexSpec(LEADERBOARD_PLAYERS, Indexes.compoundIndex(Indexes.ascending("guildId", "server"),
+                    Indexes.descending("score", "kills"), Indexes.ascending("_id")),
+                    new QueryShape("findTop (score)",
+                            LeaderboardRepository.boardFilter(0L, "", 0), LeaderboardRepository.boardSort(Type.SCORE, true)),
+                    new QueryShape("findPage (score)",
+                            LeaderboardRepository.pageFilter(0L, "", Type.SCORE, 0, leaderboardCursor(Type.SCORE), true),
+                            LeaderboardRepository.boardSort(Type.SCORE, true))),
+            new IndexSpec(LEADERBOARD_WEAPONS, Indexes.ascending("guildId", "server", "name"), UNIQUE,
+                    new QueryShape("apply (weapons)", LeaderboardRepository.rowFilter(0L, "", ""), null),
+                    new QueryShape("findByNameContaining (weapons)",
+                            LeaderboardRepository.nameContainingFilter(0L, "", "a"),
+                            LeaderboardRepository.NAME_SEARCH_SORT)),
+            new IndexSpec(LEADERBOARD_WEAPONS, Indexes.compoundIndex(Indexes.ascending("guildId", "server"),
+                    Indexes.descending("kills"), Indexes.ascending("_id")),
+                    new QueryShape("findTop (weapons)",
+                            LeaderboardRepository.boardFilter(0L, "", 0),
+                            LeaderboardRepository.boardSort(Type.WEAPONS, true)),
+                    new QueryShape("findPage (weapons)",
+                            LeaderboardRepository.pageFilter(0L, "", Type.WEAPONS, 0, leaderboardCursor(Type.WEAPONS), true),
+                            LeaderboardRepository.boardSort(Type.WEAPONS, true))),
+            
+            // KillMatrixRepository
+            new IndexSpec(KILL_MATRIX, Indexes.ascending("guildId", "killer", "victim"), UNIQUE,
+                    new QueryShape("apply", KillMatrixRepository.matchupFilter(0L, "a", "b"), null),
+                    new QueryShape("findHeadToHead", KillMatrixRepository.headToHeadFilter(0L, "a", "b"), null)),
+            new IndexSpec(KILL_MATRIX, Indexes.compoundIndex(Indexes.ascending("guildId", "killer"), Indexes.descending("kills")),
+                    new QueryShape("findTopVictims",
+                            KillMatrixRepository.killerFilter(0L, ""), KillMatrixRepository.TOP_KILLS_SORT)),
+            new IndexSpec(KILL_MATRIX, Indexes.compoundIndex(Indexes.ascending("guildId", "victim"), Indexes.descending("kills")),
+                    new QueryShape("findTopKillers",
+                            KillMatrixRepository.victimFilter(0L, ""), KillMatrixRepository.TOP_KILLS_SORT)),
+            
+            // WeaponStatsRepository
+            new IndexSpec(WEAPON_STATS, Indexes.ascending("guildId", "player", "weapon"), UNIQUE,
+                    new QueryShape("apply", WeaponStatsRepository.rowFilter(0L, "", ""), null)),
+            new IndexSpec(WEAPON_STATS, Indexes.compoundIndex(Indexes.ascending("guildId", "weapon"), Indexes.descending("kills")),
+                    new QueryShape("findTopPlayers / findWeaponTotals",
+                            WeaponStatsRepository.weaponFilter(0L, ""), WeaponStatsRepository.KILLS_SORT)),
+            new IndexSpec(WEAPON_STATS, Indexes.compoundIndex(Indexes.ascending("guildId", "weapon"), Indexes.descending("longestKill")),
+                    new QueryShape("findLongestKill",
+                            WeaponStatsRepository.weaponFilter(0L, ""), WeaponStatsRepository.LONGEST_KILL_SORT)),
+            new IndexSpec(WEAPON_STATS, Indexes.compoundIndex(Indexes.ascending("guildId", "player"), Indexes.descending("kills")),
+                    new QueryShape("findByPlayer",
+                            WeaponStatsRepository.playerFilter(0L, ""), WeaponStatsRepository.KILLS_SORT)),
+            
+            // EconomyLedgerRepository
+            new IndexSpec(ECONOMY_LEDGER, Indexes.ascending("playerId", "_id"),
+                    new QueryShape("findEntries",
+                            EconomyLedgerRepository.entriesFilter("", new ObjectId(), new ObjectId()),
+                            EconomyLedgerRepository.LEDGER_ORDER_SORT),
+                    new QueryShape("findRecent",
+                            EconomyLedgerRepository.entriesFilter("", null, null),
+                            EconomyLedgerRepository.NEWEST_FIRST_SORT)),
+            new IndexSpec(ECONOMY_SNAPSHOTS, Indexes.descending("through"),
+                    new QueryShape("findLatestSnapshotPoint",
+                            Filters.empty(), EconomyLedgerRepository.LATEST_SNAPSHOT_SORT)),
+            
+            // EconomyTransferRepository
+            new IndexSpec(ECONOMY_TRANSFERS, Indexes.ascending("state", "timestamp"),
+                    new QueryShape("findPendingBefore",
+                            EconomyTransferRepository.pendingBeforeFilter(0L), EconomyTransferRepository.OLDEST_FIRST_SORT))
+    );
+    
+    private IndexManager() {
+        // Utility class
+    }
+    
+    /**
+     * Create every declared index that does not exist yet
+     * A failure on one index is logged and does not stop the others from being created.
+     */
+    public static void ensureIndexes(MongoDatabase database) {
+        long start = System.currentTimeMillis();
+        int created = 0;
+        
+        for (IndexSpec spec : INDEXES) {
+            MongoCollection<Document> collection = database.getCollection(spec.collection);
+            try {
+                collection.createIndex(spec.keys, spec.options);
+                created++;
+            } catch (MongoCommandException e) {
+                if (spec.options.isUnique() && (e.getErrorCode() == INDEX_OPTIONS_CONFLICT
+                        || e.getErrorCode() == INDEX_KEY_SPECS_CONFLICT) && makeUnique(collection, spec)) {
+                    created++;
+                } else {
+                    logger.error("Failed to create index {} on {}: {}", spec.keys.toBsonDocument(), spec.collection, e.getMessage());
+                }
+            } catch (Exception e) {
+                logger.error("Failed to create index {} on {}: {}", spec.keys.toBsonDocument(), spec.collection, e.getMessage());
+            }
+        }
+        
+        logger.info("Ensured {}/{} indexes in {} ms", created, INDEXES.size(), System.currentTimeMillis() - start);
+    }
+    
+    /**
+     * Replace an index created before its keys had to be unique
+     * If the collection already holds duplicate rows, the unique index cannot be built and the old
+     * index is put back, so the queries it serves keep working until the duplicates are merged.
+     * @return True if the index is now unique
+     */
+    private static boolean makeUnique(MongoCollection<Document> collection, IndexSpec spec) {
+        try {
+            collection.dropIndex(spec.keys);
+        } catch (Exception e) {
+            logger.error("Failed to drop index {} on {}: {}", spec.keys.toBsonDocument(), spec.collection, e.getMessage());
+            return false;
+        }
+        
+        try {
+            collection.createIndex(spec.keys, spec.options);
+            logger.info("Made index {} on {} unique", spec.keys.toBsonDocument(), spec.collection);
+            return true;
+        } catch (Exception e) {
+            try {
+                collection.createIndex(spec.keys);
+            } catch (Exception restoreError) {
+                logger.error("Failed to restore index {} on {}: {}", spec.keys.toBsonDocument(), spec.collection,
+                        restoreError.getMessage());
+            }
+            logger.error("Index {} on {} cannot be made unique until its duplicate rows are merged: {}",
+                    spec.keys.toBsonDocument(), spec.collection, e.getMessage());
+            return false;
+        }
+    }
+    
+    /**
+     * A cursor of a placeholder row, for explaining a leaderboard page query
+     */
+    private static String leaderboardCursor(Type type) {
+        LeaderboardEntry entry = new LeaderboardEntry();
+        entry.setId(new ObjectId());
+        return LeaderboardRepository.cursorOf(type, entry);
+    }
+    
+    /**
+     * A cursor of a placeholder record, for explaining a kill history page query
+     */
+    private static String historyCursor() {
+        KillRecord record = new KillRecord();
+        record.setId(new ObjectId());
+        return KillRecordRepository.cursorOf(record);
+    }
+    
+    /**
+     * Explain every declared repository query and report those whose winning plan scans a collection
+     * @return Descriptions of the queries that do not use an index, empty if all of them do
+     */
+    public static List<String> verifyQueryPlans(MongoDatabase database) {
+        List<String> failures = new ArrayList<>();
+        
+        for (IndexSpec spec : INDEXES) {
+            MongoCollection<Document> collection = database.getCollection(spec.collection);
+            for (QueryShape query : spec.queries) {
+                try {
+                    FindIterable<Document> find = collection.find(query.filter);
+                    if (query.sort != null) {
+                        find = find.sort(query.sort);
+                    }
+                    Document plan = find.explain().get("queryPlanner", Document.class);
+                    Object winningPlan = plan != null ? plan.get("winningPlan") : null;
+                    
+                    if (winningPlan == null) {
+                        failures.add(spec.collection + "." + query.name + ": no query plan returned");
+                    } else if (containsStage(winningPlan, "COLLSCAN")) {
+                        failures.add(spec.collection + "." + query.name + ": COLLSCAN");
+                    } else {
+                        logger.info("{}.{} uses an index", spec.collection, query.name);
+                    }
+                } catch (Exception e) {
+                    failures.add(spec.collection + "." + query.name + ": " + e.getMessage());
+                }
+            }
+        }
+        
+        return failures;
+    }
+    
+    /**
+     * Check whether a plan tree contains a stage, whatever the server's plan layout
+     */
+    private static boolean containsStage(Object node, String stage) {
+        if (node instanceof Map<?, ?> map) {
+            if (stage.equals(map.get("stage"))) {
+                return true;
+            }
+            for (Object child : map.values()) {
+                if (containsStage(child, stage)) {
+                    return true;
+                }
+            }
+        } else if (node instanceof List<?> list) {
+            for (Object child : list) {
+                if (containsStage(child, stage)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * An index on a collection and the repository queries it serves
+     */
+    private static final class IndexSpec {
+        private final String collection;
+        private final Bson keys;
+        private final IndexOptions options;
+        private final List<QueryShape> queries;
+        
+        private IndexSpec(String collection, Bson keys, QueryShape... queries) {
+            this(collection, keys, new IndexOptions(), queries);
+        }
+        
+        private IndexSpec(String collection, Bson keys, IndexOptions options, QueryShape... queries) {
+            this.collection = collection;
+            this.keys = keys;
+            this.options = options;
+            this.queries = List.of(queries);
+        }
+    }
+    
+    /**
+     * The filter and sort of a repository query, with placeholder values
+     */
+    private static final class QueryShape {
+        private final String name;
+        private final Bson filter;
+        private final Bson sort;
+        
+        private QueryShape(String name, Bson filter, Bson sort) {
+            this.name = name;
+            this.filter = filter;
+            this.sort = sort;
+        }
+    }
+}
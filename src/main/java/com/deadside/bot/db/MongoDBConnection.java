@@ -1,5 +1,7 @@
 package com.deadside.bot.db;
 
+import com.deadside.bot.config.Config;
+import com.deadside.bot.db.codecs.ModelCodecProvider;
 import com.mongodb.ConnectionString;
 import com.mongodb.MongoClientSettings;
 import com.mongodb.client.MongoClient;
@@ -7,10 +9,20 @@ import com.mongodb.client.MongoClients;
 import com.mongodb.client.MongoDatabase;
 import org.bson.codecs.configuration.CodecRegistry;
 import org.bson.codecs.pojo.PojoCodecProvider;
+import org.reactivestreams.Publisher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import com.mongodb.client.model.ReplaceOptions;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
 import static org.bson.codecs.configuration.CodecRegistries.fromProviders;
 import static org.bson.codecs.configuration.CodecRegistries.fromRegistries;
 
@@ -23,6 +35,9 @@ public class MongoDBConnection {
     private static MongoDBConnection instance;
     private MongoDatabase database;
     private MongoClient mongoClient;
+    private com.mongodb.reactivestreams.client.MongoClient reactiveClient;
+    private com.mongodb.reactivestreams.client.MongoDatabase reactiveDatabase;
+    private ExecutorService asyncExecutor;
     
     // Common MongoDB options
     public static final ReplaceOptions UPSERT_OPTION = new ReplaceOptions().upsert(true);
@@ -50,21 +65,33 @@ public class MongoDBConnection {
                 throw new IllegalStateException("MongoDB URI is not configured. Please set MONGODB_URI environment variable.");
             }
 
-            // Configure codec registry for POJOs
-            CodecRegistry pojoCodecRegistry = fromRegistries(
-                    MongoClientSettings.getDefaultCodecRegistry(),
-                    fromProviders(PojoCodecProvider.builder().automatic(true).build())
-            );
-
+            // Record per-command latency and attribute commands to the calling repository method
+            QueryMetrics.initialize(Config.getInstance().getMongoQueryWarnThreshold());
+            
             // Configure and create client
             MongoClientSettings settings = MongoClientSettings.builder()
                     .applyConnectionString(new ConnectionString(mongoUri))
-                    .codecRegistry(pojoCodecRegistry)
+                    .codecRegistry(createCodecRegistry())
+                    .addCommandListener(QueryMetrics.getInstance())
                     .build();
 
             mongoClient = MongoClients.create(settings);
             database = mongoClient.getDatabase(DATABASE_NAME);
             
+            // Non-blocking client for the hot paths, its calls wait on no thread of ours
+            reactiveClient = com.mongodb.reactivestreams.client.MongoClients.create(settings);
+            reactiveDatabase = reactiveClient.getDatabase(DATABASE_NAME);
+            
+            // Dedicated threads for async repository calls, sized to stay within the driver's connection pool
+            int asyncThreads = Math.max(1, Math.min(Config.getInstance().getMongoAsyncThreads(),
+                    settings.getConnectionPoolSettings().getMaxSize()));
+            AtomicInteger threadCount = new AtomicInteger();
+            asyncExecutor = Executors.newFixedThreadPool(asyncThreads, r -> {
+                Thread thread = new Thread(r, "MongoDB-Async-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            
             logger.info("Connected to MongoDB database: {}", DATABASE_NAME);
         } catch (Exception e) {
             logger.error("Failed to initialize MongoDB connection", e);
@@ -72,6 +99,17 @@ public class MongoDBConnection {
         }
     }
 
+    /**
+     * Create the codec registry used for all collections
+     * The hot models use hand-written codecs, every other model falls back to the POJO codec.
+     */
+    public static CodecRegistry createCodecRegistry() {
+        return fromRegistries(
+                MongoClientSettings.getDefaultCodecRegistry(),
+                fromProviders(new ModelCodecProvider(), PojoCodecProvider.builder().automatic(true).build())
+        );
+    }
+
     /**
      * Get the singleton instance
      */
@@ -92,11 +130,94 @@ public class MongoDBConnection {
         return database;
     }
 
+    /**
+     * Get the database through the reactive streams driver
+     * Its calls return publishers that complete from the driver's I/O callbacks, so the number of
+     * calls in flight is bounded by the connection pool rather than by a thread pool. Use
+     * {@link #single(Publisher)} and {@link #toList(Publisher)} to turn them into futures.
+     */
+    public com.mongodb.reactivestreams.client.MongoDatabase getReactiveDatabase() {
+        if (reactiveDatabase == null) {
+            throw new IllegalStateException("MongoDB database is not available. Connection may not have been initialized.");
+        }
+        return reactiveDatabase;
+    }
+
+    /**
+     * Get the only item of a reactive call, such as a write result or a first() lookup
+     * The future is completed on the async executor, which only runs the caller's continuations.
+     * @return A future with the item, or null if there is none
+     */
+    public <T> CompletableFuture<T> single(Publisher<T> publisher) {
+        return Publishers.single(publisher, asyncExecutor);
+    }
+
+    /**
+     * Collect every item of a reactive call, such as the documents of a find
+     * The future is completed on the async executor, which only runs the caller's continuations.
+     */
+    public <T> CompletableFuture<List<T>> toList(Publisher<T> publisher) {
+        return Publishers.toList(publisher, asyncExecutor);
+    }
+
+    /**
+     * Run a blocking database call on the async executor
+     * This does not make a call non-blocking: it moves the blocking call onto a fixed pool of
+     * mongodb.async.threads threads. At most that many calls run at once and the rest queue. It is
+     * for calls that hold locks or go through the document stores; the hot lookups and killfeed
+     * writes use {@link #getReactiveDatabase()} instead. The call is attributed to the caller's
+     * operation in the query metrics.
+     */
+    public <T> CompletableFuture<T> supplyAsync(Supplier<T> call) {
+        return CompletableFuture.supplyAsync(QueryMetrics.getInstance().propagate(call), asyncExecutor);
+    }
+    
+    /**
+     * Run a database call that returns nothing on the async executor
+     */
+    public CompletableFuture<Void> runAsync(Runnable call) {
+        return supplyAsync(() -> {
+            call.run();
+            return null;
+        });
+    }
+    
+    /**
+     * Run a repository write on the async executor, failing the future if the write reports failure
+     * Repository methods log and swallow their errors, so their result is the only sign a write
+     * failed; this turns it into an exceptional completion that callers cannot mistake for success.
+     * @param description What is written, for the exception message
+     * @param write The write, returning false if it failed
+     */
+    public CompletableFuture<Void> writeAsync(String description, BooleanSupplier write) {
+        return supplyAsync(() -> {
+            if (!write.getAsBoolean()) {
+                throw new IllegalStateException("Failed to write " + description);
+            }
+            return null;
+        });
+    }
+    
     /**
      * Close the connection
+     * Async calls already submitted are given a few seconds to finish first.
      */
     public void close() {
+        if (asyncExecutor != null) {
+            asyncExecutor.shutdown();
+            try {
+                if (!asyncExecutor.awaitTermination(5, TimeUnit.SECONDS)) {
+                    logger.warn("Async database calls still running at shutdown");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (reactiveClient != null) {
+            reactiveClient.close();
+        }
         if (mongoClient != null) {
+            QueryMetrics.getInstance().shutdown();
             mongoClient.close();
             logger.info("Closed MongoDB connection");
         }
@@ -0,0 +1,100 @@
+package com.deadside.bot.db;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Futures over the publishers of the reactive streams driver
+ * No thread waits on the database call. The driver signals the result on one of its I/O threads,
+ * and the future is completed from the given executor, so the caller's continuations never run on
+ * the driver's threads.
+ */
+public final class Publishers {
+    
+    private Publishers() {
+        // Utility class
+    }
+    
+    /**
+     * Get the only item of a publisher, such as a write result or a first() lookup
+     * @param executor Where the future is completed
+     * @return A future with the item, or null if the publisher completes without one
+     */
+    public static <T> CompletableFuture<T> single(Publisher<T> publisher, Executor executor) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        publisher.subscribe(new Subscriber<T>() {
+            private T item;
+            
+            @Override
+            public void onSubscribe(Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+            
+            @Override
+            public void onNext(T next) {
+                item = next;
+            }
+            
+            @Override
+            public void onError(Throwable error) {
+                signal(executor, () -> future.completeExceptionally(error));
+            }
+            
+            @Override
+            public void onComplete() {
+                signal(executor, () -> future.complete(item));
+            }
+        });
+        return future;
+    }
+    
+    /**
+     * Collect every item of a publisher, such as the documents of a find
+     * @param executor Where the future is completed
+     */
+    public static <T> CompletableFuture<List<T>> toList(Publisher<T> publisher, Executor executor) {
+        CompletableFuture<List<T>> future = new CompletableFuture<>();
+        publisher.subscribe(new Subscriber<T>() {
+            private final List<T> items = new ArrayList<>();
+            
+            @Override
+            public void onSubscribe(Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+            
+            @Override
+            public void onNext(T next) {
+                items.add(next);
+            }
+            
+            @Override
+            public void onError(Throwable error) {
+                signal(executor, () -> future.completeExceptionally(error));
+            }
+            
+            @Override
+            public void onComplete() {
+                signal(executor, () -> future.complete(items));
+            }
+        });
+        return future;
+    }
+    
+    /**
+     * Complete a future on the executor, or right here once the executor has shut down
+     */
+    private static void signal(Executor executor, Runnable completion) {
+        try {
+            executor.execute(completion);
+        } catch (RejectedExecutionException e) {
+            completion.run();
+        }
+    }
+}
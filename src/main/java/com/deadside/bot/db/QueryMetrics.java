@@ -0,0 +1,406 @@
+package com.deadside.bot.db;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Latency and round trip metrics for MongoDB commands
+ * Registered as the driver's command listener, it keeps a latency histogram per collection, command and
+ * calling repository method. Discord commands and scheduler jobs run inside an {@link Operation}, so each
+ * database command is also attributed to what triggered it, and operations that issue more commands than
+ * the warning threshold are logged.
+ */
+public class QueryMetrics implements CommandListener {
+    private static final Logger logger = LoggerFactory.getLogger(QueryMetrics.class);
+    private static QueryMetrics instance;
+    
+    private static final long STATS_INTERVAL_MINUTES = 15;
+    private static final int STATS_LOG_LIMIT = 10;
+    private static final String REPOSITORY_PACKAGE = "com.deadside.bot.db.repositories.";
+    private static final String UNATTRIBUTED = "other";
+    
+    // Upper bounds of the latency buckets in microseconds, the last bucket is unbounded
+    private static final long[] BUCKET_BOUNDS_MICROS = {
+            250, 500, 1_000, 2_500, 5_000, 10_000, 25_000, 50_000, 100_000, 250_000, 500_000, 1_000_000, 2_500_000
+    };
+    
+    private static final ThreadLocal<Operation> currentOperation = new ThreadLocal<>();
+    private static final StackWalker stackWalker = StackWalker.getInstance();
+    
+    private final int queryWarnThreshold;
+    private final Map<String, CommandStats> commandStats = new ConcurrentHashMap<>();
+    private final Map<String, OperationStats> operationStats = new ConcurrentHashMap<>();
+    private final Map<Integer, PendingCommand> pending = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+    
+    private QueryMetrics(int queryWarnThreshold) {
+        this.queryWarnThreshold = queryWarnThreshold;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "query-metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::logStats, STATS_INTERVAL_MINUTES, STATS_INTERVAL_MINUTES, TimeUnit.MINUTES);
+    }
+    
+    /**
+     * Initialize the metrics
+     * @param queryWarnThreshold Database commands one operation may issue before it is logged, 0 to never log
+     */
+    public static synchronized void initialize(int queryWarnThreshold) {
+        if (instance == null) {
+            instance = new QueryMetrics(queryWarnThreshold);
+        }
+    }
+    
+    /**
+     * Get the singleton instance
+     */
+    public static synchronized QueryMetrics getInstance() {
+        if (instance == null) {
+            throw new IllegalStateException("Query metrics have not been initialized. Call initialize() first.");
+        }
+        return instance;
+    }
+    
+    /**
+     * Start attributing database commands on this thread to an operation
+     * Close the returned operation when it ends, it restores any operation that was running before.
+     * @param name The Discord command or scheduler job, for example "/stats" or "killfeed"
+     */
+    public Operation begin(String name) {
+        Operation operation = new Operation(name, currentOperation.get());
+        currentOperation.set(operation);
+        return operation;
+    }
+    
+    /**
+     * Wrap a scheduler job so its database commands are attributed to it
+     */
+    public Runnable track(String name, Runnable job) {
+        return () -> {
+            Operation operation = begin(name);
+            try {
+                job.run();
+            } finally {
+                operation.close();
+            }
+        };
+    }
+    
+    /**
+     * Wrap a database call so it is attributed to the calling thread's operation when run on another thread
+     */
+    public <T> Supplier<T> propagate(Supplier<T> call) {
+        Operation operation = currentOperation.get();
+        if (operation == null) {
+            return call;
+        }
+        return () -> {
+            Operation previous = currentOperation.get();
+            currentOperation.set(operation);
+            try {
+                return call.get();
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+    
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        Operation operation = currentOperation.get();
+        if (operation != null) {
+            operation.commands.incrementAndGet();
+        }
+        
+        String key = collectionOf(event) + "." + event.getCommandName() + " from " + findCaller();
+        pending.put(event.getRequestId(), new PendingCommand(key, operation));
+    }
+    
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        complete(event.getRequestId(), event.getElapsedTime(TimeUnit.MICROSECONDS), false);
+    }
+    
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        complete(event.getRequestId(), event.getElapsedTime(TimeUnit.MICROSECONDS), true);
+    }
+    
+    /**
+     * Get the latency statistics per collection, command and calling repository method
+     */
+    public Map<String, CommandStats> getCommandStats() {
+        return Map.copyOf(commandStats);
+    }
+    
+    /**
+     * Get the database usage per Discord command and scheduler job
+     */
+    public Map<String, OperationStats> getOperationStats() {
+        return Map.copyOf(operationStats);
+    }
+    
+    /**
+     * Stop the periodic report and log the statistics once more
+     */
+    public void shutdown() {
+        scheduler.shutdown();
+        logStats();
+    }
+    
+    private void complete(int requestId, long elapsedMicros, boolean failed) {
+        PendingCommand command = pending.remove(requestId);
+        if (command == null) {
+            return;
+        }
+        
+        commandStats.computeIfAbsent(command.key, key -> new CommandStats()).record(elapsedMicros, failed);
+        if (command.operation != null) {
+            command.operation.elapsedMicros.add(elapsedMicros);
+        }
+    }
+    
+    private void end(Operation operation) {
+        restore(operation.previous);
+        
+        int commands = operation.commands.get();
+        if (commands == 0) {
+            return;
+        }
+        
+        long durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - operation.startNanos);
+        boolean flagged = queryWarnThreshold > 0 && commands > queryWarnThreshold;
+        operationStats.computeIfAbsent(operation.name, name -> new OperationStats())
+                .record(commands, operation.elapsedMicros.sum(), flagged);
+        
+        if (flagged) {
+            logger.warn("{} issued {} database commands ({} ms in the database, {} ms total)",
+                    operation.name, commands, operation.elapsedMicros.sum() / 1000, durationMillis);
+        }
+    }
+    
+    private static void restore(Operation previous) {
+        if (previous == null) {
+            currentOperation.remove();
+        } else {
+            currentOperation.set(previous);
+        }
+    }
+    
+    /**
+     * Get the collection a command runs against, from the value of its command name field
+     */
+    private static String collectionOf(CommandStartedEvent event) {
+        BsonDocument command = event.getCommand();
+        BsonValue target = "getMore".equals(event.getCommandName())
+                ? command.get("collection")
+                : command.get(event.getCommandName());
+        return target != null && target.isString() ? target.asString().getValue() : event.getDatabaseName();
+    }
+    
+    /**
+     * Get the innermost repository method on the calling thread's stack
+     * The synchronous driver reports commands on the thread that issued them.
+     */
+    private static String findCaller() {
+        return stackWalker.walk(frames -> frames
+                .filter(frame -> frame.getClassName().startsWith(REPOSITORY_PACKAGE))
+                .findFirst()
+                .map(frame -> frame.getClassName().substring(REPOSITORY_PACKAGE.length()) + "." + frame.getMethodName())
+                .orElse(UNATTRIBUTED));
+    }
+    
+    private void logStats() {
+        List<Map.Entry<String, CommandStats>> commands = commandStats.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, CommandStats> entry) ->
+                        entry.getValue().totalMicros.sum()).reversed())
+                .limit(STATS_LOG_LIMIT)
+                .toList();
+        for (Map.Entry<String, CommandStats> entry : commands) {
+            CommandStats stats = entry.getValue();
+            logger.info("Database {}: {} calls, {} failed, average {} ms, p50 {} ms, p95 {} ms, p99 {} ms, max {} ms",
+                    entry.getKey(), stats.getCount(), stats.getFailures(), stats.getAverageMillis(),
+                    stats.getPercentileMillis(0.5), stats.getPercentileMillis(0.95), stats.getPercentileMillis(0.99),
+                    stats.getMaxMillis());
+        }
+        
+        List<Map.Entry<String, OperationStats>> operations = operationStats.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, OperationStats> entry) ->
+                        entry.getValue().totalMicros.sum()).reversed())
+                .limit(STATS_LOG_LIMIT)
+                .toList();
+        for (Map.Entry<String, OperationStats> entry : operations) {
+            OperationStats stats = entry.getValue();
+            logger.info("Database use by {}: {} runs, {} commands per run, {} ms in the database per run, " +
+                            "max {} commands in one run, {} runs over the warning threshold",
+                    entry.getKey(), stats.getRuns(), stats.getAverageCommands(), stats.getAverageMillis(),
+                    stats.getMaxCommands(), stats.getFlaggedRuns());
+        }
+    }
+    
+    /**
+     * A Discord command or scheduler job that database commands are attributed to
+     */
+    public final class Operation implements AutoCloseable {
+        private final String name;
+        private final Operation previous;
+        private final long startNanos = System.nanoTime();
+        private final AtomicInteger commands = new AtomicInteger();
+        private final LongAdder elapsedMicros = new LongAdder();
+        
+        private Operation(String name, Operation previous) {
+            this.name = name;
+            this.previous = previous;
+        }
+        
+        @Override
+        public void close() {
+            end(this);
+        }
+    }
+    
+    /**
+     * Latency histogram of one collection, command and calling repository method
+     */
+    public static class CommandStats {
+        private final LongAdder[] buckets = new LongAdder[BUCKET_BOUNDS_MICROS.length + 1];
+        private final LongAdder count = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder totalMicros = new LongAdder();
+        private final AtomicLong maxMicros = new AtomicLong();
+        
+        private CommandStats() {
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+        
+        private void record(long micros, boolean failed) {
+            int bucket = 0;
+            while (bucket < BUCKET_BOUNDS_MICROS.length && micros > BUCKET_BOUNDS_MICROS[bucket]) {
+                bucket++;
+            }
+            buckets[bucket].increment();
+            count.increment();
+            if (failed) {
+                failures.increment();
+            }
+            totalMicros.add(micros);
+            maxMicros.accumulateAndGet(micros, Math::max);
+        }
+        
+        public long getCount() {
+            return count.sum();
+        }
+        
+        public long getFailures() {
+            return failures.sum();
+        }
+        
+        public double getAverageMillis() {
+            long calls = count.sum();
+            return calls == 0 ? 0 : totalMicros.sum() / calls / 1000.0;
+        }
+        
+        public double getMaxMillis() {
+            return maxMicros.get() / 1000.0;
+        }
+        
+        /**
+         * Get the upper bound of the latency bucket holding a percentile
+         * @param percentile The percentile between 0 and 1
+         */
+        public double getPercentileMillis(double percentile) {
+            long calls = count.sum();
+            if (calls == 0) {
+                return 0;
+            }
+            
+            long rank = (long) Math.ceil(percentile * calls);
+            long seen = 0;
+            for (int i = 0; i < BUCKET_BOUNDS_MICROS.length; i++) {
+                seen += buckets[i].sum();
+                if (seen >= rank) {
+                    return BUCKET_BOUNDS_MICROS[i] / 1000.0;
+                }
+            }
+            return getMaxMillis();
+        }
+    }
+    
+    /**
+     * Database usage of one Discord command or scheduler job
+     */
+    public static class OperationStats {
+        private final LongAdder runs = new LongAdder();
+        private final LongAdder commands = new LongAdder();
+        private final LongAdder totalMicros = new LongAdder();
+        private final LongAdder flaggedRuns = new LongAdder();
+        private final AtomicLong maxCommands = new AtomicLong();
+        
+        private OperationStats() {
+        }
+        
+        private void record(int runCommands, long micros, boolean flagged) {
+            runs.increment();
+            commands.add(runCommands);
+            totalMicros.add(micros);
+            if (flagged) {
+                flaggedRuns.increment();
+            }
+            maxCommands.accumulateAndGet(runCommands, Math::max);
+        }
+        
+        public long getRuns() {
+            return runs.sum();
+        }
+        
+        public long getAverageCommands() {
+            long count = runs.sum();
+            return count == 0 ? 0 : commands.sum() / count;
+        }
+        
+        public long getAverageMillis() {
+            long count = runs.sum();
+            return count == 0 ? 0 : totalMicros.sum() / count / 1000;
+        }
+        
+        public long getMaxCommands() {
+            return maxCommands.get();
+        }
+        
+        public long getFlaggedRuns() {
+            return flaggedRuns.sum();
+        }
+    }
+    
+    private static class PendingCommand {
+        private final String key;
+        private final Operation operation;
+        
+        private PendingCommand(String key, Operation operation) {
+            this.key = key;
+            this.operation = operation;
+        }
+    }
+}
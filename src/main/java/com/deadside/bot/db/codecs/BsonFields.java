@@ -0,0 +1,184 @@
+package com.deadside.bot.db.codecs;
+
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.types.ObjectId;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Field readers and writers shared by the model codecs
+ * Readers accept any numeric type for numbers, since counters written by $inc may be stored as int32 or int64,
+ * and skip values of an unexpected type, leaving the field at its default.
+ */
+final class BsonFields {
+    
+    private BsonFields() {
+    }
+    
+    static int readInt(BsonReader reader) {
+        return switch (reader.getCurrentBsonType()) {
+            case INT32 -> reader.readInt32();
+            case INT64 -> (int) reader.readInt64();
+            case DOUBLE -> (int) reader.readDouble();
+            default -> {
+                reader.skipValue();
+                yield 0;
+            }
+        };
+    }
+    
+    static long readLong(BsonReader reader) {
+        return switch (reader.getCurrentBsonType()) {
+            case INT64 -> reader.readInt64();
+            case INT32 -> reader.readInt32();
+            case DOUBLE -> (long) reader.readDouble();
+            default -> {
+                reader.skipValue();
+                yield 0L;
+            }
+        };
+    }
+    
+    static boolean readBoolean(BsonReader reader) {
+        if (reader.getCurrentBsonType() == BsonType.BOOLEAN) {
+            return reader.readBoolean();
+        }
+        reader.skipValue();
+        return false;
+    }
+    
+    static String readString(BsonReader reader) {
+        if (reader.getCurrentBsonType() == BsonType.STRING) {
+            return reader.readString();
+        }
+        reader.skipValue();
+        return null;
+    }
+    
+    static ObjectId readObjectId(BsonReader reader) {
+        if (reader.getCurrentBsonType() == BsonType.OBJECT_ID) {
+            return reader.readObjectId();
+        }
+        reader.skipValue();
+        return null;
+    }
+    
+    static Instant readInstant(BsonReader reader) {
+        if (reader.getCurrentBsonType() == BsonType.DATE_TIME) {
+            return Instant.ofEpochMilli(reader.readDateTime());
+        }
+        reader.skipValue();
+        return null;
+    }
+    
+    static List<String> readStringList(BsonReader reader) {
+        if (reader.getCurrentBsonType() != BsonType.ARRAY) {
+            reader.skipValue();
+            return null;
+        }
+        List<String> values = new ArrayList<>();
+        reader.readStartArray();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            values.add(readString(reader));
+        }
+        reader.readEndArray();
+        return values;
+    }
+    
+    static List<Long> readLongList(BsonReader reader) {
+        if (reader.getCurrentBsonType() != BsonType.ARRAY) {
+            reader.skipValue();
+            return null;
+        }
+        List<Long> values = new ArrayList<>();
+        reader.readStartArray();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            values.add(readLong(reader));
+        }
+        reader.readEndArray();
+        return values;
+    }
+    
+    static Map<String, String> readStringMap(BsonReader reader) {
+        if (reader.getCurrentBsonType() != BsonType.DOCUMENT) {
+            reader.skipValue();
+            return null;
+        }
+        Map<String, String> values = new HashMap<>();
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            values.put(reader.readName(), readString(reader));
+        }
+        reader.readEndDocument();
+        return values;
+    }
+    
+    static void writeString(BsonWriter writer, String name, String value) {
+        if (value != null) {
+            writer.writeString(name, value);
+        }
+    }
+    
+    static void writeObjectId(BsonWriter writer, String name, ObjectId value) {
+        if (value != null) {
+            writer.writeObjectId(name, value);
+        }
+    }
+    
+    static void writeInstant(BsonWriter writer, String name, Instant value) {
+        if (value != null) {
+            writer.writeDateTime(name, value.toEpochMilli());
+        }
+    }
+    
+    static void writeStringList(BsonWriter writer, String name, List<String> values) {
+        if (values == null) {
+            return;
+        }
+        writer.writeStartArray(name);
+        for (String value : values) {
+            if (value == null) {
+                writer.writeNull();
+            } else {
+                writer.writeString(value);
+            }
+        }
+        writer.writeEndArray();
+    }
+    
+    static void writeLongList(BsonWriter writer, String name, List<Long> values) {
+        if (values == null) {
+            return;
+        }
+        writer.writeStartArray(name);
+        for (Long value : values) {
+            if (value == null) {
+                writer.writeNull();
+            } else {
+                writer.writeInt64(value);
+            }
+        }
+        writer.writeEndArray();
+    }
+    
+    static void writeStringMap(BsonWriter writer, String name, Map<String, String> values) {
+        if (values == null) {
+            return;
+        }
+        writer.writeStartDocument(name);
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            if (entry.getValue() == null) {
+                writer.writeNull(entry.getKey());
+            } else {
+                writer.writeString(entry.getKey(), entry.getValue());
+            }
+        }
+        writer.writeEndDocument();
+    }
+}
@@ -0,0 +1,110 @@
+package com.deadside.bot.db.codecs;
+
+import com.deadside.bot.db.models.Faction;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.types.ObjectId;
+
+import static com.deadside.bot.db.codecs.BsonFields.*;
+
+/**
+ * Codec for factions
+ * The setters stamp the updated time and setting the level recalculates the member limit, so the stored
+ * member limit and updated time are applied after every other field.
+ */
+public class FactionCodec extends ModelCodec<Faction> {
+    
+    @Override
+    public void encode(BsonWriter writer, Faction faction, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        writeObjectId(writer, "_id", faction.getId());
+        writeString(writer, "name", faction.getName());
+        writeString(writer, "tag", faction.getTag());
+        writeString(writer, "description", faction.getDescription());
+        writer.writeInt64("guildId", faction.getGuildId());
+        writer.writeInt64("ownerId", faction.getOwnerId());
+        writeLongList(writer, "officerIds", faction.getOfficerIds());
+        writeLongList(writer, "memberIds", faction.getMemberIds());
+        writeString(writer, "color", faction.getColor());
+        writer.writeInt32("maxMembers", faction.getMaxMembers());
+        writer.writeInt32("level", faction.getLevel());
+        writer.writeInt32("experience", faction.getExperience());
+        writer.writeInt64("baseId", faction.getBaseId());
+        writer.writeInt64("balance", faction.getBalance());
+        writer.writeInt64("created", faction.getCreated());
+        writeString(writer, "logoUrl", faction.getLogoUrl());
+        writer.writeInt64("createdAt", faction.getCreatedAt());
+        writer.writeInt32("experienceNextLevel", faction.getExperienceNextLevel());
+        writeObjectId(writer, "creatorId", faction.getCreatorId());
+        writer.writeInt32("territoryControl", faction.getTerritoryControl());
+        writer.writeInt32("totalKills", faction.getTotalKills());
+        writer.writeInt32("totalDeaths", faction.getTotalDeaths());
+        writer.writeInt32("memberCount", faction.getMemberCount());
+        writer.writeInt64("updated", faction.getUpdated());
+        writer.writeEndDocument();
+    }
+    
+    @Override
+    public Faction decode(BsonReader reader, DecoderContext decoderContext) {
+        Faction faction = new Faction();
+        Integer maxMembers = null;
+        Long updated = null;
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "_id" -> faction.setId(readObjectId(reader));
+                case "name" -> faction.setName(readString(reader));
+                case "tag" -> faction.setTag(readString(reader));
+                case "description" -> faction.setDescription(readString(reader));
+                case "guildId" -> faction.setGuildId(readLong(reader));
+                case "ownerId" -> faction.setOwnerId(readLong(reader));
+                case "officerIds" -> faction.setOfficerIds(readLongList(reader));
+                case "memberIds" -> faction.setMemberIds(readLongList(reader));
+                case "color" -> faction.setColor(readString(reader));
+                case "maxMembers" -> maxMembers = readInt(reader);
+                case "level" -> faction.setLevel(readInt(reader));
+                case "experience" -> faction.setExperience(readInt(reader));
+                case "baseId" -> faction.setBaseId(readLong(reader));
+                case "balance" -> faction.setBalance(readLong(reader));
+                case "created" -> faction.setCreated(readLong(reader));
+                case "logoUrl" -> faction.setLogoUrl(readString(reader));
+                case "createdAt" -> faction.setCreatedAt(readLong(reader));
+                case "experienceNextLevel" -> faction.setExperienceNextLevel(readInt(reader));
+                case "creatorId" -> faction.setCreatorId(readObjectId(reader));
+                case "territoryControl" -> faction.setTerritoryControl(readInt(reader));
+                case "totalKills" -> faction.setTotalKills(readInt(reader));
+                case "totalDeaths" -> faction.setTotalDeaths(readInt(reader));
+                case "memberCount" -> faction.setMemberCount(readInt(reader));
+                case "updated" -> updated = readLong(reader);
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        
+        if (maxMembers != null) {
+            faction.setMaxMembers(maxMembers);
+        }
+        if (updated != null) {
+            faction.setUpdated(updated);
+        }
+        return faction;
+    }
+    
+    @Override
+    public Class<Faction> getEncoderClass() {
+        return Faction.class;
+    }
+    
+    @Override
+    protected ObjectId getId(Faction faction) {
+        return faction.getId();
+    }
+    
+    @Override
+    protected void setId(Faction faction, ObjectId id) {
+        faction.setId(id);
+    }
+}
@@ -0,0 +1,94 @@
+package com.deadside.bot.db.codecs;
+
+import com.deadside.bot.db.models.GameServer;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.types.ObjectId;
+
+import static com.deadside.bot.db.codecs.BsonFields.*;
+
+/**
+ * Codec for game servers
+ * Status getters such as online, playerCount and the derived directories are not written.
+ */
+public class GameServerCodec extends ModelCodec<GameServer> {
+    
+    @Override
+    public void encode(BsonWriter writer, GameServer server, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        writeObjectId(writer, "_id", server.getId());
+        writer.writeInt64("guildId", server.getGuildId());
+        writeString(writer, "name", server.getName());
+        writeString(writer, "host", server.getHost());
+        writer.writeInt32("port", server.getPort());
+        writeString(writer, "username", server.getUsername());
+        writeString(writer, "password", server.getPassword());
+        writer.writeInt32("gameServerId", server.getGameServerId());
+        writer.writeInt64("killfeedChannelId", server.getKillfeedChannelId());
+        writer.writeInt64("logChannelId", server.getLogChannelId());
+        writeString(writer, "lastProcessedKillfeedFile", server.getLastProcessedKillfeedFile());
+        writer.writeInt64("lastProcessedKillfeedLine", server.getLastProcessedKillfeedLine());
+        writeString(writer, "lastProcessedLogFile", server.getLastProcessedLogFile());
+        writer.writeInt64("lastProcessedLogLine", server.getLastProcessedLogLine());
+        writer.writeInt64("lastProcessedTimestamp", server.getLastProcessedTimestamp());
+        writer.writeBoolean("premium", server.isPremium());
+        writer.writeInt64("premiumUntil", server.getPremiumUntil());
+        writeStringList(writer, "digestEventTypes", server.getDigestEventTypes());
+        writer.writeInt32("digestWindowSeconds", server.getDigestWindowSeconds());
+        writer.writeInt64("statusBoardChannelId", server.getStatusBoardChannelId());
+        writer.writeInt64("statusBoardMessageId", server.getStatusBoardMessageId());
+        writer.writeEndDocument();
+    }
+    
+    @Override
+    public GameServer decode(BsonReader reader, DecoderContext decoderContext) {
+        GameServer server = new GameServer();
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "_id" -> server.setId(readObjectId(reader));
+                case "guildId" -> server.setGuildId(readLong(reader));
+                case "name" -> server.setName(readString(reader));
+                case "host" -> server.setHost(readString(reader));
+                case "port" -> server.setPort(readInt(reader));
+                case "username" -> server.setUsername(readString(reader));
+                case "password" -> server.setPassword(readString(reader));
+                case "gameServerId" -> server.setGameServerId(readInt(reader));
+                case "killfeedChannelId" -> server.setKillfeedChannelId(readLong(reader));
+                case "logChannelId" -> server.setLogChannelId(readLong(reader));
+                case "lastProcessedKillfeedFile" -> server.setLastProcessedKillfeedFile(readString(reader));
+                case "lastProcessedKillfeedLine" -> server.setLastProcessedKillfeedLine(readLong(reader));
+                case "lastProcessedLogFile" -> server.setLastProcessedLogFile(readString(reader));
+                case "lastProcessedLogLine" -> server.setLastProcessedLogLine(readLong(reader));
+                case "lastProcessedTimestamp" -> server.setLastProcessedTimestamp(readLong(reader));
+                case "premium" -> server.setPremium(readBoolean(reader));
+                case "premiumUntil" -> server.setPremiumUntil(readLong(reader));
+                case "digestEventTypes" -> server.setDigestEventTypes(readStringList(reader));
+                case "digestWindowSeconds" -> server.setDigestWindowSeconds(readInt(reader));
+                case "statusBoardChannelId" -> server.setStatusBoardChannelId(readLong(reader));
+                case "statusBoardMessageId" -> server.setStatusBoardMessageId(readLong(reader));
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return server;
+    }
+    
+    @Override
+    public Class<GameServer> getEncoderClass() {
+        return GameServer.class;
+    }
+    
+    @Override
+    protected ObjectId getId(GameServer server) {
+        return server.getId();
+    }
+    
+    @Override
+    protected void setId(GameServer server, ObjectId id) {
+        server.setId(id);
+    }
+}
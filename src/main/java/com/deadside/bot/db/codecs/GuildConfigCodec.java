@@ -0,0 +1,84 @@
+package com.deadside.bot.db.codecs;
+
+import com.deadside.bot.db.models.GuildConfig;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.types.ObjectId;
+
+import java.util.Map;
+
+import static com.deadside.bot.db.codecs.BsonFields.*;
+
+/**
+ * Codec for guild configurations
+ * The setters stamp updatedAt, so the stored updatedAt is applied after every other field.
+ */
+public class GuildConfigCodec extends ModelCodec<GuildConfig> {
+    
+    @Override
+    public void encode(BsonWriter writer, GuildConfig config, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        writeObjectId(writer, "_id", config.getId());
+        writer.writeInt64("guildId", config.getGuildId());
+        writer.writeBoolean("premium", config.isPremium());
+        writer.writeInt64("premiumUntil", config.getPremiumUntil());
+        writeString(writer, "killfeedChannelId", config.getKillfeedChannelId());
+        writeString(writer, "eventChannelId", config.getEventChannelId());
+        writeString(writer, "logChannelId", config.getLogChannelId());
+        writeStringMap(writer, "settings", config.getSettings());
+        writer.writeInt64("createdAt", config.getCreatedAt());
+        writer.writeInt64("updatedAt", config.getUpdatedAt());
+        writer.writeEndDocument();
+    }
+    
+    @Override
+    public GuildConfig decode(BsonReader reader, DecoderContext decoderContext) {
+        GuildConfig config = new GuildConfig();
+        Long updatedAt = null;
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "_id" -> config.setId(readObjectId(reader));
+                case "guildId" -> config.setGuildId(readLong(reader));
+                case "premium" -> config.setPremium(readBoolean(reader));
+                case "premiumUntil" -> config.setPremiumUntil(readLong(reader));
+                case "killfeedChannelId" -> config.setKillfeedChannelId(readString(reader));
+                case "eventChannelId" -> config.setEventChannelId(readString(reader));
+                case "logChannelId" -> config.setLogChannelId(readString(reader));
+                case "settings" -> {
+                    Map<String, String> settings = readStringMap(reader);
+                    if (settings != null) {
+                        config.setSettings(settings);
+                    }
+                }
+                case "createdAt" -> config.setCreatedAt(readLong(reader));
+                case "updatedAt" -> updatedAt = readLong(reader);
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        
+        if (updatedAt != null) {
+            config.setUpdatedAt(updatedAt);
+        }
+        return config;
+    }
+    
+    @Override
+    public Class<GuildConfig> getEncoderClass() {
+        return GuildConfig.class;
+    }
+    
+    @Override
+    protected ObjectId getId(GuildConfig config) {
+        return config.getId();
+    }
+    
+    @Override
+    protected void setId(GuildConfig config, ObjectId id) {
+        config.setId(id);
+    }
+}
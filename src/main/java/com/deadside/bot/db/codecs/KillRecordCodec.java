@@ -0,0 +1,70 @@
+package com.deadside.bot.db.codecs;
+
+import com.deadside.bot.db.models.KillRecord;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.types.ObjectId;
+
+import static com.deadside.bot.db.codecs.BsonFields.*;
+
+/**
+ * Codec for kill records in the classic kill record collection
+ * The time-series layout is mapped by KillRecordRepository itself.
+ */
+public class KillRecordCodec extends ModelCodec<KillRecord> {
+    
+    @Override
+    public void encode(BsonWriter writer, KillRecord record, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        writeObjectId(writer, "_id", record.getId());
+        writer.writeInt64("guildId", record.getGuildId());
+        writeString(writer, "serverId", record.getServerId());
+        writeString(writer, "killer", record.getKiller());
+        writeString(writer, "victim", record.getVictim());
+        writeString(writer, "weapon", record.getWeapon());
+        writer.writeInt64("distance", record.getDistance());
+        writer.writeInt64("timestamp", record.getTimestamp());
+        writeString(writer, "originalLine", record.getOriginalLine());
+        writer.writeEndDocument();
+    }
+    
+    @Override
+    public KillRecord decode(BsonReader reader, DecoderContext decoderContext) {
+        KillRecord record = new KillRecord();
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "_id" -> record.setId(readObjectId(reader));
+                case "guildId" -> record.setGuildId(readLong(reader));
+                case "serverId" -> record.setServerId(readString(reader));
+                case "killer" -> record.setKiller(readString(reader));
+                case "victim" -> record.setVictim(readString(reader));
+                case "weapon" -> record.setWeapon(readString(reader));
+                case "distance" -> record.setDistance(readLong(reader));
+                case "timestamp" -> record.setTimestamp(readLong(reader));
+                case "originalLine" -> record.setOriginalLine(readString(reader));
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return record;
+    }
+    
+    @Override
+    public Class<KillRecord> getEncoderClass() {
+        return KillRecord.class;
+    }
+    
+    @Override
+    protected ObjectId getId(KillRecord record) {
+        return record.getId();
+    }
+    
+    @Override
+    protected void setId(KillRecord record, ObjectId id) {
+        record.setId(id);
+    }
+}
@@ -0,0 +1,68 @@
+package com.deadside.bot.db.codecs;
+
+import com.deadside.bot.db.models.LinkedPlayer;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.types.ObjectId;
+
+import static com.deadside.bot.db.codecs.BsonFields.*;
+
+/**
+ * Codec for Discord account links
+ * The POJO codec cannot map LinkedPlayer, as mainPlayerId has both a String and an ObjectId setter.
+ */
+public class LinkedPlayerCodec extends ModelCodec<LinkedPlayer> {
+    
+    @Override
+    public void encode(BsonWriter writer, LinkedPlayer link, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        writeObjectId(writer, "_id", link.getId());
+        if (link.getDiscordId() != null) {
+            writer.writeInt64("discordId", link.getDiscordId());
+        }
+        writeString(writer, "mainPlayerName", link.getMainPlayerName());
+        writeString(writer, "mainPlayerId", link.getMainPlayerId());
+        writeStringList(writer, "altPlayerIds", link.getAltPlayerIds());
+        writer.writeInt64("created", link.getCreated());
+        writer.writeInt64("updated", link.getUpdated());
+        writer.writeEndDocument();
+    }
+    
+    @Override
+    public LinkedPlayer decode(BsonReader reader, DecoderContext decoderContext) {
+        LinkedPlayer link = new LinkedPlayer();
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "_id" -> link.setId(readObjectId(reader));
+                case "discordId" -> link.setDiscordId(readLong(reader));
+                case "mainPlayerName" -> link.setMainPlayerName(readString(reader));
+                case "mainPlayerId" -> link.setMainPlayerId(readString(reader));
+                case "altPlayerIds" -> link.setAltPlayerIds(readStringList(reader));
+                case "created" -> link.setCreated(readLong(reader));
+                case "updated" -> link.setUpdated(readLong(reader));
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return link;
+    }
+    
+    @Override
+    public Class<LinkedPlayer> getEncoderClass() {
+        return LinkedPlayer.class;
+    }
+    
+    @Override
+    protected ObjectId getId(LinkedPlayer link) {
+        return link.getId();
+    }
+    
+    @Override
+    protected void setId(LinkedPlayer link, ObjectId id) {
+        link.setId(id);
+    }
+}
@@ -0,0 +1,45 @@
+package com.deadside.bot.db.codecs;
+
+import org.bson.BsonObjectId;
+import org.bson.BsonValue;
+import org.bson.codecs.CollectibleCodec;
+import org.bson.types.ObjectId;
+
+/**
+ * Base for the hand-written model codecs
+ * Models get a new ObjectId when inserted without one, as they did with the POJO codec.
+ */
+public abstract class ModelCodec<T> implements CollectibleCodec<T> {
+    
+    /**
+     * Get the model's id, or null if it has none yet
+     */
+    protected abstract ObjectId getId(T model);
+    
+    /**
+     * Set the model's id
+     */
+    protected abstract void setId(T model, ObjectId id);
+    
+    @Override
+    public boolean documentHasId(T model) {
+        return getId(model) != null;
+    }
+    
+    @Override
+    public T generateIdIfAbsentFromDocument(T model) {
+        if (getId(model) == null) {
+            setId(model, new ObjectId());
+        }
+        return model;
+    }
+    
+    @Override
+    public BsonValue getDocumentId(T model) {
+        ObjectId id = getId(model);
+        if (id == null) {
+            throw new IllegalStateException("The document does not contain an _id");
+        }
+        return new BsonObjectId(id);
+    }
+}
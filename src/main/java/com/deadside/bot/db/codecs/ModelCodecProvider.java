@@ -0,0 +1,33 @@
+package com.deadside.bot.db.codecs;
+
+import com.deadside.bot.db.models.Faction;
+import com.deadside.bot.db.models.GameServer;
+import com.deadside.bot.db.models.GuildConfig;
+import com.deadside.bot.db.models.KillRecord;
+import com.deadside.bot.db.models.LinkedPlayer;
+import com.deadside.bot.db.models.Player;
+import org.bson.codecs.Codec;
+import org.bson.codecs.configuration.CodecProvider;
+import org.bson.codecs.configuration.CodecRegistry;
+
+import java.util.Map;
+
+/**
+ * Provider for the hand-written codecs of the most read and written models
+ * Registered ahead of the POJO provider, which still handles every other model.
+ */
+public class ModelCodecProvider implements CodecProvider {
+    private final Map<Class<?>, Codec<?>> codecs = Map.of(
+            Player.class, new PlayerCodec(),
+            KillRecord.class, new KillRecordCodec(),
+            GameServer.class, new GameServerCodec(),
+            Faction.class, new FactionCodec(),
+            GuildConfig.class, new GuildConfigCodec(),
+            LinkedPlayer.class, new LinkedPlayerCodec());
+    
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> Codec<T> get(Class<T> clazz, CodecRegistry registry) {
+        return (Codec<T>) codecs.get(clazz);
+    }
+}
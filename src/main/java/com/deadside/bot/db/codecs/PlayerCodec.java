@@ -0,0 +1,164 @@
+package com.deadside.bot.db.codecs;
+
+import com.deadside.bot.db.models.Currency;
+import com.deadside.bot.db.models.FactionMember;
+import com.deadside.bot.db.models.Player;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.types.ObjectId;
+
+import static com.deadside.bot.db.codecs.BsonFields.*;
+
+/**
+ * Codec for players, with their currency and faction membership embedded
+ * Only stored fields are written. Derived getters such as kdRatio and score, and aliases such as
+ * deadsideId, are not, and are ignored when reading documents written before this codec.
+ */
+public class PlayerCodec extends ModelCodec<Player> {
+    
+    @Override
+    public void encode(BsonWriter writer, Player player, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        writeObjectId(writer, "_id", player.getId());
+        writeString(writer, "playerId", player.getPlayerId());
+        writeString(writer, "name", player.getName());
+        writer.writeInt32("kills", player.getKills());
+        writer.writeInt32("deaths", player.getDeaths());
+        writer.writeInt32("suicides", player.getSuicides());
+        writeString(writer, "mostUsedWeapon", player.getMostUsedWeapon());
+        writer.writeInt32("mostUsedWeaponKills", player.getMostUsedWeaponKills());
+        writeString(writer, "mostKilledPlayer", player.getMostKilledPlayer());
+        writer.writeInt32("mostKilledPlayerCount", player.getMostKilledPlayerCount());
+        writeString(writer, "killedByMost", player.getKilledByMost());
+        writer.writeInt32("killedByMostCount", player.getKilledByMostCount());
+        writer.writeInt64("lastUpdated", player.getLastUpdated());
+        
+        writer.writeName("currency");
+        encodeCurrency(writer, player.getCurrency());
+        if (player.getFactionMember() != null) {
+            writer.writeName("factionMember");
+            encodeFactionMember(writer, player.getFactionMember());
+        }
+        writeObjectId(writer, "factionId", player.getFactionId());
+        writeInstant(writer, "factionJoinDate", player.getFactionJoinDate());
+        writer.writeEndDocument();
+    }
+    
+    @Override
+    public Player decode(BsonReader reader, DecoderContext decoderContext) {
+        Player player = new Player();
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "_id" -> player.setId(readObjectId(reader));
+                case "playerId" -> player.setPlayerId(readString(reader));
+                case "name" -> player.setName(readString(reader));
+                case "kills" -> player.setKills(readInt(reader));
+                case "deaths" -> player.setDeaths(readInt(reader));
+                case "suicides" -> player.setSuicides(readInt(reader));
+                case "mostUsedWeapon" -> player.setMostUsedWeapon(readString(reader));
+                case "mostUsedWeaponKills" -> player.setMostUsedWeaponKills(readInt(reader));
+                case "mostKilledPlayer" -> player.setMostKilledPlayer(readString(reader));
+                case "mostKilledPlayerCount" -> player.setMostKilledPlayerCount(readInt(reader));
+                case "killedByMost" -> player.setKilledByMost(readString(reader));
+                case "killedByMostCount" -> player.setKilledByMostCount(readInt(reader));
+                case "lastUpdated" -> player.setLastUpdated(readLong(reader));
+                case "currency" -> player.setCurrency(decodeCurrency(reader));
+                case "factionMember" -> player.setFactionMember(decodeFactionMember(reader));
+                case "factionId" -> player.setFactionId(readObjectId(reader));
+                case "factionJoinDate" -> player.setFactionJoinDate(readInstant(reader));
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return player;
+    }
+    
+    @Override
+    public Class<Player> getEncoderClass() {
+        return Player.class;
+    }
+    
+    @Override
+    protected ObjectId getId(Player player) {
+        return player.getId();
+    }
+    
+    @Override
+    protected void setId(Player player, ObjectId id) {
+        player.setId(id);
+    }
+    
+    private static void encodeCurrency(BsonWriter writer, Currency currency) {
+        writer.writeStartDocument();
+        writer.writeInt64("coins", currency.getCoins());
+        writer.writeInt64("bankCoins", currency.getBankCoins());
+        writer.writeInt32("bountyPoints", currency.getBountyPoints());
+        writer.writeInt32("prestigePoints", currency.getPrestigePoints());
+        writer.writeInt64("lastDailyReward", currency.getLastDailyReward());
+        writer.writeInt64("totalEarned", currency.getTotalEarned());
+        writer.writeInt64("totalSpent", currency.getTotalSpent());
+        writer.writeEndDocument();
+    }
+    
+    private static Currency decodeCurrency(BsonReader reader) {
+        if (reader.getCurrentBsonType() != BsonType.DOCUMENT) {
+            reader.skipValue();
+            return null;
+        }
+        
+        Currency currency = new Currency();
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "coins" -> currency.setCoins(readLong(reader));
+                case "bankCoins" -> currency.setBankCoins(readLong(reader));
+                case "bountyPoints" -> currency.setBountyPoints(readInt(reader));
+                case "prestigePoints" -> currency.setPrestigePoints(readInt(reader));
+                case "lastDailyReward" -> currency.setLastDailyReward(readLong(reader));
+                case "totalEarned" -> currency.setTotalEarned(readLong(reader));
+                case "totalSpent" -> currency.setTotalSpent(readLong(reader));
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return currency;
+    }
+    
+    private static void encodeFactionMember(BsonWriter writer, FactionMember member) {
+        writer.writeStartDocument();
+        writeObjectId(writer, "factionId", member.getFactionId());
+        writeString(writer, "factionName", member.getFactionName());
+        writeString(writer, "factionTag", member.getFactionTag());
+        writer.writeInt32("role", member.getRole());
+        writer.writeInt64("joinedAt", member.getJoinedAt());
+        writer.writeInt32("contributedXp", member.getContributedXp());
+        writer.writeEndDocument();
+    }
+    
+    private static FactionMember decodeFactionMember(BsonReader reader) {
+        if (reader.getCurrentBsonType() != BsonType.DOCUMENT) {
+            reader.skipValue();
+            return null;
+        }
+        
+        FactionMember member = new FactionMember();
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "factionId" -> member.setFactionId(readObjectId(reader));
+                case "factionName" -> member.setFactionName(readString(reader));
+                case "factionTag" -> member.setFactionTag(readString(reader));
+                case "role" -> member.setRole(readInt(reader));
+                case "joinedAt" -> member.setJoinedAt(readLong(reader));
+                case "contributedXp" -> member.setContributedXp(readInt(reader));
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return member;
+    }
+}
@@ -0,0 +1,83 @@
+package com.deadside.bot.db.models;
+
+import org.bson.codecs.pojo.annotations.BsonId;
+import org.bson.types.ObjectId;
+
+/**
+ * Database model for a player's ledger balance at a point in the ledger
+ * The balance covers every ledger entry with an _id below {@link #getThrough()}; the
+ * current balance is the snapshot plus the entries from there on.
+ */
+public class BalanceSnapshot {
+    @BsonId
+    private String playerId;
+    private long coins;
+    private long bankCoins;
+    private ObjectId through;
+    private long timestamp;
+    
+    public BalanceSnapshot() {
+        // Required for MongoDB POJO codec
+    }
+    
+    public BalanceSnapshot(String playerId, long coins, long bankCoins, ObjectId through) {
+        this.playerId = playerId;
+        this.coins = coins;
+        this.bankCoins = bankCoins;
+        this.through = through;
+        this.timestamp = System.currentTimeMillis();
+    }
+    
+    /**
+     * Apply a ledger entry to this balance
+     */
+    public void apply(EconomyTransaction transaction) {
+        if (transaction.getType() == EconomyTransaction.Type.SET) {
+            coins = transaction.getCoins();
+            bankCoins = transaction.getBankCoins();
+        } else {
+            coins += transaction.getCoins();
+            bankCoins += transaction.getBankCoins();
+        }
+    }
+    
+    public String getPlayerId() {
+        return playerId;
+    }
+    
+    public void setPlayerId(String playerId) {
+        this.playerId = playerId;
+    }
+    
+    public long getCoins() {
+        return coins;
+    }
+    
+    public void setCoins(long coins) {
+        this.coins = coins;
+    }
+    
+    public long getBankCoins() {
+        return bankCoins;
+    }
+    
+    public void setBankCoins(long bankCoins) {
+        this.bankCoins = bankCoins;
+    }
+    
+    public ObjectId getThrough() {
+        return through;
+    }
+    
+    public void setThrough(ObjectId through) {
+        this.through = through;
+    }
+    
+    public long getTimestamp() {
+        return timestamp;
+    }
+    
+    public void setTimestamp(long timestamp) {
+        this.timestamp = timestamp;
+    }
+}
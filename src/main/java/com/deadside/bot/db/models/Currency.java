@@ -84,6 +84,21 @@ public class Currency {
     
     // Helper methods
     
+    /**
+     * Get an independent copy of this balance
+     */
+    public Currency copy() {
+        Currency copy = new Currency();
+        copy.coins = coins;
+        copy.bankCoins = bankCoins;
+        copy.bountyPoints = bountyPoints;
+        copy.prestigePoints = prestigePoints;
+        copy.lastDailyReward = lastDailyReward;
+        copy.totalEarned = totalEarned;
+        copy.totalSpent = totalSpent;
+        return copy;
+    }
+    
     /**
      * Get total balance (wallet + bank)
      */
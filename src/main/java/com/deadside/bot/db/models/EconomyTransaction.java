@@ -0,0 +1,108 @@
+package com.deadside.bot.db.models;
+
+import org.bson.codecs.pojo.annotations.BsonId;
+import org.bson.types.ObjectId;
+
+/**
+ * Database model for one entry of the economy ledger
+ * Entries are never changed once written. Coins and bank coins hold the change the transaction made,
+ * except for {@link Type#SET} entries, which hold the balance an admin set or reset the player to.
+ * IDs are assigned when the transaction happens, so ledger order is _id order.
+ */
+public class EconomyTransaction {
+    
+    /**
+     * What caused a balance change
+     */
+    public enum Type {
+        BET,
+        PAYOUT,
+        REFUND,
+        DAILY,
+        WORK,
+        ADMIN,
+        DEPOSIT,
+        WITHDRAW,
+        TRANSFER,
+        SET
+    }
+    
+    @BsonId
+    private ObjectId id;
+    private String playerId;
+    private Type type;
+    private long coins;
+    private long bankCoins;
+    private String source;
+    private long timestamp;
+    
+    public EconomyTransaction() {
+        // Required for MongoDB POJO codec
+    }
+    
+    public EconomyTransaction(String playerId, Type type, long coins, long bankCoins, String source) {
+        this.id = new ObjectId();
+        this.playerId = playerId;
+        this.type = type;
+        this.coins = coins;
+        this.bankCoins = bankCoins;
+        this.source = source;
+        this.timestamp = System.currentTimeMillis();
+    }
+    
+    public ObjectId getId() {
+        return id;
+    }
+    
+    public void setId(ObjectId id) {
+        this.id = id;
+    }
+    
+    public String getPlayerId() {
+        return playerId;
+    }
+    
+    public void setPlayerId(String playerId) {
+        this.playerId = playerId;
+    }
+    
+    public Type getType() {
+        return type;
+    }
+    
+    public void setType(Type type) {
+        this.type = type;
+    }
+    
+    public long getCoins() {
+        return coins;
+    }
+    
+    public void setCoins(long coins) {
+        this.coins = coins;
+    }
+    
+    public long getBankCoins() {
+        return bankCoins;
+    }
+    
+    public void setBankCoins(long bankCoins) {
+        this.bankCoins = bankCoins;
+    }
+    
+    public String getSource() {
+        return source;
+    }
+    
+    public void setSource(String source) {
+        this.source = source;
+    }
+    
+    public long getTimestamp() {
+        return timestamp;
+    }
+    
+    public void setTimestamp(long timestamp) {
+        this.timestamp = timestamp;
+    }
+}
@@ -0,0 +1,91 @@
+package com.deadside.bot.db.models;
+
+import org.bson.codecs.pojo.annotations.BsonId;
+import org.bson.types.ObjectId;
+
+/**
+ * Database model for a coin transfer between two players
+ * The transfer is written before either wallet changes. Each wallet change also adds the transfer's
+ * ID to the player's pending transfers in the same update, so a transfer interrupted between the two
+ * changes can be finished or refunded later without applying either change twice.
+ */
+public class EconomyTransfer {
+    
+    /**
+     * How far a transfer has got
+     */
+    public enum State {
+        PENDING,
+        DONE,
+        CANCELLED
+    }
+    
+    @BsonId
+    private ObjectId id;
+    private String fromPlayerId;
+    private String toPlayerId;
+    private long amount;
+    private State state;
+    private long timestamp;
+    
+    public EconomyTransfer() {
+        // Required for MongoDB POJO codec
+    }
+    
+    public EconomyTransfer(String fromPlayerId, String toPlayerId, long amount) {
+        this.id = new ObjectId();
+        this.fromPlayerId = fromPlayerId;
+        this.toPlayerId = toPlayerId;
+        this.amount = amount;
+        this.state = State.PENDING;
+        this.timestamp = System.currentTimeMillis();
+    }
+    
+    public ObjectId getId() {
+        return id;
+    }
+    
+    public void setId(ObjectId id) {
+        this.id = id;
+    }
+    
+    public String getFromPlayerId() {
+        return fromPlayerId;
+    }
+    
+    public void setFromPlayerId(String fromPlayerId) {
+        this.fromPlayerId = fromPlayerId;
+    }
+    
+    public String getToPlayerId() {
+        return toPlayerId;
+    }
+    
+    public void setToPlayerId(String toPlayerId) {
+        this.toPlayerId = toPlayerId;
+    }
+    
+    public long getAmount() {
+        return amount;
+    }
+    
+    public void setAmount(long amount) {
+        this.amount = amount;
+    }
+    
+    public State getState() {
+        return state;
+    }
+    
+    public void setState(State state) {
+        this.state = state;
+    }
+    
+    public long getTimestamp() {
+        return timestamp;
+    }
+    
+    public void setTimestamp(long timestamp) {
+        this.timestamp = timestamp;
+    }
+}
@@ -3,10 +3,20 @@ package com.deadside.bot.db.models;
 import org.bson.codecs.pojo.annotations.BsonId;
 import org.bson.types.ObjectId;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Database model for a Deadside game server
  */
 public class GameServer {
+    // Log event types that can be collapsed into a periodic digest
+    public static final String DIGEST_JOINS = "joins";
+    public static final String DIGEST_LEAVES = "leaves";
+    public static final String DIGEST_DEATHS = "deaths";
+    public static final String DIGEST_EVENTS = "events";
+    public static final int DEFAULT_DIGEST_WINDOW_SECONDS = 60;
+    
     @BsonId
     private ObjectId id;
     private long guildId;
@@ -25,6 +35,10 @@ public class GameServer {
     private long lastProcessedTimestamp;
     private boolean premium;
     private long premiumUntil;
+    private List<String> digestEventTypes; // Log event types summarised in a digest instead of posted individually
+    private int digestWindowSeconds;       // Digest window length, 0 for the default
+    private long statusBoardChannelId;     // Channel holding the live status board, 0 if disabled
+    private long statusBoardMessageId;     // Board message edited in place, 0 until first posted
     
     public GameServer() {
         // Required for MongoDB POJO codec
@@ -279,6 +293,90 @@ public class GameServer {
         this.premiumUntil = 0;
     }
     
+    /**
+     * Get the log event types that are posted as a digest
+     */
+    public List<String> getDigestEventTypes() {
+        if (digestEventTypes == null) {
+            digestEventTypes = new ArrayList<>();
+        }
+        return digestEventTypes;
+    }
+    
+    /**
+     * Set the log event types that are posted as a digest
+     */
+    public void setDigestEventTypes(List<String> digestEventTypes) {
+        this.digestEventTypes = digestEventTypes;
+    }
+    
+    /**
+     * Check if a log event type is posted as a digest for this server
+     * @param eventType One of the DIGEST_* constants
+     */
+    public boolean isDigestEnabled(String eventType) {
+        return digestEventTypes != null && digestEventTypes.contains(eventType);
+    }
+    
+    /**
+     * Enable or disable the digest for a log event type
+     * @param eventType One of the DIGEST_* constants
+     * @param enabled Whether events of this type are summarised instead of posted individually
+     */
+    public void setDigestEnabled(String eventType, boolean enabled) {
+        List<String> types = getDigestEventTypes();
+        if (enabled && !types.contains(eventType)) {
+            types.add(eventType);
+        } else if (!enabled) {
+            types.remove(eventType);
+        }
+    }
+    
+    /**
+     * Get the digest window length in seconds
+     */
+    public int getDigestWindowSeconds() {
+        return digestWindowSeconds > 0 ? digestWindowSeconds : DEFAULT_DIGEST_WINDOW_SECONDS;
+    }
+    
+    /**
+     * Set the digest window length in seconds, 0 for the default
+     */
+    public void setDigestWindowSeconds(int digestWindowSeconds) {
+        this.digestWindowSeconds = digestWindowSeconds;
+    }
+    
+    /**
+     * Get the channel holding the live status board
+     * @return The channel ID, or 0 if the status board is disabled
+     */
+    public long getStatusBoardChannelId() {
+        return statusBoardChannelId;
+    }
+    
+    public void setStatusBoardChannelId(long statusBoardChannelId) {
+        this.statusBoardChannelId = statusBoardChannelId;
+    }
+    
+    /**
+     * Get the status board message that is edited in place
+     * @return The message ID, or 0 if the board has not been posted yet
+     */
+    public long getStatusBoardMessageId() {
+        return statusBoardMessageId;
+    }
+    
+    public void setStatusBoardMessageId(long statusBoardMessageId) {
+        this.statusBoardMessageId = statusBoardMessageId;
+    }
+    
+    /**
+     * Check if the live status board is enabled
+     */
+    public boolean isStatusBoardEnabled() {
+        return statusBoardChannelId != 0;
+    }
+    
     // Status related methods needed by StringSelectMenuListener
     
     /**
@@ -0,0 +1,130 @@
+package com.deadside.bot.db.models;
+
+import org.bson.codecs.pojo.annotations.BsonId;
+import org.bson.types.ObjectId;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Database model for one day of a player's kills and deaths with one weapon on one game server
+ * Written by the kill record compaction job in place of the raw records of older days. The kills
+ * are also broken down per victim, so head-to-head counts can still be rebuilt from rollups.
+ */
+public class KillRollup {
+    @BsonId
+    private ObjectId id;
+    private long guildId;
+    private String serverId;
+    private long day;                        // Start of the UTC day in epoch milliseconds
+    private String player;
+    private String weapon;
+    private int kills;
+    private int deaths;                      // Times the player was killed with the weapon
+    private long totalDistance;
+    private long longestKill;
+    private List<KillRollupVictim> victims;
+    private List<String> slices;             // Compacted slices of raw records, so none is counted twice
+    
+    public KillRollup() {
+        // Required for MongoDB POJO codec
+        this.victims = new ArrayList<>();
+        this.slices = new ArrayList<>();
+    }
+    
+    public ObjectId getId() {
+        return id;
+    }
+    
+    public void setId(ObjectId id) {
+        this.id = id;
+    }
+    
+    public long getGuildId() {
+        return guildId;
+    }
+    
+    public void setGuildId(long guildId) {
+        this.guildId = guildId;
+    }
+    
+    public String getServerId() {
+        return serverId;
+    }
+    
+    public void setServerId(String serverId) {
+        this.serverId = serverId;
+    }
+    
+    public long getDay() {
+        return day;
+    }
+    
+    public void setDay(long day) {
+        this.day = day;
+    }
+    
+    public String getPlayer() {
+        return player;
+    }
+    
+    public void setPlayer(String player) {
+        this.player = player;
+    }
+    
+    public String getWeapon() {
+        return weapon;
+    }
+    
+    public void setWeapon(String weapon) {
+        this.weapon = weapon;
+    }
+    
+    public int getKills() {
+        return kills;
+    }
+    
+    public void setKills(int kills) {
+        this.kills = kills;
+    }
+    
+    public int getDeaths() {
+        return deaths;
+    }
+    
+    public void setDeaths(int deaths) {
+        this.deaths = deaths;
+    }
+    
+    public long getTotalDistance() {
+        return totalDistance;
+    }
+    
+    public void setTotalDistance(long totalDistance) {
+        this.totalDistance = totalDistance;
+    }
+    
+    public long getLongestKill() {
+        return longestKill;
+    }
+    
+    public void setLongestKill(long longestKill) {
+        this.longestKill = longestKill;
+    }
+    
+    public List<KillRollupVictim> getVictims() {
+        return victims;
+    }
+    
+    public void setVictims(List<KillRollupVictim> victims) {
+        this.victims = victims != null ? victims : new ArrayList<>();
+    }
+    
+    public List<String> getSlices() {
+        return slices;
+    }
+    
+    public void setSlices(List<String> slices) {
+        this.slices = slices != null ? slices : new ArrayList<>();
+    }
+}
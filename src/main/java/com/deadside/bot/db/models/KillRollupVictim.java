@@ -0,0 +1,47 @@
+package com.deadside.bot.db.models;
+
+/**
+ * A rolled-up player's kills of one victim with the weapon of its {@link KillRollup}
+ */
+public class KillRollupVictim {
+    private String name;
+    private int kills;
+    private long totalDistance;
+    private long longestKill;
+    
+    public KillRollupVictim() {
+        // Required for MongoDB POJO codec
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public void setName(String name) {
+        this.name = name;
+    }
+    
+    public int getKills() {
+        return kills;
+    }
+    
+    public void setKills(int kills) {
+        this.kills = kills;
+    }
+    
+    public long getTotalDistance() {
+        return totalDistance;
+    }
+    
+    public void setTotalDistance(long totalDistance) {
+        this.totalDistance = totalDistance;
+    }
+    
+    public long getLongestKill() {
+        return longestKill;
+    }
+    
+    public void setLongestKill(long longestKill) {
+        this.longestKill = longestKill;
+    }
+}
@@ -0,0 +1,158 @@
+package com.deadside.bot.db.models;
+
+import org.bson.codecs.pojo.annotations.BsonId;
+import org.bson.types.ObjectId;
+
+/**
+ * Database model for one row of a materialized leaderboard
+ * Rows are kept per guild and per server, plus a guild-wide row under
+ * {@link #ALL_SERVERS}, and hold a player's stats within that scope.
+ * For weapon leaderboards the name is the weapon, deaths stay at zero and the "most" fields are unset.
+ */
+public class LeaderboardEntry {
+    /**
+     * Server name used for the guild-wide leaderboard
+     */
+    public static final String ALL_SERVERS = "*";
+    
+    @BsonId
+    private ObjectId id;
+    private long guildId;
+    private String server;
+    private String name;
+    private int kills;
+    private int deaths;
+    private double kd;
+    private int score;
+    private String mostUsedWeapon;
+    private int mostUsedWeaponKills;
+    private String mostKilledPlayer;
+    private int mostKilledPlayerCount;
+    private String killedByMost;
+    private int killedByMostCount;
+    private long lastUpdated;
+    
+    public LeaderboardEntry() {
+        // Required for MongoDB POJO codec
+    }
+    
+    public ObjectId getId() {
+        return id;
+    }
+    
+    public void setId(ObjectId id) {
+        this.id = id;
+    }
+    
+    public long getGuildId() {
+        return guildId;
+    }
+    
+    public void setGuildId(long guildId) {
+        this.guildId = guildId;
+    }
+    
+    public String getServer() {
+        return server;
+    }
+    
+    public void setServer(String server) {
+        this.server = server;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public void setName(String name) {
+        this.name = name;
+    }
+    
+    public int getKills() {
+        return kills;
+    }
+    
+    public void setKills(int kills) {
+        this.kills = kills;
+    }
+    
+    public int getDeaths() {
+        return deaths;
+    }
+    
+    public void setDeaths(int deaths) {
+        this.deaths = deaths;
+    }
+    
+    public double getKd() {
+        return kd;
+    }
+    
+    public void setKd(double kd) {
+        this.kd = kd;
+    }
+    
+    public int getScore() {
+        return score;
+    }
+    
+    public void setScore(int score) {
+        this.score = score;
+    }
+    
+    public String getMostUsedWeapon() {
+        return mostUsedWeapon;
+    }
+    
+    public void setMostUsedWeapon(String mostUsedWeapon) {
+        this.mostUsedWeapon = mostUsedWeapon;
+    }
+    
+    public int getMostUsedWeaponKills() {
+        return mostUsedWeaponKills;
+    }
+    
+    public void setMostUsedWeaponKills(int mostUsedWeaponKills) {
+        this.mostUsedWeaponKills = mostUsedWeaponKills;
+    }
+    
+    public String getMostKilledPlayer() {
+        return mostKilledPlayer;
+    }
+    
+    public void setMostKilledPlayer(String mostKilledPlayer) {
+        this.mostKilledPlayer = mostKilledPlayer;
+    }
+    
+    public int getMostKilledPlayerCount() {
+        return mostKilledPlayerCount;
+    }
+    
+    public void setMostKilledPlayerCount(int mostKilledPlayerCount) {
+        this.mostKilledPlayerCount = mostKilledPlayerCount;
+    }
+    
+    public String getKilledByMost() {
+        return killedByMost;
+    }
+    
+    public void setKilledByMost(String killedByMost) {
+        this.killedByMost = killedByMost;
+    }
+    
+    public int getKilledByMostCount() {
+        return killedByMostCount;
+    }
+    
+    public void setKilledByMostCount(int killedByMostCount) {
+        this.killedByMostCount = killedByMostCount;
+    }
+    
+    public long getLastUpdated() {
+        return lastUpdated;
+    }
+    
+    public void setLastUpdated(long lastUpdated) {
+        this.lastUpdated = lastUpdated;
+    }
+}
@@ -0,0 +1,70 @@
+package com.deadside.bot.db.models;
+
+import org.bson.codecs.pojo.annotations.BsonId;
+import org.bson.types.ObjectId;
+
+/**
+ * Database model for one cell of the head-to-head kill matrix
+ * Holds how many times one player has killed another within a guild.
+ */
+public class MatchupEntry {
+    @BsonId
+    private ObjectId id;
+    private long guildId;
+    private String killer;
+    private String victim;
+    private int kills;
+    private long lastUpdated;
+    
+    public MatchupEntry() {
+        // Required for MongoDB POJO codec
+    }
+    
+    public ObjectId getId() {
+        return id;
+    }
+    
+    public void setId(ObjectId id) {
+        this.id = id;
+    }
+    
+    public long getGuildId() {
+        return guildId;
+    }
+    
+    public void setGuildId(long guildId) {
+        this.guildId = guildId;
+    }
+    
+    public String getKiller() {
+        return killer;
+    }
+    
+    public void setKiller(String killer) {
+        this.killer = killer;
+    }
+    
+    public String getVictim() {
+        return victim;
+    }
+    
+    public void setVictim(String victim) {
+        this.victim = victim;
+    }
+    
+    public int getKills() {
+        return kills;
+    }
+    
+    public void setKills(int kills) {
+        this.kills = kills;
+    }
+    
+    public long getLastUpdated() {
+        return lastUpdated;
+    }
+    
+    public void setLastUpdated(long lastUpdated) {
+        this.lastUpdated = lastUpdated;
+    }
+}
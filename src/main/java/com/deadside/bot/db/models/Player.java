@@ -247,6 +247,32 @@ public class Player {
         return factionMember != null;
     }
     
+    /**
+     * Get a copy of this player that can be changed without affecting it
+     * The currency is copied; the faction membership is shared.
+     */
+    public Player copy() {
+        Player copy = new Player();
+        copy.id = id;
+        copy.playerId = playerId;
+        copy.name = name;
+        copy.kills = kills;
+        copy.deaths = deaths;
+        copy.suicides = suicides;
+        copy.mostUsedWeapon = mostUsedWeapon;
+        copy.mostUsedWeaponKills = mostUsedWeaponKills;
+        copy.mostKilledPlayer = mostKilledPlayer;
+        copy.mostKilledPlayerCount = mostKilledPlayerCount;
+        copy.killedByMost = killedByMost;
+        copy.killedByMostCount = killedByMostCount;
+        copy.lastUpdated = lastUpdated;
+        copy.currency = currency != null ? currency.copy() : null;
+        copy.factionMember = factionMember;
+        copy.factionId = factionId;
+        copy.factionJoinDate = factionJoinDate;
+        return copy;
+    }
+    
     /**
      * Add a kill reward (coins and experience)
      */
@@ -0,0 +1,84 @@
+package com.deadside.bot.db.models;
+
+import com.mongodb.client.model.Projections;
+import org.bson.codecs.pojo.annotations.BsonCreator;
+import org.bson.codecs.pojo.annotations.BsonProperty;
+import org.bson.conversions.Bson;
+
+/**
+ * Read-only view of a player for lists, searches and leaderboards
+ * Queries returning this view project the player document down to these fields, so the embedded
+ * currency and faction data are neither sent by the server nor decoded.
+ */
+public class PlayerSummary {
+    /**
+     * Projection selecting the fields of this view
+     */
+    public static final Bson PROJECTION = Projections.fields(
+            Projections.include("playerId", "name", "kills", "deaths", "mostUsedWeapon", "mostUsedWeaponKills"),
+            Projections.excludeId());
+    
+    private final String playerId;
+    private final String name;
+    private final int kills;
+    private final int deaths;
+    private final String mostUsedWeapon;
+    private final int mostUsedWeaponKills;
+    
+    @BsonCreator
+    public PlayerSummary(@BsonProperty("playerId") String playerId,
+                         @BsonProperty("name") String name,
+                         @BsonProperty("kills") Integer kills,
+                         @BsonProperty("deaths") Integer deaths,
+                         @BsonProperty("mostUsedWeapon") String mostUsedWeapon,
+                         @BsonProperty("mostUsedWeaponKills") Integer mostUsedWeaponKills) {
+        // Fields missing from older documents arrive as null
+        this.playerId = playerId;
+        this.name = name;
+        this.kills = kills != null ? kills : 0;
+        this.deaths = deaths != null ? deaths : 0;
+        this.mostUsedWeapon = mostUsedWeapon;
+        this.mostUsedWeaponKills = mostUsedWeaponKills != null ? mostUsedWeaponKills : 0;
+    }
+    
+    public String getPlayerId() {
+        return playerId;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public int getKills() {
+        return kills;
+    }
+    
+    public int getDeaths() {
+        return deaths;
+    }
+    
+    public String getMostUsedWeapon() {
+        return mostUsedWeapon;
+    }
+    
+    public int getMostUsedWeaponKills() {
+        return mostUsedWeaponKills;
+    }
+    
+    /**
+     * Calculate K/D ratio the same way as {@link Player#getKdRatio()}
+     */
+    public double getKdRatio() {
+        if (deaths == 0) {
+            return kills;
+        }
+        return (double) kills / deaths;
+    }
+    
+    /**
+     * Calculate score the same way as {@link Player#getScore()}
+     */
+    public int getScore() {
+        return Math.max(0, kills * 10 - deaths * 5);
+    }
+}
@@ -0,0 +1,95 @@
+package com.deadside.bot.db.models;
+
+import org.bson.codecs.pojo.annotations.BsonId;
+import org.bson.types.ObjectId;
+
+/**
+ * Database model for one player's kills with one weapon within a guild
+ * Distance totals are kept alongside the kill count so averages need no kill history.
+ */
+public class WeaponStatsEntry {
+    @BsonId
+    private ObjectId id;
+    private long guildId;
+    private String player;
+    private String weapon;
+    private int kills;
+    private long totalDistance;
+    private long longestKill;
+    private long lastUpdated;
+    
+    public WeaponStatsEntry() {
+        // Required for MongoDB POJO codec
+    }
+    
+    public ObjectId getId() {
+        return id;
+    }
+    
+    public void setId(ObjectId id) {
+        this.id = id;
+    }
+    
+    public long getGuildId() {
+        return guildId;
+    }
+    
+    public void setGuildId(long guildId) {
+        this.guildId = guildId;
+    }
+    
+    public String getPlayer() {
+        return player;
+    }
+    
+    public void setPlayer(String player) {
+        this.player = player;
+    }
+    
+    public String getWeapon() {
+        return weapon;
+    }
+    
+    public void setWeapon(String weapon) {
+        this.weapon = weapon;
+    }
+    
+    public int getKills() {
+        return kills;
+    }
+    
+    public void setKills(int kills) {
+        this.kills = kills;
+    }
+    
+    public long getTotalDistance() {
+        return totalDistance;
+    }
+    
+    public void setTotalDistance(long totalDistance) {
+        this.totalDistance = totalDistance;
+    }
+    
+    public long getLongestKill() {
+        return longestKill;
+    }
+    
+    public void setLongestKill(long longestKill) {
+        this.longestKill = longestKill;
+    }
+    
+    public long getLastUpdated() {
+        return lastUpdated;
+    }
+    
+    public void setLastUpdated(long lastUpdated) {
+        this.lastUpdated = lastUpdated;
+    }
+    
+    /**
+     * Get the average kill distance in meters
+     */
+    public double getAverageDistance() {
+        return kills == 0 ? 0 : (double) totalDistance / kills;
+    }
+}
@@ -0,0 +1,146 @@
+package com.deadside.bot.db.repositories;
+
+import com.deadside.bot.db.MongoDBConnection;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.PushOptions;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Unordered bulk upserts that retry the updates lost to a concurrent insert
+ * Two writers upserting the same new row race to insert it, and the unique index on the row's key
+ * makes the loser fail with a duplicate key error. Retrying that update finds the row the winner
+ * inserted and applies to it, so both writers' changes end up in the one row.
+ * <p>
+ * Updates of a marked batch only match rows that do not hold the batch's marker yet, and add it.
+ * Writing the batch again after a partial failure then skips the rows it already changed: their
+ * update matches nothing, its insert collides with the row, and it collides again when retried.
+ */
+final class BulkUpserts {
+    static final String MARKERS_FIELD = "appliedBatches";
+    private static final int DUPLICATE_KEY = 11000;
+    private static final BulkWriteOptions UNORDERED = new BulkWriteOptions().ordered(false);
+    
+    // A failed batch is written again on its server's next cycle, long before this many others change the row
+    private static final int KEPT_MARKERS = 20;
+    
+    private BulkUpserts() {
+        // Utility class
+    }
+    
+    /**
+     * Narrow a row filter to the rows a batch has not changed yet
+     * @param marker The batch's marker, or null if the batch is not marked
+     */
+    static Bson unapplied(Bson filter, String marker) {
+        return marker != null ? Filters.and(filter, Filters.ne(MARKERS_FIELD, marker)) : filter;
+    }
+    
+    /**
+     * The update keeping a batch's marker on the row, along with the most recent others
+     */
+    static Bson markApplied(String marker) {
+        return Updates.pushEach(MARKERS_FIELD, List.of(marker), new PushOptions().slice(-KEPT_MARKERS));
+    }
+    
+    /**
+     * Add a batch's marker to a pipeline $set stage, keeping the most recent others
+     */
+    static void appendMarker(Document set, String marker) {
+        Document markers = new Document("$concatArrays", List.of(
+                new Document("$ifNull", List.of("$" + MARKERS_FIELD, List.of())),
+                List.of(new Document("$literal", marker))));
+        set.append(MARKERS_FIELD, new Document("$slice", List.of(markers, -KEPT_MARKERS)));
+    }
+    
+    /**
+     * Run the updates, retrying once those that failed with a duplicate key
+     * @param marked True if the updates are those of a marked batch, whose rows may already hold its marker
+     * @return The number of rows updated or created, leaving out the rows that already held the marker
+     * @throws MongoBulkWriteException If an update failed for another reason, or collided again unmarked
+     */
+    static <T> int write(MongoCollection<T> collection, List<? extends WriteModel<T>> updates, boolean marked) {
+        try {
+            return count(collection.bulkWrite(updates, UNORDERED));
+        } catch (MongoBulkWriteException e) {
+            if (!onlyDuplicateKeys(e)) {
+                throw e;
+            }
+            
+            int written = count(e.getWriteResult());
+            try {
+                return written + count(collection.bulkWrite(collided(updates, e), UNORDERED));
+            } catch (MongoBulkWriteException retryError) {
+                if (!marked || !onlyDuplicateKeys(retryError)) {
+                    throw retryError;
+                }
+                return written + count(retryError.getWriteResult());
+            }
+        }
+    }
+    
+    /**
+     * Run the updates through the reactive driver, retrying once those that failed with a duplicate key
+     * Works like {@link #write(MongoCollection, List, boolean)} without a thread waiting on the writes.
+     * @return A future with the number of rows updated or created, failed as the blocking write would throw
+     */
+    static <T> CompletableFuture<Integer> writeAsync(com.mongodb.reactivestreams.client.MongoCollection<T> collection,
+                                                     List<? extends WriteModel<T>> updates, boolean marked) {
+        MongoDBConnection connection = MongoDBConnection.getInstance();
+        return connection.single(collection.bulkWrite(updates, UNORDERED))
+                .thenApply(BulkUpserts::count)
+                .exceptionallyCompose(error -> {
+                    MongoBulkWriteException e = duplicateKeysOnly(error);
+                    if (e == null) {
+                        return CompletableFuture.failedFuture(error);
+                    }
+                    
+                    int written = count(e.getWriteResult());
+                    return connection.single(collection.bulkWrite(collided(updates, e), UNORDERED))
+                            .thenApply(result -> written + count(result))
+                            .exceptionallyCompose(retryError -> {
+                                MongoBulkWriteException retried = duplicateKeysOnly(retryError);
+                                if (!marked || retried == null) {
+                                    return CompletableFuture.failedFuture(retryError);
+                                }
+                                return CompletableFuture.completedFuture(written + count(retried.getWriteResult()));
+                            });
+                });
+    }
+    
+    private static <T> List<WriteModel<T>> collided(List<? extends WriteModel<T>> updates, MongoBulkWriteException e) {
+        List<WriteModel<T>> collided = new ArrayList<>(e.getWriteErrors().size());
+        for (BulkWriteError error : e.getWriteErrors()) {
+            collided.add(updates.get(error.getIndex()));
+        }
+        return collided;
+    }
+    
+    /**
+     * Get the bulk write error behind a failed future, if it only holds duplicate keys
+     */
+    private static MongoBulkWriteException duplicateKeysOnly(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        return cause instanceof MongoBulkWriteException e && onlyDuplicateKeys(e) ? e : null;
+    }
+    
+    private static boolean onlyDuplicateKeys(MongoBulkWriteException e) {
+        return e.getWriteErrors().stream().allMatch(error -> error.getCode() == DUPLICATE_KEY);
+    }
+    
+    private static int count(BulkWriteResult result) {
+        return result.getModifiedCount() + result.getUpserts().size();
+    }
+}
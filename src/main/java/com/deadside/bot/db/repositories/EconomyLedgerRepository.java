@@ -0,0 +1,218 @@
+package com.deadside.bot.db.repositories;
+
+import com.deadside.bot.db.MongoDBConnection;
+import com.deadside.bot.db.models.BalanceSnapshot;
+import com.deadside.bot.db.models.EconomyTransaction;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.InsertManyOptions;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.WriteModel;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository for the economy ledger and its balance snapshots
+ * The ledger is append-only: entries are inserted in batches and never updated. Snapshots hold each
+ * player's balance up to a point in the ledger, so a balance is rebuilt from one snapshot and the
+ * entries after it rather than from the player's whole history.
+ */
+public class EconomyLedgerRepository {
+    private static final Logger logger = LoggerFactory.getLogger(EconomyLedgerRepository.class);
+    public static final String LEDGER_COLLECTION_NAME = "economy_ledger";
+    public static final String SNAPSHOTS_COLLECTION_NAME = "economy_snapshots";
+    private static final int DUPLICATE_KEY = 11000;
+    
+    // Ledger order, newest entries first, and newest snapshot pass first
+    public static final Bson LEDGER_ORDER_SORT = Sorts.ascending("_id");
+    public static final Bson NEWEST_FIRST_SORT = Sorts.descending("_id");
+    public static final Bson LATEST_SNAPSHOT_SORT = Sorts.descending("through");
+    
+    private MongoCollection<EconomyTransaction> ledger;
+    private MongoCollection<BalanceSnapshot> snapshots;
+    
+    private MongoCollection<EconomyTransaction> getLedger() {
+        if (ledger == null) {
+            ledger = MongoDBConnection.getInstance().getDatabase()
+                    .getCollection(LEDGER_COLLECTION_NAME, EconomyTransaction.class);
+        }
+        return ledger;
+    }
+    
+    private MongoCollection<BalanceSnapshot> getSnapshots() {
+        if (snapshots == null) {
+            snapshots = MongoDBConnection.getInstance().getDatabase()
+                    .getCollection(SNAPSHOTS_COLLECTION_NAME, BalanceSnapshot.class);
+        }
+        return snapshots;
+    }
+    
+    /**
+     * Append entries to the ledger in one round trip
+     * @return True if the write was acknowledged
+     */
+    public boolean insertAll(List<EconomyTransaction> transactions) {
+        if (transactions.isEmpty()) {
+            return true;
+        }
+        
+        try {
+            getLedger().insertMany(transactions, new InsertManyOptions().ordered(false));
+            return true;
+        } catch (MongoBulkWriteException e) {
+            // Entries already written by an earlier attempt are duplicates, anything else is retried
+            if (e.getWriteErrors().stream().allMatch(error -> error.getCode() == DUPLICATE_KEY)) {
+                return true;
+            }
+            logger.error("Error appending {} ledger entries", transactions.size(), e);
+            return false;
+        } catch (Exception e) {
+            logger.error("Error appending {} ledger entries", transactions.size(), e);
+            return false;
+        }
+    }
+    
+    /**
+     * Get a player's ledger entries in ledger order
+     * @param from First entry ID to include, or null to start at the beginning
+     * @param before Entry ID to stop before, or null to read to the end
+     */
+    public List<EconomyTransaction> findEntries(String playerId, ObjectId from, ObjectId before) {
+        try {
+            return getLedger().find(entriesFilter(playerId, from, before))
+                    .sort(LEDGER_ORDER_SORT)
+                    .into(new ArrayList<>());
+        } catch (Exception e) {
+            logger.error("Error finding ledger entries for player: {}", playerId, e);
+            return new ArrayList<>();
+        }
+    }
+    
+    /**
+     * Get a player's most recent ledger entries, newest first
+     */
+    public List<EconomyTransaction> findRecent(String playerId, int limit) {
+        try {
+            return getLedger().find(entriesFilter(playerId, null, null))
+                    .sort(NEWEST_FIRST_SORT)
+                    .limit(limit)
+                    .into(new ArrayList<>());
+        } catch (Exception e) {
+            logger.error("Error finding recent ledger entries for player: {}", playerId, e);
+            return new ArrayList<>();
+        }
+    }
+    
+    /**
+     * Get the players with ledger entries in a range
+     * @param from First entry ID to include, or null to start at the beginning
+     * @param before Entry ID to stop before
+     */
+    public List<String> findActivePlayers(ObjectId from, ObjectId before) {
+        try {
+            return getLedger().distinct("playerId", range(null, from, before), String.class)
+                    .into(new ArrayList<>());
+        } catch (Exception e) {
+            logger.error("Error finding players with ledger activity", e);
+            return new ArrayList<>();
+        }
+    }
+    
+    /**
+     * Get a player's balance snapshot
+     * @return The snapshot, or null if the player has none
+     */
+    public BalanceSnapshot findSnapshot(String playerId) {
+        try {
+            return getSnapshots().find(Filters.eq("_id", playerId)).first();
+        } catch (Exception e) {
+            logger.error("Error finding balance snapshot for player: {}", playerId, e);
+            return null;
+        }
+    }
+    
+    /**
+     * Get the ledger point of the most recent snapshot pass
+     * @return The entry ID the newest snapshots were taken up to, or null if there are none
+     */
+    public ObjectId findLatestSnapshotPoint() {
+        try {
+            BalanceSnapshot latest = getSnapshots().find()
+                    .sort(LATEST_SNAPSHOT_SORT)
+                    .limit(1)
+                    .first();
+            return latest != null ? latest.getThrough() : null;
+        } catch (Exception e) {
+            logger.error("Error finding latest balance snapshot", e);
+            return null;
+        }
+    }
+    
+    /**
+     * Write balance snapshots, replacing each player's previous one
+     * @return True if the write was acknowledged
+     */
+    public boolean saveSnapshots(Collection<BalanceSnapshot> balances) {
+        if (balances.isEmpty()) {
+            return true;
+        }
+        
+        try {
+            List<WriteModel<BalanceSnapshot>> writes = new ArrayList<>(balances.size());
+            for (BalanceSnapshot balance : balances) {
+                writes.add(new ReplaceOneModel<>(Filters.eq("_id", balance.getPlayerId()), balance,
+                        new ReplaceOptions().upsert(true)));
+            }
+            getSnapshots().bulkWrite(writes, new BulkWriteOptions().ordered(false));
+            return true;
+        } catch (Exception e) {
+            logger.error("Error saving {} balance snapshots", balances.size(), e);
+            return false;
+        }
+    }
+    
+    /**
+     * Check if no balance snapshots exist
+     */
+    public boolean hasNoSnapshots() {
+        try {
+            return getSnapshots().find().limit(1).first() == null;
+        } catch (Exception e) {
+            logger.error("Error checking for balance snapshots", e);
+            return false;
+        }
+    }
+    
+    /**
+     * Filter for a player's ledger entries in a range
+     * @param from First entry ID to include, or null to start at the beginning
+     * @param before Entry ID to stop before, or null to read to the end
+     */
+    public static Bson entriesFilter(String playerId, ObjectId from, ObjectId before) {
+        return range(Filters.eq("playerId", playerId), from, before);
+    }
+    
+    private static Bson range(Bson filter, ObjectId from, ObjectId before) {
+        List<Bson> filters = new ArrayList<>(3);
+        if (filter != null) {
+            filters.add(filter);
+        }
+        if (from != null) {
+            filters.add(Filters.gte("_id", from));
+        }
+        if (before != null) {
+            filters.add(Filters.lt("_id", before));
+        }
+        return filters.isEmpty() ? Filters.empty() : Filters.and(filters);
+    }
+}
@@ -0,0 +1,69 @@
+package com.deadside.bot.db.repositories;
+
+import com.deadside.bot.db.MongoDBConnection;
+import com.deadside.bot.db.models.EconomyTransfer;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.Updates;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Repository for coin transfers between players
+ * Writes are not caught: a transfer must not move coins unless it has been recorded, and its state
+ * must not be assumed written when it was not, so failures go to the caller.
+ */
+public class EconomyTransferRepository {
+    public static final String COLLECTION_NAME = "economy_transfers";
+    
+    // Pending transfers are recovered oldest first
+    public static final Bson OLDEST_FIRST_SORT = Sorts.ascending("timestamp");
+    
+    private MongoCollection<EconomyTransfer> collection;
+    
+    private MongoCollection<EconomyTransfer> getCollection() {
+        if (collection == null) {
+            collection = MongoDBConnection.getInstance().getDatabase()
+                    .getCollection(COLLECTION_NAME, EconomyTransfer.class);
+        }
+        return collection;
+    }
+    
+    /**
+     * Record a new transfer
+     */
+    public void insert(EconomyTransfer transfer) {
+        getCollection().insertOne(transfer);
+    }
+    
+    /**
+     * Move a pending transfer to its final state
+     */
+    public void finish(ObjectId transferId, EconomyTransfer.State state) {
+        getCollection().updateOne(
+                Filters.and(Filters.eq("_id", transferId), Filters.eq("state", EconomyTransfer.State.PENDING.name())),
+                Updates.set("state", state.name()));
+    }
+    
+    /**
+     * Get the transfers still pending that were started before a time, oldest first
+     */
+    public List<EconomyTransfer> findPendingBefore(long timestamp) {
+        return getCollection().find(pendingBeforeFilter(timestamp))
+                .sort(OLDEST_FIRST_SORT)
+                .into(new ArrayList<>());
+    }
+    
+    /**
+     * Filter for the pending transfers started before a time
+     */
+    public static Bson pendingBeforeFilter(long timestamp) {
+        return Filters.and(
+                Filters.eq("state", EconomyTransfer.State.PENDING.name()),
+                Filters.lt("timestamp", timestamp));
+    }
+}
@@ -21,6 +21,9 @@ public class FactionRepository {
     private static final Logger logger = LoggerFactory.getLogger(FactionRepository.class);
     private static final String COLLECTION_NAME = "factions";
     
+    // Order of a guild's factions, highest level first
+    public static final Bson LEVEL_SORT = Sorts.descending("level", "experience");
+    
     private MongoCollection<Faction> collection;
     
     public FactionRepository() {
@@ -62,11 +65,7 @@ public class FactionRepository {
      */
     public Faction findByNameInGuild(long guildId, String name) {
         try {
-            Bson filter = Filters.and(
-                    Filters.eq("guildId", guildId),
-                    Filters.regex("name", "^" + name + "$", "i")  // Case-insensitive exact match
-            );
-            return getCollection().find(filter).first();
+            return getCollection().find(nameInGuildFilter(guildId, name)).first();
         } catch (Exception e) {
             logger.error("Error finding faction by name: {} in guild: {}", name, guildId, e);
             return null;
@@ -78,8 +77,7 @@ public class FactionRepository {
      */
     public Faction findByName(String name) {
         try {
-            Bson filter = Filters.regex("name", "^" + name + "$", "i");  // Case-insensitive exact match
-            return getCollection().find(filter).first();
+            return getCollection().find(nameFilter(name)).first();
         } catch (Exception e) {
             logger.error("Error finding faction by name: {}", name, e);
             return null;
@@ -91,11 +89,7 @@ public class FactionRepository {
      */
     public Faction findByTagInGuild(long guildId, String tag) {
         try {
-            Bson filter = Filters.and(
-                    Filters.eq("guildId", guildId),
-                    Filters.regex("tag", "^" + tag + "$", "i")  // Case-insensitive exact match
-            );
-            return getCollection().find(filter).first();
+            return getCollection().find(tagInGuildFilter(guildId, tag)).first();
         } catch (Exception e) {
             logger.error("Error finding faction by tag: {} in guild: {}", tag, guildId, e);
             return null;
@@ -107,8 +101,7 @@ public class FactionRepository {
      */
     public Faction findByTag(String tag) {
         try {
-            Bson filter = Filters.regex("tag", "^" + tag + "$", "i");  // Case-insensitive exact match
-            return getCollection().find(filter).first();
+            return getCollection().find(tagFilter(tag)).first();
         } catch (Exception e) {
             logger.error("Error finding faction by tag: {}", tag, e);
             return null;
@@ -120,7 +113,7 @@ public class FactionRepository {
      */
     public List<Faction> findByOwner(long ownerId) {
         try {
-            return getCollection().find(Filters.eq("ownerId", ownerId))
+            return getCollection().find(ownerFilter(ownerId))
                     .into(new ArrayList<>());
         } catch (Exception e) {
             logger.error("Error finding factions by owner: {}", ownerId, e);
@@ -133,12 +126,7 @@ public class FactionRepository {
      */
     public List<Faction> findByMember(long memberId) {
         try {
-            Bson filter = Filters.or(
-                    Filters.eq("ownerId", memberId),
-                    Filters.in("officerIds", memberId),
-                    Filters.in("memberIds", memberId)
-            );
-            return getCollection().find(filter).into(new ArrayList<>());
+            return getCollection().find(memberFilter(memberId)).into(new ArrayList<>());
         } catch (Exception e) {
             logger.error("Error finding factions by member: {}", memberId, e);
             return new ArrayList<>();
@@ -150,8 +138,8 @@ public class FactionRepository {
      */
     public List<Faction> findByGuild(long guildId) {
         try {
-            return getCollection().find(Filters.eq("guildId", guildId))
-                    .sort(Sorts.descending("level", "experience"))
+            return getCollection().find(guildFilter(guildId))
+                    .sort(LEVEL_SORT)
                     .into(new ArrayList<>());
         } catch (Exception e) {
             logger.error("Error finding factions by guild: {}", guildId, e);
@@ -183,8 +171,8 @@ public class FactionRepository {
      */
     public List<Faction> findTopFactionsByLevel(long guildId, int limit) {
         try {
-            return getCollection().find(Filters.eq("guildId", guildId))
-                    .sort(Sorts.descending("level", "experience"))
+            return getCollection().find(guildFilter(guildId))
+                    .sort(LEVEL_SORT)
                     .limit(limit)
                     .into(new ArrayList<>());
         } catch (Exception e) {
@@ -200,7 +188,7 @@ public class FactionRepository {
         try {
             // This is a bit tricky because we need to calculate total members
             // MongoDB aggregation would be more efficient, but for simplicity we'll fetch all and sort in-memory
-            List<Faction> factions = getCollection().find(Filters.eq("guildId", guildId))
+            List<Faction> factions = getCollection().find(guildFilter(guildId))
                     .into(new ArrayList<>());
             
             return factions.stream()
@@ -291,4 +279,57 @@ public class FactionRepository {
             return false;
         }
     }
-}
\ No newline at end of file
+    
+    /**
+     * Filter for the factions in a guild
+     */
+    public static Bson guildFilter(long guildId) {
+        return Filters.eq("guildId", guildId);
+    }
+    
+    /**
+     * Filter for a faction in a guild by name, ignoring case
+     */
+    public static Bson nameInGuildFilter(long guildId, String name) {
+        return Filters.and(guildFilter(guildId), nameFilter(name));
+    }
+    
+    /**
+     * Filter for a faction in a guild by tag, ignoring case
+     */
+    public static Bson tagInGuildFilter(long guildId, String tag) {
+        return Filters.and(guildFilter(guildId), tagFilter(tag));
+    }
+    
+    /**
+     * Filter for a faction by name in any guild, ignoring case
+     */
+    public static Bson nameFilter(String name) {
+        return Filters.regex("name", "^" + name + "$", "i");  // Case-insensitive exact match
+    }
+    
+    /**
+     * Filter for a faction by tag in any guild, ignoring case
+     */
+    public static Bson tagFilter(String tag) {
+        return Filters.regex("tag", "^" + tag + "$", "i");  // Case-insensitive exact match
+    }
+    
+    /**
+     * Filter for the factions owned by a user
+     */
+    public static Bson ownerFilter(long ownerId) {
+        return Filters.eq("ownerId", ownerId);
+    }
+    
+    /**
+     * Filter for the factions a user belongs to as owner, officer or member
+     */
+    public static Bson memberFilter(long memberId) {
+        return Filters.or(
+                Filters.eq("ownerId", memberId),
+                Filters.in("officerIds", memberId),
+                Filters.in("memberIds", memberId)
+        );
+    }
+}
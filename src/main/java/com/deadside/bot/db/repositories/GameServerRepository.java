@@ -2,17 +2,17 @@ package com.deadside.bot.db.repositories;
 
 import com.deadside.bot.db.MongoDBConnection;
 import com.deadside.bot.db.models.GameServer;
-import com.mongodb.client.FindIterable;
-import com.mongodb.client.MongoCollection;
-import com.mongodb.client.model.Filters;
-import com.mongodb.client.model.ReplaceOptions;
-import com.mongodb.client.result.DeleteResult;
-import org.bson.conversions.Bson;
+import com.deadside.bot.db.store.DocumentStore;
+import com.deadside.bot.db.store.DocumentStores;
+import org.bson.types.ObjectId;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Repository for GameServer model
@@ -20,27 +20,19 @@ import java.util.List;
 public class GameServerRepository {
     private static final Logger logger = LoggerFactory.getLogger(GameServerRepository.class);
     private static final String COLLECTION_NAME = "game_servers";
+    private static final Set<String> KILLFEED_PROGRESS_FIELDS =
+            Set.of("lastProcessedKillfeedFile", "lastProcessedKillfeedLine");
     
-    private MongoCollection<GameServer> collection;
-    
-    public GameServerRepository() {
-        try {
-            this.collection = MongoDBConnection.getInstance().getDatabase().getCollection(COLLECTION_NAME, GameServer.class);
-        } catch (IllegalStateException e) {
-            // This can happen during early initialization - handle gracefully
-            logger.warn("MongoDB connection not initialized yet. Usage will be deferred until initialization.");
-        }
-    }
+    private DocumentStore<GameServer> store;
     
     /**
-     * Get the MongoDB collection, initializing if needed
+     * Get the document store, opening it if needed
      */
-    private MongoCollection<GameServer> getCollection() {
-        if (collection == null) {
-            // Try to get the collection now that MongoDB should be initialized
-            this.collection = MongoDBConnection.getInstance().getDatabase().getCollection(COLLECTION_NAME, GameServer.class);
+    private DocumentStore<GameServer> getStore() {
+        if (store == null) {
+            store = DocumentStores.open(COLLECTION_NAME, GameServer.class, "guildId");
         }
-        return collection;
+        return store;
     }
     
     /**
@@ -48,8 +40,7 @@ public class GameServerRepository {
      */
     public GameServer findById(String id) {
         try {
-            Bson filter = Filters.eq("_id", id);
-            return getCollection().find(filter).first();
+            return ObjectId.isValid(id) ? getStore().findById(new ObjectId(id)) : null;
         } catch (Exception e) {
             logger.error("Error finding game server with ID: {}", id, e);
             return null;
@@ -61,11 +52,7 @@ public class GameServerRepository {
      */
     public GameServer findByGuildIdAndName(long guildId, String name) {
         try {
-            Bson filter = Filters.and(
-                    Filters.eq("guildId", guildId),
-                    Filters.eq("name", name)
-            );
-            return getCollection().find(filter).first();
+            return getStore().findOne(serverConditions(guildId, name));
         } catch (Exception e) {
             logger.error("Error finding game server for guild ID: {} and name: {}", guildId, name, e);
             return null;
@@ -77,15 +64,7 @@ public class GameServerRepository {
      */
     public List<GameServer> findAllByGuildId(long guildId) {
         try {
-            Bson filter = Filters.eq("guildId", guildId);
-            FindIterable<GameServer> results = getCollection().find(filter);
-            
-            List<GameServer> servers = new ArrayList<>();
-            for (GameServer server : results) {
-                servers.add(server);
-            }
-            
-            return servers;
+            return getStore().find(guildConditions(guildId));
         } catch (Exception e) {
             logger.error("Error finding game servers for guild ID: {}", guildId, e);
             return new ArrayList<>();
@@ -97,8 +76,7 @@ public class GameServerRepository {
      */
     public GameServer findByGuildId(long guildId) {
         try {
-            Bson filter = Filters.eq("guildId", guildId);
-            return getCollection().find(filter).first();
+            return getStore().findOne(guildConditions(guildId));
         } catch (Exception e) {
             logger.error("Error finding game server for guild ID: {}", guildId, e);
             return null;
@@ -110,14 +88,7 @@ public class GameServerRepository {
      */
     public List<GameServer> findAll() {
         try {
-            FindIterable<GameServer> results = getCollection().find();
-            
-            List<GameServer> servers = new ArrayList<>();
-            for (GameServer server : results) {
-                servers.add(server);
-            }
-            
-            return servers;
+            return getStore().find(Map.of());
         } catch (Exception e) {
             logger.error("Error finding all game servers", e);
             return new ArrayList<>();
@@ -126,45 +97,114 @@ public class GameServerRepository {
     
     /**
      * Save or update a game server
+     * An existing server keeps its stored killfeed progress, which only
+     * {@link #updateKillfeedProgress(List)} writes, so saving a server read before a killfeed cycle
+     * does not move its progress back. A server deleted since it was read stays deleted.
      */
     public void save(GameServer gameServer) {
         try {
-            Bson filter;
-            if (gameServer.getId() != null) {
-                filter = Filters.eq("_id", gameServer.getId());
+            if (gameServer.getId() == null) {
+                // Replace the server with the same name, as servers are unique by name within a guild
+                GameServer existing = findByGuildIdAndName(gameServer.getGuildId(), gameServer.getName());
+                gameServer.setId(existing != null ? existing.getId() : new ObjectId());
+                getStore().save(gameServer.getId(), gameServer);
             } else {
-                filter = Filters.and(
-                        Filters.eq("guildId", gameServer.getGuildId()),
-                        Filters.eq("name", gameServer.getName())
-                );
+                if (!getStore().save(gameServer.getId(), gameServer, KILLFEED_PROGRESS_FIELDS)) {
+                    logger.warn("Game server {} was deleted before it could be saved", gameServer.getName());
+                }
             }
-            
-            ReplaceOptions options = new ReplaceOptions().upsert(true);
-            getCollection().replaceOne(filter, gameServer, options);
         } catch (Exception e) {
             logger.error("Error saving game server: {}", gameServer.getName(), e);
         }
     }
     
+    /**
+     * Record the status board message for a game server
+     * Only the message ID is written, so concurrent saves of other fields are not overwritten.
+     */
+    public void updateStatusBoardMessageId(GameServer gameServer, long messageId) {
+        try {
+            getStore().update(serverConditions(gameServer), Map.of("statusBoardMessageId", messageId));
+        } catch (Exception e) {
+            logger.error("Error updating status board message for game server: {}", gameServer.getName(), e);
+        }
+    }
+    
+    /**
+     * Record the killfeed progress of several game servers in one write
+     * Only the progress fields are set, so configuration saved while the killfeed was read is kept.
+     * @return The number of servers whose progress was written
+     */
+    public int updateKillfeedProgress(List<GameServer> gameServers) {
+        if (gameServers.isEmpty()) {
+            return 0;
+        }
+        
+        try {
+            List<DocumentStore.Update> updates = new ArrayList<>(gameServers.size());
+            for (GameServer gameServer : gameServers) {
+                updates.add(new DocumentStore.Update(Map.of("_id", gameServer.getId()), Map.of(
+                        "lastProcessedKillfeedFile", gameServer.getLastProcessedKillfeedFile(),
+                        "lastProcessedKillfeedLine", gameServer.getLastProcessedKillfeedLine())));
+            }
+            return getStore().updateAll(updates);
+        } catch (Exception e) {
+            logger.error("Error updating killfeed progress for {} game servers", gameServers.size(), e);
+            return 0;
+        }
+    }
+    
     /**
      * Delete a game server
      */
     public void delete(GameServer gameServer) {
         try {
-            Bson filter;
-            if (gameServer.getId() != null) {
-                filter = Filters.eq("_id", gameServer.getId());
-            } else {
-                filter = Filters.and(
-                        Filters.eq("guildId", gameServer.getGuildId()),
-                        Filters.eq("name", gameServer.getName())
-                );
-            }
-            
-            DeleteResult result = getCollection().deleteOne(filter);
-            logger.debug("Deleted {} game server(s)", result.getDeletedCount());
+            Map<String, Object> conditions = gameServer.getId() != null
+                    ? Map.of("_id", gameServer.getId())
+                    : serverConditions(gameServer);
+            boolean deleted = getStore().delete(conditions);
+            logger.debug("Deleted {} game server(s)", deleted ? 1 : 0);
         } catch (Exception e) {
             logger.error("Error deleting game server: {}", gameServer.getName(), e);
         }
     }
+    
+    /**
+     * Find a game server by guild ID and name without blocking the calling thread
+     */
+    public CompletableFuture<GameServer> findByGuildIdAndNameAsync(long guildId, String name) {
+        return MongoDBConnection.getInstance().supplyAsync(() -> findByGuildIdAndName(guildId, name));
+    }
+    
+    /**
+     * Find all game servers for a guild without blocking the calling thread
+     */
+    public CompletableFuture<List<GameServer>> findAllByGuildIdAsync(long guildId) {
+        return MongoDBConnection.getInstance().supplyAsync(() -> findAllByGuildId(guildId));
+    }
+    
+    /**
+     * Find all game servers without blocking the calling thread
+     */
+    public CompletableFuture<List<GameServer>> findAllAsync() {
+        return MongoDBConnection.getInstance().supplyAsync(this::findAll);
+    }
+    
+    /**
+     * Conditions for a guild's server by name, as used by lookups and status board updates
+     */
+    public static Map<String, Object> serverConditions(long guildId, String name) {
+        return Map.of("guildId", guildId, "name", name);
+    }
+    
+    /**
+     * Conditions for all of a guild's servers
+     */
+    public static Map<String, Object> guildConditions(long guildId) {
+        return Map.of("guildId", guildId);
+    }
+    
+    private static Map<String, Object> serverConditions(GameServer gameServer) {
+        return serverConditions(gameServer.getGuildId(), gameServer.getName());
+    }
 }
@@ -2,47 +2,34 @@ package com.deadside.bot.db.repositories;
 
 import com.deadside.bot.db.MongoDBConnection;
 import com.deadside.bot.db.models.GuildConfig;
-import com.mongodb.client.MongoCollection;
-import com.mongodb.client.model.Filters;
-import com.mongodb.client.model.Updates;
-import org.bson.Document;
+import com.deadside.bot.db.store.DocumentStore;
+import com.deadside.bot.db.store.DocumentStores;
 import org.bson.types.ObjectId;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Repository for GuildConfig operations
+ * Guild configs are read on nearly every command, so they can be kept in the embedded local store.
  */
 public class GuildConfigRepository {
     private static final Logger logger = LoggerFactory.getLogger(GuildConfigRepository.class);
-    private MongoCollection<Document> collection;
+    private static final String COLLECTION_NAME = "guild_configs";
+    private DocumentStore<GuildConfig> store;
     
     /**
-     * Constructor
+     * Get the document store, opening it if needed
      */
-    public GuildConfigRepository() {
-        try {
-            this.collection = MongoDBConnection.getInstance().getDatabase().getCollection("guild_configs");
-        } catch (IllegalStateException e) {
-            // This can happen during early initialization - handle gracefully
-            logger.warn("MongoDB connection not initialized yet. Using will be deferred until initialization.");
+    private DocumentStore<GuildConfig> getStore() {
+        if (store == null) {
+            store = DocumentStores.open(COLLECTION_NAME, GuildConfig.class, "guildId", "premium");
         }
-    }
-    
-    /**
-     * Get the MongoDB collection, initializing if needed
-     */
-    private MongoCollection<Document> getCollection() {
-        if (collection == null) {
-            // Try to get the collection now that MongoDB should be initialized
-            this.collection = MongoDBConnection.getInstance().getDatabase().getCollection("guild_configs");
-        }
-        return collection;
+        return store;
     }
     
     /**
@@ -51,8 +38,7 @@ public class GuildConfigRepository {
      * @return The GuildConfig or null if not found
      */
     public GuildConfig findById(ObjectId id) {
-        Document doc = getCollection().find(Filters.eq("_id", id)).first();
-        return doc != null ? documentToGuildConfig(doc) : null;
+        return getStore().findById(id);
     }
     
     /**
@@ -61,8 +47,7 @@ public class GuildConfigRepository {
      * @return The GuildConfig or null if not found
      */
     public GuildConfig findByGuildId(long guildId) {
-        Document doc = getCollection().find(Filters.eq("guildId", guildId)).first();
-        return doc != null ? documentToGuildConfig(doc) : null;
+        return getStore().findOne(guildConditions(guildId));
     }
     
     /**
@@ -70,8 +55,21 @@ public class GuildConfigRepository {
      * @return List of premium guild configs
      */
     public List<GuildConfig> findAllPremium() {
+        return getStore().find(premiumConditions());
+    }
+    
+    /**
+     * Find all guild configs that have a setting
+     * @param key The setting key
+     * @return List of guild configs with the setting present
+     */
+    public List<GuildConfig> findAllWithSetting(String key) {
         List<GuildConfig> result = new ArrayList<>();
-        getCollection().find(Filters.eq("premium", true)).forEach(doc -> result.add(documentToGuildConfig(doc)));
+        for (GuildConfig guildConfig : getStore().find(Map.of())) {
+            if (guildConfig.getSettings().containsKey(key)) {
+                result.add(guildConfig);
+            }
+        }
         return result;
     }
     
@@ -80,18 +78,11 @@ public class GuildConfigRepository {
      * @param guildConfig The guild config to save
      */
     public void save(GuildConfig guildConfig) {
-        Document doc = guildConfigToDocument(guildConfig);
-        
         if (guildConfig.getId() == null) {
             guildConfig.setId(new ObjectId());
-            doc.put("_id", guildConfig.getId());
         }
         
-        getCollection().replaceOne(
-                Filters.eq("_id", guildConfig.getId()),
-                doc,
-                MongoDBConnection.UPSERT_OPTION
-        );
+        getStore().save(guildConfig.getId(), guildConfig);
         
         logger.debug("Saved guild config: {}", guildConfig.getId());
     }
@@ -103,10 +94,7 @@ public class GuildConfigRepository {
      * @param value The setting value
      */
     public void updateSetting(long guildId, String key, String value) {
-        getCollection().updateOne(
-                Filters.eq("guildId", guildId),
-                Updates.set("settings." + key, value)
-        );
+        getStore().update(guildConditions(guildId), Map.of("settings." + key, value));
         
         logger.debug("Updated setting {} to {} for guild {}", key, value, guildId);
     }
@@ -116,7 +104,7 @@ public class GuildConfigRepository {
      * @param guildConfig The guild config to delete
      */
     public void delete(GuildConfig guildConfig) {
-        getCollection().deleteOne(Filters.eq("_id", guildConfig.getId()));
+        getStore().delete(Map.of("_id", guildConfig.getId()));
         logger.debug("Deleted guild config: {}", guildConfig.getId());
     }
     
@@ -125,89 +113,41 @@ public class GuildConfigRepository {
      * @param guildId The Discord guild ID
      */
     public void deleteByGuildId(long guildId) {
-        getCollection().deleteOne(Filters.eq("guildId", guildId));
+        getStore().delete(guildConditions(guildId));
         logger.debug("Deleted guild config for guild: {}", guildId);
     }
     
     /**
-     * Convert a MongoDB Document to a GuildConfig object
-     * @param doc The MongoDB Document
-     * @return The GuildConfig object
+     * Find a guild config by Discord guild ID without blocking the calling thread
+     * @param guildId The Discord guild ID
+     * @return A future with the GuildConfig, or null if not found
      */
-    private GuildConfig documentToGuildConfig(Document doc) {
-        GuildConfig guildConfig = new GuildConfig();
-        
-        guildConfig.setId(doc.getObjectId("_id"));
-        guildConfig.setGuildId(doc.getLong("guildId"));
-        guildConfig.setPremium(doc.getBoolean("premium", false));
-        guildConfig.setPremiumUntil(doc.containsKey("premiumUntil") ? doc.getLong("premiumUntil") : 0);
-        
-        if (doc.containsKey("killfeedChannelId")) {
-            guildConfig.setKillfeedChannelId(doc.getString("killfeedChannelId"));
-        }
-        
-        if (doc.containsKey("eventChannelId")) {
-            guildConfig.setEventChannelId(doc.getString("eventChannelId"));
-        }
-        
-        if (doc.containsKey("logChannelId")) {
-            guildConfig.setLogChannelId(doc.getString("logChannelId"));
-        }
-        
-        guildConfig.setCreatedAt(doc.containsKey("createdAt") ? doc.getLong("createdAt") : System.currentTimeMillis());
-        guildConfig.setUpdatedAt(doc.containsKey("updatedAt") ? doc.getLong("updatedAt") : System.currentTimeMillis());
-        
-        // Convert settings
-        Map<String, String> settings = new HashMap<>();
-        Document settingsDoc = doc.get("settings", Document.class);
-        
-        if (settingsDoc != null) {
-            for (String key : settingsDoc.keySet()) {
-                settings.put(key, settingsDoc.getString(key));
-            }
-        }
-        
-        guildConfig.setSettings(settings);
-        
-        return guildConfig;
+    public CompletableFuture<GuildConfig> findByGuildIdAsync(long guildId) {
+        return MongoDBConnection.getInstance().supplyAsync(() -> findByGuildId(guildId));
     }
     
     /**
-     * Convert a GuildConfig object to a MongoDB Document
-     * @param guildConfig The GuildConfig object
-     * @return The MongoDB Document
+     * Save a guild config without blocking the calling thread
+     * @param guildConfig The guild config to save
      */
-    private Document guildConfigToDocument(GuildConfig guildConfig) {
-        Document doc = new Document();
-        
-        doc.put("_id", guildConfig.getId());
-        doc.put("guildId", guildConfig.getGuildId());
-        doc.put("premium", guildConfig.isPremium());
-        doc.put("premiumUntil", guildConfig.getPremiumUntil());
-        
-        if (guildConfig.getKillfeedChannelId() != null) {
-            doc.put("killfeedChannelId", guildConfig.getKillfeedChannelId());
-        }
-        
-        if (guildConfig.getEventChannelId() != null) {
-            doc.put("eventChannelId", guildConfig.getEventChannelId());
-        }
-        
-        if (guildConfig.getLogChannelId() != null) {
-            doc.put("logChannelId", guildConfig.getLogChannelId());
-        }
-        
-        doc.put("createdAt", guildConfig.getCreatedAt());
-        doc.put("updatedAt", guildConfig.getUpdatedAt());
-        
-        // Convert settings
-        Document settingsDoc = new Document();
-        for (Map.Entry<String, String> entry : guildConfig.getSettings().entrySet()) {
-            settingsDoc.put(entry.getKey(), entry.getValue());
-        }
-        
-        doc.put("settings", settingsDoc);
-        
-        return doc;
+    public CompletableFuture<Void> saveAsync(GuildConfig guildConfig) {
+        return MongoDBConnection.getInstance().runAsync(() -> save(guildConfig));
+    }
+    
+    /**
+     * Conditions for a guild's config
+     * @param guildId The Discord guild ID
+     * @return The conditions to pass to the store
+     */
+    public static Map<String, Object> guildConditions(long guildId) {
+        return Map.of("guildId", guildId);
+    }
+    
+    /**
+     * Conditions for the premium guilds' configs
+     * @return The conditions to pass to the store
+     */
+    public static Map<String, Object> premiumConditions() {
+        return Map.of("premium", true);
     }
-}
\ No newline at end of file
+}
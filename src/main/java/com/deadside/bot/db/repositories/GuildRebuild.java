@@ -0,0 +1,62 @@
+package com.deadside.bot.db.repositories;
+
+import com.deadside.bot.db.MongoDBConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Builds a per-guild aggregate from the stored kill records and rollups
+ * Guilds are independent, so each one is read and written as its own task on the async database
+ * pool, which bounds how many run at once. Within a guild the tallies are written in batches.
+ */
+final class GuildRebuild {
+    private static final Logger logger = LoggerFactory.getLogger(GuildRebuild.class);
+    private static final int BATCH_SIZE = 5000;
+    
+    private GuildRebuild() {
+        // Utility class
+    }
+    
+    /**
+     * Feed every guild's kill tallies into batches of an aggregate
+     * @param aggregate What is being built, for the log
+     * @param newBatch Creates an empty batch
+     * @param record Adds a tally to a batch
+     * @param apply Writes a batch
+     */
+    static <B> void run(String aggregate, KillRecordRepository killRecordRepository, Supplier<B> newBatch,
+                        BiConsumer<B, KillTally> record, Consumer<B> apply) {
+        long start = System.currentTimeMillis();
+        AtomicLong tallies = new AtomicLong();
+        List<CompletableFuture<Void>> guilds = new ArrayList<>();
+        for (long guildId : killRecordRepository.findGuildIds()) {
+            guilds.add(MongoDBConnection.getInstance().runAsync(() -> {
+                AtomicReference<B> batch = new AtomicReference<>(newBatch.get());
+                long[] count = {0};
+                killRecordRepository.forEachKillInGuild(guildId, tally -> {
+                    record.accept(batch.get(), tally);
+                    if (++count[0] % BATCH_SIZE == 0) {
+                        apply.accept(batch.getAndSet(newBatch.get()));
+                    }
+                });
+                apply.accept(batch.get());
+                tallies.addAndGet(count[0]);
+            }));
+        }
+        CompletableFuture.allOf(guilds.toArray(new CompletableFuture<?>[0])).join();
+        
+        if (tallies.get() > 0) {
+            logger.info("Built {} for {} guilds from {} kill tallies in {} ms", aggregate, guilds.size(),
+                    tallies.get(), System.currentTimeMillis() - start);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.deadside.bot.db.repositories;
+
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Sorts;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Keyset pagination over a sort order ending in a unique field
+ * A page is read as the rows after (or before) the sort key values of a boundary row, so every
+ * page is one index range read however deep it is. Cursors carry those values in a compact form
+ * that fits a Discord component ID.
+ */
+final class Keyset {
+    private static final Base64.Encoder ID_ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder ID_DECODER = Base64.getUrlDecoder();
+    private static final String SEPARATOR = ",";
+    
+    private final List<String> fields = new ArrayList<>();
+    private final List<Boolean> descending = new ArrayList<>();
+    
+    Keyset descending(String field) {
+        fields.add(field);
+        descending.add(true);
+        return this;
+    }
+    
+    Keyset ascending(String field) {
+        fields.add(field);
+        descending.add(false);
+        return this;
+    }
+    
+    /**
+     * Get the sort for reading forwards, or backwards from a boundary row
+     */
+    Bson sort(boolean forward) {
+        List<Bson> sorts = new ArrayList<>(fields.size());
+        for (int i = 0; i < fields.size(); i++) {
+            sorts.add(descending.get(i) == forward ? Sorts.descending(fields.get(i)) : Sorts.ascending(fields.get(i)));
+        }
+        return Sorts.orderBy(sorts);
+    }
+    
+    /**
+     * Get the filter for the rows after a boundary row, or before it when reading backwards
+     * @param values The boundary row's value for each field
+     */
+    Bson after(List<?> values, boolean forward) {
+        List<Bson> branches = new ArrayList<>(fields.size());
+        for (int i = 0; i < fields.size(); i++) {
+            List<Bson> branch = new ArrayList<>(i + 1);
+            for (int j = 0; j < i; j++) {
+                branch.add(Filters.eq(fields.get(j), values.get(j)));
+            }
+            branch.add(descending.get(i) == forward
+                    ? Filters.lt(fields.get(i), values.get(i))
+                    : Filters.gt(fields.get(i), values.get(i)));
+            branches.add(branch.size() == 1 ? branch.get(0) : Filters.and(branch));
+        }
+        return Filters.or(branches);
+    }
+    
+    /**
+     * Join encoded values into a cursor
+     */
+    static String cursor(String... values) {
+        return String.join(SEPARATOR, values);
+    }
+    
+    /**
+     * Split a cursor into its encoded values
+     * @throws IllegalArgumentException If the cursor does not have the expected number of values
+     */
+    static String[] split(String cursor, int values) {
+        String[] parts = cursor.split(SEPARATOR, -1);
+        if (parts.length != values) {
+            throw new IllegalArgumentException("Invalid page cursor: " + cursor);
+        }
+        return parts;
+    }
+    
+    static String encode(long value) {
+        return Long.toString(value, 36);
+    }
+    
+    static long decodeLong(String value) {
+        return Long.parseLong(value, 36);
+    }
+    
+    static String encode(double value) {
+        return Long.toString(Double.doubleToLongBits(value), 36);
+    }
+    
+    static double decodeDouble(String value) {
+        return Double.longBitsToDouble(Long.parseLong(value, 36));
+    }
+    
+    static String encode(ObjectId id) {
+        return ID_ENCODER.encodeToString(id.toByteArray());
+    }
+    
+    static ObjectId decodeId(String value) {
+        return new ObjectId(ID_DECODER.decode(value));
+    }
+}
@@ -0,0 +1,89 @@
+package com.deadside.bot.db.repositories;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Head-to-head kill counts collected over one processing cycle
+ * Kills are aggregated per guild, killer and victim in memory and written by
+ * {@link KillMatrixRepository#apply(KillMatrixBatch)} as one bulk write of increments.
+ */
+public class KillMatrixBatch {
+    private final Map<String, PairDelta> pairs = new LinkedHashMap<>();
+    private final String marker;
+    
+    /**
+     * Create a batch that applies its changes every time it is written
+     */
+    public KillMatrixBatch() {
+        this(null);
+    }
+    
+    /**
+     * Create a batch that changes each row at most once
+     * @param marker Key of the batch, kept on every row it changes so that writing it again skips those rows
+     */
+    public KillMatrixBatch(String marker) {
+        this.marker = marker;
+    }
+    
+    /**
+     * Record a kill in a guild
+     */
+    public void recordKill(long guildId, String killer, String victim) {
+        recordKills(guildId, killer, victim, 1);
+    }
+    
+    /**
+     * Record a number of kills of one player by another in a guild
+     */
+    public void recordKills(long guildId, String killer, String victim, int kills) {
+        if (killer == null || victim == null) {
+            return;
+        }
+        pairs.computeIfAbsent(guildId + ":" + killer + ":" + victim,
+                key -> new PairDelta(guildId, killer, victim)).kills += kills;
+    }
+    
+    /**
+     * Check if no kills have been recorded
+     */
+    public boolean isEmpty() {
+        return pairs.isEmpty();
+    }
+    
+    /**
+     * Get the number of killer and victim pairs with recorded kills
+     */
+    public int size() {
+        return pairs.size();
+    }
+    
+    /**
+     * Get the key kept on the rows this batch changes, or null if it has none
+     */
+    String getMarker() {
+        return marker;
+    }
+    
+    Collection<PairDelta> getDeltas() {
+        return pairs.values();
+    }
+    
+    /**
+     * Aggregated kills of one player against another
+     */
+    static final class PairDelta {
+        final long guildId;
+        final String killer;
+        final String victim;
+        int kills;
+        
+        private PairDelta(long guildId, String killer, String victim) {
+            this.guildId = guildId;
+            this.killer = killer;
+            this.victim = victim;
+        }
+    }
+}
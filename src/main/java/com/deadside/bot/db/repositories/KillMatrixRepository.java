@@ -0,0 +1,225 @@
+package com.deadside.bot.db.repositories;
+
+import com.deadside.bot.db.MongoDBConnection;
+import com.deadside.bot.db.models.MatchupEntry;
+import com.deadside.bot.db.repositories.KillMatrixBatch.PairDelta;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import org.bson.conversions.Bson;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Repository for the head-to-head kill matrix
+ * One document per guild, killer and victim holds how often the killer has killed the victim. The
+ * matrix is indexed from both sides, so a matchup, a player's most killed players and the players
+ * who killed them most are each one indexed query.
+ */
+public class KillMatrixRepository {
+    private static final Logger logger = LoggerFactory.getLogger(KillMatrixRepository.class);
+    public static final String COLLECTION_NAME = "kill_matrix";
+    
+    // Order of a player's top victims and killers
+    public static final Bson TOP_KILLS_SORT = Sorts.descending("kills");
+    
+    private MongoCollection<MatchupEntry> collection;
+    private com.mongodb.reactivestreams.client.MongoCollection<MatchupEntry> reactiveCollection;
+    
+    private MongoCollection<MatchupEntry> getCollection() {
+        if (collection == null) {
+            collection = MongoDBConnection.getInstance().getDatabase()
+                    .getCollection(COLLECTION_NAME, MatchupEntry.class);
+        }
+        return collection;
+    }
+    
+    private com.mongodb.reactivestreams.client.MongoCollection<MatchupEntry> getReactiveCollection() {
+        if (reactiveCollection == null) {
+            reactiveCollection = MongoDBConnection.getInstance().getReactiveDatabase()
+                    .getCollection(COLLECTION_NAME, MatchupEntry.class);
+        }
+        return reactiveCollection;
+    }
+    
+    /**
+     * Write a batch of head-to-head kills
+     * @return True if the write was acknowledged
+     */
+    public boolean apply(KillMatrixBatch batch) {
+        if (batch.isEmpty()) {
+            return true;
+        }
+        
+        try {
+            BulkUpserts.write(getCollection(), updates(batch), batch.getMarker() != null);
+            logger.debug("Applied {} head-to-head kill changes", batch.size());
+            return true;
+        } catch (Exception e) {
+            logger.error("Error applying {} head-to-head kill changes", batch.size(), e);
+            return false;
+        }
+    }
+    
+    /**
+     * Write a batch of head-to-head kills through the reactive driver
+     * @return A future that completes exceptionally if the write failed
+     */
+    public CompletableFuture<Void> applyAsync(KillMatrixBatch batch) {
+        if (batch.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        
+        return BulkUpserts.writeAsync(getReactiveCollection(), updates(batch), batch.getMarker() != null)
+                .whenComplete((written, e) -> {
+                    if (e != null) {
+                        logger.error("Error applying {} head-to-head kill changes", batch.size(), e);
+                    } else {
+                        logger.debug("Applied {} head-to-head kill changes", batch.size());
+                    }
+                })
+                .thenApply(written -> null);
+    }
+    
+    /**
+     * Build the increments of a batch, one upsert per killer and victim pair
+     */
+    private static List<WriteModel<MatchupEntry>> updates(KillMatrixBatch batch) {
+        long now = System.currentTimeMillis();
+        UpdateOptions upsert = new UpdateOptions().upsert(true);
+        List<WriteModel<MatchupEntry>> updates = new ArrayList<>(batch.size());
+        for (PairDelta delta : batch.getDeltas()) {
+            List<Bson> changes = new ArrayList<>(3);
+            changes.add(Updates.inc("kills", delta.kills));
+            changes.add(Updates.set("lastUpdated", now));
+            if (batch.getMarker() != null) {
+                changes.add(BulkUpserts.markApplied(batch.getMarker()));
+            }
+            updates.add(new UpdateOneModel<>(
+                    BulkUpserts.unapplied(matchupFilter(delta.guildId, delta.killer, delta.victim), batch.getMarker()),
+                    Updates.combine(changes),
+                    upsert));
+        }
+        return updates;
+    }
+    
+    /**
+     * Get how often each of two players has killed the other
+     * Both directions are read in one query.
+     * @return The kills of the first player against the second, and of the second against the first
+     */
+    public int[] findHeadToHead(long guildId, String player1, String player2) {
+        int[] kills = new int[2];
+        try {
+            for (MatchupEntry entry : getCollection().find(headToHeadFilter(guildId, player1, player2))) {
+                if (entry.getKiller().equals(player1) && entry.getVictim().equals(player2)) {
+                    kills[0] = entry.getKills();
+                } else if (entry.getKiller().equals(player2) && entry.getVictim().equals(player1)) {
+                    kills[1] = entry.getKills();
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Error finding matchup between {} and {}", player1, player2, e);
+        }
+        return kills;
+    }
+    
+    /**
+     * Get the players a player has killed most, most kills first
+     */
+    public List<MatchupEntry> findTopVictims(long guildId, String killer, int limit) {
+        try {
+            return getCollection().find(killerFilter(guildId, killer))
+                    .sort(TOP_KILLS_SORT)
+                    .limit(limit)
+                    .into(new ArrayList<>());
+        } catch (Exception e) {
+            logger.error("Error finding top victims of {}", killer, e);
+            return new ArrayList<>();
+        }
+    }
+    
+    /**
+     * Get the players who have killed a player most, most kills first
+     */
+    public List<MatchupEntry> findTopKillers(long guildId, String victim, int limit) {
+        try {
+            return getCollection().find(victimFilter(guildId, victim))
+                    .sort(TOP_KILLS_SORT)
+                    .limit(limit)
+                    .into(new ArrayList<>());
+        } catch (Exception e) {
+            logger.error("Error finding top killers of {}", victim, e);
+            return new ArrayList<>();
+        }
+    }
+    
+    /**
+     * Check if the matrix has no entries
+     */
+    public boolean isEmpty() {
+        try {
+            return getCollection().find().limit(1).first() == null;
+        } catch (Exception e) {
+            logger.error("Error checking kill matrix", e);
+            return false;
+        }
+    }
+    
+    /**
+     * Build the matrix from the stored kill records if it has no entries yet
+     */
+    public void rebuildIfEmpty(KillRecordRepository killRecordRepository) {
+        try {
+            if (!isEmpty()) {
+                return;
+            }
+            
+            GuildRebuild.run("head-to-head kill matrix", killRecordRepository, KillMatrixBatch::new,
+                    (batch, tally) -> batch.recordKills(tally.getGuildId(), tally.getKiller(), tally.getVictim(),
+                            tally.getKills()),
+                    this::apply);
+        } catch (Exception e) {
+            logger.error("Error building head-to-head kill matrix from kill records", e);
+        }
+    }
+    
+    /**
+     * Filter for the kills of one player on another
+     */
+    public static Bson matchupFilter(long guildId, String killer, String victim) {
+        return Filters.and(Filters.eq("guildId", guildId), Filters.eq("killer", killer), Filters.eq("victim", victim));
+    }
+    
+    /**
+     * Filter for the kills of two players on each other, in both directions
+     */
+    public static Bson headToHeadFilter(long guildId, String player1, String player2) {
+        return Filters.and(
+                Filters.eq("guildId", guildId),
+                Filters.in("killer", player1, player2),
+                Filters.in("victim", player1, player2));
+    }
+    
+    /**
+     * Filter for the players a player has killed
+     */
+    public static Bson killerFilter(long guildId, String killer) {
+        return Filters.and(Filters.eq("guildId", guildId), Filters.eq("killer", killer));
+    }
+    
+    /**
+     * Filter for the players that have killed a player
+     */
+    public static Bson victimFilter(long guildId, String victim) {
+        return Filters.and(Filters.eq("guildId", guildId), Filters.eq("victim", victim));
+    }
+}
@@ -1,29 +1,89 @@
 package com.deadside.bot.db.repositories;
 
+import com.deadside.bot.config.Config;
 import com.deadside.bot.db.MongoDBConnection;
+import com.deadside.bot.db.models.GuildConfig;
 import com.deadside.bot.db.models.KillRecord;
+import com.mongodb.MongoBulkWriteException;
 import com.mongodb.client.FindIterable;
 import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.CreateCollectionOptions;
 import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.InsertManyOptions;
 import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.TimeSeriesGranularity;
+import com.mongodb.client.model.TimeSeriesOptions;
+import org.bson.Document;
 import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 /**
  * Repository for KillRecord model
+ * Records are kept either in the original kill_records collection or, when enabled, in a
+ * time-series collection bucketed by guild and server. The time-series layout stores records
+ * compressed per bucket, expires them server-side after the configured retention, and serves
+ * time-range history lookups from the bucket bounds instead of per-record index entries.
+ * Records past the rollup age are compacted into daily rollups, and the full-history visitors merge
+ * the remaining records with the rollups.
  */
 public class KillRecordRepository {
     private static final Logger logger = LoggerFactory.getLogger(KillRecordRepository.class);
     private static final String COLLECTION_NAME = "kill_records";
+    public static final String TIME_SERIES_COLLECTION_NAME = "kill_records_ts";
     
+    /**
+     * Guild setting with the number of days to keep that guild's kill records
+     */
+    public static final String RETENTION_SETTING = "killRecordRetentionDays";
+    private static final int DELETE_BATCH_SIZE = 1000;
+    private static final int DUPLICATE_KEY = 11000;
+    private static final InsertManyOptions UNORDERED = new InsertManyOptions().ordered(false);
+    // History order, newest first
+    private static final Keyset HISTORY = new Keyset().descending("timestamp").descending("_id");
+    
+    // Orders of the recent record and oldest record lookups
+    public static final Bson NEWEST_FIRST_SORT = Sorts.descending("timestamp");
+    public static final Bson OLDEST_FIRST_SORT = Sorts.ascending("timestamp");
+    
+    private final KillRollupRepository rollups = new KillRollupRepository();
     private final MongoCollection<KillRecord> collection;
+    private final MongoCollection<Document> timeSeries;
+    private final com.mongodb.reactivestreams.client.MongoCollection<KillRecord> reactiveCollection;
+    private final com.mongodb.reactivestreams.client.MongoCollection<Document> reactiveTimeSeries;
+    private final boolean storeOriginalLine;
     
     public KillRecordRepository() {
-        this.collection = MongoDBConnection.getInstance().getDatabase().getCollection(COLLECTION_NAME, KillRecord.class);
+        Config config = Config.getInstance();
+        MongoDatabase database = MongoDBConnection.getInstance().getDatabase();
+        this.collection = database.getCollection(COLLECTION_NAME, KillRecord.class);
+        this.timeSeries = config.isKillRecordsTimeSeriesEnabled()
+                ? database.getCollection(TIME_SERIES_COLLECTION_NAME) : null;
+        com.mongodb.reactivestreams.client.MongoDatabase reactiveDatabase =
+                MongoDBConnection.getInstance().getReactiveDatabase();
+        this.reactiveCollection = reactiveDatabase.getCollection(COLLECTION_NAME, KillRecord.class);
+        this.reactiveTimeSeries = timeSeries != null
+                ? reactiveDatabase.getCollection(TIME_SERIES_COLLECTION_NAME) : null;
+        this.storeOriginalLine = config.isKillRecordsStoreOriginalLine();
     }
     
     /**
@@ -31,7 +91,11 @@ public class KillRecordRepository {
      */
     public void save(KillRecord killRecord) {
         try {
-            collection.insertOne(killRecord);
+            if (timeSeries != null) {
+                timeSeries.insertOne(toTimeSeriesDocument(killRecord, storeOriginalLine));
+            } else {
+                collection.insertOne(withOriginalLine(killRecord));
+            }
         } catch (Exception e) {
             logger.error("Error saving kill record", e);
         }
@@ -39,14 +103,102 @@ public class KillRecordRepository {
     
     /**
      * Save multiple kill records
+     * Records given an ID with {@link #lineId(String, long, long)} are only inserted once in the
+     * kill_records collection: saving them again skips those already there. The time-series
+     * collection cannot enforce unique IDs, so its callers must not save the same records twice.
+     * @return True if the write was acknowledged
      */
-    public void saveAll(List<KillRecord> killRecords) {
+    public boolean saveAll(List<KillRecord> killRecords) {
         try {
-            if (!killRecords.isEmpty()) {
-                collection.insertMany(killRecords);
+            if (killRecords.isEmpty()) {
+                return true;
+            }
+            
+            if (timeSeries != null) {
+                timeSeries.insertMany(timeSeriesDocuments(killRecords), UNORDERED);
+            } else {
+                collection.insertMany(withOriginalLines(killRecords), UNORDERED);
             }
+            return true;
+        } catch (MongoBulkWriteException e) {
+            // Records already saved by an earlier attempt are duplicates, anything else is retried
+            if (onlyDuplicateKeys(e)) {
+                return true;
+            }
+            logger.error("Error saving multiple kill records", e);
+            return false;
         } catch (Exception e) {
             logger.error("Error saving multiple kill records", e);
+            return false;
+        }
+    }
+    
+    /**
+     * Save multiple kill records through the reactive driver, without blocking any thread
+     * Records are saved as {@link #saveAll(List)} saves them.
+     * @return A future that completes exceptionally if the write failed
+     */
+    public CompletableFuture<Void> saveAllAsync(List<KillRecord> killRecords) {
+        if (killRecords.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        
+        MongoDBConnection connection = MongoDBConnection.getInstance();
+        CompletableFuture<?> insert = reactiveTimeSeries != null
+                ? connection.single(reactiveTimeSeries.insertMany(timeSeriesDocuments(killRecords), UNORDERED))
+                : connection.single(reactiveCollection.insertMany(withOriginalLines(killRecords), UNORDERED));
+        return insert.handle((result, error) -> {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (cause == null || cause instanceof MongoBulkWriteException e && onlyDuplicateKeys(e)) {
+                return null;
+            }
+            logger.error("Error saving multiple kill records", cause);
+            throw new CompletionException(cause);
+        });
+    }
+    
+    private List<Document> timeSeriesDocuments(List<KillRecord> killRecords) {
+        List<Document> documents = new ArrayList<>(killRecords.size());
+        for (KillRecord killRecord : killRecords) {
+            Document document = toTimeSeriesDocument(killRecord, storeOriginalLine);
+            if (killRecord.getId() != null) {
+                document.append("_id", killRecord.getId());
+            }
+            documents.add(document);
+        }
+        return documents;
+    }
+    
+    private List<KillRecord> withOriginalLines(List<KillRecord> killRecords) {
+        List<KillRecord> records = new ArrayList<>(killRecords.size());
+        for (KillRecord killRecord : killRecords) {
+            records.add(withOriginalLine(killRecord));
+        }
+        return records;
+    }
+    
+    private static boolean onlyDuplicateKeys(MongoBulkWriteException e) {
+        return e.getWriteErrors().stream().allMatch(error -> error.getCode() == DUPLICATE_KEY);
+    }
+    
+    /**
+     * Build the ID of the record parsed from one line of a log file
+     * The same line always gets the same ID, so a record saved again collides with the first one. The
+     * ID starts with the kill's time like a generated one, followed by a hash of the file and line.
+     * @param file Key of the log file, unique across servers
+     * @param line Index of the line in the file
+     * @param timestamp The kill's time in epoch milliseconds
+     */
+    public static ObjectId lineId(String file, long line, long timestamp) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256")
+                    .digest((file + ":" + line).getBytes(StandardCharsets.UTF_8));
+            return new ObjectId(ByteBuffer.allocate(12)
+                    .putInt((int) (timestamp / 1000))
+                    .put(hash, 0, 8)
+                    .array());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
         }
     }
     
@@ -55,17 +207,7 @@ public class KillRecordRepository {
      */
     public List<KillRecord> findRecentByGuildId(long guildId, int limit) {
         try {
-            Bson filter = Filters.eq("guildId", guildId);
-            FindIterable<KillRecord> results = collection.find(filter)
-                    .sort(Sorts.descending("timestamp"))
-                    .limit(limit);
-            
-            List<KillRecord> records = new ArrayList<>();
-            for (KillRecord record : results) {
-                records.add(record);
-            }
-            
-            return records;
+            return find(scopeFilter(guildId, null, timeSeries != null), limit);
         } catch (Exception e) {
             logger.error("Error finding recent kill records for guild ID: {}", guildId, e);
             return new ArrayList<>();
@@ -77,23 +219,456 @@ public class KillRecordRepository {
      */
     public List<KillRecord> findRecentByServerIdAndGuildId(String serverId, long guildId, int limit) {
         try {
-            Bson filter = Filters.and(
-                    Filters.eq("serverId", serverId),
-                    Filters.eq("guildId", guildId)
-            );
+            return find(scopeFilter(guildId, serverId, timeSeries != null), limit);
+        } catch (Exception e) {
+            logger.error("Error finding recent kill records for server ID: {} and guild ID: {}", serverId, guildId, e);
+            return new ArrayList<>();
+        }
+    }
+    
+    /**
+     * Find a page of a guild's or server's kill history, newest first
+     * Only records that have not been rolled up yet are returned.
+     * @param serverId The server, or null for every server of the guild
+     * @param cursor The cursor from {@link #cursorOf(KillRecord)} of the record to page from, or null for the newest records
+     * @param forward True for the records older than the cursor, false for the records newer than it
+     * @throws IllegalArgumentException If the cursor is not a kill history cursor
+     */
+    public List<KillRecord> findHistoryPage(long guildId, String serverId, String cursor, boolean forward, int limit) {
+        Bson filter = historyFilter(guildId, serverId, cursor, forward, timeSeries != null);
+        try {
+            List<KillRecord> records = new ArrayList<>();
+            if (timeSeries != null) {
+                for (Document document : timeSeries.find(filter).sort(historySort(forward)).limit(limit)) {
+                    records.add(fromTimeSeriesDocument(document));
+                }
+            } else {
+                collection.find(filter).sort(historySort(forward)).limit(limit).into(records);
+            }
+            if (!forward) {
+                Collections.reverse(records);
+            }
+            return records;
+        } catch (Exception e) {
+            logger.error("Error paging kill history for guild ID: {}", guildId, e);
+            return new ArrayList<>();
+        }
+    }
+    
+    /**
+     * Get the cursor of a kill record in the kill history, for {@link #findHistoryPage}
+     */
+    public static String cursorOf(KillRecord record) {
+        return Keyset.cursor(Keyset.encode(record.getTimestamp()), Keyset.encode(record.getId()));
+    }
+    
+    /**
+     * Find kill records for a guild within a time range, newest first
+     * Only records that have not been rolled up yet are returned.
+     * @param fromMillis Start of the range (inclusive)
+     * @param toMillis End of the range (exclusive)
+     */
+    public List<KillRecord> findByGuildIdBetween(long guildId, long fromMillis, long toMillis, int limit) {
+        try {
+            return find(rangeFilter(guildId, fromMillis, toMillis, timeSeries != null), limit);
+        } catch (Exception e) {
+            logger.error("Error finding kill records for guild ID: {} between {} and {}", guildId, fromMillis, toMillis, e);
+            return new ArrayList<>();
+        }
+    }
+    
+    /**
+     * Delete a guild's kill records and rollups older than a cutoff
+     * Deleting from a time-series collection by time needs MongoDB 7.0 or later.
+     * @return The number of records deleted
+     */
+    public long deleteOlderThan(long guildId, long cutoffMillis) {
+        try {
+            rollups.deleteOlderThan(guildId, cutoffMillis);
+            Bson filter = rangeFilter(guildId, 0, cutoffMillis, timeSeries != null);
+            return timeSeries != null
+                    ? timeSeries.deleteMany(filter).getDeletedCount()
+                    : collection.deleteMany(filter).getDeletedCount();
+        } catch (Exception e) {
+            logger.error("Error deleting kill records older than {} for guild ID: {}", cutoffMillis, guildId, e);
+            return 0;
+        }
+    }
+    
+    /**
+     * Enforce the retention each guild has configured for its kill records
+     * Guilds without the setting keep records until the collection-wide retention expires them.
+     */
+    public void applyGuildRetention(GuildConfigRepository guildConfigRepository) {
+        try {
+            long now = System.currentTimeMillis();
+            long deleted = 0;
+            
+            for (GuildConfig guildConfig : guildConfigRepository.findAllWithSetting(RETENTION_SETTING)) {
+                int days;
+                try {
+                    days = Integer.parseInt(guildConfig.getSetting(RETENTION_SETTING, "0"));
+                } catch (NumberFormatException e) {
+                    logger.warn("Invalid kill record retention for guild {}", guildConfig.getGuildId());
+                    continue;
+                }
+                if (days > 0) {
+                    deleted += deleteOlderThan(guildConfig.getGuildId(), now - TimeUnit.DAYS.toMillis(days));
+                }
+            }
+            
+            if (deleted > 0) {
+                logger.info("Deleted {} kill records past their guild's retention", deleted);
+            }
+        } catch (Exception e) {
+            logger.error("Error applying kill record retention", e);
+        }
+    }
+    
+    /**
+     * Roll each guild's kill records from before a number of days ago up into daily rollups
+     * Days are compacted oldest first, each one as a slice that is recorded before its rollups are
+     * written and cleared once its records are deleted. A slice left pending by a failed or interrupted
+     * run is resumed with the same key and time range, so its kills are not added to the rollups
+     * again. A day whose rollups or deletion fail stops that guild until the next run.
+     * @param afterDays Age in days, counted from the start of the current UTC day, of the records to roll up
+     */
+    public void compact(int afterDays) {
+        try {
+            long start = System.currentTimeMillis();
+            long cutoff = KillRollupRepository.dayOf(start) - TimeUnit.DAYS.toMillis(afterDays);
+            long compacted = 0;
+            int days = 0;
+            
+            for (long guildId : findRecordGuildIds()) {
+                KillRollupRepository.Slice slice = rollups.findPendingSlice(guildId);
+                while (true) {
+                    if (slice == null) {
+                        Long oldest = findOldestTimestamp(guildId, cutoff);
+                        if (oldest == null) {
+                            break;
+                        }
+                        long day = KillRollupRepository.dayOf(oldest);
+                        long dayEnd = Math.min(day + KillRollupRepository.DAY_MILLIS, cutoff);
+                        slice = rollups.startSlice(guildId, day, dayEnd);
+                    }
+                    
+                    List<KillRecord> records = new ArrayList<>();
+                    forEachRecordInGuildBetween(guildId, slice.day, slice.end, records::add);
+                    if (!rollups.apply(guildId, slice, records)) {
+                        break;
+                    }
+                    long deleted = deleteRecords(guildId, slice.day, slice.end, records);
+                    if (deleted < 0) {
+                        break;
+                    }
+                    rollups.finishSlice(guildId);
+                    slice = null;
+                    compacted += deleted;
+                    days++;
+                }
+            }
+            
+            if (compacted > 0) {
+                logger.info("Rolled up {} kill records from {} guild days in {} ms", compacted, days,
+                        System.currentTimeMillis() - start);
+            }
+        } catch (Exception e) {
+            logger.error("Error rolling up kill records", e);
+        }
+    }
+    
+    /**
+     * Get the timestamp of a guild's oldest kill record before a time
+     * @return The timestamp, or null if there is no such record
+     */
+    private Long findOldestTimestamp(long guildId, long beforeMillis) {
+        Bson filter = rangeFilter(guildId, 0, beforeMillis, timeSeries != null);
+        if (timeSeries != null) {
+            Document oldest = timeSeries.find(filter).sort(OLDEST_FIRST_SORT).limit(1).first();
+            return oldest != null ? oldest.getDate("timestamp").getTime() : null;
+        }
+        KillRecord oldest = collection.find(filter).sort(OLDEST_FIRST_SORT).limit(1).first();
+        return oldest != null ? oldest.getTimestamp() : null;
+    }
+    
+    private void forEachRecordInGuildBetween(long guildId, long fromMillis, long toMillis, Consumer<KillRecord> action) {
+        Bson filter = rangeFilter(guildId, fromMillis, toMillis, timeSeries != null);
+        if (timeSeries != null) {
+            for (Document document : timeSeries.find(filter).batchSize(1000)) {
+                action.accept(fromTimeSeriesDocument(document));
+            }
+        } else {
+            for (KillRecord record : collection.find(filter).batchSize(1000)) {
+                action.accept(record);
+            }
+        }
+    }
+    
+    /**
+     * Delete rolled-up kill records
+     * Records are deleted by ID in batches; a time-series collection is deleted by time range, as it
+     * cannot be filtered on ID.
+     * @return The number of records deleted, or -1 if deleting failed
+     */
+    private long deleteRecords(long guildId, long fromMillis, long toMillis, List<KillRecord> records) {
+        try {
+            Bson range = rangeFilter(guildId, fromMillis, toMillis, timeSeries != null);
+            if (timeSeries != null) {
+                return timeSeries.deleteMany(range).getDeletedCount();
+            }
+            
+            long deleted = 0;
+            for (int i = 0; i < records.size(); i += DELETE_BATCH_SIZE) {
+                List<ObjectId> ids = new ArrayList<>(DELETE_BATCH_SIZE);
+                for (KillRecord record : records.subList(i, Math.min(i + DELETE_BATCH_SIZE, records.size()))) {
+                    ids.add(record.getId());
+                }
+                deleted += collection.deleteMany(Filters.and(range, Filters.in("_id", ids))).getDeletedCount();
+            }
+            return deleted;
+        } catch (Exception e) {
+            logger.error("Error deleting rolled-up kill records for guild ID: {} between {} and {}",
+                    guildId, fromMillis, toMillis, e);
+            return -1;
+        }
+    }
+    
+    /**
+     * Visit every stored kill, from both kill records and rollups, in no particular order
+     * Each kill record is a tally of one kill; rollups are visited as tallies per killer, victim and weapon.
+     */
+    public void forEachKill(Consumer<KillTally> action) {
+        forEachRecord(record -> action.accept(KillTally.of(record)));
+        rollups.forEachTally(action);
+    }
+    
+    /**
+     * Visit every stored kill of one guild, from both kill records and rollups, in no particular order
+     */
+    public void forEachKillInGuild(long guildId, Consumer<KillTally> action) {
+        forEachRecordInGuild(guildId, record -> action.accept(KillTally.of(record)));
+        rollups.forEachTallyInGuild(guildId, action);
+    }
+    
+    /**
+     * Visit every stored kill record, in no particular order
+     * Records are streamed in batches from the server rather than loaded at once.
+     */
+    public void forEachRecord(Consumer<KillRecord> action) {
+        if (timeSeries != null) {
+            for (Document document : timeSeries.find().batchSize(1000)) {
+                action.accept(fromTimeSeriesDocument(document));
+            }
+        } else {
+            for (KillRecord record : collection.find().batchSize(1000)) {
+                action.accept(record);
+            }
+        }
+    }
+    
+    /**
+     * Visit every stored kill record of one guild, in no particular order
+     */
+    public void forEachRecordInGuild(long guildId, Consumer<KillRecord> action) {
+        if (timeSeries != null) {
+            for (Document document : timeSeries.find(scopeFilter(guildId, null, timeSeries != null)).batchSize(1000)) {
+                action.accept(fromTimeSeriesDocument(document));
+            }
+        } else {
+            for (KillRecord record : collection.find(scopeFilter(guildId, null, timeSeries != null)).batchSize(1000)) {
+                action.accept(record);
+            }
+        }
+    }
+    
+    /**
+     * Get the IDs of the guilds with stored kill records or rollups
+     */
+    public List<Long> findGuildIds() {
+        Set<Long> guildIds = new LinkedHashSet<>(findRecordGuildIds());
+        guildIds.addAll(rollups.findGuildIds());
+        return new ArrayList<>(guildIds);
+    }
+    
+    private List<Long> findRecordGuildIds() {
+        String field = timeSeries != null ? "meta.guildId" : "guildId";
+        MongoCollection<?> source = timeSeries != null ? timeSeries : collection;
+        return source.distinct(field, Long.class).into(new ArrayList<>());
+    }
+    
+    private List<KillRecord> find(Bson filter, int limit) {
+        List<KillRecord> records = new ArrayList<>();
+        
+        if (timeSeries != null) {
+            for (Document document : timeSeries.find(filter).sort(NEWEST_FIRST_SORT).limit(limit)) {
+                records.add(fromTimeSeriesDocument(document));
+            }
+        } else {
             FindIterable<KillRecord> results = collection.find(filter)
-                    .sort(Sorts.descending("timestamp"))
+                    .sort(NEWEST_FIRST_SORT)
                     .limit(limit);
-            
-            List<KillRecord> records = new ArrayList<>();
             for (KillRecord record : results) {
                 records.add(record);
             }
+        }
+        
+        return records;
+    }
+    
+    /**
+     * Filter for the records of a guild or one of its servers
+     * @param serverId The server, or null for every server of the guild
+     * @param timeSeries True to filter the time series collection
+     */
+    public static Bson scopeFilter(long guildId, String serverId, boolean timeSeries) {
+        Bson guild = Filters.eq(timeSeries ? "meta.guildId" : "guildId", guildId);
+        return serverId != null
+                ? Filters.and(guild, Filters.eq(timeSeries ? "meta.serverId" : "serverId", serverId))
+                : guild;
+    }
+    
+    /**
+     * Filter for a guild's records within a time range
+     * @param timeSeries True to filter the time series collection
+     */
+    public static Bson rangeFilter(long guildId, long fromMillis, long toMillis, boolean timeSeries) {
+        Bson range = timeSeries
+                ? Filters.and(Filters.gte("timestamp", new Date(fromMillis)), Filters.lt("timestamp", new Date(toMillis)))
+                : Filters.and(Filters.gte("timestamp", fromMillis), Filters.lt("timestamp", toMillis));
+        return Filters.and(scopeFilter(guildId, null, timeSeries), range);
+    }
+    
+    /**
+     * Filter for a page of kill history, as used by {@link #findHistoryPage}
+     * @param cursor The cursor of the record to page from, or null for the newest records
+     * @param timeSeries True to filter the time series collection
+     * @throws IllegalArgumentException If the cursor is not a kill history cursor
+     */
+    public static Bson historyFilter(long guildId, String serverId, String cursor, boolean forward, boolean timeSeries) {
+        Bson filter = scopeFilter(guildId, serverId, timeSeries);
+        if (cursor == null) {
+            return filter;
+        }
+        String[] values = Keyset.split(cursor, 2);
+        long timestamp = Keyset.decodeLong(values[0]);
+        return Filters.and(filter, HISTORY.after(
+                List.of(timeSeries ? new Date(timestamp) : timestamp, Keyset.decodeId(values[1])), forward));
+    }
+    
+    /**
+     * Sort of the kill history, or of the history read backwards from a cursor
+     */
+    public static Bson historySort(boolean forward) {
+        return HISTORY.sort(forward);
+    }
+    
+    private KillRecord withOriginalLine(KillRecord killRecord) {
+        if (!storeOriginalLine && killRecord.getOriginalLine() != null) {
+            killRecord.setOriginalLine(null);
+        }
+        return killRecord;
+    }
+    
+    /**
+     * Create the time-series collection if it does not exist, and keep its expiry in line with the retention
+     * @param retentionDays Days after which the server expires records, 0 to keep them forever
+     */
+    public static void ensureTimeSeriesCollection(MongoDatabase database, int retentionDays) {
+        try {
+            boolean exists = database.listCollectionNames().into(new ArrayList<>()).contains(TIME_SERIES_COLLECTION_NAME);
+            
+            if (!exists) {
+                CreateCollectionOptions options = new CreateCollectionOptions().timeSeriesOptions(
+                        new TimeSeriesOptions("timestamp")
+                                .metaField("meta")
+                                .granularity(TimeSeriesGranularity.MINUTES));
+                if (retentionDays > 0) {
+                    options.expireAfter(retentionDays, TimeUnit.DAYS);
+                }
+                database.createCollection(TIME_SERIES_COLLECTION_NAME, options);
+                logger.info("Created time-series collection {}", TIME_SERIES_COLLECTION_NAME);
+            } else {
+                database.runCommand(new Document("collMod", TIME_SERIES_COLLECTION_NAME)
+                        .append("expireAfterSeconds", retentionDays > 0 ? TimeUnit.DAYS.toSeconds(retentionDays) : "off"));
+            }
             
-            return records;
+            // History lookups filter on guild (and server) and read a time range
+            database.getCollection(TIME_SERIES_COLLECTION_NAME).createIndex(
+                    Indexes.compoundIndex(Indexes.ascending("meta.guildId", "meta.serverId"), Indexes.descending("timestamp")),
+                    new IndexOptions().name("meta_guild_server_timestamp"));
         } catch (Exception e) {
+            logger.error("Failed to prepare time-series collection {}: {}", TIME_SERIES_COLLECTION_NAME, e.getMessage());
+        }
+    }
+    
+    /**
+     * Convert a kill record to the time-series layout
+     * The guild and server form the bucket key, and the timestamp is stored as a date as the
+     * time field requires.
+     */
+    public static Document toTimeSeriesDocument(KillRecord killRecord, boolean includeOriginalLine) {
+        Document document = new Document("timestamp", new Date(killRecord.getTimestamp()))
+                .append("meta", new Document("guildId", killRecord.getGuildId())
+                        .append("serverId", killRecord.getServerId()))
+                .append("killer", killRecord.getKiller())
+                .append("victim", killRecord.getVictim())
+                .append("weapon", killRecord.getWeapon())
+                .append("distance", killRecord.getDistance());
+        
+        if (includeOriginalLine && killRecord.getOriginalLine() != null) {
+            document.append("originalLine", killRecord.getOriginalLine());
+        }
+        return document;
+    }
+    
+    /**
+     * Convert a time-series document back to a kill record
+     */
+    public static KillRecord fromTimeSeriesDocument(Document document) {
+        Document meta = document.get("meta", Document.class);
+        Date timestamp = document.getDate("timestamp");
+        Number distance = document.get("distance", Number.class);
+        
+        KillRecord killRecord = new KillRecord(
+                meta != null ? meta.get("guildId", Number.class).longValue() : 0,
+                meta != null ? meta.getString("serverId") : null,
+                document.getString("killer"),
+                document.getString("victim"),
+                document.getString("weapon"),
+                distance != null ? distance.longValue() : 0,
+                timestamp != null ? timestamp.getTime() : 0,
+                document.getString("originalLine"));
+        killRecord.setId(document.getObjectId("_id"));
+        return killRecord;
+    }
+    
+    /**
+     * Find recent kill records for a guild through the reactive driver, without blocking any thread
+     */
+    public CompletableFuture<List<KillRecord>> findRecentByGuildIdAsync(long guildId, int limit) {
+        return findAsync(scopeFilter(guildId, null, reactiveTimeSeries != null), limit).exceptionally(e -> {
+            logger.error("Error finding recent kill records for guild ID: {}", guildId, e);
+            return new ArrayList<>();
+        });
+    }
+    
+    /**
+     * Find recent kill records for a server through the reactive driver, without blocking any thread
+     */
+    public CompletableFuture<List<KillRecord>> findRecentByServerIdAndGuildIdAsync(String serverId, long guildId, int limit) {
+        return findAsync(scopeFilter(guildId, serverId, reactiveTimeSeries != null), limit).exceptionally(e -> {
             logger.error("Error finding recent kill records for server ID: {} and guild ID: {}", serverId, guildId, e);
             return new ArrayList<>();
+        });
+    }
+    
+    private CompletableFuture<List<KillRecord>> findAsync(Bson filter, int limit) {
+        MongoDBConnection connection = MongoDBConnection.getInstance();
+        if (reactiveTimeSeries != null) {
+            return connection.toList(reactiveTimeSeries.find(filter).sort(NEWEST_FIRST_SORT).limit(limit))
+                    .thenApply(documents -> documents.stream().map(KillRecordRepository::fromTimeSeriesDocument).toList());
         }
+        return connection.toList(reactiveCollection.find(filter).sort(NEWEST_FIRST_SORT).limit(limit));
     }
 }
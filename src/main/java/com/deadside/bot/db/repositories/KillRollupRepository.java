@@ -0,0 +1,289 @@
+package com.deadside.bot.db.repositories;
+
+import com.deadside.bot.db.MongoDBConnection;
+import com.deadside.bot.db.models.KillRecord;
+import com.deadside.bot.db.models.KillRollup;
+import com.deadside.bot.db.models.KillRollupVictim;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Repository for daily kill rollups
+ * Kill records past the rollup age are folded into one document per guild, server, UTC day, player
+ * and weapon, holding the player's kills and deaths with the weapon and the kills broken down by
+ * victim. The breakdown keeps the leaderboard, matrix and weapon stat rebuilds exact once the raw
+ * records are gone.
+ */
+public class KillRollupRepository {
+    private static final Logger logger = LoggerFactory.getLogger(KillRollupRepository.class);
+    public static final String COLLECTION_NAME = "kill_rollups";
+    public static final String SLICE_COLLECTION_NAME = "kill_rollup_slices";
+    public static final long DAY_MILLIS = TimeUnit.DAYS.toMillis(1);
+    private static final int DUPLICATE_KEY = 11000;
+    
+    private MongoCollection<KillRollup> collection;
+    
+    private MongoCollection<KillRollup> getCollection() {
+        if (collection == null) {
+            collection = MongoDBConnection.getInstance().getDatabase()
+                    .getCollection(COLLECTION_NAME, KillRollup.class);
+        }
+        return collection;
+    }
+    
+    private MongoCollection<Document> getSliceCollection() {
+        return MongoDBConnection.getInstance().getDatabase().getCollection(SLICE_COLLECTION_NAME);
+    }
+    
+    /**
+     * Get the start of the UTC day containing a time
+     */
+    public static long dayOf(long millis) {
+        return Math.floorDiv(millis, DAY_MILLIS) * DAY_MILLIS;
+    }
+    
+    /**
+     * Start rolling up a day of a guild's kill records under a new slice key
+     * The slice is recorded before any rollup is written and stays pending until
+     * {@link #finishSlice(long)}, so a run interrupted while writing rollups or deleting the records is
+     * resumed under the same key.
+     * @param end End of the record time range, the end of the day or the rollup cutoff if earlier
+     * @throws com.mongodb.MongoException If the slice could not be recorded
+     */
+    public Slice startSlice(long guildId, long day, long end) {
+        Slice slice = new Slice(day, end, new ObjectId().toHexString());
+        getSliceCollection().replaceOne(Filters.eq("_id", guildId),
+                new Document("_id", guildId)
+                        .append("day", slice.day)
+                        .append("end", slice.end)
+                        .append("key", slice.key)
+                        .append("timestamp", System.currentTimeMillis()),
+                MongoDBConnection.UPSERT_OPTION);
+        return slice;
+    }
+    
+    /**
+     * Get the slice a guild's last run started and did not finish
+     * @return The slice, or null if the guild has none pending
+     * @throws com.mongodb.MongoException If the slice could not be read
+     */
+    public Slice findPendingSlice(long guildId) {
+        Document slice = getSliceCollection().find(Filters.eq("_id", guildId)).first();
+        return slice != null ? new Slice(slice.getLong("day"), slice.getLong("end"), slice.getString("key")) : null;
+    }
+    
+    /**
+     * Mark a guild's pending slice as rolled up and its records deleted
+     * @throws com.mongodb.MongoException If the slice could not be cleared
+     */
+    public void finishSlice(long guildId) {
+        getSliceCollection().deleteOne(Filters.eq("_id", guildId));
+    }
+    
+    /**
+     * Add a slice of a guild's kill records to its rollups
+     * A rollup that already holds the slice key is left alone. When a slice is resumed, either deleting
+     * had not started and every record is still there for the rollups without the key, or it had and
+     * every rollup already holds the key, so records are never counted twice.
+     * @return True if the rollups were written
+     */
+    public boolean apply(long guildId, Slice slice, List<KillRecord> records) {
+        if (records.isEmpty()) {
+            return true;
+        }
+        
+        long day = slice.day;
+        Map<String, KillRollup> rollups = new LinkedHashMap<>();
+        Map<String, KillRollupVictim> victims = new LinkedHashMap<>();
+        for (KillRecord record : records) {
+            if (record.getKiller() == null || record.getVictim() == null) {
+                continue;
+            }
+            String weapon = record.getWeapon() != null ? record.getWeapon() : "";
+            long distance = Math.max(0, record.getDistance());
+            
+            KillRollup killer = rollup(rollups, guildId, day, record.getServerId(), record.getKiller(), weapon);
+            killer.setKills(killer.getKills() + 1);
+            killer.setTotalDistance(killer.getTotalDistance() + distance);
+            killer.setLongestKill(Math.max(killer.getLongestKill(), record.getDistance()));
+            
+            KillRollupVictim victim = victims.computeIfAbsent(
+                    rollupKey(record.getServerId(), record.getKiller(), weapon) + ":" + record.getVictim(), key -> {
+                        KillRollupVictim created = new KillRollupVictim();
+                        created.setName(record.getVictim());
+                        killer.getVictims().add(created);
+                        return created;
+                    });
+            victim.setKills(victim.getKills() + 1);
+            victim.setTotalDistance(victim.getTotalDistance() + distance);
+            victim.setLongestKill(Math.max(victim.getLongestKill(), record.getDistance()));
+            
+            KillRollup killed = rollup(rollups, guildId, day, record.getServerId(), record.getVictim(), weapon);
+            killed.setDeaths(killed.getDeaths() + 1);
+        }
+        
+        try {
+            UpdateOptions upsert = new UpdateOptions().upsert(true);
+            List<WriteModel<KillRollup>> updates = new ArrayList<>(rollups.size());
+            for (KillRollup rollup : rollups.values()) {
+                updates.add(new UpdateOneModel<>(
+                        Filters.and(
+                                rollupFilter(guildId, day, rollup.getServerId(), rollup.getPlayer(), rollup.getWeapon()),
+                                Filters.ne("slices", slice.key)),
+                        Updates.combine(
+                                Updates.inc("kills", rollup.getKills()),
+                                Updates.inc("deaths", rollup.getDeaths()),
+                                Updates.inc("totalDistance", rollup.getTotalDistance()),
+                                Updates.max("longestKill", rollup.getLongestKill()),
+                                Updates.pushEach("victims", rollup.getVictims()),
+                                Updates.push("slices", slice.key)),
+                        upsert));
+            }
+            
+            if (!updates.isEmpty()) {
+                getCollection().bulkWrite(updates, new BulkWriteOptions().ordered(false));
+            }
+            return true;
+        } catch (MongoBulkWriteException e) {
+            // A rollup that already holds the slice fails its filter and collides with itself on upsert
+            for (BulkWriteError error : e.getWriteErrors()) {
+                if (error.getCode() != DUPLICATE_KEY) {
+                    logger.error("Error writing kill rollups for guild ID: {} on day {}", guildId, day, e);
+                    return false;
+                }
+            }
+            return true;
+        } catch (Exception e) {
+            logger.error("Error writing kill rollups for guild ID: {} on day {}", guildId, day, e);
+            return false;
+        }
+    }
+    
+    /**
+     * Visit every rolled-up kill as tallies per killer, victim and weapon
+     */
+    public void forEachTally(Consumer<KillTally> action) {
+        for (KillRollup rollup : getCollection().find().batchSize(1000)) {
+            visit(rollup, action);
+        }
+    }
+    
+    /**
+     * Visit every rolled-up kill of one guild as tallies per killer, victim and weapon
+     */
+    public void forEachTallyInGuild(long guildId, Consumer<KillTally> action) {
+        for (KillRollup rollup : getCollection().find(guildFilter(guildId)).batchSize(1000)) {
+            visit(rollup, action);
+        }
+    }
+    
+    /**
+     * Get the IDs of the guilds with rollups
+     */
+    public List<Long> findGuildIds() {
+        try {
+            return getCollection().distinct("guildId", Long.class).into(new ArrayList<>());
+        } catch (Exception e) {
+            logger.error("Error finding guilds with kill rollups", e);
+            return new ArrayList<>();
+        }
+    }
+    
+    /**
+     * Delete a guild's rollups of days that ended before a cutoff
+     * @return The number of rollups deleted
+     */
+    public long deleteOlderThan(long guildId, long cutoffMillis) {
+        try {
+            return getCollection().deleteMany(olderThanFilter(guildId, cutoffMillis)).getDeletedCount();
+        } catch (Exception e) {
+            logger.error("Error deleting kill rollups older than {} for guild ID: {}", cutoffMillis, guildId, e);
+            return 0;
+        }
+    }
+    
+    /**
+     * Filter for one rollup of a day
+     */
+    public static Bson rollupFilter(long guildId, long day, String serverId, String player, String weapon) {
+        return Filters.and(
+                Filters.eq("guildId", guildId),
+                Filters.eq("day", day),
+                Filters.eq("serverId", serverId),
+                Filters.eq("player", player),
+                Filters.eq("weapon", weapon));
+    }
+    
+    /**
+     * Filter for all of a guild's rollups
+     */
+    public static Bson guildFilter(long guildId) {
+        return Filters.eq("guildId", guildId);
+    }
+    
+    /**
+     * Filter for a guild's rollups of days that ended before a cutoff
+     */
+    public static Bson olderThanFilter(long guildId, long cutoffMillis) {
+        return Filters.and(guildFilter(guildId), Filters.lte("day", cutoffMillis - DAY_MILLIS));
+    }
+    
+    private static void visit(KillRollup rollup, Consumer<KillTally> action) {
+        String weapon = rollup.getWeapon() == null || rollup.getWeapon().isEmpty() ? null : rollup.getWeapon();
+        for (KillRollupVictim victim : rollup.getVictims()) {
+            action.accept(new KillTally(rollup.getGuildId(), rollup.getServerId(), rollup.getPlayer(), victim.getName(),
+                    weapon, victim.getKills(), victim.getTotalDistance(), victim.getLongestKill()));
+        }
+    }
+    
+    private static KillRollup rollup(Map<String, KillRollup> rollups, long guildId, long day,
+                                     String serverId, String player, String weapon) {
+        return rollups.computeIfAbsent(rollupKey(serverId, player, weapon), key -> {
+            KillRollup rollup = new KillRollup();
+            rollup.setGuildId(guildId);
+            rollup.setDay(day);
+            rollup.setServerId(serverId);
+            rollup.setPlayer(player);
+            rollup.setWeapon(weapon);
+            return rollup;
+        });
+    }
+    
+    private static String rollupKey(String serverId, String player, String weapon) {
+        return serverId + ":" + player + ":" + weapon;
+    }
+    
+    /**
+     * A day of one guild's kill records being rolled up, with the key that marks it in the rollups
+     */
+    public static final class Slice {
+        public final long day;
+        public final long end;
+        public final String key;
+        
+        Slice(long day, long end, String key) {
+            this.day = day;
+            this.end = end;
+            this.key = key;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.deadside.bot.db.repositories;
+
+import com.deadside.bot.db.models.KillRecord;
+
+/**
+ * A number of kills by one player of another with one weapon on one game server
+ * Stored kill history is visited as tallies, so raw records (one kill each) and daily rollups are
+ * merged by the same consumer.
+ */
+public final class KillTally {
+    private final long guildId;
+    private final String serverId;
+    private final String killer;
+    private final String victim;
+    private final String weapon;
+    private final int kills;
+    private final long totalDistance;
+    private final long longestKill;
+    
+    KillTally(long guildId, String serverId, String killer, String victim, String weapon,
+              int kills, long totalDistance, long longestKill) {
+        this.guildId = guildId;
+        this.serverId = serverId;
+        this.killer = killer;
+        this.victim = victim;
+        this.weapon = weapon;
+        this.kills = kills;
+        this.totalDistance = totalDistance;
+        this.longestKill = longestKill;
+    }
+    
+    static KillTally of(KillRecord record) {
+        return new KillTally(record.getGuildId(), record.getServerId(), record.getKiller(), record.getVictim(),
+                record.getWeapon(), 1, Math.max(0, record.getDistance()), record.getDistance());
+    }
+    
+    public long getGuildId() {
+        return guildId;
+    }
+    
+    public String getServerId() {
+        return serverId;
+    }
+    
+    public String getKiller() {
+        return killer;
+    }
+    
+    public String getVictim() {
+        return victim;
+    }
+    
+    public String getWeapon() {
+        return weapon;
+    }
+    
+    public int getKills() {
+        return kills;
+    }
+    
+    public long getTotalDistance() {
+        return totalDistance;
+    }
+    
+    public long getLongestKill() {
+        return longestKill;
+    }
+}
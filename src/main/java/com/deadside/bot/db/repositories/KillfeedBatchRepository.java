@@ -0,0 +1,112 @@
+package com.deadside.bot.db.repositories;
+
+import com.deadside.bot.db.MongoDBConnection;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Updates;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Repository for the killfeed batch each server is writing
+ * A batch is the range of killfeed lines one run reads past the server's saved progress. It is
+ * recorded before any of its writes, and stays until the server's next batch replaces it, so a run
+ * that reads the same lines again after a failed write resumes the batch: it reads no further than
+ * the first attempt, and writes under the same key, which the stores keep on the rows they change.
+ */
+public class KillfeedBatchRepository {
+    private static final Logger logger = LoggerFactory.getLogger(KillfeedBatchRepository.class);
+    public static final String COLLECTION_NAME = "killfeed_batches";
+    private static final Bson RECORDS_SAVED = Updates.set("recordsSaved", true);
+    
+    private MongoCollection<Document> getCollection() {
+        return MongoDBConnection.getInstance().getDatabase().getCollection(COLLECTION_NAME);
+    }
+    
+    /**
+     * Get the batch a server last started, if it starts at a line
+     * @param serverId ID of the game server
+     * @return The batch, or null if the server's last batch started elsewhere or it has none
+     * @throws com.mongodb.MongoException If the batch could not be read
+     */
+    public Batch findStartingAt(String serverId, String file, long startLine) {
+        Document batch = getCollection().find(Filters.eq("_id", serverId)).first();
+        if (batch == null || !file.equals(batch.getString("file")) || batch.getLong("startLine") != startLine) {
+            return null;
+        }
+        return new Batch(batch.getString("key"), batch.getLong("endLine"), batch.getBoolean("recordsSaved", false));
+    }
+    
+    /**
+     * Record a new batch for a server, replacing its last one
+     * @param endLine Index of the last line the batch covers
+     * @throws com.mongodb.MongoException If the batch could not be recorded
+     */
+    public Batch start(String serverId, String file, long startLine, long endLine) {
+        Batch batch = new Batch(new ObjectId().toHexString(), endLine, false);
+        getCollection().replaceOne(Filters.eq("_id", serverId),
+                new Document("_id", serverId)
+                        .append("key", batch.key)
+                        .append("file", file)
+                        .append("startLine", startLine)
+                        .append("endLine", endLine)
+                        .append("recordsSaved", false)
+                        .append("timestamp", System.currentTimeMillis()),
+                MongoDBConnection.UPSERT_OPTION);
+        return batch;
+    }
+    
+    /**
+     * Mark a batch's kill records as saved, so resuming it does not save them again
+     * @return True if the mark was written
+     */
+    public boolean markRecordsSaved(String serverId, Batch batch) {
+        try {
+            getCollection().updateOne(batchFilter(serverId, batch), RECORDS_SAVED);
+            return true;
+        } catch (Exception e) {
+            logger.error("Error marking the kill records of killfeed batch {} as saved", batch.key, e);
+            return false;
+        }
+    }
+    
+    /**
+     * Mark a batch's kill records as saved through the reactive driver
+     * @return A future that completes exceptionally if the mark was not written
+     */
+    public CompletableFuture<Void> markRecordsSavedAsync(String serverId, Batch batch) {
+        MongoDBConnection connection = MongoDBConnection.getInstance();
+        return connection.single(connection.getReactiveDatabase().getCollection(COLLECTION_NAME)
+                        .updateOne(batchFilter(serverId, batch), RECORDS_SAVED))
+                .whenComplete((result, e) -> {
+                    if (e != null) {
+                        logger.error("Error marking the kill records of killfeed batch {} as saved", batch.key, e);
+                    }
+                })
+                .thenApply(result -> null);
+    }
+    
+    private static Bson batchFilter(String serverId, Batch batch) {
+        return Filters.and(Filters.eq("_id", serverId), Filters.eq("key", batch.key));
+    }
+    
+    /**
+     * A range of killfeed lines being written, with the key that marks it in the stores
+     */
+    public static final class Batch {
+        public final String key;
+        public final long endLine;
+        public final boolean recordsSaved;
+        
+        Batch(String key, long endLine, boolean recordsSaved) {
+            this.key = key;
+            this.endLine = endLine;
+            this.recordsSaved = recordsSaved;
+        }
+    }
+}
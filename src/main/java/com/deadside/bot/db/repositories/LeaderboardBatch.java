@@ -0,0 +1,144 @@
+package com.deadside.bot.db.repositories;
+
+import com.deadside.bot.db.models.LeaderboardEntry;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Leaderboard and scoped player stat changes collected over one processing cycle
+ * Every kill counts towards the server's rows and the guild-wide rollup. Changes are aggregated
+ * per row in memory and written by {@link LeaderboardRepository#apply(LeaderboardBatch)} as one bulk
+ * write per collection.
+ */
+public class LeaderboardBatch {
+    private final Map<String, RowDelta> players = new LinkedHashMap<>();
+    private final Map<String, RowDelta> weapons = new LinkedHashMap<>();
+    private final Set<String> scopes = new LinkedHashSet<>();
+    private final String marker;
+    
+    /**
+     * Create a batch that applies its changes every time it is written
+     */
+    public LeaderboardBatch() {
+        this(null);
+    }
+    
+    /**
+     * Create a batch that changes each row at most once
+     * @param marker Key of the batch, kept on every row it changes so that writing it again skips those rows
+     */
+    public LeaderboardBatch(String marker) {
+        this.marker = marker;
+    }
+    
+    /**
+     * Record a kill on a server
+     */
+    public void recordKill(long guildId, String server, String killer, String victim, String weapon) {
+        recordKills(guildId, server, killer, victim, weapon, 1);
+    }
+    
+    /**
+     * Record a number of kills of one player by another with one weapon on a server
+     */
+    public void recordKills(long guildId, String server, String killer, String victim, String weapon, int kills) {
+        if (killer == null || victim == null) {
+            return;
+        }
+        
+        for (String scope : new String[] {server, LeaderboardEntry.ALL_SERVERS}) {
+            if (scope == null) {
+                continue;
+            }
+            RowDelta killerRow = row(players, guildId, scope, killer);
+            killerRow.kills += kills;
+            killerRow.victims.merge(victim, kills, Integer::sum);
+            
+            RowDelta victimRow = row(players, guildId, scope, victim);
+            victimRow.deaths += kills;
+            victimRow.killers.merge(killer, kills, Integer::sum);
+            
+            if (weapon != null && !weapon.isEmpty()) {
+                killerRow.weapons.merge(weapon, kills, Integer::sum);
+                row(weapons, guildId, scope, weapon).kills += kills;
+            }
+            scopes.add(scopeKey(guildId, scope));
+        }
+    }
+    
+    /**
+     * Check if no changes have been recorded
+     */
+    public boolean isEmpty() {
+        return players.isEmpty() && weapons.isEmpty();
+    }
+    
+    /**
+     * Get the number of rows with recorded changes
+     */
+    public int size() {
+        return players.size() + weapons.size();
+    }
+    
+    /**
+     * Get the key kept on the rows this batch changes, or null if it has none
+     */
+    String getMarker() {
+        return marker;
+    }
+    
+    Collection<RowDelta> getPlayerDeltas() {
+        return players.values();
+    }
+    
+    Collection<RowDelta> getWeaponDeltas() {
+        return weapons.values();
+    }
+    
+    /**
+     * Get the guild and server leaderboards this batch changes, as {@link #scopeKey(long, String)} keys
+     */
+    Set<String> getScopes() {
+        return scopes;
+    }
+    
+    static String scopeKey(long guildId, String server) {
+        return guildId + ":" + server;
+    }
+    
+    /**
+     * Key of one player or weapon row within a guild or server
+     */
+    static String rowKey(long guildId, String server, String name) {
+        return scopeKey(guildId, server) + ":" + name;
+    }
+    
+    private static RowDelta row(Map<String, RowDelta> rows, long guildId, String server, String name) {
+        return rows.computeIfAbsent(rowKey(guildId, server, name), key -> new RowDelta(guildId, server, name));
+    }
+    
+    /**
+     * Aggregated changes for one leaderboard row
+     */
+    static final class RowDelta {
+        final long guildId;
+        final String server;
+        final String name;
+        int kills;
+        int deaths;
+        final Map<String, Integer> weapons = new HashMap<>();
+        final Map<String, Integer> victims = new HashMap<>();
+        final Map<String, Integer> killers = new HashMap<>();
+        
+        private RowDelta(long guildId, String server, String name) {
+            this.guildId = guildId;
+            this.server = server;
+            this.name = name;
+        }
+    }
+}
@@ -0,0 +1,469 @@
+package com.deadside.bot.db.repositories;
+
+import com.deadside.bot.db.MongoDBConnection;
+import com.deadside.bot.db.models.LeaderboardEntry;
+import com.deadside.bot.db.repositories.LeaderboardBatch.RowDelta;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.WriteModel;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Repository for materialized leaderboards and scoped player stats
+ * Player and weapon rows are kept per guild and server and updated as kills are ingested, so a
+ * leaderboard is one indexed read of its top rows instead of a sort over every player. Player rows
+ * double as each player's stats within a guild or server; every query here filters on the guild
+ * first, so it only touches that guild's part of the index.
+ */
+public class LeaderboardRepository {
+    private static final Logger logger = LoggerFactory.getLogger(LeaderboardRepository.class);
+    public static final String PLAYERS_COLLECTION_NAME = "leaderboard_players";
+    public static final String WEAPONS_COLLECTION_NAME = "leaderboard_weapons";
+    public static final String STATE_COLLECTION_NAME = "leaderboard_state";
+    private static final String REBUILD_STATE_ID = "rebuild";
+    
+    // Fields shown on a board; the per-player "most" fields are only read for stats lookups
+    private static final Bson BOARD_PROJECTION = Projections.include("name", "kills", "deaths", "kd", "score");
+    private static final Bson RANK_PROJECTION = Projections.include("guildId", "server", "name", "kills", "deaths");
+    
+    // Order of name searches, most kills first
+    public static final Bson NAME_SEARCH_SORT = Sorts.descending("kills");
+    
+    /**
+     * The kinds of leaderboard kept, with the field each is ranked by
+     */
+    public enum Type {
+        KILLS("kills"),
+        KD("kd"),
+        SCORE("score"),
+        WEAPONS("kills");
+        
+        private final String field;
+        
+        Type(String field) {
+            this.field = field;
+        }
+        
+        public String getField() {
+            return field;
+        }
+        
+        /**
+         * The board's order: by its field, ties broken by kills and then by row
+         */
+        private Keyset keyset() {
+            Keyset keyset = new Keyset().descending(field);
+            if (!field.equals("kills")) {
+                keyset.descending("kills");
+            }
+            return keyset.ascending("_id");
+        }
+    }
+    
+    private MongoCollection<LeaderboardEntry> players;
+    private MongoCollection<LeaderboardEntry> weapons;
+    
+    private MongoCollection<LeaderboardEntry> getCollection(Type type) {
+        if (players == null || weapons == null) {
+            players = MongoDBConnection.getInstance().getDatabase()
+                    .getCollection(PLAYERS_COLLECTION_NAME, LeaderboardEntry.class);
+            weapons = MongoDBConnection.getInstance().getDatabase()
+                    .getCollection(WEAPONS_COLLECTION_NAME, LeaderboardEntry.class);
+        }
+        return type == Type.WEAPONS ? weapons : players;
+    }
+    
+    private com.mongodb.reactivestreams.client.MongoCollection<LeaderboardEntry> getReactiveCollection(Type type) {
+        return MongoDBConnection.getInstance().getReactiveDatabase().getCollection(
+                type == Type.WEAPONS ? WEAPONS_COLLECTION_NAME : PLAYERS_COLLECTION_NAME, LeaderboardEntry.class);
+    }
+    
+    private MongoCollection<Document> getStateCollection() {
+        return MongoDBConnection.getInstance().getDatabase().getCollection(STATE_COLLECTION_NAME);
+    }
+    
+    /**
+     * Write a batch of leaderboard changes
+     * Each row's counters are incremented and its K/D and score recomputed in the same atomic update.
+     * @return The number of rows changed, fewer than the batch's size if some already held its marker,
+     *         or -1 if a write failed
+     */
+    public int apply(LeaderboardBatch batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        
+        try {
+            long now = System.currentTimeMillis();
+            int written = write(getCollection(Type.KILLS), batch.getPlayerDeltas(), batch.getMarker(), now, true);
+            written += write(getCollection(Type.WEAPONS), batch.getWeaponDeltas(), batch.getMarker(), now, false);
+            logger.debug("Applied {} leaderboard changes ({} rows changed)", batch.size(), written);
+            return written;
+        } catch (Exception e) {
+            logger.error("Error applying {} leaderboard changes", batch.size(), e);
+            return -1;
+        }
+    }
+    
+    /**
+     * Get the top rows of a leaderboard
+     * @param server The server name, or {@link LeaderboardEntry#ALL_SERVERS} for the whole guild
+     * @param minKills Rows with fewer kills are left out
+     */
+    public List<LeaderboardEntry> findTop(long guildId, String server, Type type, int minKills, int limit) {
+        try {
+            return getCollection(type).find(boardFilter(guildId, server, minKills))
+                    .projection(BOARD_PROJECTION)
+                    .sort(boardSort(type, true))
+                    .limit(limit)
+                    .into(new ArrayList<>());
+        } catch (Exception e) {
+            logger.error("Error getting {} leaderboard for guild {} server {}", type, guildId, server, e);
+            return new ArrayList<>();
+        }
+    }
+    
+    /**
+     * Get the rows of a leaderboard after or before a row, in board order
+     * @param cursor The row's cursor from {@link #cursorOf(Type, LeaderboardEntry)}
+     * @param forward True for the rows after the cursor, false for the rows before it
+     * @param minKills Rows with fewer kills are left out
+     * @throws IllegalArgumentException If the cursor is not a cursor of this board
+     */
+    public List<LeaderboardEntry> findPage(long guildId, String server, Type type, int minKills,
+                                           String cursor, boolean forward, int limit) {
+        Bson filter = pageFilter(guildId, server, type, minKills, cursor, forward);
+        try {
+            List<LeaderboardEntry> rows = getCollection(type).find(filter)
+                    .projection(BOARD_PROJECTION)
+                    .sort(boardSort(type, forward))
+                    .limit(limit)
+                    .into(new ArrayList<>());
+            if (!forward) {
+                Collections.reverse(rows);
+            }
+            return rows;
+        } catch (Exception e) {
+            logger.error("Error paging {} leaderboard for guild {} server {}", type, guildId, server, e);
+            return new ArrayList<>();
+        }
+    }
+    
+    /**
+     * Get the cursor of a row on a leaderboard, for {@link #findPage}
+     */
+    public static String cursorOf(Type type, LeaderboardEntry entry) {
+        return switch (type) {
+            case KILLS, WEAPONS -> Keyset.cursor(Keyset.encode(entry.getKills()), Keyset.encode(entry.getId()));
+            case KD -> Keyset.cursor(Keyset.encode(entry.getKd()), Keyset.encode(entry.getKills()),
+                    Keyset.encode(entry.getId()));
+            case SCORE -> Keyset.cursor(Keyset.encode(entry.getScore()), Keyset.encode(entry.getKills()),
+                    Keyset.encode(entry.getId()));
+        };
+    }
+    
+    /**
+     * Find a player's stats within a guild or server
+     * @param server The server name, or {@link LeaderboardEntry#ALL_SERVERS} for the whole guild
+     * @return The player's row, or null if they have no kills or deaths there
+     */
+    public LeaderboardEntry findPlayer(long guildId, String server, String name) {
+        try {
+            return getCollection(Type.KILLS).find(rowFilter(guildId, server, name)).first();
+        } catch (Exception e) {
+            logger.error("Error finding stats for {} in guild {} server {}", name, guildId, server, e);
+            return null;
+        }
+    }
+    
+    /**
+     * Find the rows of a leaderboard within a guild or server whose name contains the given text
+     * (case insensitive), most kills first
+     */
+    public List<LeaderboardEntry> findByNameContaining(long guildId, String server, Type type, String text, int limit) {
+        try {
+            return getCollection(type).find(nameContainingFilter(guildId, server, text))
+                    .sort(NAME_SEARCH_SORT)
+                    .limit(limit)
+                    .into(new ArrayList<>());
+        } catch (Exception e) {
+            logger.error("Error finding {} rows like {} in guild {} server {}", type, text, guildId, server, e);
+            return new ArrayList<>();
+        }
+    }
+    
+    /**
+     * Count the players within a guild or server that rank above a value on a leaderboard
+     * @param minKills Players with fewer kills are not counted
+     */
+    public long countAbove(long guildId, String server, Type type, double value, int minKills) {
+        try {
+            return getCollection(type).countDocuments(aboveFilter(guildId, server, type, value, minKills));
+        } catch (Exception e) {
+            logger.error("Error ranking {} in guild {} server {}", type, guildId, server, e);
+            return 0;
+        }
+    }
+    
+    /**
+     * Count the rows of a leaderboard within a guild or server
+     * @param minKills Rows with fewer kills are not counted
+     */
+    public long count(long guildId, String server, Type type, int minKills) {
+        try {
+            return getCollection(type).countDocuments(boardFilter(guildId, server, minKills));
+        } catch (Exception e) {
+            logger.error("Error counting {} rows in guild {} server {}", type, guildId, server, e);
+            return 0;
+        }
+    }
+    
+    /**
+     * Get the stored kills and deaths of the player rows a batch changes, one query per guild or server
+     * @return The rows found, keyed by {@link LeaderboardBatch#rowKey(long, String, String)}
+     * @throws com.mongodb.MongoException If the rows could not be read
+     */
+    Map<String, LeaderboardEntry> findPlayerRows(Collection<RowDelta> deltas) {
+        Map<String, List<RowDelta>> byScope = new HashMap<>();
+        for (RowDelta delta : deltas) {
+            byScope.computeIfAbsent(LeaderboardBatch.scopeKey(delta.guildId, delta.server), key -> new ArrayList<>())
+                    .add(delta);
+        }
+        
+        Map<String, LeaderboardEntry> rows = new HashMap<>();
+        for (List<RowDelta> scope : byScope.values()) {
+            RowDelta first = scope.get(0);
+            List<String> names = new ArrayList<>(scope.size());
+            for (RowDelta delta : scope) {
+                names.add(delta.name);
+            }
+            for (LeaderboardEntry entry : getCollection(Type.KILLS).find(Filters.and(
+                            scopeFilter(first.guildId, first.server), Filters.in("name", names)))
+                    .projection(RANK_PROJECTION)) {
+                rows.put(LeaderboardBatch.rowKey(entry.getGuildId(), entry.getServer(), entry.getName()), entry);
+            }
+        }
+        return rows;
+    }
+    
+    /**
+     * Visit the kills and deaths of every player row
+     */
+    public void forEachPlayerRow(Consumer<LeaderboardEntry> action) {
+        for (LeaderboardEntry entry : getCollection(Type.KILLS).find()
+                .projection(RANK_PROJECTION).batchSize(1000)) {
+            action.accept(entry);
+        }
+    }
+    
+    /**
+     * How far the build of the leaderboards from the kill records has got
+     */
+    public enum RebuildState {
+        // No build has been recorded
+        NONE,
+        // A build started and has not finished; its rows are incomplete
+        STARTED,
+        // The rows hold every stored kill and ingestion keeps them current
+        COMPLETE
+    }
+    
+    /**
+     * Get how far the build of the leaderboards has got
+     * @throws com.mongodb.MongoException If the state could not be read
+     */
+    public RebuildState getRebuildState() {
+        Document state = getStateCollection().find(Filters.eq("_id", REBUILD_STATE_ID)).first();
+        return state != null ? RebuildState.valueOf(state.getString("state")) : RebuildState.NONE;
+    }
+    
+    /**
+     * Record how far the build of the leaderboards has got
+     * @throws com.mongodb.MongoException If the state could not be written
+     */
+    public void setRebuildState(RebuildState state) {
+        getStateCollection().replaceOne(Filters.eq("_id", REBUILD_STATE_ID),
+                new Document("_id", REBUILD_STATE_ID)
+                        .append("state", state.name())
+                        .append("timestamp", System.currentTimeMillis()),
+                MongoDBConnection.UPSERT_OPTION);
+    }
+    
+    /**
+     * Remove every player and weapon row
+     * @throws com.mongodb.MongoException If the rows could not be removed
+     */
+    public void deleteAll() {
+        getCollection(Type.KILLS).deleteMany(Filters.empty());
+        getCollection(Type.WEAPONS).deleteMany(Filters.empty());
+    }
+    
+    /**
+     * Check if no leaderboard rows exist yet
+     */
+    public boolean isEmpty() {
+        try {
+            return getCollection(Type.KILLS).find().limit(1).first() == null;
+        } catch (Exception e) {
+            logger.error("Error checking for leaderboard rows", e);
+            return false;
+        }
+    }
+    
+    /**
+     * Find a player's stats within a guild or server through the reactive driver, without blocking any thread
+     */
+    public CompletableFuture<LeaderboardEntry> findPlayerAsync(long guildId, String server, String name) {
+        return MongoDBConnection.getInstance()
+                .single(getReactiveCollection(Type.KILLS).find(rowFilter(guildId, server, name)).first())
+                .exceptionally(e -> {
+                    logger.error("Error finding stats for {} in guild {} server {}", name, guildId, server, e);
+                    return null;
+                });
+    }
+    
+    /**
+     * Find leaderboard rows by name through the reactive driver, without blocking any thread
+     */
+    public CompletableFuture<List<LeaderboardEntry>> findByNameContainingAsync(long guildId, String server, Type type,
+                                                                              String text, int limit) {
+        return MongoDBConnection.getInstance()
+                .toList(getReactiveCollection(type).find(nameContainingFilter(guildId, server, text))
+                        .sort(NAME_SEARCH_SORT)
+                        .limit(limit))
+                .exceptionally(e -> {
+                    logger.error("Error finding {} rows like {} in guild {} server {}", type, text, guildId, server, e);
+                    return new ArrayList<>();
+                });
+    }
+    
+    /**
+     * Filter for the rows of a board, as used by {@link #findTop} and {@link #count}
+     * @param minKills Rows with fewer kills are left out
+     */
+    public static Bson boardFilter(long guildId, String server, int minKills) {
+        Bson filter = scopeFilter(guildId, server);
+        return minKills > 0 ? Filters.and(filter, Filters.gte("kills", minKills)) : filter;
+    }
+    
+    /**
+     * Filter for the rows of a board after or before a cursor, as used by {@link #findPage}
+     * @throws IllegalArgumentException If the cursor is not a cursor of this board
+     */
+    public static Bson pageFilter(long guildId, String server, Type type, int minKills, String cursor, boolean forward) {
+        String[] values = Keyset.split(cursor, type.getField().equals("kills") ? 2 : 3);
+        List<Object> boundary = new ArrayList<>(values.length);
+        if (type == Type.KD) {
+            boundary.add(Keyset.decodeDouble(values[0]));
+        } else {
+            boundary.add(Keyset.decodeLong(values[0]));
+        }
+        if (values.length == 3) {
+            boundary.add(Keyset.decodeLong(values[1]));
+        }
+        boundary.add(Keyset.decodeId(values[values.length - 1]));
+        
+        return Filters.and(boardFilter(guildId, server, minKills), type.keyset().after(boundary, forward));
+    }
+    
+    /**
+     * Sort of a board, or of a board read backwards from a cursor
+     */
+    public static Bson boardSort(Type type, boolean forward) {
+        return type.keyset().sort(forward);
+    }
+    
+    /**
+     * Filter for one player or weapon row
+     */
+    public static Bson rowFilter(long guildId, String server, String name) {
+        return Filters.and(scopeFilter(guildId, server), Filters.eq("name", name));
+    }
+    
+    /**
+     * Filter for the rows whose name contains some text, ignoring case
+     */
+    public static Bson nameContainingFilter(long guildId, String server, String text) {
+        return Filters.and(scopeFilter(guildId, server), Filters.regex("name", Pattern.quote(text), "i"));
+    }
+    
+    /**
+     * Filter for the rows that rank above a value on a board
+     * @param minKills Rows with fewer kills are left out
+     */
+    public static Bson aboveFilter(long guildId, String server, Type type, double value, int minKills) {
+        return Filters.and(scopeFilter(guildId, server), Filters.gt(type.getField(), value),
+                Filters.gte("kills", minKills));
+    }
+    
+    private static Bson scopeFilter(long guildId, String server) {
+        return Filters.and(Filters.eq("guildId", guildId), Filters.eq("server", server));
+    }
+    
+    private static int write(MongoCollection<LeaderboardEntry> collection, Collection<RowDelta> deltas,
+                             String marker, long now, boolean ranked) {
+        if (deltas.isEmpty()) {
+            return 0;
+        }
+        
+        List<WriteModel<LeaderboardEntry>> updates = new ArrayList<>(deltas.size());
+        for (RowDelta delta : deltas) {
+            Document counters = new Document()
+                    .append("kills", add("kills", delta.kills))
+                    .append("deaths", add("deaths", delta.deaths))
+                    .append("lastUpdated", now);
+            if (marker != null) {
+                BulkUpserts.appendMarker(counters, marker);
+            }
+            List<Document> pipeline = new ArrayList<>(2);
+            pipeline.add(new Document("$set", counters));
+            if (ranked) {
+                PlayerRepository.appendMost(counters, "mostUsedWeapon", "mostUsedWeaponKills", delta.weapons);
+                PlayerRepository.appendMost(counters, "mostKilledPlayer", "mostKilledPlayerCount", delta.victims);
+                PlayerRepository.appendMost(counters, "killedByMost", "killedByMostCount", delta.killers);
+                pipeline.add(new Document("$set", rankFields()));
+            }
+            
+            updates.add(new UpdateOneModel<>(
+                    BulkUpserts.unapplied(rowFilter(delta.guildId, delta.server, delta.name), marker),
+                    pipeline,
+                    new UpdateOptions().upsert(true)));
+        }
+        return BulkUpserts.write(collection, updates, marker != null);
+    }
+    
+    /**
+     * K/D and score computed from the updated counters, matching {@link com.deadside.bot.db.models.Player}
+     */
+    private static Document rankFields() {
+        Document kd = new Document("$cond", List.of(
+                new Document("$gt", List.of("$deaths", 0)),
+                new Document("$divide", List.of("$kills", "$deaths")),
+                new Document("$toDouble", "$kills")));
+        Document score = new Document("$max", List.of(0, new Document("$subtract", List.of(
+                new Document("$multiply", List.of("$kills", 10)),
+                new Document("$multiply", List.of("$deaths", 5))))));
+        return new Document("kd", kd).append("score", score);
+    }
+    
+    private static Document add(String field, int amount) {
+        return new Document("$add", List.of(new Document("$ifNull", List.of("$" + field, 0)), amount));
+    }
+}
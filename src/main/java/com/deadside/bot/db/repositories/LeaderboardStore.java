@@ -0,0 +1,262 @@
+package com.deadside.bot.db.repositories;
+
+import com.deadside.bot.db.MongoDBConnection;
+import com.deadside.bot.db.models.LeaderboardEntry;
+import com.deadside.bot.db.repositories.LeaderboardBatch.RowDelta;
+import com.deadside.bot.db.repositories.LeaderboardRepository.RebuildState;
+import com.deadside.bot.db.repositories.LeaderboardRepository.Type;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Materialized leaderboards for every guild and server
+ * Ingestion feeds kills in through {@link #apply(LeaderboardBatch)}, which updates the stored rows
+ * and drops the cached boards of the guilds and servers it touched. A board is read from the
+ * database once after each change and every other request is served from memory. The same changes
+ * keep the in-memory {@link RankIndex} of every player current.
+ */
+public class LeaderboardStore {
+    private static final Logger logger = LoggerFactory.getLogger(LeaderboardStore.class);
+    private static final int CACHED_ROWS = 25;
+    private static final int REBUILD_BATCH_SIZE = 5000;
+    private static LeaderboardStore instance;
+    
+    private final LeaderboardRepository repository;
+    private final int kdMinKills;
+    private final Map<String, CachedScope> scopes = new ConcurrentHashMap<>();
+    private final RankIndex ranks = new RankIndex();
+    // Batches are written under the read side; repairing the ranks after a failed write takes the write side
+    private final ReadWriteLock applyLock = new ReentrantReadWriteLock();
+    private volatile boolean ranksStale;
+    
+    private LeaderboardStore(LeaderboardRepository repository, int kdMinKills) {
+        this.repository = repository;
+        this.kdMinKills = kdMinKills;
+    }
+    
+    /**
+     * Initialize the leaderboard store
+     * @param kdMinKills Kills a player needs to appear on a K/D leaderboard
+     */
+    public static synchronized void initialize(LeaderboardRepository repository, int kdMinKills) {
+        if (instance == null) {
+            instance = new LeaderboardStore(repository, kdMinKills);
+            logger.info("Leaderboard store initialized ({} kills to qualify for K/D)", kdMinKills);
+        }
+    }
+    
+    /**
+     * Get the leaderboard store instance
+     */
+    public static LeaderboardStore getInstance() {
+        if (instance == null) {
+            throw new IllegalStateException("LeaderboardStore has not been initialized");
+        }
+        return instance;
+    }
+    
+    /**
+     * Get the top rows of a leaderboard
+     * @param server The server name, or {@link LeaderboardEntry#ALL_SERVERS} for the whole guild
+     */
+    public List<LeaderboardEntry> getTop(long guildId, String server, Type type, int limit) {
+        int minKills = type == Type.KD ? kdMinKills : 0;
+        if (limit > CACHED_ROWS) {
+            return repository.findTop(guildId, server, type, minKills, limit);
+        }
+        
+        CachedScope scope = scopes.computeIfAbsent(LeaderboardBatch.scopeKey(guildId, server), key -> new CachedScope());
+        List<LeaderboardEntry> rows;
+        long version;
+        synchronized (scope) {
+            rows = scope.boards.get(type);
+            version = scope.version;
+        }
+        
+        if (rows == null) {
+            rows = List.copyOf(repository.findTop(guildId, server, type, minKills, CACHED_ROWS));
+            synchronized (scope) {
+                // Only keep the board if no batch changed this scope while it was being read
+                if (scope.version == version) {
+                    scope.boards.put(type, rows);
+                }
+            }
+        }
+        
+        return rows.subList(0, Math.min(limit, rows.size()));
+    }
+    
+    /**
+     * Get the number of kills a player needs to appear on a K/D leaderboard
+     */
+    public int getKdMinKills() {
+        return kdMinKills;
+    }
+    
+    /**
+     * Get the ranks of every player
+     */
+    public RankIndex getRanks() {
+        return ranks;
+    }
+    
+    /**
+     * Load the player ranks from the stored leaderboard rows
+     * Call once the leaderboards are built and before ingestion starts, so no change is missed or counted twice.
+     */
+    public void loadRanks() {
+        ranks.load(repository);
+    }
+    
+    /**
+     * Write a batch of leaderboard changes and drop the boards it changes from the cache
+     * The write is an unordered bulk write, so when it fails some rows may have been changed and
+     * others not. The ranks of the batch's players are then read back from the stored rows rather
+     * than guessed; if that read fails too, the whole index is reloaded before the next batch. The
+     * same goes for a marked batch written again, whose rows changed the first time are skipped.
+     * @return True if the write was acknowledged; callers must not move their progress on otherwise
+     */
+    public boolean apply(LeaderboardBatch batch) {
+        if (batch.isEmpty()) {
+            return true;
+        }
+        
+        try {
+            if (ranksStale) {
+                reloadRanks();
+            }
+            
+            int written;
+            applyLock.readLock().lock();
+            try {
+                written = repository.apply(batch);
+                if (written == batch.size()) {
+                    ranks.apply(batch.getPlayerDeltas());
+                }
+            } finally {
+                applyLock.readLock().unlock();
+            }
+            
+            if (written != batch.size()) {
+                repairRanks(batch);
+            }
+            return written >= 0;
+        } finally {
+            for (String key : batch.getScopes()) {
+                CachedScope scope = scopes.get(key);
+                if (scope != null) {
+                    synchronized (scope) {
+                        scope.version++;
+                        scope.boards.clear();
+                    }
+                }
+            }
+        }
+    }
+    
+    /**
+     * Set the ranks of a failed batch's players to their stored rows
+     * Holds the write side of the apply lock, so no other batch changes the rows while they are read.
+     */
+    private void repairRanks(LeaderboardBatch batch) {
+        applyLock.writeLock().lock();
+        try {
+            Map<String, LeaderboardEntry> rows = repository.findPlayerRows(batch.getPlayerDeltas());
+            for (RowDelta delta : batch.getPlayerDeltas()) {
+                ranks.set(delta.guildId, delta.server, delta.name,
+                        rows.get(LeaderboardBatch.rowKey(delta.guildId, delta.server, delta.name)));
+            }
+        } catch (Exception e) {
+            logger.error("Error reading back ranks after a failed leaderboard write, "
+                    + "reloading them before the next one", e);
+            ranksStale = true;
+        } finally {
+            applyLock.writeLock().unlock();
+        }
+    }
+    
+    private void reloadRanks() {
+        applyLock.writeLock().lock();
+        try {
+            if (ranksStale && ranks.load(repository)) {
+                ranksStale = false;
+            }
+        } finally {
+            applyLock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Write a batch of leaderboard changes on the async database pool
+     * @return A future that completes exceptionally if the write failed
+     */
+    public CompletableFuture<Void> applyAsync(LeaderboardBatch batch) {
+        return MongoDBConnection.getInstance().writeAsync("leaderboards", () -> apply(batch));
+    }
+    
+    /**
+     * Build the leaderboards from the stored kill records unless a build has completed
+     * This seeds the store the first time it is deployed; afterwards ingestion keeps it current. The
+     * build is marked started before the first row is written and complete after the last, so a
+     * build cut short by a crash or a failed write is cleared and redone on the next start instead
+     * of being taken for a finished one. Rows written before builds were recorded count as complete.
+     */
+    public void rebuildIfIncomplete(KillRecordRepository killRecordRepository) {
+        try {
+            RebuildState state = repository.getRebuildState();
+            if (state == RebuildState.COMPLETE) {
+                return;
+            }
+            if (state == RebuildState.NONE && !repository.isEmpty()) {
+                repository.setRebuildState(RebuildState.COMPLETE);
+                return;
+            }
+            if (state == RebuildState.STARTED) {
+                logger.warn("Previous leaderboard build did not finish, building again");
+                repository.deleteAll();
+            }
+            repository.setRebuildState(RebuildState.STARTED);
+            
+            long start = System.currentTimeMillis();
+            long[] records = {0};
+            boolean[] written = {true};
+            LeaderboardBatch[] batch = {new LeaderboardBatch()};
+            
+            killRecordRepository.forEachKill(tally -> {
+                batch[0].recordKills(tally.getGuildId(), tally.getServerId(), tally.getKiller(), tally.getVictim(),
+                        tally.getWeapon(), tally.getKills());
+                if (++records[0] % REBUILD_BATCH_SIZE == 0) {
+                    written[0] &= apply(batch[0]);
+                    batch[0] = new LeaderboardBatch();
+                }
+            });
+            written[0] &= apply(batch[0]);
+            
+            if (!written[0]) {
+                logger.error("Leaderboard build could not write every batch, it will be redone on the next start");
+                return;
+            }
+            repository.setRebuildState(RebuildState.COMPLETE);
+            logger.info("Built leaderboards from {} kill records in {} ms", records[0],
+                    System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            logger.error("Error building leaderboards from kill records", e);
+        }
+    }
+    
+    /**
+     * The cached boards of one guild or server; guarded by its own monitor
+     */
+    private static final class CachedScope {
+        private final Map<Type, List<LeaderboardEntry>> boards = new EnumMap<>(Type.class);
+        private long version;
+    }
+}
@@ -2,14 +2,16 @@ package com.deadside.bot.db.repositories;
 
 import com.deadside.bot.db.MongoDBConnection;
 import com.deadside.bot.db.models.LinkedPlayer;
-import com.mongodb.client.MongoCollection;
-import com.mongodb.client.model.Filters;
-import org.bson.conversions.Bson;
+import com.deadside.bot.db.store.DocumentStore;
+import com.deadside.bot.db.store.DocumentStores;
+import org.bson.types.ObjectId;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Repository for LinkedPlayer collection
@@ -18,28 +20,16 @@ public class LinkedPlayerRepository {
     private static final Logger logger = LoggerFactory.getLogger(LinkedPlayerRepository.class);
     private static final String COLLECTION_NAME = "linked_players";
     
-    private MongoCollection<LinkedPlayer> collection;
-    
-    public LinkedPlayerRepository() {
-        try {
-            this.collection = MongoDBConnection.getInstance().getDatabase()
-                .getCollection(COLLECTION_NAME, LinkedPlayer.class);
-        } catch (IllegalStateException e) {
-            // This can happen during early initialization - handle gracefully
-            logger.warn("MongoDB connection not initialized yet. Usage will be deferred until initialization.");
-        }
-    }
+    private DocumentStore<LinkedPlayer> store;
     
     /**
-     * Get the MongoDB collection, initializing if needed
+     * Get the document store, opening it if needed
      */
-    private MongoCollection<LinkedPlayer> getCollection() {
-        if (collection == null) {
-            // Try to get the collection now that MongoDB should be initialized
-            this.collection = MongoDBConnection.getInstance().getDatabase()
-                .getCollection(COLLECTION_NAME, LinkedPlayer.class);
+    private DocumentStore<LinkedPlayer> getStore() {
+        if (store == null) {
+            store = DocumentStores.open(COLLECTION_NAME, LinkedPlayer.class, "discordId", "mainPlayerId", "altPlayerIds");
         }
-        return collection;
+        return store;
     }
     
     /**
@@ -47,7 +37,7 @@ public class LinkedPlayerRepository {
      */
     public LinkedPlayer findByDiscordId(long discordId) {
         try {
-            return getCollection().find(Filters.eq("discordId", discordId)).first();
+            return getStore().findOne(discordConditions(discordId));
         } catch (Exception e) {
             logger.error("Error finding linked player by Discord ID: {}", discordId, e);
             return null;
@@ -60,13 +50,13 @@ public class LinkedPlayerRepository {
     public LinkedPlayer findByPlayerId(String playerId) {
         try {
             // Check if it's a main player
-            LinkedPlayer mainLink = getCollection().find(Filters.eq("mainPlayerId", playerId)).first();
+            LinkedPlayer mainLink = getStore().findOne(mainPlayerConditions(playerId));
             if (mainLink != null) {
                 return mainLink;
             }
             
             // Check if it's an alt player
-            return getCollection().find(Filters.in("altPlayerIds", playerId)).first();
+            return getStore().findOne(altPlayerConditions(playerId));
         } catch (Exception e) {
             logger.error("Error finding linked player by player ID: {}", playerId, e);
             return null;
@@ -77,7 +67,7 @@ public class LinkedPlayerRepository {
      * Find a linked player by in-game player ID (using ObjectId)
      * This is a convenience method that converts ObjectId to string
      */
-    public LinkedPlayer findByPlayerId(org.bson.types.ObjectId playerId) {
+    public LinkedPlayer findByPlayerId(ObjectId playerId) {
         if (playerId == null) {
             return null;
         }
@@ -92,11 +82,11 @@ public class LinkedPlayerRepository {
             linkedPlayer.setUpdated(System.currentTimeMillis());
             
             if (linkedPlayer.getId() == null) {
-                getCollection().insertOne(linkedPlayer);
+                linkedPlayer.setId(new ObjectId());
+                getStore().save(linkedPlayer.getId(), linkedPlayer);
                 logger.debug("Inserted new linked player for Discord ID: {}", linkedPlayer.getDiscordId());
             } else {
-                Bson filter = Filters.eq("_id", linkedPlayer.getId());
-                getCollection().replaceOne(filter, linkedPlayer);
+                getStore().save(linkedPlayer.getId(), linkedPlayer);
                 logger.debug("Updated linked player for Discord ID: {}", linkedPlayer.getDiscordId());
             }
         } catch (Exception e) {
@@ -110,8 +100,7 @@ public class LinkedPlayerRepository {
     public void delete(LinkedPlayer linkedPlayer) {
         try {
             if (linkedPlayer.getId() != null) {
-                Bson filter = Filters.eq("_id", linkedPlayer.getId());
-                getCollection().deleteOne(filter);
+                getStore().delete(Map.of("_id", linkedPlayer.getId()));
                 logger.debug("Deleted linked player for Discord ID: {}", linkedPlayer.getDiscordId());
             }
         } catch (Exception e) {
@@ -124,10 +113,45 @@ public class LinkedPlayerRepository {
      */
     public List<LinkedPlayer> findAll() {
         try {
-            return getCollection().find().into(new ArrayList<>());
+            return getStore().find(Map.of());
         } catch (Exception e) {
             logger.error("Error finding all linked players", e);
             return new ArrayList<>();
         }
     }
-}
\ No newline at end of file
+    
+    /**
+     * Find a linked player by Discord ID without blocking the calling thread
+     */
+    public CompletableFuture<LinkedPlayer> findByDiscordIdAsync(long discordId) {
+        return MongoDBConnection.getInstance().supplyAsync(() -> findByDiscordId(discordId));
+    }
+    
+    /**
+     * Find a linked player by in-game player ID without blocking the calling thread
+     */
+    public CompletableFuture<LinkedPlayer> findByPlayerIdAsync(String playerId) {
+        return MongoDBConnection.getInstance().supplyAsync(() -> findByPlayerId(playerId));
+    }
+    
+    /**
+     * Conditions for the link of a Discord user
+     */
+    public static Map<String, Object> discordConditions(long discordId) {
+        return Map.of("discordId", discordId);
+    }
+    
+    /**
+     * Conditions for the link whose main player is a player
+     */
+    public static Map<String, Object> mainPlayerConditions(String playerId) {
+        return Map.of("mainPlayerId", playerId);
+    }
+    
+    /**
+     * Conditions for the link that has a player as an alt
+     */
+    public static Map<String, Object> altPlayerConditions(String playerId) {
+        return Map.of("altPlayerIds", playerId);
+    }
+}
@@ -0,0 +1,175 @@
+package com.deadside.bot.db.repositories;
+
+import com.deadside.bot.db.models.Currency;
+import com.deadside.bot.db.models.Player;
+import org.bson.conversions.Bson;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Read-through cache of players for economy commands
+ * Balance changes are not cached: each one is still the single conditional update made by
+ * {@link PlayerRepository#updateCurrency}, and the cached balance is replaced with the balance that
+ * update returns. Loads and updates of the same player hold the same lock, so a load that read the
+ * document before an update can never put the older balance back after it. Players that are not
+ * updated are reloaded once their entry is older than the TTL, which bounds how stale other fields
+ * such as kill stats may be.
+ */
+public class PlayerCache {
+    private static final Logger logger = LoggerFactory.getLogger(PlayerCache.class);
+    private static final int LOCK_STRIPES = 64;
+    private static PlayerCache instance;
+    
+    private final PlayerRepository playerRepository;
+    private final long ttlMillis;
+    private final int maxSize;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Object[] locks = new Object[LOCK_STRIPES];
+    
+    // Cache statistics
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    
+    private PlayerCache(PlayerRepository playerRepository, int ttlSeconds, int maxSize) {
+        this.playerRepository = playerRepository;
+        this.ttlMillis = Math.max(1, ttlSeconds) * 1000L;
+        this.maxSize = Math.max(1, maxSize);
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+    
+    /**
+     * Initialize the cache
+     */
+    public static synchronized void initialize(PlayerRepository playerRepository, int ttlSeconds, int maxSize) {
+        if (instance == null) {
+            instance = new PlayerCache(playerRepository, ttlSeconds, maxSize);
+            logger.info("Player cache initialized: {} s expiry, {} players max", ttlSeconds, maxSize);
+        }
+    }
+    
+    /**
+     * Get the cache instance
+     */
+    public static PlayerCache getInstance() {
+        if (instance == null) {
+            throw new IllegalStateException("PlayerCache has not been initialized");
+        }
+        return instance;
+    }
+    
+    /**
+     * Get a player, loading it if it is not cached or its entry has expired
+     * The caller gets its own copy, so changing it does not change the cached player; balances
+     * are changed through {@link #updateCurrency(String, Bson, Bson)}.
+     * @return The player, or null if it does not exist
+     */
+    public Player get(String playerId) {
+        Entry entry = entries.get(playerId);
+        if (entry != null && !entry.isExpired(ttlMillis)) {
+            hits.increment();
+            return entry.player.copy();
+        }
+        
+        misses.increment();
+        synchronized (lockFor(playerId)) {
+            Player player = playerRepository.findByPlayerId(playerId);
+            if (player != null) {
+                put(playerId, player.copy());
+            } else {
+                entries.remove(playerId);
+            }
+            return player;
+        }
+    }
+    
+    /**
+     * Change a player's currency in the database and cache the balance the update returns
+     * @return The currency after the change, or null if the player does not exist or the condition failed
+     * @throws com.mongodb.MongoException If the update could not be made; the player's entry is dropped
+     * @see PlayerRepository#updateCurrency(String, Bson, Bson)
+     */
+    public Currency updateCurrency(String playerId, Bson condition, Bson update) {
+        synchronized (lockFor(playerId)) {
+            Currency currency;
+            try {
+                currency = playerRepository.updateCurrency(playerId, condition, update);
+            } catch (RuntimeException e) {
+                // The update may still have been applied, so the cached balance can no longer be trusted
+                entries.remove(playerId);
+                throw e;
+            }
+            
+            // Entries are never changed once cached, so a read without the lock sees a whole player
+            Entry entry = entries.get(playerId);
+            if (currency != null && entry != null) {
+                Player updated = entry.player.copy();
+                updated.setCurrency(currency.copy());
+                entries.put(playerId, new Entry(updated, entry.loadedAt));
+            }
+            return currency;
+        }
+    }
+    
+    /**
+     * Drop a player so the next read loads it again
+     */
+    public void invalidate(String playerId) {
+        synchronized (lockFor(playerId)) {
+            entries.remove(playerId);
+        }
+    }
+    
+    /**
+     * Get the share of reads served without reading the database
+     */
+    public double getHitRatio() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+    
+    /**
+     * Get the number of cached players
+     */
+    public int size() {
+        return entries.size();
+    }
+    
+    private void put(String playerId, Player player) {
+        if (entries.size() >= maxSize && !entries.containsKey(playerId)) {
+            entries.values().removeIf(entry -> entry.isExpired(ttlMillis));
+            if (entries.size() >= maxSize) {
+                // Still full of live entries; serve this player uncached rather than evict one in use
+                return;
+            }
+        }
+        entries.put(playerId, new Entry(player, System.currentTimeMillis()));
+    }
+    
+    private Object lockFor(String playerId) {
+        return locks[Math.floorMod(playerId.hashCode(), LOCK_STRIPES)];
+    }
+    
+    /**
+     * A cached player and when it was loaded
+     */
+    private static final class Entry {
+        private final Player player;
+        private final long loadedAt;
+        
+        private Entry(Player player, long loadedAt) {
+            this.player = player;
+            this.loadedAt = loadedAt;
+        }
+        
+        private boolean isExpired(long ttlMillis) {
+            return System.currentTimeMillis() - loadedAt >= ttlMillis;
+        }
+    }
+}
@@ -1,11 +1,26 @@
 package com.deadside.bot.db.repositories;
 
 import com.deadside.bot.db.MongoDBConnection;
+import com.deadside.bot.db.models.Currency;
 import com.deadside.bot.db.models.Player;
+import com.deadside.bot.db.models.PlayerSummary;
+import com.deadside.bot.db.repositories.PlayerStatsBatch.PlayerDelta;
 import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Field;
 import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.ReturnDocument;
 import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
 import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentWriter;
+import org.bson.Document;
+import org.bson.codecs.EncoderContext;
 import org.bson.conversions.Bson;
 import org.bson.types.ObjectId;
 import org.slf4j.Logger;
@@ -13,6 +28,10 @@ import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Pattern;
+import java.util.function.BiConsumer;
 
 /**
  * Repository for Player collection
@@ -20,8 +39,15 @@ import java.util.List;
 public class PlayerRepository {
     private static final Logger logger = LoggerFactory.getLogger(PlayerRepository.class);
     private static final String COLLECTION_NAME = "players";
+    // IDs of the unfinished transfers that have changed a player's wallet; see EconomyTransfer
+    public static final String PENDING_TRANSFERS = "pendingTransfers";
+    
+    // Orders of the top player queries
+    public static final Bson TOP_KILLS_SORT = Sorts.descending("kills");
+    public static final Bson TOP_WEAPON_SORT = Sorts.descending("mostUsedWeaponKills");
     
     private MongoCollection<Player> collection;
+    private com.mongodb.reactivestreams.client.MongoCollection<Player> reactiveCollection;
     
     public PlayerRepository() {
         try {
@@ -45,12 +71,27 @@ public class PlayerRepository {
         return collection;
     }
     
+    private com.mongodb.reactivestreams.client.MongoCollection<Player> getReactiveCollection() {
+        if (reactiveCollection == null) {
+            reactiveCollection = MongoDBConnection.getInstance().getReactiveDatabase()
+                    .getCollection(COLLECTION_NAME, Player.class);
+        }
+        return reactiveCollection;
+    }
+    
+    /**
+     * Get the collection decoding documents as summaries; pair every read with {@link PlayerSummary#PROJECTION}
+     */
+    private MongoCollection<PlayerSummary> getSummaryCollection() {
+        return getCollection().withDocumentClass(PlayerSummary.class);
+    }
+    
     /**
      * Find a player by ID
      */
     public Player findByPlayerId(String playerId) {
         try {
-            return getCollection().find(Filters.eq("playerId", playerId)).first();
+            return getCollection().find(playerIdFilter(playerId)).first();
         } catch (Exception e) {
             logger.error("Error finding player by ID: {}", playerId, e);
             return null;
@@ -69,7 +110,7 @@ public class PlayerRepository {
      */
     public Player findByName(String name) {
         try {
-            return getCollection().find(Filters.eq("name", name)).first();
+            return getCollection().find(nameFilter(name)).first();
         } catch (Exception e) {
             logger.error("Error finding player by name: {}", name, e);
             return null;
@@ -93,8 +134,7 @@ public class PlayerRepository {
      */
     public List<Player> findByNameLike(String name) {
         try {
-            Bson filter = Filters.regex("name", name, "i"); // Case-insensitive regex
-            return getCollection().find(filter).into(new ArrayList<>());
+            return getCollection().find(nameMatchesFilter(name)).into(new ArrayList<>());
         } catch (Exception e) {
             logger.error("Error finding players by name like: {}", name, e);
             return new ArrayList<>();
@@ -107,7 +147,7 @@ public class PlayerRepository {
     public List<Player> getTopPlayersByKills(int limit) {
         try {
             return getCollection().find()
-                    .sort(Sorts.descending("kills"))
+                    .sort(TOP_KILLS_SORT)
                     .limit(limit)
                     .into(new ArrayList<>());
         } catch (Exception e) {
@@ -118,30 +158,71 @@ public class PlayerRepository {
     
     /**
      * Get top players by KD ratio (with minimum kills)
+     * The ratio is computed on the server so the ranking covers every qualifying player.
      */
     public List<Player> getTopPlayersByKD(int limit, int minKills) {
         try {
-            Bson filter = Filters.gte("kills", minKills);
-            return getCollection().find(filter)
-                    .sort(Sorts.descending("kills"))
-                    .limit(limit)
-                    .map(player -> {
-                        // Sort in Java since MongoDB can't sort by computed KD ratio
-                        return player;
-                    })
-                    .into(new ArrayList<>())
-                    .stream()
-                    .sorted((p1, p2) -> Double.compare(p2.getKdRatio(), p1.getKdRatio()))
-                    .limit(limit)
-                    .toList();
+            return getCollection().aggregate(topByKdPipeline(limit, minKills)).into(new ArrayList<>());
         } catch (Exception e) {
             logger.error("Error getting top players by KD", e);
             return new ArrayList<>();
         }
     }
     
+    private static List<Bson> topByKdPipeline(int limit, int minKills) {
+        Document kd = new Document("$cond", List.of(
+                new Document("$gt", List.of("$deaths", 0)),
+                new Document("$divide", List.of("$kills", "$deaths")),
+                "$kills"));
+        return List.of(
+                Aggregates.match(minKillsFilter(minKills)),
+                Aggregates.addFields(new Field<>("kd", kd)),
+                Aggregates.sort(Sorts.descending("kd", "kills")),
+                Aggregates.limit(limit),
+                Aggregates.project(Projections.exclude("kd")));
+    }
+    
+    /**
+     * Find a player's summary by name, preferring an exact match over one that differs only in case
+     * @return The summary, or null if no player has the name
+     */
+    public PlayerSummary findSummaryByName(String name) {
+        try {
+            PlayerSummary exact = getSummaryCollection().find(nameFilter(name))
+                    .projection(PlayerSummary.PROJECTION)
+                    .first();
+            if (exact != null) {
+                return exact;
+            }
+            return getSummaryCollection().find(nameMatchesFilter("^" + Pattern.quote(name) + "$"))
+                    .projection(PlayerSummary.PROJECTION)
+                    .first();
+        } catch (Exception e) {
+            logger.error("Error finding player summary by name: {}", name, e);
+            return null;
+        }
+    }
+    
+    /**
+     * Find players by partial name match (case insensitive), returning only their summaries
+     */
+    public List<PlayerSummary> findSummariesByNameLike(String name, int limit) {
+        try {
+            return getSummaryCollection().find(nameMatchesFilter(Pattern.quote(name)))
+                    .projection(PlayerSummary.PROJECTION)
+                    .limit(limit)
+                    .into(new ArrayList<>());
+        } catch (Exception e) {
+            logger.error("Error finding player summaries by name like: {}", name, e);
+            return new ArrayList<>();
+        }
+    }
+    
     /**
      * Save or update a player
+     * An existing player's document is replaced except for its currency and pending transfers, which
+     * only change through {@link #updateCurrency}, so saving a player read before a balance change
+     * cannot put the old balance back.
      */
     public void save(Player player) {
         try {
@@ -151,8 +232,16 @@ public class PlayerRepository {
                 getCollection().insertOne(player);
                 logger.debug("Inserted new player: {}", player.getName());
             } else {
+                BsonDocument document = new BsonDocument();
+                getCollection().getCodecRegistry().get(Player.class)
+                        .encode(new BsonDocumentWriter(document), player, EncoderContext.builder().build());
+                document.remove("currency");
+                
+                // $literal keeps values such as names starting with $ from being read as field paths
                 Bson filter = Filters.eq("_id", player.getId());
-                getCollection().replaceOne(filter, player);
+                Document kept = new Document("currency", "$currency").append(PENDING_TRANSFERS, "$" + PENDING_TRANSFERS);
+                getCollection().updateOne(filter, List.of(new Document("$replaceWith",
+                        new Document("$mergeObjects", List.of(new Document("$literal", document), kept)))));
                 logger.debug("Updated player: {}", player.getName());
             }
         } catch (Exception e) {
@@ -160,12 +249,57 @@ public class PlayerRepository {
         }
     }
     
+    /**
+     * Atomically change a player's currency if a condition holds
+     * The condition and the change are applied as one update on the server, so a check such as
+     * "the wallet covers the bet" cannot be raced by another update to the same player.
+     * Database errors are not caught, so a failed update is never mistaken for a failed condition.
+     * @param condition Extra filter on the player document, or null for none
+     * @param update The change to apply to the currency fields
+     * @return The currency after the change, or null if the player does not exist or the condition failed
+     * @throws com.mongodb.MongoException If the update could not be made
+     */
+    public Currency updateCurrency(String playerId, Bson condition, Bson update) {
+        Bson filter = condition != null
+                ? Filters.and(playerIdFilter(playerId), condition)
+                : playerIdFilter(playerId);
+        Player player = getCollection().findOneAndUpdate(filter,
+                Updates.combine(update, Updates.set("lastUpdated", System.currentTimeMillis())),
+                new FindOneAndUpdateOptions()
+                        .projection(Projections.include("currency"))
+                        .returnDocument(ReturnDocument.AFTER));
+        return player != null ? player.getCurrency() : null;
+    }
+    
+    /**
+     * Check if a player's wallet has been changed by a transfer that is not finished
+     * @throws com.mongodb.MongoException If the player could not be read
+     */
+    public boolean hasPendingTransfer(String playerId, ObjectId transferId) {
+        return getCollection()
+                .find(Filters.and(playerIdFilter(playerId), Filters.eq(PENDING_TRANSFERS, transferId)))
+                .projection(Projections.include("_id"))
+                .first() != null;
+    }
+    
+    /**
+     * Remove a finished transfer from the pending transfers of the players it changed
+     */
+    public void clearPendingTransfer(ObjectId transferId, String... playerIds) {
+        try {
+            getCollection().updateMany(Filters.in("playerId", (Object[]) playerIds),
+                    Updates.pull(PENDING_TRANSFERS, transferId));
+        } catch (Exception e) {
+            logger.error("Error clearing transfer {} from players", transferId, e);
+        }
+    }
+    
     /**
      * Update player kill stats
      */
     public void incrementKills(String playerId, int amount) {
         try {
-            Bson filter = Filters.eq("playerId", playerId);
+            Bson filter = playerIdFilter(playerId);
             Bson update = Updates.combine(
                     Updates.inc("kills", amount),
                     Updates.set("lastUpdated", System.currentTimeMillis())
@@ -181,7 +315,7 @@ public class PlayerRepository {
      */
     public void incrementDeaths(String playerId, int amount) {
         try {
-            Bson filter = Filters.eq("playerId", playerId);
+            Bson filter = playerIdFilter(playerId);
             Bson update = Updates.combine(
                     Updates.inc("deaths", amount),
                     Updates.set("lastUpdated", System.currentTimeMillis())
@@ -197,7 +331,7 @@ public class PlayerRepository {
      */
     public void incrementSuicides(String playerId, int amount) {
         try {
-            Bson filter = Filters.eq("playerId", playerId);
+            Bson filter = playerIdFilter(playerId);
             Bson update = Updates.combine(
                     Updates.inc("suicides", amount),
                     Updates.set("lastUpdated", System.currentTimeMillis())
@@ -208,13 +342,110 @@ public class PlayerRepository {
         }
     }
     
+    /**
+     * Apply a cycle's worth of stat changes in one round trip
+     * Each player gets a single atomic update that adds to the stored counters, so concurrent
+     * writers cannot lose each other's changes. The update is a pipeline because the most used
+     * weapon and most killed/killed by fields depend on the values already stored.
+     * @return The number of players updated or created, or -1 if the write failed
+     */
+    public int applyStats(PlayerStatsBatch batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        
+        try {
+            int written = BulkUpserts.write(getCollection(), statsUpdates(batch), batch.getMarker() != null);
+            logger.debug("Applied stats for {} players ({} updated or created)", batch.size(), written);
+            return written;
+        } catch (Exception e) {
+            logger.error("Error applying stats for {} players", batch.size(), e);
+            return -1;
+        }
+    }
+    
+    /**
+     * Build the updates of a batch, one per player
+     */
+    private static List<WriteModel<Player>> statsUpdates(PlayerStatsBatch batch) {
+        long now = System.currentTimeMillis();
+        List<WriteModel<Player>> updates = new ArrayList<>(batch.size());
+        for (PlayerDelta delta : batch.getDeltas()) {
+            Document set = statsUpdate(delta, now);
+            if (batch.getMarker() != null) {
+                BulkUpserts.appendMarker(set, batch.getMarker());
+            }
+            updates.add(new UpdateOneModel<>(
+                    BulkUpserts.unapplied(Filters.eq(delta.keyField, delta.keyValue), batch.getMarker()),
+                    List.of(new Document("$set", set)),
+                    new UpdateOptions().upsert(delta.createIfMissing)));
+        }
+        return updates;
+    }
+    
+    /**
+     * Build the $set stage applying one player's changes
+     */
+    private static Document statsUpdate(PlayerDelta delta, long now) {
+        Document set = new Document()
+                .append("kills", add("kills", delta.kills))
+                .append("deaths", add("deaths", delta.deaths))
+                .append("suicides", ifNull("suicides", 0))
+                .append("lastUpdated", now);
+        
+        if (delta.createIfMissing && "name".equals(delta.keyField)) {
+            // Players first seen in the killfeed get an ID generated from their name
+            set.append("playerId", ifNull("playerId",
+                    new Document("$literal", delta.keyValue.toLowerCase().replace(" ", "_") + "_id")));
+        }
+        
+        appendMost(set, "mostUsedWeapon", "mostUsedWeaponKills", delta.weapons);
+        appendMost(set, "mostKilledPlayer", "mostKilledPlayerCount", delta.victims);
+        appendMost(set, "killedByMost", "killedByMostCount", delta.killers);
+        return set;
+    }
+    
+    /**
+     * Track a "most" field the same way as a single kill does: the count grows while the stored
+     * name matches, and an empty field is claimed by this cycle's most frequent name
+     */
+    static void appendMost(Document set, String nameField, String countField, Map<String, Integer> counts) {
+        Map.Entry<String, Integer> top = counts.entrySet().stream()
+                .max(Map.Entry.comparingByValue())
+                .orElse(null);
+        if (top == null) {
+            set.append(nameField, ifNull(nameField, ""));
+            set.append(countField, ifNull(countField, 0));
+            return;
+        }
+        
+        Document matches = new Document("$eq", List.of("$" + nameField, new Document("$literal", top.getKey())));
+        Document empty = new Document("$lte", List.of(ifNull(countField, 0), 0));
+        set.append(countField, cond(matches, add(countField, top.getValue()),
+                cond(empty, top.getValue(), "$" + countField)));
+        set.append(nameField, cond(new Document("$or", List.of(matches, empty)),
+                new Document("$literal", top.getKey()), ifNull(nameField, "")));
+    }
+    
+    private static Document add(String field, int amount) {
+        return new Document("$add", List.of(ifNull(field, 0), amount));
+    }
+    
+    private static Document ifNull(String field, Object fallback) {
+        return new Document("$ifNull", List.of("$" + field, fallback));
+    }
+    
+    private static Document cond(Object condition, Object then, Object otherwise) {
+        return new Document("$cond", List.of(condition, then, otherwise));
+    }
+    
     /**
      * Find a player by Discord ID
      * This method retrieves a player linked to a Discord user ID
      */
     public Player findByDiscordId(String discordId) {
         try {
-            return getCollection().find(Filters.eq("discordId", discordId)).first();
+            return getCollection().find(discordIdFilter(discordId)).first();
         } catch (Exception e) {
             logger.error("Error finding player by Discord ID: {}", discordId, e);
             return null;
@@ -226,7 +457,7 @@ public class PlayerRepository {
      */
     public List<Player> findByFactionId(ObjectId factionId) {
         try {
-            return getCollection().find(Filters.eq("factionId", factionId))
+            return getCollection().find(factionIdFilter(factionId))
                     .into(new ArrayList<>());
         } catch (Exception e) {
             logger.error("Error finding players by faction ID: {}", factionId, e);
@@ -239,7 +470,7 @@ public class PlayerRepository {
      */
     public long countByFactionId(ObjectId factionId) {
         try {
-            return getCollection().countDocuments(Filters.eq("factionId", factionId));
+            return getCollection().countDocuments(factionIdFilter(factionId));
         } catch (Exception e) {
             logger.error("Error counting players by faction ID: {}", factionId, e);
             return 0;
@@ -251,8 +482,8 @@ public class PlayerRepository {
      */
     public List<Player> getTopPlayersByWeapon(String weaponName, int limit) {
         try {
-            return getCollection().find(Filters.eq("mostUsedWeapon", weaponName))
-                    .sort(Sorts.descending("mostUsedWeaponKills"))
+            return getCollection().find(weaponFilter(weaponName))
+                    .sort(TOP_WEAPON_SORT)
                     .limit(limit)
                     .into(new ArrayList<>());
         } catch (Exception e) {
@@ -272,4 +503,136 @@ public class PlayerRepository {
             return 0;
         }
     }
-}
\ No newline at end of file
+    
+    /**
+     * Stream the balance of every player, reading only the player ID and currency
+     * @return The number of players read
+     */
+    public long forEachBalance(BiConsumer<String, Currency> action) {
+        long count = 0;
+        try {
+            for (Player player : getCollection().find()
+                    .projection(Projections.include("playerId", "currency"))
+                    .batchSize(1000)) {
+                action.accept(player.getPlayerId(), player.getCurrency());
+                count++;
+            }
+        } catch (Exception e) {
+            logger.error("Error reading player balances", e);
+        }
+        return count;
+    }
+    
+    /**
+     * Find a player by ID through the reactive driver, without blocking any thread
+     */
+    public CompletableFuture<Player> findByPlayerIdAsync(String playerId) {
+        return MongoDBConnection.getInstance().single(getReactiveCollection().find(playerIdFilter(playerId)).first())
+                .exceptionally(e -> {
+                    logger.error("Error finding player by ID: {}", playerId, e);
+                    return null;
+                });
+    }
+    
+    /**
+     * Find players by partial name match through the reactive driver, without blocking any thread
+     */
+    public CompletableFuture<List<Player>> findByNameLikeAsync(String name) {
+        return MongoDBConnection.getInstance().toList(getReactiveCollection().find(nameMatchesFilter(name)))
+                .exceptionally(e -> {
+                    logger.error("Error finding players by name like: {}", name, e);
+                    return new ArrayList<>();
+                });
+    }
+    
+    /**
+     * Get top players by kills through the reactive driver, without blocking any thread
+     */
+    public CompletableFuture<List<Player>> getTopPlayersByKillsAsync(int limit) {
+        return MongoDBConnection.getInstance().toList(getReactiveCollection().find().sort(TOP_KILLS_SORT).limit(limit))
+                .exceptionally(e -> {
+                    logger.error("Error getting top players by kills", e);
+                    return new ArrayList<>();
+                });
+    }
+    
+    /**
+     * Get top players by K/D ratio through the reactive driver, without blocking any thread
+     */
+    public CompletableFuture<List<Player>> getTopPlayersByKDAsync(int limit, int minKills) {
+        return MongoDBConnection.getInstance().toList(getReactiveCollection().aggregate(topByKdPipeline(limit, minKills)))
+                .exceptionally(e -> {
+                    logger.error("Error getting top players by KD", e);
+                    return new ArrayList<>();
+                });
+    }
+    
+    /**
+     * Apply a batch of stat changes through the reactive driver
+     * @return A future that completes exceptionally if the write failed
+     */
+    public CompletableFuture<Void> applyStatsAsync(PlayerStatsBatch batch) {
+        if (batch.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        
+        return BulkUpserts.writeAsync(getReactiveCollection(), statsUpdates(batch), batch.getMarker() != null)
+                .whenComplete((written, e) -> {
+                    if (e != null) {
+                        logger.error("Error applying stats for {} players", batch.size(), e);
+                    } else {
+                        logger.debug("Applied stats for {} players ({} updated or created)", batch.size(), written);
+                    }
+                })
+                .thenApply(written -> null);
+    }
+    
+    /**
+     * Filter for a player by ID, as used by lookups and stat updates
+     */
+    public static Bson playerIdFilter(String playerId) {
+        return Filters.eq("playerId", playerId);
+    }
+    
+    /**
+     * Filter for a player by exact name
+     */
+    public static Bson nameFilter(String name) {
+        return Filters.eq("name", name);
+    }
+    
+    /**
+     * Filter for players whose name matches a regular expression, ignoring case
+     */
+    public static Bson nameMatchesFilter(String regex) {
+        return Filters.regex("name", regex, "i");
+    }
+    
+    /**
+     * Filter for players with at least a number of kills
+     */
+    public static Bson minKillsFilter(int minKills) {
+        return Filters.gte("kills", minKills);
+    }
+    
+    /**
+     * Filter for a player by linked Discord ID
+     */
+    public static Bson discordIdFilter(String discordId) {
+        return Filters.eq("discordId", discordId);
+    }
+    
+    /**
+     * Filter for the members of a faction
+     */
+    public static Bson factionIdFilter(ObjectId factionId) {
+        return Filters.eq("factionId", factionId);
+    }
+    
+    /**
+     * Filter for the players whose most used weapon is a weapon
+     */
+    public static Bson weaponFilter(String weaponName) {
+        return Filters.eq("mostUsedWeapon", weaponName);
+    }
+}
@@ -0,0 +1,104 @@
+package com.deadside.bot.db.repositories;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Player stat changes collected over one processing cycle
+ * Changes are aggregated per player in memory and written by
+ * {@link PlayerRepository#applyStats(PlayerStatsBatch)} as one bulk write of atomic updates.
+ */
+public class PlayerStatsBatch {
+    private final Map<String, PlayerDelta> deltas = new LinkedHashMap<>();
+    private final String marker;
+    
+    /**
+     * Create a batch that applies its changes every time it is written
+     */
+    public PlayerStatsBatch() {
+        this(null);
+    }
+    
+    /**
+     * Create a batch that changes each row at most once
+     * @param marker Key of the batch, kept on every row it changes so that writing it again skips those rows
+     */
+    public PlayerStatsBatch(String marker) {
+        this.marker = marker;
+    }
+    
+    /**
+     * Record a kill between players identified by in-game name
+     * Players that do not exist yet are created, as the killfeed has no player IDs.
+     */
+    public void recordKillByName(String killer, String victim, String weapon) {
+        PlayerDelta killerDelta = delta("name", killer, true);
+        killerDelta.kills++;
+        killerDelta.weapons.merge(weapon, 1, Integer::sum);
+        killerDelta.victims.merge(victim, 1, Integer::sum);
+        
+        PlayerDelta victimDelta = delta("name", victim, true);
+        victimDelta.deaths++;
+        victimDelta.killers.merge(killer, 1, Integer::sum);
+    }
+    
+    /**
+     * Record a kill between players identified by Deadside ID
+     * Players that do not exist yet are left alone until they are created elsewhere.
+     */
+    public void recordKillById(String killerId, String victimId) {
+        delta("playerId", killerId, false).kills++;
+        delta("playerId", victimId, false).deaths++;
+    }
+    
+    /**
+     * Check if no changes have been recorded
+     */
+    public boolean isEmpty() {
+        return deltas.isEmpty();
+    }
+    
+    /**
+     * Get the number of players with recorded changes
+     */
+    public int size() {
+        return deltas.size();
+    }
+    
+    /**
+     * Get the key kept on the rows this batch changes, or null if it has none
+     */
+    String getMarker() {
+        return marker;
+    }
+    
+    Collection<PlayerDelta> getDeltas() {
+        return deltas.values();
+    }
+    
+    private PlayerDelta delta(String field, String value, boolean createIfMissing) {
+        return deltas.computeIfAbsent(field + ":" + value, key -> new PlayerDelta(field, value, createIfMissing));
+    }
+    
+    /**
+     * Aggregated changes for one player
+     */
+    static final class PlayerDelta {
+        final String keyField;
+        final String keyValue;
+        final boolean createIfMissing;
+        int kills;
+        int deaths;
+        final Map<String, Integer> weapons = new HashMap<>();
+        final Map<String, Integer> victims = new HashMap<>();
+        final Map<String, Integer> killers = new HashMap<>();
+        
+        private PlayerDelta(String keyField, String keyValue, boolean createIfMissing) {
+            this.keyField = keyField;
+            this.keyValue = keyValue;
+            this.createIfMissing = createIfMissing;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.deadside.bot.db.repositories;
+
+import com.deadside.bot.db.models.LeaderboardEntry;
+import com.deadside.bot.db.repositories.LeaderboardBatch.RowDelta;
+import com.deadside.bot.db.repositories.LeaderboardRepository.Type;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory ranks of every player within each guild and server
+ * Each scope keeps its players' kills and deaths and one order-statistic tree per ranking, so a
+ * player's rank is a count of the values above theirs in O(log n), for any player however far down.
+ * The index is loaded from the leaderboard rows at startup and then kept current by
+ * {@link LeaderboardStore#apply(LeaderboardBatch)} with the same changes it writes; when a write
+ * fails part way, the players it touched are set back to their stored rows.
+ */
+public class RankIndex {
+    private static final Logger logger = LoggerFactory.getLogger(RankIndex.class);
+    
+    // Kills a player needs to be ranked
+    public static final int MIN_KILLS = 5;
+    
+    private volatile Map<String, Scope> scopes = new ConcurrentHashMap<>();
+    
+    /**
+     * Replace the index with the stored player rows
+     * @return True if every row was read
+     */
+    public boolean load(LeaderboardRepository repository) {
+        try {
+            long start = System.currentTimeMillis();
+            Map<String, Scope> loaded = new ConcurrentHashMap<>();
+            long[] rows = {0};
+            repository.forEachPlayerRow(entry -> {
+                loaded.computeIfAbsent(LeaderboardBatch.scopeKey(entry.getGuildId(), entry.getServer()),
+                        key -> new Scope()).add(entry.getName(), entry.getKills(), entry.getDeaths());
+                rows[0]++;
+            });
+            scopes = loaded;
+            logger.info("Loaded ranks of {} player rows in {} scopes in {} ms", rows[0], loaded.size(),
+                    System.currentTimeMillis() - start);
+            return true;
+        } catch (Exception e) {
+            logger.error("Error loading player ranks", e);
+            return false;
+        }
+    }
+    
+    /**
+     * Add written player stat changes
+     */
+    void apply(Collection<RowDelta> deltas) {
+        for (RowDelta delta : deltas) {
+            add(delta.guildId, delta.server, delta.name, delta.kills, delta.deaths);
+        }
+    }
+    
+    /**
+     * Add kills and deaths to a player's stats within a guild or server
+     */
+    void add(long guildId, String server, String name, int kills, int deaths) {
+        scopes.computeIfAbsent(LeaderboardBatch.scopeKey(guildId, server), key -> new Scope())
+                .add(name, kills, deaths);
+    }
+    
+    /**
+     * Set a player's stats within a guild or server to their stored values
+     * @param row The player's stored row, or null if the player has none
+     */
+    void set(long guildId, String server, String name, LeaderboardEntry row) {
+        scopes.computeIfAbsent(LeaderboardBatch.scopeKey(guildId, server), key -> new Scope())
+                .set(name, row != null ? row.getKills() : 0, row != null ? row.getDeaths() : 0);
+    }
+    
+    /**
+     * Get the 1-based rank of a value among the ranked players of a guild or server
+     * @param server The server name, or {@link LeaderboardEntry#ALL_SERVERS} for the whole guild
+     * @param value The player's kills, K/D or score
+     */
+    public int getRank(long guildId, String server, Type type, double value) {
+        Scope scope = scopes.get(LeaderboardBatch.scopeKey(guildId, server));
+        return scope != null ? scope.countAbove(type, value) + 1 : 1;
+    }
+    
+    /**
+     * Get the number of ranked players in a guild or server
+     */
+    public int getRankedCount(long guildId, String server) {
+        Scope scope = scopes.get(LeaderboardBatch.scopeKey(guildId, server));
+        return scope != null ? scope.size() : 0;
+    }
+    
+    /**
+     * Get the share of ranked players at or above a rank, as a percentage from 1 to 100
+     */
+    public static int getPercentile(int rank, int rankedCount) {
+        if (rankedCount <= 0) {
+            return 100;
+        }
+        return Math.max(1, Math.min(100, (int) ((double) rank / rankedCount * 100)));
+    }
+    
+    /**
+     * Kills and K/D are ranked as stored on the leaderboard rows; score matches its definition there
+     */
+    static double kd(int kills, int deaths) {
+        return deaths > 0 ? (double) kills / deaths : kills;
+    }
+    
+    static int score(int kills, int deaths) {
+        return Math.max(0, kills * 10 - deaths * 5);
+    }
+    
+    /**
+     * The players of one guild or server; guarded by its own monitor
+     */
+    private static final class Scope {
+        private final Map<String, int[]> players = new HashMap<>();
+        private final RankTree kills = new RankTree();
+        private final RankTree kd = new RankTree();
+        private final RankTree score = new RankTree();
+        
+        synchronized void add(String name, int addedKills, int addedDeaths) {
+            int[] stats = players.get(name);
+            if (stats == null) {
+                set(name, addedKills, addedDeaths);
+            } else {
+                set(name, stats[0] + addedKills, stats[1] + addedDeaths);
+            }
+        }
+        
+        synchronized void set(String name, int newKills, int newDeaths) {
+            int[] stats = players.get(name);
+            if (stats == null) {
+                stats = new int[2];
+                players.put(name, stats);
+            } else if (stats[0] >= MIN_KILLS) {
+                kills.remove(stats[0]);
+                kd.remove(kd(stats[0], stats[1]));
+                score.remove(score(stats[0], stats[1]));
+            }
+            
+            stats[0] = newKills;
+            stats[1] = newDeaths;
+            if (stats[0] >= MIN_KILLS) {
+                kills.add(stats[0]);
+                kd.add(kd(stats[0], stats[1]));
+                score.add(score(stats[0], stats[1]));
+            }
+        }
+        
+        synchronized int countAbove(Type type, double value) {
+            return switch (type) {
+                case KILLS -> kills.countAbove(value);
+                case KD -> kd.countAbove(value);
+                case SCORE -> score.countAbove(value);
+                case WEAPONS -> throw new IllegalArgumentException("Players are not ranked by weapon");
+            };
+        }
+        
+        synchronized int size() {
+            return kills.size();
+        }
+    }
+}
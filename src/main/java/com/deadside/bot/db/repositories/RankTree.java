@@ -0,0 +1,162 @@
+package com.deadside.bot.db.repositories;
+
+/**
+ * Order-statistic multiset of values
+ * A treap whose nodes hold a distinct value with its multiplicity and the number of values in their
+ * subtree, so adding, removing and counting the values above a value each take O(log n) expected time.
+ * Not thread-safe.
+ */
+final class RankTree {
+    private Node root;
+    private int seed = 0x2545F491;
+    
+    /**
+     * Add one occurrence of a value
+     */
+    void add(double value) {
+        root = add(root, value);
+    }
+    
+    /**
+     * Remove one occurrence of a value, if there is one
+     */
+    void remove(double value) {
+        root = remove(root, value);
+    }
+    
+    /**
+     * Get the number of values, counting repeats
+     */
+    int size() {
+        return size(root);
+    }
+    
+    /**
+     * Count the values strictly greater than a value
+     */
+    int countAbove(double value) {
+        int count = 0;
+        Node node = root;
+        while (node != null) {
+            if (Double.compare(node.value, value) > 0) {
+                count += node.count + size(node.right);
+                node = node.left;
+            } else {
+                node = node.right;
+            }
+        }
+        return count;
+    }
+    
+    private Node add(Node node, double value) {
+        if (node == null) {
+            return new Node(value, nextPriority());
+        }
+        
+        int comparison = Double.compare(value, node.value);
+        if (comparison == 0) {
+            node.count++;
+        } else if (comparison < 0) {
+            node.left = add(node.left, value);
+            if (node.left.priority > node.priority) {
+                node = rotateRight(node);
+            }
+        } else {
+            node.right = add(node.right, value);
+            if (node.right.priority > node.priority) {
+                node = rotateLeft(node);
+            }
+        }
+        update(node);
+        return node;
+    }
+    
+    private Node remove(Node node, double value) {
+        if (node == null) {
+            return null;
+        }
+        
+        int comparison = Double.compare(value, node.value);
+        if (comparison < 0) {
+            node.left = remove(node.left, value);
+        } else if (comparison > 0) {
+            node.right = remove(node.right, value);
+        } else if (node.count > 1) {
+            node.count--;
+        } else {
+            return merge(node.left, node.right);
+        }
+        update(node);
+        return node;
+    }
+    
+    /**
+     * Join two treaps, every value of the first being below every value of the second
+     */
+    private static Node merge(Node low, Node high) {
+        if (low == null) {
+            return high;
+        }
+        if (high == null) {
+            return low;
+        }
+        if (low.priority > high.priority) {
+            low.right = merge(low.right, high);
+            update(low);
+            return low;
+        }
+        high.left = merge(low, high.left);
+        update(high);
+        return high;
+    }
+    
+    private static Node rotateRight(Node node) {
+        Node left = node.left;
+        node.left = left.right;
+        update(node);
+        left.right = node;
+        update(left);
+        return left;
+    }
+    
+    private static Node rotateLeft(Node node) {
+        Node right = node.right;
+        node.right = right.left;
+        update(node);
+        right.left = node;
+        update(right);
+        return right;
+    }
+    
+    private static void update(Node node) {
+        node.size = node.count + size(node.left) + size(node.right);
+    }
+    
+    private static int size(Node node) {
+        return node != null ? node.size : 0;
+    }
+    
+    /**
+     * Xorshift priorities; the treap only needs them to be independent of the values
+     */
+    private int nextPriority() {
+        seed ^= seed << 13;
+        seed ^= seed >>> 17;
+        seed ^= seed << 5;
+        return seed;
+    }
+    
+    private static final class Node {
+        private final double value;
+        private final int priority;
+        private int count = 1;
+        private int size = 1;
+        private Node left;
+        private Node right;
+        
+        private Node(double value, int priority) {
+            this.value = value;
+            this.priority = priority;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.deadside.bot.db.repositories;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per-player weapon kills collected over one processing cycle
+ * Kills are aggregated per guild, player and weapon in memory and written by
+ * {@link WeaponStatsRepository#apply(WeaponStatsBatch)} as one bulk write of increments.
+ */
+public class WeaponStatsBatch {
+    private final Map<String, WeaponDelta> deltas = new LinkedHashMap<>();
+    private final String marker;
+    
+    /**
+     * Create a batch that applies its changes every time it is written
+     */
+    public WeaponStatsBatch() {
+        this(null);
+    }
+    
+    /**
+     * Create a batch that changes each row at most once
+     * @param marker Key of the batch, kept on every row it changes so that writing it again skips those rows
+     */
+    public WeaponStatsBatch(String marker) {
+        this.marker = marker;
+    }
+    
+    /**
+     * Record a kill with a weapon
+     * @param distance The kill distance in meters
+     */
+    public void recordKill(long guildId, String player, String weapon, long distance) {
+        recordKills(guildId, player, weapon, 1, Math.max(0, distance), distance);
+    }
+    
+    /**
+     * Record a number of kills with a weapon
+     * @param totalDistance The sum of the kill distances in meters
+     * @param longestKill The longest of the kill distances in meters
+     */
+    public void recordKills(long guildId, String player, String weapon, int kills, long totalDistance, long longestKill) {
+        if (player == null || weapon == null || weapon.isEmpty()) {
+            return;
+        }
+        WeaponDelta delta = deltas.computeIfAbsent(guildId + ":" + player + ":" + weapon,
+                key -> new WeaponDelta(guildId, player, weapon));
+        delta.kills += kills;
+        delta.totalDistance += totalDistance;
+        delta.longestKill = Math.max(delta.longestKill, longestKill);
+    }
+    
+    /**
+     * Check if no kills have been recorded
+     */
+    public boolean isEmpty() {
+        return deltas.isEmpty();
+    }
+    
+    /**
+     * Get the number of player and weapon pairs with recorded kills
+     */
+    public int size() {
+        return deltas.size();
+    }
+    
+    /**
+     * Get the key kept on the rows this batch changes, or null if it has none
+     */
+    String getMarker() {
+        return marker;
+    }
+    
+    Collection<WeaponDelta> getDeltas() {
+        return deltas.values();
+    }
+    
+    /**
+     * Aggregated kills of one player with one weapon
+     */
+    static final class WeaponDelta {
+        final long guildId;
+        final String player;
+        final String weapon;
+        int kills;
+        long totalDistance;
+        long longestKill;
+        
+        private WeaponDelta(long guildId, String player, String weapon) {
+            this.guildId = guildId;
+            this.player = player;
+            this.weapon = weapon;
+        }
+    }
+}
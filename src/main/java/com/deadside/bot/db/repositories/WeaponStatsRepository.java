@@ -0,0 +1,240 @@
+package com.deadside.bot.db.repositories;
+
+import com.deadside.bot.db.MongoDBConnection;
+import com.deadside.bot.db.models.WeaponStatsEntry;
+import com.deadside.bot.db.repositories.WeaponStatsBatch.WeaponDelta;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Accumulators;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import org.bson.conversions.Bson;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Repository for per-player weapon statistics
+ * One document per guild, player and weapon holds the player's kills with the weapon and their
+ * distances. Documents are indexed by weapon and by player, so the top players with a weapon and a
+ * player's weapon breakdown are each one indexed query.
+ */
+public class WeaponStatsRepository {
+    private static final Logger logger = LoggerFactory.getLogger(WeaponStatsRepository.class);
+    public static final String COLLECTION_NAME = "weapon_stats";
+    
+    // Orders of the weapon and player breakdowns
+    public static final Bson KILLS_SORT = Sorts.descending("kills");
+    public static final Bson LONGEST_KILL_SORT = Sorts.descending("longestKill");
+    
+    private MongoCollection<WeaponStatsEntry> collection;
+    private com.mongodb.reactivestreams.client.MongoCollection<WeaponStatsEntry> reactiveCollection;
+    
+    private MongoCollection<WeaponStatsEntry> getCollection() {
+        if (collection == null) {
+            collection = MongoDBConnection.getInstance().getDatabase()
+                    .getCollection(COLLECTION_NAME, WeaponStatsEntry.class);
+        }
+        return collection;
+    }
+    
+    private com.mongodb.reactivestreams.client.MongoCollection<WeaponStatsEntry> getReactiveCollection() {
+        if (reactiveCollection == null) {
+            reactiveCollection = MongoDBConnection.getInstance().getReactiveDatabase()
+                    .getCollection(COLLECTION_NAME, WeaponStatsEntry.class);
+        }
+        return reactiveCollection;
+    }
+    
+    /**
+     * Write a batch of weapon kills
+     * @return True if the write was acknowledged
+     */
+    public boolean apply(WeaponStatsBatch batch) {
+        if (batch.isEmpty()) {
+            return true;
+        }
+        
+        try {
+            BulkUpserts.write(getCollection(), updates(batch), batch.getMarker() != null);
+            logger.debug("Applied {} weapon stat changes", batch.size());
+            return true;
+        } catch (Exception e) {
+            logger.error("Error applying {} weapon stat changes", batch.size(), e);
+            return false;
+        }
+    }
+    
+    /**
+     * Write a batch of weapon kills through the reactive driver
+     * @return A future that completes exceptionally if the write failed
+     */
+    public CompletableFuture<Void> applyAsync(WeaponStatsBatch batch) {
+        if (batch.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        
+        return BulkUpserts.writeAsync(getReactiveCollection(), updates(batch), batch.getMarker() != null)
+                .whenComplete((written, e) -> {
+                    if (e != null) {
+                        logger.error("Error applying {} weapon stat changes", batch.size(), e);
+                    } else {
+                        logger.debug("Applied {} weapon stat changes", batch.size());
+                    }
+                })
+                .thenApply(written -> null);
+    }
+    
+    /**
+     * Build the increments of a batch, one upsert per player and weapon
+     */
+    private static List<WriteModel<WeaponStatsEntry>> updates(WeaponStatsBatch batch) {
+        long now = System.currentTimeMillis();
+        UpdateOptions upsert = new UpdateOptions().upsert(true);
+        List<WriteModel<WeaponStatsEntry>> updates = new ArrayList<>(batch.size());
+        for (WeaponDelta delta : batch.getDeltas()) {
+            List<Bson> changes = new ArrayList<>(5);
+            changes.add(Updates.inc("kills", delta.kills));
+            changes.add(Updates.inc("totalDistance", delta.totalDistance));
+            changes.add(Updates.max("longestKill", delta.longestKill));
+            changes.add(Updates.set("lastUpdated", now));
+            if (batch.getMarker() != null) {
+                changes.add(BulkUpserts.markApplied(batch.getMarker()));
+            }
+            updates.add(new UpdateOneModel<>(
+                    BulkUpserts.unapplied(rowFilter(delta.guildId, delta.player, delta.weapon), batch.getMarker()),
+                    Updates.combine(changes),
+                    upsert));
+        }
+        return updates;
+    }
+    
+    /**
+     * Get the players with the most kills with a weapon
+     */
+    public List<WeaponStatsEntry> findTopPlayers(long guildId, String weapon, int limit) {
+        try {
+            return getCollection().find(weaponFilter(guildId, weapon))
+                    .sort(KILLS_SORT)
+                    .limit(limit)
+                    .into(new ArrayList<>());
+        } catch (Exception e) {
+            logger.error("Error finding top players for weapon: {}", weapon, e);
+            return new ArrayList<>();
+        }
+    }
+    
+    /**
+     * Get a player's kills with each weapon, most used first
+     * @param limit The maximum number of weapons, or 0 for all of them
+     */
+    public List<WeaponStatsEntry> findByPlayer(long guildId, String player, int limit) {
+        try {
+            return getCollection().find(playerFilter(guildId, player))
+                    .sort(KILLS_SORT)
+                    .limit(limit)
+                    .into(new ArrayList<>());
+        } catch (Exception e) {
+            logger.error("Error finding weapon stats for player: {}", player, e);
+            return new ArrayList<>();
+        }
+    }
+    
+    /**
+     * Get the player with the longest kill with a weapon
+     * @return The player's stats with the weapon, or null if nobody has killed with it
+     */
+    public WeaponStatsEntry findLongestKill(long guildId, String weapon) {
+        try {
+            return getCollection().find(weaponFilter(guildId, weapon))
+                    .sort(LONGEST_KILL_SORT)
+                    .limit(1)
+                    .first();
+        } catch (Exception e) {
+            logger.error("Error finding longest kill for weapon: {}", weapon, e);
+            return null;
+        }
+    }
+    
+    /**
+     * Get a weapon's totals across all players in a guild
+     * @return The totals with no player set, or null if nobody has killed with the weapon
+     */
+    public WeaponStatsEntry findWeaponTotals(long guildId, String weapon) {
+        try {
+            return getCollection().aggregate(List.of(
+                    Aggregates.match(weaponFilter(guildId, weapon)),
+                    Aggregates.group(weapon,
+                            Accumulators.sum("kills", "$kills"),
+                            Accumulators.sum("totalDistance", "$totalDistance"),
+                            Accumulators.max("longestKill", "$longestKill")),
+                    Aggregates.project(Projections.fields(
+                            Projections.excludeId(),
+                            Projections.computed("weapon", "$_id"),
+                            Projections.include("kills", "totalDistance", "longestKill")))
+            )).first();
+        } catch (Exception e) {
+            logger.error("Error finding totals for weapon: {}", weapon, e);
+            return null;
+        }
+    }
+    
+    /**
+     * Check if there are no weapon stats
+     */
+    public boolean isEmpty() {
+        try {
+            return getCollection().find().limit(1).first() == null;
+        } catch (Exception e) {
+            logger.error("Error checking weapon stats", e);
+            return false;
+        }
+    }
+    
+    /**
+     * Build the weapon stats from the stored kill records if there are none yet
+     */
+    public void rebuildIfEmpty(KillRecordRepository killRecordRepository) {
+        try {
+            if (!isEmpty()) {
+                return;
+            }
+            
+            GuildRebuild.run("weapon stats", killRecordRepository, WeaponStatsBatch::new,
+                    (batch, tally) -> batch.recordKills(tally.getGuildId(), tally.getKiller(), tally.getWeapon(),
+                            tally.getKills(), tally.getTotalDistance(), tally.getLongestKill()),
+                    this::apply);
+        } catch (Exception e) {
+            logger.error("Error building weapon stats from kill records", e);
+        }
+    }
+    
+    /**
+     * Filter for one player's stats with one weapon
+     */
+    public static Bson rowFilter(long guildId, String player, String weapon) {
+        return Filters.and(Filters.eq("guildId", guildId), Filters.eq("player", player), Filters.eq("weapon", weapon));
+    }
+    
+    /**
+     * Filter for every player's stats with a weapon
+     */
+    public static Bson weaponFilter(long guildId, String weapon) {
+        return Filters.and(Filters.eq("guildId", guildId), Filters.eq("weapon", weapon));
+    }
+    
+    /**
+     * Filter for a player's stats with every weapon
+     */
+    public static Bson playerFilter(long guildId, String player) {
+        return Filters.and(Filters.eq("guildId", guildId), Filters.eq("player", player));
+    }
+}
@@ -0,0 +1,90 @@
+package com.deadside.bot.db.store;
+
+import org.bson.types.ObjectId;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Storage for the documents of one collection
+ * Repositories read and write their models through this interface, so the same repository runs on
+ * MongoDB or on the embedded local store. Conditions are equality matches on top-level fields, with
+ * MongoDB's semantics: a condition on an array field matches documents whose array contains the value.
+ * @see DocumentStores#open(String, Class, String...)
+ */
+public interface DocumentStore<T> {
+    
+    /**
+     * Find a document by its ID
+     * @return The document, or null if there is none
+     */
+    T findById(ObjectId id);
+    
+    /**
+     * Find the first document matching all conditions
+     * @return The document, or null if none matches
+     */
+    T findOne(Map<String, Object> conditions);
+    
+    /**
+     * Find every document matching all conditions
+     * @param conditions Field values to match, or an empty map for every document
+     */
+    List<T> find(Map<String, Object> conditions);
+    
+    /**
+     * Insert a document, or replace the document with the same ID
+     */
+    void save(ObjectId id, T model);
+    
+    /**
+     * Overwrite the stored document with the same ID, except for some fields
+     * For fields only ever written by {@link #update}, so a model read before such an update does not put
+     * the older values back. Nothing is written if no document has the ID, so a document deleted after the
+     * model was read is not brought back.
+     * @param keptFields Top-level fields that are not written
+     * @return True if a document with the ID was overwritten
+     */
+    boolean save(ObjectId id, T model, Set<String> keptFields);
+    
+    /**
+     * Set fields of the first document matching all conditions, leaving its other fields as they are
+     * @param fields Field values to set, nested fields by dotted path
+     * @return True if a document matched
+     */
+    boolean update(Map<String, Object> conditions, Map<String, Object> fields);
+    
+    /**
+     * Apply several updates in one write, each to the first document matching its conditions
+     * @return The number of updates that matched a document
+     */
+    int updateAll(List<Update> updates);
+    
+    /**
+     * Delete the first document matching all conditions
+     * @return True if a document was deleted
+     */
+    boolean delete(Map<String, Object> conditions);
+    
+    /**
+     * Field values to set on the first document matching some conditions
+     */
+    final class Update {
+        private final Map<String, Object> conditions;
+        private final Map<String, Object> fields;
+        
+        public Update(Map<String, Object> conditions, Map<String, Object> fields) {
+            this.conditions = conditions;
+            this.fields = fields;
+        }
+        
+        public Map<String, Object> getConditions() {
+            return conditions;
+        }
+        
+        public Map<String, Object> getFields() {
+            return fields;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.deadside.bot.db.store;
+
+import com.deadside.bot.config.Config;
+import org.bson.conversions.Bson;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Opens document stores on the configured storage backend
+ * Only the guild config, game server and account link repositories go through a store. Players and the
+ * other collections use MongoDB directly, whatever the backend.
+ */
+public final class DocumentStores {
+    
+    private DocumentStores() {
+        // Utility class
+    }
+    
+    /**
+     * Open a collection on the backend selected by storage.backend
+     * @param indexedFields Fields the local store indexes in memory; MongoDB uses the indexes from IndexManager
+     */
+    public static <T> DocumentStore<T> open(String collectionName, Class<T> modelClass, String... indexedFields) {
+        if (Config.getInstance().isLocalStorageEnabled()) {
+            return LocalStorage.getInstance().open(collectionName, modelClass, List.of(indexedFields));
+        }
+        return new MongoDocumentStore<>(collectionName, modelClass);
+    }
+    
+    /**
+     * Get the MongoDB filter a store runs for a set of conditions
+     */
+    public static Bson mongoFilter(Map<String, Object> conditions) {
+        return MongoDocumentStore.filter(conditions);
+    }
+}
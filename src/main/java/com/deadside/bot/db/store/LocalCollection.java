@@ -0,0 +1,622 @@
+package com.deadside.bot.db.store;
+
+import org.bson.BsonDocument;
+import org.bson.BsonInt64;
+import org.bson.BsonNull;
+import org.bson.BsonValue;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.BsonDocumentCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+/**
+ * One collection of the embedded local store
+ * Documents are held in memory as raw BSON with a hash index per indexed field, so equality lookups
+ * never scan the collection. Every write is appended to the collection's write-ahead log, and forced
+ * to disk when fsync is enabled, before it is applied in memory. Once the log holds enough records the
+ * collection is rewritten as a snapshot and the log is cleared. Opening the collection loads the
+ * snapshot and replays the log; a record left incomplete by a crash is dropped.
+ */
+class LocalCollection {
+    private static final Logger logger = LoggerFactory.getLogger(LocalCollection.class);
+    private static final byte PUT = 'P';
+    private static final byte DELETE = 'D';
+    private static final int RECORD_OVERHEAD = 1 + 4; // Operation byte and CRC
+    
+    private final String name;
+    private final Path snapshotFile;
+    private final Path walFile;
+    private final boolean fsync;
+    private final int compactionRecords;
+    private final boolean created;
+    private final Map<BsonValue, RawBsonDocument> documents = new LinkedHashMap<>();
+    private final Map<String, Map<BsonValue, Set<BsonValue>>> indexes = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final FileChannel wal;
+    private int walRecords;
+    
+    LocalCollection(String name, Path directory, Collection<String> indexedFields, boolean fsync,
+                    int compactionRecords) throws IOException {
+        this.name = name;
+        this.snapshotFile = directory.resolve(name + ".bson");
+        this.walFile = directory.resolve(name + ".wal");
+        this.fsync = fsync;
+        this.compactionRecords = Math.max(1, compactionRecords);
+        for (String field : indexedFields) {
+            indexes.put(field, new HashMap<>());
+        }
+        
+        Files.createDirectories(directory);
+        this.created = !Files.exists(snapshotFile) && !Files.exists(walFile);
+        loadSnapshot();
+        this.wal = FileChannel.open(walFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        replayLog();
+    }
+    
+    /**
+     * Check if the collection had no files on disk when it was opened
+     */
+    boolean isCreated() {
+        return created;
+    }
+    
+    /**
+     * Get the number of documents
+     */
+    int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Get a document by its ID
+     * @return The document, or null if there is none
+     */
+    RawBsonDocument get(BsonValue id) {
+        lock.readLock().lock();
+        try {
+            return documents.get(indexKey(id));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Find the documents matching all conditions
+     * @param limit The maximum number of documents, or 0 for all of them
+     */
+    List<RawBsonDocument> find(Map<String, BsonValue> conditions, int limit) {
+        lock.readLock().lock();
+        try {
+            return select(conditions, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Insert a document, or replace the document with the same ID
+     */
+    void put(RawBsonDocument document) throws IOException {
+        lock.writeLock().lock();
+        try {
+            log(PUT, document);
+            apply(document);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Replace the document with the same ID but keep its stored values of some fields
+     * @return False if there is no document with the ID, in which case nothing is written
+     */
+    boolean replace(RawBsonDocument document, Set<String> keptFields) throws IOException {
+        lock.writeLock().lock();
+        try {
+            RawBsonDocument current = documents.get(indexKey(document.get("_id")));
+            if (current == null) {
+                return false;
+            }
+            
+            BsonDocument merged = document.decode(new BsonDocumentCodec());
+            for (String field : keptFields) {
+                BsonValue value = current.get(field);
+                if (value != null) {
+                    merged.put(field, value);
+                } else {
+                    merged.remove(field);
+                }
+            }
+            document = new RawBsonDocument(merged, new BsonDocumentCodec());
+            
+            log(PUT, document);
+            apply(document);
+            compactIfNeeded();
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Set fields of the first document matching all conditions
+     * @return True if a document matched
+     */
+    boolean update(Map<String, BsonValue> conditions, Map<String, BsonValue> fields) throws IOException {
+        lock.writeLock().lock();
+        try {
+            boolean matched = updateFirst(conditions, fields);
+            if (matched) {
+                sync();
+                compactIfNeeded();
+            }
+            return matched;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Apply several updates, each to the first document matching its conditions
+     * The log is forced to disk once for all of them.
+     * @return The number of updates that matched a document
+     */
+    int updateAll(List<Map<String, BsonValue>> conditions, List<Map<String, BsonValue>> fields) throws IOException {
+        lock.writeLock().lock();
+        try {
+            int matched = 0;
+            for (int i = 0; i < conditions.size(); i++) {
+                if (updateFirst(conditions.get(i), fields.get(i))) {
+                    matched++;
+                }
+            }
+            if (matched > 0) {
+                sync();
+                compactIfNeeded();
+            }
+            return matched;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    private boolean updateFirst(Map<String, BsonValue> conditions, Map<String, BsonValue> fields) throws IOException {
+        RawBsonDocument current = first(conditions);
+        if (current == null) {
+            return false;
+        }
+        
+        BsonDocument updated = current.decode(new BsonDocumentCodec());
+        fields.forEach((path, value) -> setPath(updated, path, value));
+        RawBsonDocument document = new RawBsonDocument(updated, new BsonDocumentCodec());
+        append(PUT, document);
+        apply(document);
+        return true;
+    }
+    
+    /**
+     * Delete the first document matching all conditions
+     * @return True if a document was deleted
+     */
+    boolean delete(Map<String, BsonValue> conditions) throws IOException {
+        lock.writeLock().lock();
+        try {
+            RawBsonDocument current = first(conditions);
+            if (current == null) {
+                return false;
+            }
+            
+            BsonValue id = current.get("_id");
+            log(DELETE, new RawBsonDocument(new BsonDocument("_id", id), new BsonDocumentCodec()));
+            remove(id);
+            compactIfNeeded();
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Load documents copied from another store and write them straight to a snapshot
+     */
+    void importDocuments(Iterable<RawBsonDocument> source) throws IOException {
+        lock.writeLock().lock();
+        try {
+            for (RawBsonDocument document : source) {
+                apply(document);
+            }
+            compact();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Write the collection as a snapshot and close its log
+     */
+    void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            if (walRecords > 0) {
+                compact();
+            }
+            wal.close();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    private RawBsonDocument first(Map<String, BsonValue> conditions) {
+        List<RawBsonDocument> documents = select(conditions, 1);
+        return documents.isEmpty() ? null : documents.get(0);
+    }
+    
+    /**
+     * Select the documents matching all conditions
+     * The candidates come from the indexed condition with the fewest entries, and are only checked
+     * against the other conditions. When no condition is indexed every document is checked.
+     */
+    private List<RawBsonDocument> select(Map<String, BsonValue> conditions, int limit) {
+        BsonValue id = conditions.get("_id");
+        if (id != null) {
+            RawBsonDocument document = documents.get(indexKey(id));
+            return document != null && matches(document, conditions, "_id") ? List.of(document) : List.of();
+        }
+        
+        String indexedField = null;
+        Collection<BsonValue> candidates = null;
+        for (Map.Entry<String, BsonValue> condition : conditions.entrySet()) {
+            Map<BsonValue, Set<BsonValue>> index = indexes.get(condition.getKey());
+            // Documents without the field are not indexed, so a null condition has to scan
+            if (index != null && !condition.getValue().isNull()) {
+                Set<BsonValue> ids = index.getOrDefault(indexKey(condition.getValue()), Set.of());
+                if (candidates == null || ids.size() < candidates.size()) {
+                    indexedField = condition.getKey();
+                    candidates = ids;
+                }
+            }
+        }
+        
+        List<RawBsonDocument> results = new ArrayList<>();
+        if (candidates == null) {
+            for (RawBsonDocument document : documents.values()) {
+                if (matches(document, conditions, null) && results.add(document) && results.size() == limit) {
+                    break;
+                }
+            }
+        } else {
+            for (BsonValue candidate : candidates) {
+                RawBsonDocument document = documents.get(candidate);
+                if (matches(document, conditions, indexedField) && results.add(document) && results.size() == limit) {
+                    break;
+                }
+            }
+        }
+        return results;
+    }
+    
+    private static boolean matches(RawBsonDocument document, Map<String, BsonValue> conditions, String matchedField) {
+        for (Map.Entry<String, BsonValue> condition : conditions.entrySet()) {
+            if (condition.getKey().equals(matchedField)) {
+                continue;
+            }
+            BsonValue expected = indexKey(condition.getValue());
+            BsonValue actual = getPath(document, condition.getKey());
+            if (actual == null || actual.isNull()) {
+                if (!expected.isNull()) {
+                    return false;
+                }
+            } else if (actual.isArray()) {
+                boolean contains = false;
+                for (BsonValue element : actual.asArray()) {
+                    if (indexKey(element).equals(expected)) {
+                        contains = true;
+                        break;
+                    }
+                }
+                if (!contains) {
+                    return false;
+                }
+            } else if (!indexKey(actual).equals(expected)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private void apply(RawBsonDocument document) {
+        BsonValue id = indexKey(document.get("_id"));
+        RawBsonDocument previous = documents.put(id, document);
+        if (previous != null) {
+            unindex(id, previous);
+        }
+        index(id, document);
+    }
+    
+    private void remove(BsonValue id) {
+        BsonValue key = indexKey(id);
+        RawBsonDocument previous = documents.remove(key);
+        if (previous != null) {
+            unindex(key, previous);
+        }
+    }
+    
+    private void index(BsonValue id, RawBsonDocument document) {
+        indexes.forEach((field, index) -> {
+            for (BsonValue value : indexValues(document, field)) {
+                index.computeIfAbsent(value, key -> new LinkedHashSet<>()).add(id);
+            }
+        });
+    }
+    
+    private void unindex(BsonValue id, RawBsonDocument document) {
+        indexes.forEach((field, index) -> {
+            for (BsonValue value : indexValues(document, field)) {
+                Set<BsonValue> ids = index.get(value);
+                if (ids != null) {
+                    ids.remove(id);
+                    if (ids.isEmpty()) {
+                        index.remove(value);
+                    }
+                }
+            }
+        });
+    }
+    
+    private static List<BsonValue> indexValues(RawBsonDocument document, String field) {
+        BsonValue value = document.get(field);
+        if (value == null || value.isNull()) {
+            return List.of();
+        }
+        if (!value.isArray()) {
+            return List.of(indexKey(value));
+        }
+        List<BsonValue> values = new ArrayList<>();
+        for (BsonValue element : value.asArray()) {
+            values.add(indexKey(element));
+        }
+        return values;
+    }
+    
+    /**
+     * Normalize a value for comparison, as MongoDB matches numbers by value whatever their BSON type
+     */
+    static BsonValue indexKey(BsonValue value) {
+        if (value == null) {
+            return BsonNull.VALUE;
+        }
+        if (value.isInt32()) {
+            return new BsonInt64(value.asInt32().getValue());
+        }
+        if (value.isDouble()) {
+            double number = value.asDouble().getValue();
+            if (number == Math.rint(number) && !Double.isInfinite(number)) {
+                return new BsonInt64((long) number);
+            }
+        }
+        return value;
+    }
+    
+    private static BsonValue getPath(BsonDocument document, String path) {
+        int dot = path.indexOf('.');
+        if (dot < 0) {
+            return document.get(path);
+        }
+        BsonValue parent = document.get(path.substring(0, dot));
+        return parent != null && parent.isDocument() ? getPath(parent.asDocument(), path.substring(dot + 1)) : null;
+    }
+    
+    private static void setPath(BsonDocument document, String path, BsonValue value) {
+        int dot = path.indexOf('.');
+        if (dot < 0) {
+            document.put(path, value);
+            return;
+        }
+        String field = path.substring(0, dot);
+        BsonValue parent = document.get(field);
+        if (parent == null || !parent.isDocument()) {
+            parent = new BsonDocument();
+            document.put(field, parent);
+        }
+        setPath(parent.asDocument(), path.substring(dot + 1), value);
+    }
+    
+    private void log(byte operation, RawBsonDocument document) throws IOException {
+        long start = wal.position();
+        append(operation, document);
+        try {
+            sync();
+        } catch (IOException e) {
+            // The write is not applied in memory, so it must not be replayed either
+            walRecords--;
+            truncateTo(start, e);
+        }
+    }
+    
+    private void append(byte operation, RawBsonDocument document) throws IOException {
+        ByteBuffer bytes = document.getByteBuffer().asNIO();
+        ByteBuffer record = ByteBuffer.allocate(RECORD_OVERHEAD + bytes.remaining());
+        record.put(operation).put(bytes);
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), 0, record.position());
+        record.putInt((int) crc.getValue());
+        record.flip();
+        
+        long start = wal.position();
+        try {
+            while (record.hasRemaining()) {
+                wal.write(record);
+            }
+        } catch (IOException e) {
+            truncateTo(start, e);
+        }
+        walRecords++;
+    }
+    
+    /**
+     * Cut the log back to the end of its last complete record after a failed write, then rethrow the failure
+     * Replay stops at the first incomplete record, so a partial record left in place would also drop
+     * every write logged after it.
+     */
+    private void truncateTo(long position, IOException failure) throws IOException {
+        try {
+            wal.truncate(position);
+            wal.position(position);
+        } catch (IOException e) {
+            failure.addSuppressed(e);
+        }
+        throw failure;
+    }
+    
+    private void sync() throws IOException {
+        if (fsync) {
+            wal.force(false);
+        }
+    }
+    
+    private void compactIfNeeded() throws IOException {
+        if (walRecords >= compactionRecords) {
+            compact();
+        }
+    }
+    
+    /**
+     * Rewrite the collection as a snapshot and clear the log
+     * The snapshot is written to a temporary file and moved into place, so a crash leaves either the
+     * old snapshot and the full log or the new snapshot. Replaying the log over the new snapshot
+     * is harmless, as every record holds the whole document.
+     */
+    private void compact() throws IOException {
+        Path temporary = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        try (FileChannel snapshot = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (RawBsonDocument document : documents.values()) {
+                ByteBuffer bytes = document.getByteBuffer().asNIO();
+                while (bytes.hasRemaining()) {
+                    snapshot.write(bytes);
+                }
+            }
+            snapshot.force(true);
+        }
+        Files.move(temporary, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        // The move is only durable once the directory is, and the log must not be cleared before it
+        syncDirectory(snapshotFile.getParent());
+        
+        wal.truncate(0);
+        wal.position(0);
+        wal.force(true);
+        logger.debug("Compacted local collection {} after {} writes ({} documents)", name, walRecords, documents.size());
+        walRecords = 0;
+    }
+    
+    /**
+     * Force a directory's entries to disk
+     * Platforms that cannot open a directory, such as Windows, leave this to the file system.
+     */
+    private static void syncDirectory(Path directory) throws IOException {
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(directory, StandardOpenOption.READ);
+        } catch (AccessDeniedException | UnsupportedOperationException e) {
+            return;
+        }
+        try (channel) {
+            channel.force(true);
+        }
+    }
+    
+    private void loadSnapshot() throws IOException {
+        if (!Files.exists(snapshotFile)) {
+            return;
+        }
+        
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(snapshotFile));
+        while (buffer.remaining() >= 4) {
+            int length = buffer.order(ByteOrder.LITTLE_ENDIAN).getInt(buffer.position());
+            if (length < 5 || length > buffer.remaining()) {
+                throw new IOException("Corrupt snapshot for local collection " + name + " at byte " + buffer.position());
+            }
+            apply(new RawBsonDocument(buffer.array(), buffer.position(), length));
+            buffer.position(buffer.position() + length);
+        }
+    }
+    
+    private void replayLog() throws IOException {
+        long size = wal.size();
+        if (size == 0) {
+            return;
+        }
+        
+        ByteBuffer buffer = ByteBuffer.allocate((int) size);
+        while (buffer.hasRemaining() && wal.read(buffer, buffer.position()) > 0) {
+            // Read the whole log
+        }
+        buffer.flip();
+        
+        int valid = 0;
+        while (buffer.remaining() >= RECORD_OVERHEAD + 4) {
+            int start = buffer.position();
+            byte operation = buffer.get(start);
+            int length = buffer.order(ByteOrder.LITTLE_ENDIAN).getInt(start + 1);
+            buffer.order(ByteOrder.BIG_ENDIAN);
+            if (length < 5 || length > buffer.remaining() - RECORD_OVERHEAD) {
+                break;
+            }
+            CRC32 crc = new CRC32();
+            crc.update(buffer.array(), start, 1 + length);
+            if ((int) crc.getValue() != buffer.getInt(start + 1 + length)) {
+                break;
+            }
+            
+            RawBsonDocument document = new RawBsonDocument(
+                    Arrays.copyOfRange(buffer.array(), start + 1, start + 1 + length));
+            if (operation == PUT) {
+                apply(document);
+            } else if (operation == DELETE) {
+                remove(document.get("_id"));
+            } else {
+                break;
+            }
+            buffer.position(start + RECORD_OVERHEAD + length);
+            valid = buffer.position();
+            walRecords++;
+        }
+        
+        if (valid < size) {
+            logger.warn("Dropping {} bytes of incomplete writes from the log of local collection {}", size - valid, name);
+            wal.truncate(valid);
+            wal.force(true);
+        }
+        wal.position(valid);
+        logger.debug("Replayed {} logged writes for local collection {}", walRecords, name);
+    }
+}
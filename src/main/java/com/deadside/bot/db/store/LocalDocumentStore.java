@@ -0,0 +1,164 @@
+package com.deadside.bot.db.store;
+
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.BsonBoolean;
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.bson.BsonInt64;
+import org.bson.BsonNull;
+import org.bson.BsonObjectId;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.bson.io.BasicOutputBuffer;
+import org.bson.types.ObjectId;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Document store backed by a collection of the embedded local store
+ * Models are converted with the same codecs as for MongoDB, so both stores hold identical documents.
+ */
+class LocalDocumentStore<T> implements DocumentStore<T> {
+    private static final DecoderContext DECODER_CONTEXT = DecoderContext.builder().build();
+    private static final EncoderContext ENCODER_CONTEXT = EncoderContext.builder()
+            .isEncodingCollectibleDocument(true).build();
+    
+    private final LocalCollection collection;
+    private final CodecRegistry registry;
+    private final Codec<T> codec;
+    
+    LocalDocumentStore(LocalCollection collection, Class<T> modelClass, CodecRegistry registry) {
+        this.collection = collection;
+        this.registry = registry;
+        this.codec = registry.get(modelClass);
+    }
+    
+    @Override
+    public T findById(ObjectId id) {
+        return decode(collection.get(new BsonObjectId(id)));
+    }
+    
+    @Override
+    public T findOne(Map<String, Object> conditions) {
+        List<RawBsonDocument> documents = collection.find(toBson(conditions), 1);
+        return documents.isEmpty() ? null : decode(documents.get(0));
+    }
+    
+    @Override
+    public List<T> find(Map<String, Object> conditions) {
+        List<RawBsonDocument> documents = collection.find(toBson(conditions), 0);
+        List<T> models = new ArrayList<>(documents.size());
+        for (RawBsonDocument document : documents) {
+            models.add(decode(document));
+        }
+        return models;
+    }
+    
+    @Override
+    public void save(ObjectId id, T model) {
+        try {
+            collection.put(encode(id, model));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    @Override
+    public boolean save(ObjectId id, T model, Set<String> keptFields) {
+        try {
+            return collection.replace(encode(id, model), keptFields);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    @Override
+    public boolean update(Map<String, Object> conditions, Map<String, Object> fields) {
+        try {
+            return collection.update(toBson(conditions), toBson(fields));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    @Override
+    public int updateAll(List<Update> updates) {
+        List<Map<String, BsonValue>> conditions = new ArrayList<>(updates.size());
+        List<Map<String, BsonValue>> fields = new ArrayList<>(updates.size());
+        for (Update update : updates) {
+            conditions.add(toBson(update.getConditions()));
+            fields.add(toBson(update.getFields()));
+        }
+        try {
+            return collection.updateAll(conditions, fields);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    @Override
+    public boolean delete(Map<String, Object> conditions) {
+        try {
+            return collection.delete(toBson(conditions));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private RawBsonDocument encode(ObjectId id, T model) {
+        BasicOutputBuffer buffer = new BasicOutputBuffer();
+        codec.encode(new BsonBinaryWriter(buffer), model, ENCODER_CONTEXT);
+        RawBsonDocument document = new RawBsonDocument(buffer.toByteArray());
+        if (!new BsonObjectId(id).equals(document.get("_id"))) {
+            throw new IllegalArgumentException("Document ID does not match " + id);
+        }
+        return document;
+    }
+    
+    private T decode(RawBsonDocument document) {
+        // A binary reader over the document's bytes decodes several times faster than RawBsonDocument.asBsonReader()
+        return document != null
+                ? codec.decode(new BsonBinaryReader(document.getByteBuffer().asNIO()), DECODER_CONTEXT)
+                : null;
+    }
+    
+    private Map<String, BsonValue> toBson(Map<String, Object> values) {
+        Map<String, BsonValue> converted = new LinkedHashMap<>();
+        values.forEach((field, value) -> converted.put(field, toBson(value)));
+        return converted;
+    }
+    
+    private BsonValue toBson(Object value) {
+        if (value == null) {
+            return BsonNull.VALUE;
+        } else if (value instanceof BsonValue bson) {
+            return bson;
+        } else if (value instanceof Long number) {
+            return new BsonInt64(number);
+        } else if (value instanceof Integer number) {
+            return new BsonInt32(number);
+        } else if (value instanceof String string) {
+            return new BsonString(string);
+        } else if (value instanceof Boolean bool) {
+            return BsonBoolean.valueOf(bool);
+        } else if (value instanceof ObjectId id) {
+            return new BsonObjectId(id);
+        }
+        // Anything else is converted as MongoDB would convert it in a filter or update
+        BsonDocument wrapper = new Document("value", value).toBsonDocument(BsonDocument.class, registry);
+        return wrapper.get("value");
+    }
+}
@@ -0,0 +1,118 @@
+package com.deadside.bot.db.store;
+
+import com.deadside.bot.db.MongoDBConnection;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Singleton embedded document store kept in a local directory
+ * Each collection is a snapshot file and a write-ahead log, loaded into memory when first opened.
+ * A collection opened for the first time is filled from the MongoDB collection of the same name,
+ * so switching a running bot to local storage keeps its data. It holds the guild configs, game servers
+ * and account links only; the bot still needs MongoDB for everything else.
+ */
+public class LocalStorage {
+    private static final Logger logger = LoggerFactory.getLogger(LocalStorage.class);
+    private static LocalStorage instance;
+    
+    private final Path directory;
+    private final boolean fsync;
+    private final int compactionRecords;
+    private final CodecRegistry codecRegistry = MongoDBConnection.createCodecRegistry();
+    private final Map<String, LocalCollection> collections = new HashMap<>();
+    
+    private LocalStorage(Path directory, boolean fsync, int compactionRecords) {
+        this.directory = directory;
+        this.fsync = fsync;
+        this.compactionRecords = compactionRecords;
+    }
+    
+    /**
+     * Initialize the local store
+     * @param directory The directory holding the collection files
+     * @param fsync Whether every write is forced to disk before it returns
+     * @param compactionRecords Logged writes after which a collection is rewritten as a snapshot
+     */
+    public static synchronized void initialize(Path directory, boolean fsync, int compactionRecords) {
+        if (instance == null) {
+            instance = new LocalStorage(directory, fsync, compactionRecords);
+            logger.info("Using local storage in {} (fsync {})", directory.toAbsolutePath(), fsync ? "on" : "off");
+        }
+    }
+    
+    /**
+     * Get the singleton instance
+     */
+    public static synchronized LocalStorage getInstance() {
+        if (instance == null) {
+            throw new IllegalStateException("Local storage has not been initialized. Call initialize() first.");
+        }
+        return instance;
+    }
+    
+    /**
+     * Open a collection as a document store
+     * @param indexedFields Fields kept in memory-resident hash indexes
+     */
+    public <T> DocumentStore<T> open(String name, Class<T> modelClass, Collection<String> indexedFields) {
+        return new LocalDocumentStore<>(getCollection(name, indexedFields), modelClass, codecRegistry);
+    }
+    
+    synchronized LocalCollection getCollection(String name, Collection<String> indexedFields) {
+        LocalCollection collection = collections.get(name);
+        if (collection == null) {
+            try {
+                long start = System.currentTimeMillis();
+                collection = new LocalCollection(name, directory, indexedFields, fsync, compactionRecords);
+                if (collection.isCreated()) {
+                    importFromMongo(name, collection);
+                }
+                logger.info("Opened local collection {} with {} documents in {} ms",
+                        name, collection.size(), System.currentTimeMillis() - start);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to open local collection " + name, e);
+            }
+            collections.put(name, collection);
+        }
+        return collection;
+    }
+    
+    /**
+     * Copy a collection's documents from MongoDB, if it is connected
+     */
+    private void importFromMongo(String name, LocalCollection collection) throws IOException {
+        try {
+            collection.importDocuments(MongoDBConnection.getInstance().getDatabase()
+                    .getCollection(name, RawBsonDocument.class).find());
+            if (collection.size() > 0) {
+                logger.info("Imported {} documents into local collection {} from MongoDB", collection.size(), name);
+            }
+        } catch (IllegalStateException e) {
+            logger.warn("MongoDB is not connected, local collection {} starts empty", name);
+        }
+    }
+    
+    /**
+     * Write every open collection as a snapshot and close its log
+     */
+    public synchronized void close() {
+        for (Map.Entry<String, LocalCollection> entry : collections.entrySet()) {
+            try {
+                entry.getValue().close();
+            } catch (IOException e) {
+                logger.error("Error closing local collection {}", entry.getKey(), e);
+            }
+        }
+        collections.clear();
+        logger.info("Closed local storage");
+    }
+}
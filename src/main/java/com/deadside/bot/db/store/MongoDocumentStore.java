@@ -0,0 +1,121 @@
+package com.deadside.bot.db.store;
+
+import com.deadside.bot.db.MongoDBConnection;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentWriter;
+import org.bson.codecs.EncoderContext;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Document store backed by a MongoDB collection
+ */
+class MongoDocumentStore<T> implements DocumentStore<T> {
+    private final String collectionName;
+    private final Class<T> modelClass;
+    private MongoCollection<T> collection;
+    
+    MongoDocumentStore(String collectionName, Class<T> modelClass) {
+        this.collectionName = collectionName;
+        this.modelClass = modelClass;
+    }
+    
+    MongoDocumentStore(MongoCollection<T> collection) {
+        this(collection.getNamespace().getCollectionName(), collection.getDocumentClass());
+        this.collection = collection;
+    }
+    
+    /**
+     * Get the MongoDB collection, initializing if needed
+     */
+    private MongoCollection<T> getCollection() {
+        if (collection == null) {
+            collection = MongoDBConnection.getInstance().getDatabase().getCollection(collectionName, modelClass);
+        }
+        return collection;
+    }
+    
+    @Override
+    public T findById(ObjectId id) {
+        return getCollection().find(Filters.eq("_id", id)).first();
+    }
+    
+    @Override
+    public T findOne(Map<String, Object> conditions) {
+        return getCollection().find(filter(conditions)).first();
+    }
+    
+    @Override
+    public List<T> find(Map<String, Object> conditions) {
+        return getCollection().find(filter(conditions)).into(new ArrayList<>());
+    }
+    
+    @Override
+    public void save(ObjectId id, T model) {
+        getCollection().replaceOne(Filters.eq("_id", id), model, MongoDBConnection.UPSERT_OPTION);
+    }
+    
+    @Override
+    public boolean save(ObjectId id, T model, Set<String> keptFields) {
+        BsonDocument document = new BsonDocument();
+        getCollection().getCodecRegistry().get(modelClass)
+                .encode(new BsonDocumentWriter(document), model, EncoderContext.builder().build());
+        
+        // One update of every other field, so the kept fields are never read or written here
+        List<Bson> updates = new ArrayList<>(document.size());
+        document.forEach((field, value) -> {
+            if (!field.equals("_id") && !keptFields.contains(field)) {
+                updates.add(Updates.set(field, value));
+            }
+        });
+        return getCollection().updateOne(Filters.eq("_id", id), Updates.combine(updates)).getMatchedCount() > 0;
+    }
+    
+    @Override
+    public boolean update(Map<String, Object> conditions, Map<String, Object> fields) {
+        return getCollection().updateOne(filter(conditions), set(fields)).getMatchedCount() > 0;
+    }
+    
+    @Override
+    public int updateAll(List<Update> updates) {
+        if (updates.isEmpty()) {
+            return 0;
+        }
+        List<WriteModel<T>> writes = new ArrayList<>(updates.size());
+        for (Update update : updates) {
+            writes.add(new UpdateOneModel<>(filter(update.getConditions()), set(update.getFields())));
+        }
+        return getCollection().bulkWrite(writes, new BulkWriteOptions().ordered(false)).getMatchedCount();
+    }
+    
+    @Override
+    public boolean delete(Map<String, Object> conditions) {
+        return getCollection().deleteOne(filter(conditions)).getDeletedCount() > 0;
+    }
+    
+    private static Bson set(Map<String, Object> fields) {
+        List<Bson> updates = new ArrayList<>(fields.size());
+        fields.forEach((field, value) -> updates.add(Updates.set(field, value)));
+        return Updates.combine(updates);
+    }
+    
+    static Bson filter(Map<String, Object> conditions) {
+        if (conditions.isEmpty()) {
+            return Filters.empty();
+        }
+        List<Bson> filters = new ArrayList<>(conditions.size());
+        conditions.forEach((field, value) -> filters.add(Filters.eq(field, value)));
+        return filters.size() == 1 ? filters.get(0) : Filters.and(filters);
+    }
+}
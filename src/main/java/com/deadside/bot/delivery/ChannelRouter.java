@@ -0,0 +1,281 @@
+package com.deadside.bot.delivery;
+
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.Permission;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
+import net.dv8tion.jda.api.events.channel.ChannelDeleteEvent;
+import net.dv8tion.jda.api.events.guild.GuildAvailableEvent;
+import net.dv8tion.jda.api.events.guild.GuildJoinEvent;
+import net.dv8tion.jda.api.events.guild.GuildLeaveEvent;
+import net.dv8tion.jda.api.events.guild.GuildReadyEvent;
+import net.dv8tion.jda.api.events.guild.GuildUnavailableEvent;
+import net.dv8tion.jda.api.events.guild.member.GuildMemberRoleAddEvent;
+import net.dv8tion.jda.api.events.guild.member.GuildMemberRoleRemoveEvent;
+import net.dv8tion.jda.api.events.guild.override.GenericPermissionOverrideEvent;
+import net.dv8tion.jda.api.events.role.update.RoleUpdatePermissionsEvent;
+import net.dv8tion.jda.api.events.session.SessionRecreateEvent;
+import net.dv8tion.jda.api.hooks.ListenerAdapter;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Resolves notification destinations to channel handles
+ * Each (guild, channel) pair is looked up once and the result, including a missing or inaccessible
+ * channel, is kept until a Discord event says it may have changed: channel deletion, permission
+ * changes, the bot joining, leaving or regaining a guild, or the gateway session being recreated,
+ * which replaces every channel object JDA holds. Servers whose destination is gone are
+ * reported once and then paused, instead of warning on every notification.
+ */
+public class ChannelRouter extends ListenerAdapter {
+    private static final Logger logger = LoggerFactory.getLogger(ChannelRouter.class);
+    private static ChannelRouter instance;
+    
+    private static final Permission[] REQUIRED_PERMISSIONS = {
+            Permission.VIEW_CHANNEL, Permission.MESSAGE_SEND, Permission.MESSAGE_EMBED_LINKS
+    };
+    
+    /**
+     * Outcome of resolving a destination
+     */
+    public enum Status {
+        AVAILABLE,
+        GUILD_MISSING,
+        CHANNEL_MISSING,
+        NO_ACCESS
+    }
+    
+    private final JDA jda;
+    private final Map<Long, Route> routes = new ConcurrentHashMap<>();
+    
+    // Resolution statistics
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    
+    private ChannelRouter(JDA jda) {
+        this.jda = jda;
+    }
+    
+    /**
+     * Initialize the router and register it for invalidation events
+     */
+    public static synchronized void initialize(JDA jda) {
+        if (instance == null) {
+            instance = new ChannelRouter(jda);
+            jda.addEventListener(instance);
+        }
+    }
+    
+    /**
+     * Get the router instance
+     */
+    public static ChannelRouter getInstance() {
+        if (instance == null) {
+            throw new IllegalStateException("ChannelRouter has not been initialized");
+        }
+        return instance;
+    }
+    
+    /**
+     * Resolve a destination channel
+     * @return The channel, or null if it is missing or the bot cannot post embeds there
+     */
+    public TextChannel resolve(long guildId, long channelId) {
+        if (channelId == 0) {
+            return null;
+        }
+        
+        Route route = routes.get(channelId);
+        if (route == null || route.guildId != guildId) {
+            route = routes.compute(channelId, (id, existing) ->
+                    existing != null && existing.guildId == guildId ? existing : lookup(guildId, channelId));
+        } else {
+            hits.increment();
+        }
+        
+        if (route.status != Status.AVAILABLE) {
+            misses.increment();
+            return null;
+        }
+        return route.channel;
+    }
+    
+    /**
+     * Check whether notifications can currently be delivered to a channel
+     */
+    public boolean isAvailable(long guildId, long channelId) {
+        return resolve(guildId, channelId) != null;
+    }
+    
+    private Route lookup(long guildId, long channelId) {
+        lookups.increment();
+        
+        Guild guild = jda.getGuildById(guildId);
+        if (guild == null) {
+            logger.warn("Guild {} is not available, pausing deliveries to channel {}", guildId, channelId);
+            return new Route(guildId, null, Status.GUILD_MISSING);
+        }
+        
+        TextChannel channel = guild.getTextChannelById(channelId);
+        if (channel == null) {
+            logger.warn("Channel {} no longer exists in guild {}, pausing deliveries to it", channelId, guild.getName());
+            return new Route(guildId, null, Status.CHANNEL_MISSING);
+        }
+        
+        if (!guild.getSelfMember().hasPermission(channel, REQUIRED_PERMISSIONS)) {
+            logger.warn("Missing permission to post embeds in #{} ({}) of guild {}, pausing deliveries to it",
+                    channel.getName(), channelId, guild.getName());
+            return new Route(guildId, channel, Status.NO_ACCESS);
+        }
+        
+        return new Route(guildId, channel, Status.AVAILABLE);
+    }
+    
+    /**
+     * Forget the resolved handle for a channel so it is looked up again
+     */
+    public void invalidate(long channelId) {
+        if (routes.remove(channelId) != null) {
+            invalidations.increment();
+        }
+    }
+    
+    /**
+     * Forget every resolved handle in a guild
+     */
+    public void invalidateGuild(long guildId) {
+        routes.values().removeIf(route -> {
+            if (route.guildId == guildId) {
+                invalidations.increment();
+                return true;
+            }
+            return false;
+        });
+    }
+    
+    /**
+     * Forget every resolved handle
+     */
+    public void invalidateAll() {
+        int removed = routes.size();
+        routes.clear();
+        invalidations.add(removed);
+    }
+    
+    @Override
+    public void onChannelDelete(@NotNull ChannelDeleteEvent event) {
+        invalidate(event.getChannel().getIdLong());
+    }
+    
+    @Override
+    public void onGenericPermissionOverride(@NotNull GenericPermissionOverrideEvent event) {
+        invalidate(event.getChannel().getIdLong());
+    }
+    
+    @Override
+    public void onRoleUpdatePermissions(@NotNull RoleUpdatePermissionsEvent event) {
+        invalidateGuild(event.getGuild().getIdLong());
+    }
+    
+    @Override
+    public void onGuildMemberRoleAdd(@NotNull GuildMemberRoleAddEvent event) {
+        if (event.getMember().equals(event.getGuild().getSelfMember())) {
+            invalidateGuild(event.getGuild().getIdLong());
+        }
+    }
+    
+    @Override
+    public void onGuildMemberRoleRemove(@NotNull GuildMemberRoleRemoveEvent event) {
+        if (event.getMember().equals(event.getGuild().getSelfMember())) {
+            invalidateGuild(event.getGuild().getIdLong());
+        }
+    }
+    
+    @Override
+    public void onGuildJoin(@NotNull GuildJoinEvent event) {
+        invalidateGuild(event.getGuild().getIdLong());
+    }
+    
+    @Override
+    public void onGuildLeave(@NotNull GuildLeaveEvent event) {
+        invalidateGuild(event.getGuild().getIdLong());
+    }
+    
+    @Override
+    public void onGuildAvailable(@NotNull GuildAvailableEvent event) {
+        invalidateGuild(event.getGuild().getIdLong());
+    }
+    
+    @Override
+    public void onGuildUnavailable(@NotNull GuildUnavailableEvent event) {
+        invalidateGuild(event.getGuild().getIdLong());
+    }
+    
+    @Override
+    public void onGuildReady(@NotNull GuildReadyEvent event) {
+        invalidateGuild(event.getGuild().getIdLong());
+    }
+    
+    @Override
+    public void onSessionRecreate(@NotNull SessionRecreateEvent event) {
+        invalidateAll();
+    }
+    
+    /**
+     * Log resolution statistics
+     */
+    public void logStats() {
+        logger.info("Channel routing: {} cached hits, {} lookups, {} misses, {} invalidations",
+                hits.sum(), lookups.sum(), misses.sum(), invalidations.sum());
+    }
+    
+    /**
+     * Get the number of resolutions served from the cache
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+    
+    /**
+     * Get the number of lookups against JDA's cache
+     */
+    public long getLookupCount() {
+        return lookups.sum();
+    }
+    
+    /**
+     * Get the number of resolutions that found no usable channel
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+    
+    /**
+     * Get the number of resolved handles dropped because of Discord events
+     */
+    public long getInvalidationCount() {
+        return invalidations.sum();
+    }
+    
+    /**
+     * A resolved destination
+     */
+    private static class Route {
+        private final long guildId;
+        private final TextChannel channel;
+        private final Status status;
+        
+        private Route(long guildId, TextChannel channel, Status status) {
+            this.guildId = guildId;
+            this.channel = channel;
+            this.status = status;
+        }
+    }
+}
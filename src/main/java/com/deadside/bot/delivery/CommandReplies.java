@@ -0,0 +1,51 @@
+package com.deadside.bot.delivery;
+
+import com.deadside.bot.delivery.OutboundDispatcher.Lane;
+import net.dv8tion.jda.api.interactions.Interaction;
+import net.dv8tion.jda.api.requests.RestAction;
+
+import java.util.function.Consumer;
+
+/**
+ * Sends interaction replies through the command lane of the {@link OutboundDispatcher}
+ * Replies are queued under the interaction's ID rather than its channel. Interaction responses have
+ * their own rate limits, so they never wait behind the channel's notifications, while the replies to
+ * one interaction still go out one at a time in the order they were queued.
+ */
+public final class CommandReplies {
+    
+    private CommandReplies() {
+        // Utility class
+    }
+    
+    /**
+     * Queue a reply to an interaction
+     */
+    public static void queue(Interaction interaction, RestAction<?> action) {
+        queue(interaction, action, null, null);
+    }
+    
+    /**
+     * Queue a reply to an interaction
+     * @param success Called with the result once the reply is sent
+     */
+    public static <T> void queue(Interaction interaction, RestAction<T> action, Consumer<? super T> success) {
+        queue(interaction, action, success, null);
+    }
+    
+    /**
+     * Queue a reply to an interaction
+     * Sent straight to JDA if the dispatcher is not running, so a reply is never lost.
+     * @param success Called with the result once the reply is sent
+     * @param failure Called if the reply fails, or null to log the failure
+     */
+    public static <T> void queue(Interaction interaction, RestAction<T> action, Consumer<? super T> success,
+                                 Consumer<? super Throwable> failure) {
+        long guildId = interaction.getGuild() != null ? interaction.getGuild().getIdLong() : 0L;
+        if (!OutboundDispatcher.isInitialized()
+                || !OutboundDispatcher.getInstance().submit(Lane.COMMAND, guildId, interaction.getIdLong(), action,
+                        success, failure)) {
+            action.queue(success, failure);
+        }
+    }
+}
@@ -0,0 +1,321 @@
+package com.deadside.bot.delivery;
+
+import com.deadside.bot.delivery.OutboundDispatcher.Lane;
+import com.deadside.bot.utils.EmbedUtils;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-channel outbound aggregator for notification embeds
+ * Embeds queued for the same channel and lane within the linger window are packed into as few
+ * messages as Discord allows (10 embeds and 6000 characters per message), in queue order, and
+ * handed to the {@link OutboundDispatcher}. While the dispatcher is shedding a lane for a channel,
+ * its embeds are collapsed into a count that is reported once the channel drains.
+ * Order is kept within a channel's lane only: the dispatcher releases lanes by priority, so a kill
+ * queued after a join notification for the same channel may be posted before it.
+ */
+public class EmbedBatcher {
+    private static final Logger logger = LoggerFactory.getLogger(EmbedBatcher.class);
+    
+    // Discord limits for a single message
+    public static final int MAX_EMBEDS_PER_MESSAGE = 10;
+    public static final int MAX_EMBED_CHARACTERS_PER_MESSAGE = MessageEmbed.EMBED_MAX_LENGTH_BOT;
+    
+    private static final long STATS_INTERVAL_MINUTES = 15;
+    // How often a shed channel is checked for having drained so its skipped count can be reported
+    private static final long SUMMARY_RETRY_MILLIS = 1000;
+    
+    private final long lingerMillis;
+    private final OutboundDispatcher dispatcher;
+    private final ScheduledExecutorService scheduler;
+    private final Map<String, ChannelBatch> batches = new ConcurrentHashMap<>();
+    
+    // Delivery statistics
+    private final LongAdder embedsDelivered = new LongAdder();
+    private final LongAdder messagesSent = new LongAdder();
+    private final LongAdder failedMessages = new LongAdder();
+    private final LongAdder totalLatencyMillis = new LongAdder();
+    private final AtomicLong maxLatencyMillis = new AtomicLong();
+    
+    public EmbedBatcher(long lingerMillis, OutboundDispatcher dispatcher) {
+        this.lingerMillis = Math.max(0, lingerMillis);
+        this.dispatcher = dispatcher;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "embed-batcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::logStats, STATS_INTERVAL_MINUTES, STATS_INTERVAL_MINUTES, TimeUnit.MINUTES);
+    }
+    
+    /**
+     * Queue an embed for delivery to a channel
+     * The embed is sent with any others queued for the same channel and lane once the linger
+     * window expires, or immediately when a full message can be sent.
+     */
+    public void enqueue(TextChannel channel, MessageEmbed embed, Lane lane) {
+        if (channel == null || embed == null) {
+            return;
+        }
+        
+        String key = batchKey(channel.getIdLong(), lane);
+        ChannelBatch batch = batches.computeIfAbsent(key, k -> new ChannelBatch(k, lane));
+        synchronized (batch) {
+            batch.channel = channel;
+            batch.pending.addLast(new PendingEmbed(embed, System.currentTimeMillis()));
+            batch.pendingLength += embed.getLength();
+            
+            if (batch.pending.size() >= MAX_EMBEDS_PER_MESSAGE
+                    || batch.pendingLength >= MAX_EMBED_CHARACTERS_PER_MESSAGE) {
+                // A full message is ready, no point waiting for the linger window
+                sendFullMessages(batch);
+            }
+            
+            if (!batch.pending.isEmpty()) {
+                scheduleFlush(batch, lingerMillis);
+            }
+        }
+    }
+    
+    /**
+     * Send everything queued for all channels
+     */
+    public void flushAll() {
+        for (String key : batches.keySet()) {
+            flush(key);
+        }
+    }
+    
+    /**
+     * Send everything queued for a channel and lane
+     */
+    private void flush(String key) {
+        ChannelBatch batch = batches.get(key);
+        if (batch == null) {
+            return;
+        }
+        
+        synchronized (batch) {
+            batch.scheduledFlush = null;
+            while (!batch.pending.isEmpty()) {
+                sendNextMessage(batch);
+            }
+            
+            // Report skipped notifications on their own once the channel drains, even if nothing else is queued
+            if (batch.collapsed > 0 && !dispatcher.isShedding(batch.lane, batch.channel.getIdLong())) {
+                sendNextMessage(batch);
+            }
+            if (batch.collapsed > 0) {
+                scheduleFlush(batch, Math.max(lingerMillis, SUMMARY_RETRY_MILLIS));
+            }
+        }
+    }
+    
+    /**
+     * Schedule a flush of a batch unless one is already scheduled
+     * Must be called while holding the batch lock
+     */
+    private void scheduleFlush(ChannelBatch batch, long delayMillis) {
+        if (batch.scheduledFlush == null) {
+            batch.scheduledFlush = scheduler.schedule(() -> flush(batch.key), delayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+    
+    /**
+     * Flush pending embeds and stop the linger scheduler
+     */
+    public void shutdown() {
+        try {
+            scheduler.submit(this::flushAll).get(10, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            logger.warn("Could not flush pending embeds on shutdown: {}", e.getMessage());
+        }
+        scheduler.shutdown();
+        logStats();
+    }
+    
+    /**
+     * Send messages while the queue holds at least one full message
+     * Must be called while holding the batch lock
+     */
+    private void sendFullMessages(ChannelBatch batch) {
+        while (batch.pending.size() >= MAX_EMBEDS_PER_MESSAGE
+                || batch.pendingLength >= MAX_EMBED_CHARACTERS_PER_MESSAGE) {
+            sendNextMessage(batch);
+        }
+    }
+    
+    /**
+     * Pack the oldest pending embeds into one message and hand it to the dispatcher
+     * Must be called while holding the batch lock, which keeps messages for a channel in order
+     */
+    private void sendNextMessage(ChannelBatch batch) {
+        TextChannel channel = batch.channel;
+        if (dispatcher.isShedding(batch.lane, channel.getIdLong())) {
+            // Channel is backlogged: collapse everything pending into a count instead of sending
+            int collapsed = batch.pending.size();
+            batch.collapsed += collapsed;
+            batch.pending.clear();
+            batch.pendingLength = 0;
+            dispatcher.recordDropped(batch.lane, collapsed);
+            scheduleFlush(batch, Math.max(lingerMillis, SUMMARY_RETRY_MILLIS));
+            return;
+        }
+        
+        if (batch.collapsed > 0) {
+            MessageEmbed summary = EmbedUtils.warningEmbed("Notifications Skipped",
+                    batch.collapsed + " notification(s) were skipped while this channel was busy.");
+            batch.pending.addFirst(new PendingEmbed(summary, System.currentTimeMillis()));
+            batch.pendingLength += summary.getLength();
+            batch.collapsed = 0;
+        }
+        
+        List<MessageEmbed> embeds = new ArrayList<>(MAX_EMBEDS_PER_MESSAGE);
+        int length = 0;
+        long oldestQueuedAt = Long.MAX_VALUE;
+        long queuedAtSum = 0;
+        
+        while (!batch.pending.isEmpty() && embeds.size() < MAX_EMBEDS_PER_MESSAGE) {
+            PendingEmbed next = batch.pending.peekFirst();
+            int nextLength = next.embed.getLength();
+            if (!embeds.isEmpty() && length + nextLength > MAX_EMBED_CHARACTERS_PER_MESSAGE) {
+                break;
+            }
+            
+            batch.pending.removeFirst();
+            batch.pendingLength -= nextLength;
+            embeds.add(next.embed);
+            length += nextLength;
+            oldestQueuedAt = Math.min(oldestQueuedAt, next.queuedAt);
+            queuedAtSum += next.queuedAt;
+        }
+        
+        int count = embeds.size();
+        long batchQueuedAtSum = queuedAtSum;
+        long batchOldestQueuedAt = oldestQueuedAt;
+        
+        try {
+            dispatcher.submit(batch.lane, channel.getGuild().getIdLong(), channel.getIdLong(),
+                    channel.sendMessageEmbeds(embeds),
+                    success -> recordDelivery(count, batchQueuedAtSum, batchOldestQueuedAt),
+                    error -> {
+                        failedMessages.increment();
+                        logger.error("Failed to send {} embed(s) to channel {}: {}", count, channel.getId(), error.getMessage());
+                    }
+            );
+        } catch (Exception e) {
+            // Missing permissions and similar are thrown synchronously by JDA
+            failedMessages.increment();
+            logger.error("Failed to queue {} embed(s) for channel {}: {}", count, channel.getId(), e.getMessage());
+        }
+    }
+    
+    private void recordDelivery(int embedCount, long queuedAtSum, long oldestQueuedAt) {
+        long now = System.currentTimeMillis();
+        embedsDelivered.add(embedCount);
+        messagesSent.increment();
+        totalLatencyMillis.add(now * embedCount - queuedAtSum);
+        maxLatencyMillis.accumulateAndGet(now - oldestQueuedAt, Math::max);
+    }
+    
+    private void logStats() {
+        long messages = messagesSent.sum();
+        if (messages == 0) {
+            return;
+        }
+        logger.info("Embed delivery: {} embeds in {} messages ({} messages saved, {} failed), " +
+                        "average latency {} ms, max latency {} ms",
+                getEmbedsDelivered(), messages, getMessagesSaved(), failedMessages.sum(),
+                getAverageLatencyMillis(), maxLatencyMillis.get());
+    }
+    
+    /**
+     * Get the number of embeds delivered
+     */
+    public long getEmbedsDelivered() {
+        return embedsDelivered.sum();
+    }
+    
+    /**
+     * Get the number of messages sent
+     */
+    public long getMessagesSent() {
+        return messagesSent.sum();
+    }
+    
+    /**
+     * Get the number of messages saved compared to sending one message per embed
+     */
+    public long getMessagesSaved() {
+        return embedsDelivered.sum() - messagesSent.sum();
+    }
+    
+    /**
+     * Get the number of messages Discord rejected
+     */
+    public long getFailedMessages() {
+        return failedMessages.sum();
+    }
+    
+    /**
+     * Get the average time from queueing an embed to Discord accepting it
+     */
+    public long getAverageLatencyMillis() {
+        long embeds = embedsDelivered.sum();
+        return embeds == 0 ? 0 : totalLatencyMillis.sum() / embeds;
+    }
+    
+    /**
+     * Get the longest time from queueing an embed to Discord accepting it
+     */
+    public long getMaxLatencyMillis() {
+        return maxLatencyMillis.get();
+    }
+    
+    private static String batchKey(long channelId, Lane lane) {
+        return channelId + ":" + lane;
+    }
+    
+    /**
+     * Embeds waiting to be sent to one channel in one lane
+     */
+    private static class ChannelBatch {
+        private final String key;
+        private final Lane lane;
+        private final Deque<PendingEmbed> pending = new ArrayDeque<>();
+        private TextChannel channel;
+        private int pendingLength;
+        private int collapsed;
+        private ScheduledFuture<?> scheduledFlush;
+        
+        private ChannelBatch(String key, Lane lane) {
+            this.key = key;
+            this.lane = lane;
+        }
+    }
+    
+    private static class PendingEmbed {
+        private final MessageEmbed embed;
+        private final long queuedAt;
+        
+        private PendingEmbed(MessageEmbed embed, long queuedAt) {
+            this.embed = embed;
+            this.queuedAt = queuedAt;
+        }
+    }
+}
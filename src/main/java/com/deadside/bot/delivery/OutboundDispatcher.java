@@ -0,0 +1,439 @@
+package com.deadside.bot.delivery;
+
+import net.dv8tion.jda.api.requests.RestAction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Prioritized outbound queue for Discord requests
+ * Requests are held here instead of piling up in JDA's per-route buckets. A dispatcher thread
+ * releases them by lane priority, round-robin across guilds within a lane and across a guild's
+ * channels within the guild, with at most one request in flight per channel. A busy channel only
+ * holds up its own requests, never the rest of its guild. A request whose completion is not
+ * reported within the in-flight timeout gives up its slot. When a channel's backlog passes the
+ * shed threshold, low priority lanes are dropped for that channel until it drains.
+ */
+public class OutboundDispatcher {
+    private static final Logger logger = LoggerFactory.getLogger(OutboundDispatcher.class);
+    private static OutboundDispatcher instance;
+    
+    private static final long STATS_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(15);
+    // Longer than JDA waits out a rate limit, so only a request whose callbacks were lost hits it
+    private static final long IN_FLIGHT_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(2);
+    
+    /**
+     * Delivery lanes, highest priority first
+     */
+    public enum Lane {
+        COMMAND,     // Messages sent or edited on behalf of a command
+        KILL,        // Killfeed
+        EVENT,       // Missions, airdrops, deaths and other server events
+        JOIN_LEAVE;  // Player connect/disconnect notifications
+        
+        private static final Lane[] BY_PRIORITY = values();
+    }
+    
+    private final int shedThreshold;
+    private final int maxInFlight;
+    
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition workAvailable = lock.newCondition();
+    
+    // Guarded by lock: per lane, guilds in round-robin order, each with its channel queues in round-robin order
+    private final Map<Lane, LinkedHashMap<Long, LinkedHashMap<Long, Deque<Outbound>>>> lanes = new EnumMap<>(Lane.class);
+    private final Map<Long, Integer> channelBacklog = new HashMap<>();
+    private final Set<Long> channelsInFlight = new HashSet<>();
+    // Oldest dispatch first, so expired requests are found at the front
+    private final Set<Outbound> inFlight = new LinkedHashSet<>();
+    private boolean running = true;
+    
+    private final Map<Lane, LaneStats> stats = new EnumMap<>(Lane.class);
+    private final Thread dispatcherThread;
+    
+    private OutboundDispatcher(int shedThreshold, int maxInFlight) {
+        this.shedThreshold = shedThreshold;
+        this.maxInFlight = Math.max(1, maxInFlight);
+        for (Lane lane : Lane.values()) {
+            lanes.put(lane, new LinkedHashMap<>());
+            stats.put(lane, new LaneStats());
+        }
+        
+        dispatcherThread = new Thread(this::dispatchLoop, "outbound-dispatcher");
+        dispatcherThread.setDaemon(true);
+        dispatcherThread.start();
+    }
+    
+    /**
+     * Initialize the dispatcher
+     * @param shedThreshold Channel backlog (queued messages) at which low priority lanes are shed
+     * @param maxInFlight Maximum number of requests handed to JDA at once
+     */
+    public static synchronized void initialize(int shedThreshold, int maxInFlight) {
+        if (instance == null) {
+            instance = new OutboundDispatcher(shedThreshold, maxInFlight);
+        }
+    }
+    
+    /**
+     * Check whether the dispatcher has been initialized
+     */
+    public static synchronized boolean isInitialized() {
+        return instance != null;
+    }
+    
+    /**
+     * Get the singleton instance
+     */
+    public static synchronized OutboundDispatcher getInstance() {
+        if (instance == null) {
+            throw new IllegalStateException("Outbound dispatcher has not been initialized. Call initialize() first.");
+        }
+        return instance;
+    }
+    
+    /**
+     * Queue a request for delivery
+     */
+    public boolean submit(Lane lane, long guildId, long channelId, RestAction<?> action) {
+        return submit(lane, guildId, channelId, action, null, null);
+    }
+    
+    /**
+     * Queue a request for delivery
+     * @return False if the request was shed because the channel is backlogged
+     */
+    public <T> boolean submit(Lane lane, long guildId, long channelId, RestAction<T> action,
+                              Consumer<? super T> success, Consumer<? super Throwable> failure) {
+        lock.lock();
+        try {
+            if (!running || isShedding(lane, channelId)) {
+                stats.get(lane).dropped.increment();
+                return false;
+            }
+            
+            @SuppressWarnings("unchecked")
+            Outbound outbound = new Outbound(lane, channelId, (RestAction<Object>) action,
+                    (Consumer<Object>) success, failure, System.currentTimeMillis());
+            lanes.get(lane).computeIfAbsent(guildId, id -> new LinkedHashMap<>())
+                    .computeIfAbsent(channelId, id -> new ArrayDeque<>()).addLast(outbound);
+            channelBacklog.merge(channelId, 1, Integer::sum);
+            stats.get(lane).queued.increment();
+            workAvailable.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Check whether a lane is currently being shed for a channel
+     * Join/leave notifications are shed at the threshold and events at twice the threshold;
+     * commands and kills are never shed.
+     */
+    public boolean isShedding(Lane lane, long channelId) {
+        int limit = switch (lane) {
+            case JOIN_LEAVE -> shedThreshold;
+            case EVENT -> shedThreshold * 2;
+            default -> Integer.MAX_VALUE;
+        };
+        
+        lock.lock();
+        try {
+            return channelBacklog.getOrDefault(channelId, 0) >= limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Record notifications that were collapsed or dropped before reaching the dispatcher
+     */
+    public void recordDropped(Lane lane, int count) {
+        stats.get(lane).dropped.add(count);
+    }
+    
+    /**
+     * Get the number of requests waiting for a channel
+     */
+    public int getChannelBacklog(long channelId) {
+        lock.lock();
+        try {
+            return channelBacklog.getOrDefault(channelId, 0);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Get the number of requests waiting in a lane
+     */
+    public long getQueueDepth(Lane lane) {
+        LaneStats laneStats = stats.get(lane);
+        return laneStats.queued.sum() - laneStats.dispatched.sum();
+    }
+    
+    /**
+     * Get the number of requests shed from a lane
+     */
+    public long getDroppedCount(Lane lane) {
+        return stats.get(lane).dropped.sum();
+    }
+    
+    /**
+     * Get the number of requests completed for a lane
+     */
+    public long getSentCount(Lane lane) {
+        return stats.get(lane).sent.sum();
+    }
+    
+    /**
+     * Get the average time from submission to completion for a lane
+     */
+    public long getAverageLatencyMillis(Lane lane) {
+        LaneStats laneStats = stats.get(lane);
+        long sent = laneStats.sent.sum();
+        return sent == 0 ? 0 : laneStats.totalLatencyMillis.sum() / sent;
+    }
+    
+    /**
+     * Get the longest time from submission to completion for a lane
+     */
+    public long getMaxLatencyMillis(Lane lane) {
+        return stats.get(lane).maxLatencyMillis.get();
+    }
+    
+    /**
+     * Release everything still queued to JDA and stop the dispatcher thread
+     */
+    public void shutdown() {
+        lock.lock();
+        try {
+            running = false;
+            workAvailable.signal();
+        } finally {
+            lock.unlock();
+        }
+        
+        try {
+            dispatcherThread.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        logStats();
+    }
+    
+    private void dispatchLoop() {
+        long nextStatsAt = System.currentTimeMillis() + STATS_INTERVAL_MILLIS;
+        
+        while (true) {
+            if (System.currentTimeMillis() >= nextStatsAt) {
+                logStats();
+                nextStatsAt = System.currentTimeMillis() + STATS_INTERVAL_MILLIS;
+            }
+            
+            Outbound next;
+            lock.lock();
+            try {
+                releaseExpired(System.currentTimeMillis());
+                next = running && inFlight.size() >= maxInFlight ? null : pollNext();
+                if (next == null) {
+                    if (!running && isEmpty()) {
+                        return;
+                    }
+                    workAvailable.await(1, TimeUnit.SECONDS);
+                    continue;
+                }
+                
+                next.dispatchedAt = System.currentTimeMillis();
+                inFlight.add(next);
+                channelsInFlight.add(next.channelId);
+                channelBacklog.computeIfPresent(next.channelId, (id, count) -> count > 1 ? count - 1 : null);
+                stats.get(next.lane).dispatched.increment();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                lock.unlock();
+            }
+            
+            execute(next);
+        }
+    }
+    
+    /**
+     * Take the next request: highest priority lane first, then the first guild in round-robin
+     * order with a channel that has nothing in flight, then that guild's first such channel
+     * Must be called while holding the lock
+     */
+    private Outbound pollNext() {
+        for (Lane lane : Lane.BY_PRIORITY) {
+            LinkedHashMap<Long, LinkedHashMap<Long, Deque<Outbound>>> guilds = lanes.get(lane);
+            Iterator<Map.Entry<Long, LinkedHashMap<Long, Deque<Outbound>>>> guildIterator = guilds.entrySet().iterator();
+            
+            while (guildIterator.hasNext()) {
+                Map.Entry<Long, LinkedHashMap<Long, Deque<Outbound>>> guild = guildIterator.next();
+                LinkedHashMap<Long, Deque<Outbound>> channels = guild.getValue();
+                Iterator<Map.Entry<Long, Deque<Outbound>>> channelIterator = channels.entrySet().iterator();
+                
+                while (channelIterator.hasNext()) {
+                    Map.Entry<Long, Deque<Outbound>> channel = channelIterator.next();
+                    // While shutting down, drain regardless of in-flight state
+                    if (running && channelsInFlight.contains(channel.getKey())) {
+                        continue;
+                    }
+                    
+                    Deque<Outbound> queue = channel.getValue();
+                    Outbound outbound = queue.pollFirst();
+                    // Move the channel to the back of its guild's rotation and the guild to the back of the lane's
+                    channelIterator.remove();
+                    if (!queue.isEmpty()) {
+                        channels.put(channel.getKey(), queue);
+                    }
+                    guildIterator.remove();
+                    if (!channels.isEmpty()) {
+                        guilds.put(guild.getKey(), channels);
+                    }
+                    return outbound;
+                }
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Give up the slots of requests whose completion has not been reported in time
+     * Their callbacks still run if they arrive later, but no longer hold up the channel.
+     * Must be called while holding the lock
+     */
+    private void releaseExpired(long now) {
+        Iterator<Outbound> iterator = inFlight.iterator();
+        while (iterator.hasNext()) {
+            Outbound outbound = iterator.next();
+            if (now - outbound.dispatchedAt < IN_FLIGHT_TIMEOUT_MILLIS) {
+                return;
+            }
+            iterator.remove();
+            channelsInFlight.remove(outbound.channelId);
+            stats.get(outbound.lane).failed.increment();
+            logger.warn("No completion for {} message to channel {} after {} ms, releasing its slot",
+                    outbound.lane, outbound.channelId, now - outbound.dispatchedAt);
+        }
+    }
+    
+    private boolean isEmpty() {
+        for (LinkedHashMap<Long, LinkedHashMap<Long, Deque<Outbound>>> guilds : lanes.values()) {
+            if (!guilds.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private void execute(Outbound outbound) {
+        try {
+            outbound.action.queue(
+                    result -> {
+                        complete(outbound, true);
+                        if (outbound.success != null) {
+                            outbound.success.accept(result);
+                        }
+                    },
+                    error -> {
+                        complete(outbound, false);
+                        if (outbound.failure != null) {
+                            outbound.failure.accept(error);
+                        } else {
+                            logger.error("Failed to deliver {} message to channel {}: {}",
+                                    outbound.lane, outbound.channelId, error.getMessage());
+                        }
+                    }
+            );
+        } catch (Exception e) {
+            complete(outbound, false);
+            logger.error("Failed to queue {} message for channel {}: {}", outbound.lane, outbound.channelId, e.getMessage());
+        }
+    }
+    
+    private void complete(Outbound outbound, boolean delivered) {
+        lock.lock();
+        try {
+            if (!inFlight.remove(outbound)) {
+                // Already released by the in-flight timeout and counted as failed
+                return;
+            }
+            channelsInFlight.remove(outbound.channelId);
+            workAvailable.signal();
+        } finally {
+            lock.unlock();
+        }
+        
+        if (delivered) {
+            LaneStats laneStats = stats.get(outbound.lane);
+            long latency = System.currentTimeMillis() - outbound.submittedAt;
+            laneStats.sent.increment();
+            laneStats.totalLatencyMillis.add(latency);
+            laneStats.maxLatencyMillis.accumulateAndGet(latency, Math::max);
+        } else {
+            stats.get(outbound.lane).failed.increment();
+        }
+    }
+    
+    private void logStats() {
+        for (Lane lane : Lane.values()) {
+            LaneStats laneStats = stats.get(lane);
+            if (laneStats.queued.sum() == 0 && laneStats.dropped.sum() == 0) {
+                continue;
+            }
+            logger.info("Outbound lane {}: depth {}, sent {}, failed {}, dropped {}, average latency {} ms, max latency {} ms",
+                    lane, getQueueDepth(lane), laneStats.sent.sum(), laneStats.failed.sum(), laneStats.dropped.sum(),
+                    getAverageLatencyMillis(lane), laneStats.maxLatencyMillis.get());
+        }
+    }
+    
+    private static class Outbound {
+        private final Lane lane;
+        private final long channelId;
+        private final RestAction<Object> action;
+        private final Consumer<Object> success;
+        private final Consumer<? super Throwable> failure;
+        private final long submittedAt;
+        private long dispatchedAt; // Guarded by lock
+        
+        private Outbound(Lane lane, long channelId, RestAction<Object> action, Consumer<Object> success,
+                         Consumer<? super Throwable> failure, long submittedAt) {
+            this.lane = lane;
+            this.channelId = channelId;
+            this.action = action;
+            this.success = success;
+            this.failure = failure;
+            this.submittedAt = submittedAt;
+        }
+    }
+    
+    private static class LaneStats {
+        private final LongAdder queued = new LongAdder();
+        private final LongAdder dispatched = new LongAdder();
+        private final LongAdder sent = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder dropped = new LongAdder();
+        private final LongAdder totalLatencyMillis = new LongAdder();
+        private final AtomicLong maxLatencyMillis = new AtomicLong();
+    }
+}
@@ -0,0 +1,248 @@
+package com.deadside.bot.economy;
+
+import com.deadside.bot.db.models.BalanceSnapshot;
+import com.deadside.bot.db.models.EconomyTransaction;
+import com.deadside.bot.db.repositories.EconomyLedgerRepository;
+import com.deadside.bot.db.repositories.PlayerRepository;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Audit trail of every balance change
+ * {@link EconomyService} records a transaction for each change it applies. Transactions are buffered
+ * and appended to the ledger in one insert every flush interval and at shutdown. Every snapshot
+ * interval the balance of each player with new entries is folded into their snapshot, so a ledger
+ * balance is read from one snapshot plus the entries since the last pass, never the full history.
+ * The player document stays the balance the economy commands use; the ledger is the record of how
+ * it got there.
+ */
+public class EconomyLedger {
+    private static final Logger logger = LoggerFactory.getLogger(EconomyLedger.class);
+    // Entries newer than this are left for the next pass, so one still being buffered is never skipped
+    private static final long SNAPSHOT_LAG_MS = TimeUnit.MINUTES.toMillis(1);
+    private static final int SNAPSHOT_BATCH_SIZE = 1000;
+    private static EconomyLedger instance;
+    
+    private final EconomyLedgerRepository repository;
+    private final Queue<EconomyTransaction> pending = new ConcurrentLinkedQueue<>();
+    private final ScheduledExecutorService scheduler;
+    private final Object flushLock = new Object();
+    private volatile ObjectId snapshotPoint;
+    
+    private EconomyLedger(EconomyLedgerRepository repository, long flushIntervalMillis, int snapshotIntervalMinutes) {
+        this.repository = repository;
+        this.snapshotPoint = repository.findLatestSnapshotPoint();
+        
+        long flushInterval = Math.max(100, flushIntervalMillis);
+        long snapshotInterval = Math.max(1, snapshotIntervalMinutes);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "EconomyLedger");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::flushSafely, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+        scheduler.scheduleAtFixedRate(this::snapshotSafely, snapshotInterval, snapshotInterval, TimeUnit.MINUTES);
+    }
+    
+    /**
+     * Initialize the ledger and start flushing
+     */
+    public static synchronized void initialize(EconomyLedgerRepository repository, long flushIntervalMillis,
+                                               int snapshotIntervalMinutes) {
+        if (instance == null) {
+            instance = new EconomyLedger(repository, flushIntervalMillis, snapshotIntervalMinutes);
+            logger.info("Economy ledger initialized: flush every {} ms, snapshot every {} minutes",
+                    flushIntervalMillis, snapshotIntervalMinutes);
+        }
+    }
+    
+    /**
+     * Get the ledger instance
+     */
+    public static EconomyLedger getInstance() {
+        if (instance == null) {
+            throw new IllegalStateException("EconomyLedger has not been initialized");
+        }
+        return instance;
+    }
+    
+    /**
+     * Record a balance change that has been applied
+     * @param coins The change to the wallet, or the new wallet balance for {@link EconomyTransaction.Type#SET}
+     * @param bankCoins The change to the bank, or the new bank balance for {@link EconomyTransaction.Type#SET}
+     * @param source What the change came from, such as the game or the admin's reason
+     */
+    public void record(String playerId, EconomyTransaction.Type type, long coins, long bankCoins, String source) {
+        pending.add(new EconomyTransaction(playerId, type, coins, bankCoins, source));
+    }
+    
+    /**
+     * Append every buffered transaction to the ledger now
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            List<EconomyTransaction> batch = new ArrayList<>();
+            EconomyTransaction transaction;
+            while ((transaction = pending.poll()) != null) {
+                batch.add(transaction);
+            }
+            
+            if (!repository.insertAll(batch)) {
+                // Keep the transactions and try again on the next flush
+                pending.addAll(batch);
+            }
+        }
+    }
+    
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (Exception e) {
+            logger.error("Error flushing economy ledger: {}", e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Fold the entries since the last pass into the snapshots of the players they belong to
+     * The pass covers entries older than the snapshot lag and older than any entry still waiting to
+     * be written, however long the ledger has been unable to write.
+     * @return The number of snapshots written
+     */
+    public int snapshot() {
+        ObjectId before = new ObjectId(new Date(System.currentTimeMillis() - SNAPSHOT_LAG_MS));
+        synchronized (flushLock) {
+            flush();
+            
+            // Entries that could not be written keep the IDs they were recorded with, so the pass stops
+            // before the oldest of them and they are folded in by a later pass once they are written
+            for (EconomyTransaction unwritten : pending) {
+                if (unwritten.getId().compareTo(before) < 0) {
+                    before = unwritten.getId();
+                }
+            }
+        }
+        if (snapshotPoint != null && snapshotPoint.compareTo(before) >= 0) {
+            return 0;
+        }
+        
+        List<BalanceSnapshot> balances = new ArrayList<>();
+        int written = 0;
+        boolean saved = true;
+        for (String playerId : repository.findActivePlayers(snapshotPoint, before)) {
+            BalanceSnapshot balance = fold(playerId, before);
+            balance.setThrough(before);
+            balance.setTimestamp(System.currentTimeMillis());
+            balances.add(balance);
+            
+            if (balances.size() >= SNAPSHOT_BATCH_SIZE) {
+                saved &= repository.saveSnapshots(balances);
+                written += balances.size();
+                balances.clear();
+            }
+        }
+        saved &= repository.saveSnapshots(balances);
+        written += balances.size();
+        
+        // A failed write is redone on the next pass, which starts from the same point
+        if (saved) {
+            snapshotPoint = before;
+        }
+        return written;
+    }
+    
+    private void snapshotSafely() {
+        try {
+            long start = System.currentTimeMillis();
+            int written = snapshot();
+            if (written > 0) {
+                logger.info("Snapshotted {} ledger balances in {} ms", written, System.currentTimeMillis() - start);
+            }
+        } catch (Exception e) {
+            logger.error("Error snapshotting economy ledger: {}", e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Seed the snapshots from the current player balances the first time the ledger runs
+     * Players' existing coins predate the ledger, so they are taken as its opening balances.
+     */
+    public void seedIfEmpty(PlayerRepository playerRepository) {
+        if (!repository.hasNoSnapshots()) {
+            return;
+        }
+        
+        long start = System.currentTimeMillis();
+        ObjectId opening = new ObjectId();
+        List<BalanceSnapshot> balances = new ArrayList<>();
+        long[] seeded = {0};
+        playerRepository.forEachBalance((playerId, currency) -> {
+            if (currency == null || (currency.getCoins() == 0 && currency.getBankCoins() == 0)) {
+                return;
+            }
+            balances.add(new BalanceSnapshot(playerId, currency.getCoins(), currency.getBankCoins(), opening));
+            if (balances.size() >= SNAPSHOT_BATCH_SIZE) {
+                repository.saveSnapshots(balances);
+                seeded[0] += balances.size();
+                balances.clear();
+            }
+        });
+        repository.saveSnapshots(balances);
+        seeded[0] += balances.size();
+        
+        snapshotPoint = opening;
+        logger.info("Seeded {} opening ledger balances in {} ms", seeded[0], System.currentTimeMillis() - start);
+    }
+    
+    /**
+     * Get a player's balance as recorded by the ledger
+     * Buffered transactions are written first, then the player's snapshot is read and the entries
+     * after it are applied.
+     * @return The ledger balance; zero if the player has no snapshot or entries
+     */
+    public BalanceSnapshot getBalance(String playerId) {
+        flush();
+        return fold(playerId, null);
+    }
+    
+    /**
+     * Get a player's most recent transactions, newest first
+     */
+    public List<EconomyTransaction> getRecentTransactions(String playerId, int limit) {
+        flush();
+        return repository.findRecent(playerId, limit);
+    }
+    
+    private BalanceSnapshot fold(String playerId, ObjectId before) {
+        BalanceSnapshot balance = repository.findSnapshot(playerId);
+        if (balance == null) {
+            balance = new BalanceSnapshot(playerId, 0, 0, null);
+        }
+        for (EconomyTransaction transaction : repository.findEntries(playerId, balance.getThrough(), before)) {
+            balance.apply(transaction);
+        }
+        return balance;
+    }
+    
+    /**
+     * Stop the flush task and write every buffered transaction
+     */
+    public void shutdown() {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushSafely();
+    }
+}
@@ -0,0 +1,285 @@
+package com.deadside.bot.economy;
+
+import com.deadside.bot.db.models.Currency;
+import com.deadside.bot.db.models.EconomyTransaction.Type;
+import com.deadside.bot.db.models.EconomyTransfer;
+import com.deadside.bot.db.models.Player;
+import com.deadside.bot.db.repositories.EconomyTransferRepository;
+import com.deadside.bot.db.repositories.PlayerCache;
+import com.deadside.bot.db.repositories.PlayerRepository;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Updates;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service for changing player balances
+ * Every operation is a single conditional update on the player document: the balance check goes in
+ * the filter and the change is an increment, so two games or commands running at once can never
+ * spend the same coins twice. Players are read through the {@link PlayerCache}, which takes each
+ * player's balance from the update that changed it. Each operation returns the balance after the
+ * change, or null if it was not applied (the player does not exist or cannot cover the amount). A
+ * database error is thrown rather than returned as null, so callers never report it as a lack of
+ * funds. Every change that is applied is recorded in the {@link EconomyLedger}.
+ */
+public class EconomyService {
+    private static final Logger logger = LoggerFactory.getLogger(EconomyService.class);
+    private static final long DAILY_COOLDOWN_MS = TimeUnit.DAYS.toMillis(1);
+    // A transfer takes milliseconds; one pending this long was interrupted
+    private static final long TRANSFER_RECOVERY_AGE_MS = TimeUnit.MINUTES.toMillis(5);
+    
+    private final PlayerCache playerCache;
+    private final PlayerRepository playerRepository;
+    private final EconomyTransferRepository transferRepository;
+    private final EconomyLedger ledger;
+    
+    public EconomyService() {
+        this(PlayerCache.getInstance(), new PlayerRepository(), new EconomyTransferRepository(),
+                EconomyLedger.getInstance());
+    }
+    
+    public EconomyService(PlayerCache playerCache, PlayerRepository playerRepository,
+                          EconomyTransferRepository transferRepository, EconomyLedger ledger) {
+        this.playerCache = playerCache;
+        this.playerRepository = playerRepository;
+        this.transferRepository = transferRepository;
+        this.ledger = ledger;
+    }
+    
+    /**
+     * Get a player for display
+     * @return The player, or null if it does not exist
+     */
+    public Player getPlayer(String playerId) {
+        return playerCache.get(playerId);
+    }
+    
+    /**
+     * Remove coins from a wallet if it holds at least that many
+     * @param source What the coins are spent on, recorded in the ledger
+     */
+    public Currency debit(String playerId, long amount, Type type, String source) {
+        if (amount <= 0) {
+            return getBalance(playerId);
+        }
+        Currency balance = playerCache.updateCurrency(playerId,
+                Filters.gte("currency.coins", amount),
+                Updates.combine(
+                        Updates.inc("currency.coins", -amount),
+                        Updates.inc("currency.totalSpent", amount)));
+        if (balance != null) {
+            ledger.record(playerId, type, -amount, 0, source);
+        }
+        return balance;
+    }
+    
+    /**
+     * Add coins to a wallet
+     * @param source Where the coins come from, recorded in the ledger
+     */
+    public Currency credit(String playerId, long amount, Type type, String source) {
+        if (amount <= 0) {
+            return getBalance(playerId);
+        }
+        Currency balance = playerCache.updateCurrency(playerId, null,
+                Updates.combine(
+                        Updates.inc("currency.coins", amount),
+                        Updates.inc("currency.totalEarned", amount)));
+        if (balance != null) {
+            ledger.record(playerId, type, amount, 0, source);
+        }
+        return balance;
+    }
+    
+    /**
+     * Move coins from one player's wallet to another's
+     * The transfer is recorded first, then the sender is debited with the usual balance check and the
+     * recipient credited, each change marking the player with the transfer. If the recipient cannot
+     * be credited the coins are returned to the sender. A transfer interrupted between the two
+     * changes is finished by {@link #recoverTransfers()}; the marks keep either change from being
+     * applied twice.
+     * @return The sender's balance after the transfer, or null if it was not applied
+     */
+    public Currency transfer(String fromPlayerId, String toPlayerId, long amount) {
+        if (amount <= 0 || fromPlayerId.equals(toPlayerId)) {
+            return null;
+        }
+        
+        EconomyTransfer transfer = new EconomyTransfer(fromPlayerId, toPlayerId, amount);
+        transferRepository.insert(transfer);
+        
+        Currency senderBalance = playerCache.updateCurrency(fromPlayerId,
+                Filters.and(
+                        Filters.gte("currency.coins", amount),
+                        Filters.ne(PlayerRepository.PENDING_TRANSFERS, transfer.getId())),
+                Updates.combine(
+                        Updates.inc("currency.coins", -amount),
+                        Updates.inc("currency.totalSpent", amount),
+                        Updates.addToSet(PlayerRepository.PENDING_TRANSFERS, transfer.getId())));
+        if (senderBalance == null) {
+            transferRepository.finish(transfer.getId(), EconomyTransfer.State.CANCELLED);
+            return null;
+        }
+        ledger.record(fromPlayerId, Type.TRANSFER, -amount, 0, toPlayerId);
+        
+        return completeTransfer(transfer) ? senderBalance : null;
+    }
+    
+    /**
+     * Finish or refund the transfers left pending by an interrupted transfer
+     * Only transfers older than {@link #TRANSFER_RECOVERY_AGE_MS} are touched, so one still in
+     * progress is left to the call that started it.
+     * @return The number of transfers finished or refunded
+     */
+    public int recoverTransfers() {
+        int recovered = 0;
+        for (EconomyTransfer transfer : transferRepository.findPendingBefore(
+                System.currentTimeMillis() - TRANSFER_RECOVERY_AGE_MS)) {
+            try {
+                if (playerRepository.hasPendingTransfer(transfer.getFromPlayerId(), transfer.getId())) {
+                    completeTransfer(transfer);
+                } else {
+                    // The sender was never debited, or has already been refunded
+                    transferRepository.finish(transfer.getId(), EconomyTransfer.State.CANCELLED);
+                }
+                recovered++;
+            } catch (Exception e) {
+                logger.error("Error recovering transfer {}", transfer.getId(), e);
+            }
+        }
+        if (recovered > 0) {
+            logger.info("Recovered {} interrupted coin transfers", recovered);
+        }
+        return recovered;
+    }
+    
+    /**
+     * Credit the recipient of a transfer whose sender has been debited, or refund the sender
+     * @return True if the recipient has the coins
+     */
+    private boolean completeTransfer(EconomyTransfer transfer) {
+        ObjectId transferId = transfer.getId();
+        String fromPlayerId = transfer.getFromPlayerId();
+        String toPlayerId = transfer.getToPlayerId();
+        long amount = transfer.getAmount();
+        
+        Currency recipientBalance = playerCache.updateCurrency(toPlayerId,
+                Filters.ne(PlayerRepository.PENDING_TRANSFERS, transferId),
+                Updates.combine(
+                        Updates.inc("currency.coins", amount),
+                        Updates.inc("currency.totalEarned", amount),
+                        Updates.addToSet(PlayerRepository.PENDING_TRANSFERS, transferId)));
+        if (recipientBalance != null) {
+            ledger.record(toPlayerId, Type.TRANSFER, amount, 0, fromPlayerId);
+        } else if (!playerRepository.hasPendingTransfer(toPlayerId, transferId)) {
+            // The recipient does not exist; the refund clears the sender's mark in the same update
+            logger.warn("Transfer of {} coins to {} failed, refunding {}", amount, toPlayerId, fromPlayerId);
+            Currency refunded = playerCache.updateCurrency(fromPlayerId,
+                    Filters.eq(PlayerRepository.PENDING_TRANSFERS, transferId),
+                    Updates.combine(
+                            Updates.inc("currency.coins", amount),
+                            Updates.inc("currency.totalEarned", amount),
+                            Updates.pull(PlayerRepository.PENDING_TRANSFERS, transferId)));
+            if (refunded != null) {
+                ledger.record(fromPlayerId, Type.REFUND, amount, 0, "transfer");
+            }
+            transferRepository.finish(transferId, EconomyTransfer.State.CANCELLED);
+            return false;
+        }
+        
+        // Finished before the marks are cleared, so recovery never takes a cleared sender for an unpaid one
+        transferRepository.finish(transferId, EconomyTransfer.State.DONE);
+        playerRepository.clearPendingTransfer(transferId, fromPlayerId, toPlayerId);
+        return true;
+    }
+    
+    /**
+     * Move coins from a wallet to the bank if the wallet holds at least that many
+     */
+    public Currency deposit(String playerId, long amount) {
+        if (amount <= 0) {
+            return getBalance(playerId);
+        }
+        Currency balance = playerCache.updateCurrency(playerId,
+                Filters.gte("currency.coins", amount),
+                Updates.combine(
+                        Updates.inc("currency.coins", -amount),
+                        Updates.inc("currency.bankCoins", amount)));
+        if (balance != null) {
+            ledger.record(playerId, Type.DEPOSIT, -amount, amount, "bank");
+        }
+        return balance;
+    }
+    
+    /**
+     * Move coins from the bank to a wallet if the bank holds at least that many
+     */
+    public Currency withdraw(String playerId, long amount) {
+        if (amount <= 0) {
+            return getBalance(playerId);
+        }
+        Currency balance = playerCache.updateCurrency(playerId,
+                Filters.gte("currency.bankCoins", amount),
+                Updates.combine(
+                        Updates.inc("currency.bankCoins", -amount),
+                        Updates.inc("currency.coins", amount)));
+        if (balance != null) {
+            ledger.record(playerId, Type.WITHDRAW, amount, -amount, "bank");
+        }
+        return balance;
+    }
+    
+    /**
+     * Pay the daily reward if it has not been claimed within the last day
+     */
+    public Currency claimDailyReward(String playerId, long amount) {
+        long now = System.currentTimeMillis();
+        Currency balance = playerCache.updateCurrency(playerId,
+                Filters.or(
+                        Filters.lte("currency.lastDailyReward", now - DAILY_COOLDOWN_MS),
+                        Filters.exists("currency.lastDailyReward", false)),
+                Updates.combine(
+                        Updates.inc("currency.coins", amount),
+                        Updates.inc("currency.totalEarned", amount),
+                        Updates.set("currency.lastDailyReward", now)));
+        if (balance != null) {
+            ledger.record(playerId, Type.DAILY, amount, 0, "daily");
+        }
+        return balance;
+    }
+    
+    /**
+     * Set a wallet to an exact amount
+     * @param source The reason for the change, recorded in the ledger
+     */
+    public Currency setCoins(String playerId, long amount, String source) {
+        Currency balance = playerCache.updateCurrency(playerId, null, Updates.set("currency.coins", amount));
+        if (balance != null) {
+            ledger.record(playerId, Type.SET, amount, balance.getBankCoins(), source);
+        }
+        return balance;
+    }
+    
+    /**
+     * Reset a player's balance and economy history
+     * @param source The reason for the reset, recorded in the ledger
+     */
+    public Currency resetBalance(String playerId, String source) {
+        Currency balance = playerCache.updateCurrency(playerId, null, Updates.set("currency", new Currency()));
+        if (balance != null) {
+            ledger.record(playerId, Type.SET, 0, 0, source);
+        }
+        return balance;
+    }
+    
+    /**
+     * Get a player's current balance
+     */
+    public Currency getBalance(String playerId) {
+        Player player = playerCache.get(playerId);
+        return player != null ? player.getCurrency() : null;
+    }
+}
@@ -3,14 +3,18 @@ package com.deadside.bot.listeners;
 import com.deadside.bot.commands.economy.BlackjackCommand;
 import com.deadside.bot.commands.economy.RouletteCommand;
 import com.deadside.bot.commands.economy.SlotCommand;
+import com.deadside.bot.commands.stats.LeaderboardCommand;
 import com.deadside.bot.db.models.Faction;
 import com.deadside.bot.db.models.GameServer;
+import com.deadside.bot.db.models.Currency;
+import com.deadside.bot.db.models.EconomyTransaction;
 import com.deadside.bot.db.models.LinkedPlayer;
 import com.deadside.bot.db.models.Player;
 import com.deadside.bot.db.repositories.FactionRepository;
 import com.deadside.bot.db.repositories.GameServerRepository;
 import com.deadside.bot.db.repositories.LinkedPlayerRepository;
-import com.deadside.bot.db.repositories.PlayerRepository;
+import com.deadside.bot.delivery.CommandReplies;
+import com.deadside.bot.economy.EconomyService;
 import com.deadside.bot.premium.FeatureGate;
 import com.deadside.bot.premium.PremiumManager;
 import com.deadside.bot.utils.EmbedUtils;
@@ -31,8 +35,9 @@ public class ButtonListener extends ListenerAdapter {
     private final SlotCommand slotCommand = new SlotCommand();
     private final BlackjackCommand blackjackCommand = new BlackjackCommand();
     private final RouletteCommand rouletteCommand = new RouletteCommand();
+    private final LeaderboardCommand leaderboardCommand = new LeaderboardCommand();
     private final LinkedPlayerRepository linkedPlayerRepository = new LinkedPlayerRepository();
-    private final PlayerRepository playerRepository = new PlayerRepository();
+    private final EconomyService economyService = new EconomyService();
     private final FactionRepository factionRepository = new FactionRepository();
     private final GameServerRepository gameServerRepository = new GameServerRepository();
     private final PremiumManager premiumManager = new PremiumManager();
@@ -77,7 +82,7 @@ public class ButtonListener extends ListenerAdapter {
             }
         } catch (Exception e) {
             logger.error("Error handling button interaction", e);
-            event.reply("An error occurred: " + e.getMessage()).setEphemeral(true).queue();
+            CommandReplies.queue(event, event.reply("An error occurred: " + e.getMessage()).setEphemeral(true));
         }
     }
     
@@ -109,30 +114,30 @@ public class ButtonListener extends ListenerAdapter {
         LinkedPlayer linkedPlayer = linkedPlayerRepository.findByDiscordId(event.getUser().getIdLong());
         
         if (linkedPlayer == null) {
-            event.reply("You don't have a linked Deadside account. Use `/link` to connect your Discord and Deadside accounts.")
-                 .setEphemeral(true).queue();
+            CommandReplies.queue(event, event.reply("You don't have a linked Deadside account. Use `/link` to connect your Discord and Deadside accounts.")
+                 .setEphemeral(true));
             return;
         }
         
         // Get player
-        Player player = playerRepository.findByPlayerId(linkedPlayer.getMainPlayerId());
+        Player player = economyService.getPlayer(linkedPlayer.getMainPlayerId());
         
         if (player == null) {
-            event.reply("Unable to find your player data. This could be because you haven't been active yet.")
-                 .setEphemeral(true).queue();
+            CommandReplies.queue(event, event.reply("Unable to find your player data. This could be because you haven't been active yet.")
+                 .setEphemeral(true));
             return;
         }
         
         // Check if player has enough balance
         if (player.getCurrency().getCoins() < newBet) {
-            event.reply("You don't have enough coins for this bet. Your current balance is " + 
+            CommandReplies.queue(event, event.reply("You don't have enough coins for this bet. Your current balance is " + 
                        String.format("%,d", player.getCurrency().getCoins()) + " coins.")
-                 .setEphemeral(true).queue();
+                 .setEphemeral(true));
             return;
         }
         
         // Acknowledge the button click by deferring edit
-        event.deferEdit().queue();
+        CommandReplies.queue(event, event.deferEdit());
         
         // Start a new slot machine game with the new bet
         startNewSlotGame(event, player, newBet);
@@ -142,8 +147,13 @@ public class ButtonListener extends ListenerAdapter {
      * Start a new slot machine game
      */
     private void startNewSlotGame(ButtonInteractionEvent event, Player player, int betAmount) {
-        // First, take the bet
-        player.getCurrency().removeCoins(betAmount);
+        // First, take the bet, the balance may have changed since it was checked
+        Currency balance = economyService.debit(player.getPlayerId(), betAmount, EconomyTransaction.Type.BET, "slots");
+        if (balance == null) {
+            CommandReplies.queue(event, event.getHook().sendMessage("You don't have enough coins for this bet.").setEphemeral(true));
+            return;
+        }
+        player.setCurrency(balance);
         
         // Animation phases
         final String[] spinningSymbols = {"🎰", "💫", "✨", "🎲", "🎯"};
@@ -159,9 +169,9 @@ public class ButtonListener extends ListenerAdapter {
         initialMessage.append("**Balance**: `").append(String.format("%,d", player.getCurrency().getCoins())).append(" coins`");
         
         // Update the message to show spinning
-        event.getHook().editOriginalEmbeds(
+        CommandReplies.queue(event, event.getHook().editOriginalEmbeds(
                 EmbedUtils.customEmbed("Slot Machine - Spinning", initialMessage.toString(), java.awt.Color.BLUE)
-        ).setComponents().queue(message -> {
+        ).setComponents(), message -> {
             // Start the slot machine animation using the existing method in SlotCommand
             slotCommand.accessAnimateSlotMachine(message, player, betAmount);
         });
@@ -183,7 +193,7 @@ public class ButtonListener extends ListenerAdapter {
         User user = event.getUser();
         
         if (guild == null) {
-            event.reply("This button can only be used in a server.").setEphemeral(true).queue();
+            CommandReplies.queue(event, event.reply("This button can only be used in a server.").setEphemeral(true));
             return;
         }
         
@@ -194,7 +204,7 @@ public class ButtonListener extends ListenerAdapter {
             case "features" -> showPremiumFeatures(event, guild);
             default -> {
                 logger.warn("Unknown premium button action: {}", action);
-                event.reply("Unknown premium action. Please try again.").setEphemeral(true).queue();
+                CommandReplies.queue(event, event.reply("Unknown premium action. Please try again.").setEphemeral(true));
             }
         }
     }
@@ -203,7 +213,7 @@ public class ButtonListener extends ListenerAdapter {
      * Show premium information
      */
     private void showPremiumInfo(ButtonInteractionEvent event, Guild guild) {
-        event.deferReply(true).queue(); // Ephemeral response
+        CommandReplies.queue(event, event.deferReply(true)); // Ephemeral response
         
         long guildId = guild.getIdLong();
         boolean hasPremium = premiumManager.hasPremium(guildId);
@@ -236,14 +246,14 @@ public class ButtonListener extends ListenerAdapter {
                    .append("Discounts are available for longer subscription periods.");
         
         // Add action buttons based on current premium status
-        event.getHook().sendMessageEmbeds(
+        CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                 EmbedUtils.premiumEmbed("Premium Information", description.toString())
         ).addActionRow(
                 hasPremium ? 
                         Button.primary("premium:features", "View Premium Features")
                         : Button.success("premium:purchase", "Get Premium"),
                 Button.link("https://deadside.com/premium", "Learn More")
-        ).queue();
+        ));
     }
     
     /**
@@ -254,34 +264,34 @@ public class ButtonListener extends ListenerAdapter {
         
         // Check if guild already has premium
         if (premiumManager.hasPremium(guildId)) {
-            event.reply("This server already has an active premium subscription: " + 
+            CommandReplies.queue(event, event.reply("This server already has an active premium subscription: " + 
                     premiumManager.getPremiumStatusDetails(guildId))
-                 .setEphemeral(true).queue();
+                 .setEphemeral(true));
             return;
         }
         
         // Show purchase modal
-        event.replyModal(
+        CommandReplies.queue(event, event.replyModal(
                 ModalUtils.createPremiumPurchaseModal(event)
-        ).queue();
+        ));
     }
     
     /**
      * Verify premium payment
      */
     private void verifyPremiumPayment(ButtonInteractionEvent event, Guild guild, User user) {
-        event.deferReply(true).queue(); // Ephemeral response
+        CommandReplies.queue(event, event.deferReply(true)); // Ephemeral response
         
         long guildId = guild.getIdLong();
         long userId = user.getIdLong();
         
         // Check if guild already has premium
         if (premiumManager.hasPremium(guildId)) {
-            event.getHook().sendMessageEmbeds(
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                     EmbedUtils.infoEmbed("Already Premium", 
                             "This server already has an active premium subscription: " + 
                             premiumManager.getPremiumStatusDetails(guildId))
-            ).queue();
+            ));
             return;
         }
         
@@ -289,13 +299,13 @@ public class ButtonListener extends ListenerAdapter {
         boolean verified = premiumManager.verifyTip4servPayment(guildId, userId);
         
         if (verified) {
-            event.getHook().sendMessageEmbeds(
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                     EmbedUtils.premiumEmbed("✨ Payment Verified", 
                             "Your payment has been verified and premium features are now enabled for this server!\n\n" +
                             "All premium features are now available.")
-            ).queue();
+            ));
         } else {
-            event.getHook().sendMessageEmbeds(
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                     EmbedUtils.infoEmbed("Payment Verification", 
                             "No active payment was found for this server.\n\n" +
                             "If you recently purchased premium, it may take a few minutes to process. " +
@@ -304,7 +314,7 @@ public class ButtonListener extends ListenerAdapter {
             ).addActionRow(
                     Button.success("premium:purchase", "Purchase Premium"),
                     Button.link("https://deadside.com/support", "Contact Support")
-            ).queue();
+            ));
         }
     }
     
@@ -312,7 +322,7 @@ public class ButtonListener extends ListenerAdapter {
      * Show premium features
      */
     private void showPremiumFeatures(ButtonInteractionEvent event, Guild guild) {
-        event.deferReply(true).queue(); // Ephemeral response
+        CommandReplies.queue(event, event.deferReply(true)); // Ephemeral response
         
         long guildId = guild.getIdLong();
         boolean hasPremium = premiumManager.hasPremium(guildId);
@@ -355,14 +365,14 @@ public class ButtonListener extends ListenerAdapter {
                    .append("• Daily rewards and economy management\n")
                    .append("• Server owner customization\n\n");
         
-        event.getHook().sendMessageEmbeds(
+        CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                 EmbedUtils.premiumEmbed("Premium Features", description.toString())
         ).addActionRow(
                 hasPremium ? 
                         Button.secondary("refresh:premium_status", "Refresh Status")
                         : Button.success("premium:purchase", "Get Premium"),
                 Button.link("https://deadside.com/premium", "Learn More")
-        ).queue();
+        ));
     }
     
     /**
@@ -376,13 +386,13 @@ public class ButtonListener extends ListenerAdapter {
         String contentType = buttonData[1];
         String action = buttonData[2];
         
-        event.deferEdit().queue();
+        CommandReplies.queue(event, event.deferEdit());
         
         // Placeholder for pagination - this would be expanded in a full implementation
-        event.getHook().editOriginalEmbeds(
+        CommandReplies.queue(event, event.getHook().editOriginalEmbeds(
                 EmbedUtils.infoEmbed("Pagination", 
                         "Pagination for " + contentType + " (action: " + action + ") would be implemented here.")
-        ).queue();
+        ));
     }
     
     /**
@@ -397,11 +407,11 @@ public class ButtonListener extends ListenerAdapter {
         String action = buttonData[2];
         
         // This would contain specific actions based on confirmation type
-        event.deferEdit().queue();
-        event.getHook().editOriginalEmbeds(
+        CommandReplies.queue(event, event.deferEdit());
+        CommandReplies.queue(event, event.getHook().editOriginalEmbeds(
                 EmbedUtils.successEmbed("Confirmed", 
                         "Action confirmed: " + confirmType + " - " + action)
-        ).setComponents().queue();
+        ).setComponents());
     }
     
     /**
@@ -414,21 +424,21 @@ public class ButtonListener extends ListenerAdapter {
         
         String contentType = buttonData[1];
         
-        event.deferEdit().queue();
+        CommandReplies.queue(event, event.deferEdit());
         
         // This would refresh different content types
-        event.getHook().editOriginalEmbeds(
+        CommandReplies.queue(event, event.getHook().editOriginalEmbeds(
                 EmbedUtils.infoEmbed("Content Refreshed", 
                         "The " + contentType + " data has been refreshed.")
-        ).queue();
+        ));
     }
     
     /**
      * Handle close buttons
      */
     private void handleCloseButton(ButtonInteractionEvent event, String[] buttonData) {
-        event.deferEdit().queue();
-        event.getHook().deleteOriginal().queue();
+        CommandReplies.queue(event, event.deferEdit());
+        CommandReplies.queue(event, event.getHook().deleteOriginal());
         logger.debug("Closed interactive message for user: {}", event.getUser().getId());
     }
     
@@ -440,9 +450,14 @@ public class ButtonListener extends ListenerAdapter {
             return;
         }
         
+        if ("next".equals(buttonData[1]) || "prev".equals(buttonData[1])) {
+            leaderboardCommand.handleButtonInteraction(event, buttonData);
+            return;
+        }
+        
         // Placeholder for leaderboard buttons
-        event.deferReply().queue();
-        event.getHook().sendMessage("Leaderboard button action would be implemented here.").queue();
+        CommandReplies.queue(event, event.deferReply());
+        CommandReplies.queue(event, event.getHook().sendMessage("Leaderboard button action would be implemented here."));
     }
     
     /**
@@ -454,8 +469,8 @@ public class ButtonListener extends ListenerAdapter {
         }
         
         // Placeholder for server buttons
-        event.deferReply().queue();
-        event.getHook().sendMessage("Server button action would be implemented here.").queue();
+        CommandReplies.queue(event, event.deferReply());
+        CommandReplies.queue(event, event.getHook().sendMessage("Server button action would be implemented here."));
     }
     
     /**
@@ -467,8 +482,8 @@ public class ButtonListener extends ListenerAdapter {
         }
         
         // Placeholder for faction buttons
-        event.deferReply().queue();
-        event.getHook().sendMessage("Faction button action would be implemented here.").queue();
+        CommandReplies.queue(event, event.deferReply());
+        CommandReplies.queue(event, event.getHook().sendMessage("Faction button action would be implemented here."));
     }
     
     /**
@@ -480,7 +495,7 @@ public class ButtonListener extends ListenerAdapter {
         }
         
         // Placeholder for player buttons
-        event.deferReply().queue();
-        event.getHook().sendMessage("Player button action would be implemented here.").queue();
+        CommandReplies.queue(event, event.deferReply());
+        CommandReplies.queue(event, event.getHook().sendMessage("Player button action would be implemented here."));
     }
 }
\ No newline at end of file
@@ -8,6 +8,7 @@ import com.deadside.bot.db.repositories.FactionRepository;
 import com.deadside.bot.db.repositories.GameServerRepository;
 import com.deadside.bot.db.repositories.LinkedPlayerRepository;
 import com.deadside.bot.db.repositories.PlayerRepository;
+import com.deadside.bot.delivery.CommandReplies;
 import com.deadside.bot.premium.PremiumManager;
 import com.deadside.bot.utils.EmbedUtils;
 import net.dv8tion.jda.api.entities.Guild;
@@ -57,7 +58,7 @@ public class ModalListener extends ListenerAdapter {
             }
         } catch (Exception e) {
             logger.error("Error handling modal interaction", e);
-            event.reply("An error occurred: " + e.getMessage()).setEphemeral(true).queue();
+            CommandReplies.queue(event, event.reply("An error occurred: " + e.getMessage()).setEphemeral(true));
         }
     }
     
@@ -65,7 +66,7 @@ public class ModalListener extends ListenerAdapter {
      * Handle server configuration modal
      */
     private void handleServerConfigModal(ModalInteractionEvent event, String serverId) {
-        event.deferReply(true).queue(); // Ephemeral response
+        CommandReplies.queue(event, event.deferReply(true)); // Ephemeral response
         
         // Extract values from the modal
         String serverName = event.getValue("server_name").getAsString();
@@ -76,10 +77,10 @@ public class ModalListener extends ListenerAdapter {
         
         // Validate port
         if (!PORT_PATTERN.matcher(serverPortStr).matches()) {
-            event.getHook().sendMessageEmbeds(
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                     EmbedUtils.errorEmbed("Invalid Port", 
                             "Server port must be a number between 1 and 65535.")
-            ).queue();
+            ));
             return;
         }
         
@@ -90,10 +91,10 @@ public class ModalListener extends ListenerAdapter {
                 throw new NumberFormatException("Port out of range");
             }
         } catch (NumberFormatException e) {
-            event.getHook().sendMessageEmbeds(
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                     EmbedUtils.errorEmbed("Invalid Port", 
                             "Server port must be a number between 1 and 65535.")
-            ).queue();
+            ));
             return;
         }
         
@@ -117,11 +118,11 @@ public class ModalListener extends ListenerAdapter {
             
             gameServerRepository.save(gameServer);
             
-            event.getHook().sendMessageEmbeds(
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                     EmbedUtils.successEmbed("Server Added", 
                             "Successfully added Deadside server **" + serverName + "**!\n\n" +
                             "The bot will now start monitoring this server for events and player statistics.")
-            ).queue();
+            ));
             
             logger.info("User {} added new server '{}' for guild {}", 
                     event.getUser().getName(), serverName, event.getGuild().getName());
@@ -132,10 +133,10 @@ public class ModalListener extends ListenerAdapter {
                 gameServer = gameServerRepository.findById(serverId);
                 
                 if (gameServer == null) {
-                    event.getHook().sendMessageEmbeds(
+                    CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                             EmbedUtils.errorEmbed("Server Not Found", 
                                     "Could not find server with ID " + serverId + ". Please try adding a new server instead.")
-                    ).queue();
+                    ));
                     return;
                 }
                 
@@ -148,18 +149,18 @@ public class ModalListener extends ListenerAdapter {
                 
                 gameServerRepository.save(gameServer);
                 
-                event.getHook().sendMessageEmbeds(
+                CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                         EmbedUtils.successEmbed("Server Updated", 
                                 "Successfully updated Deadside server **" + serverName + "**!")
-                ).queue();
+                ));
                 
                 logger.info("User {} updated server '{}' for guild {}", 
                         event.getUser().getName(), serverName, event.getGuild().getName());
             } catch (NumberFormatException e) {
-                event.getHook().sendMessageEmbeds(
+                CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                         EmbedUtils.errorEmbed("Invalid Server ID", 
                                 "The server ID is invalid. Please try adding a new server instead.")
-                ).queue();
+                ));
             }
         }
     }
@@ -168,7 +169,7 @@ public class ModalListener extends ListenerAdapter {
      * Handle faction creation modal
      */
     private void handleFactionCreateModal(ModalInteractionEvent event) {
-        event.deferReply().queue(); // Public response
+        CommandReplies.queue(event, event.deferReply()); // Public response
         
         // Extract values from the modal
         String name = event.getValue("faction_name").getAsString();
@@ -184,57 +185,57 @@ public class ModalListener extends ListenerAdapter {
         
         // Validate inputs
         if (!NAME_PATTERN.matcher(name).matches()) {
-            event.getHook().sendMessageEmbeds(
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                     EmbedUtils.errorEmbed("Invalid Name", 
                             "Faction name must be 3-32 characters and contain only alphanumeric characters and spaces.")
-            ).queue();
+            ));
             return;
         }
         
         if (!TAG_PATTERN.matcher(tag).matches()) {
-            event.getHook().sendMessageEmbeds(
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                     EmbedUtils.errorEmbed("Invalid Tag", 
                             "Faction tag must be 2-8 characters and contain only alphanumeric characters.")
-            ).queue();
+            ));
             return;
         }
         
         if (!COLOR_PATTERN.matcher(color).matches()) {
-            event.getHook().sendMessageEmbeds(
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                     EmbedUtils.errorEmbed("Invalid Color", 
                             "Faction color must be a valid hex code (e.g. #FF0000).")
-            ).queue();
+            ));
             return;
         }
         
         // Check if user is already in a faction
         List<Faction> userFactions = factionRepository.findByMember(userId);
         if (!userFactions.isEmpty()) {
-            event.getHook().sendMessageEmbeds(
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                     EmbedUtils.errorEmbed("Already in a Faction", 
                             "You are already a member of the faction **" + userFactions.get(0).getName() + "**.\n" +
                             "You must leave your current faction before creating a new one.")
-            ).queue();
+            ));
             return;
         }
         
         // Check if faction name already exists
         Faction existingFaction = factionRepository.findByNameInGuild(guildId, name);
         if (existingFaction != null) {
-            event.getHook().sendMessageEmbeds(
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                     EmbedUtils.errorEmbed("Faction Already Exists", 
                             "A faction with the name **" + name + "** already exists in this server.")
-            ).queue();
+            ));
             return;
         }
         
         // Check if faction tag already exists
         existingFaction = factionRepository.findByTagInGuild(guildId, tag);
         if (existingFaction != null) {
-            event.getHook().sendMessageEmbeds(
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                     EmbedUtils.errorEmbed("Tag Already Exists", 
                             "A faction with the tag **" + tag + "** already exists in this server.")
-            ).queue();
+            ));
             return;
         }
         
@@ -250,14 +251,14 @@ public class ModalListener extends ListenerAdapter {
             embedColor = EmbedUtils.DEADSIDE_PRIMARY;
         }
         
-        event.getHook().sendMessageEmbeds(
+        CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                 EmbedUtils.customEmbed(
                         "🛡️ Faction Created: " + name + " [" + tag + "]",
                         "**Description**: " + description + "\n\n" +
                         "You are now the owner of this faction. Use `/faction member add @user` to add members.",
                         embedColor
                 )
-        ).queue();
+        ));
         
         logger.info("User {} created faction {} [{}] in guild {}", 
                 user.getName(), name, tag, guild.getName());
@@ -267,7 +268,7 @@ public class ModalListener extends ListenerAdapter {
      * Handle player linking modal
      */
     private void handlePlayerLinkModal(ModalInteractionEvent event) {
-        event.deferReply().queue(); // Public response
+        CommandReplies.queue(event, event.deferReply()); // Public response
         
         // Extract values from the modal
         String playerName = event.getValue("player_name").getAsString();
@@ -278,10 +279,10 @@ public class ModalListener extends ListenerAdapter {
         boolean isAlt = "alt".equals(linkType);
         
         if (!isMain && !isAlt) {
-            event.getHook().sendMessageEmbeds(
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                     EmbedUtils.errorEmbed("Invalid Link Type", 
                             "Link type must be either 'main' or 'alt'.")
-            ).queue();
+            ));
             return;
         }
         
@@ -291,11 +292,11 @@ public class ModalListener extends ListenerAdapter {
         // Find player by name
         List<Player> players = playerRepository.findByNameExact(playerName);
         if (players.isEmpty()) {
-            event.getHook().sendMessageEmbeds(
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                     EmbedUtils.errorEmbed("Player Not Found", 
                             "No player found with the name **" + playerName + "**.\n\n" +
                             "Make sure you've entered your exact in-game name and that you've played on the server before.")
-            ).queue();
+            ));
             return;
         }
         
@@ -305,10 +306,10 @@ public class ModalListener extends ListenerAdapter {
         // Check if player is already linked
         LinkedPlayer linkedPlayer = linkedPlayerRepository.findByPlayerId(playerId);
         if (linkedPlayer != null && linkedPlayer.getDiscordId() != userId) {
-            event.getHook().sendMessageEmbeds(
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                     EmbedUtils.errorEmbed("Already Linked", 
                             "The player **" + playerName + "** is already linked to another Discord user.")
-            ).queue();
+            ));
             return;
         }
         
@@ -322,48 +323,48 @@ public class ModalListener extends ListenerAdapter {
                 userLinkedPlayer = new LinkedPlayer(userId, playerId);
                 linkedPlayerRepository.save(userLinkedPlayer);
                 
-                event.getHook().sendMessageEmbeds(
+                CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                         EmbedUtils.successEmbed("Account Linked", 
                                 "Successfully linked your Discord account to the Deadside player **" + playerName + "** as your main account!")
-                ).queue();
+                ));
             } else {
                 // Update existing link
                 userLinkedPlayer.setMainPlayerId(playerId);
                 linkedPlayerRepository.save(userLinkedPlayer);
                 
-                event.getHook().sendMessageEmbeds(
+                CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                         EmbedUtils.successEmbed("Main Account Updated", 
                                 "Successfully updated your main Deadside account to **" + playerName + "**!")
-                ).queue();
+                ));
             }
         } else {
             // Linking as alt account
             if (userLinkedPlayer == null) {
                 // Must have a main account first
-                event.getHook().sendMessageEmbeds(
+                CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                         EmbedUtils.errorEmbed("No Main Account", 
                                 "You must link a main account before adding alt accounts.\n" +
                                 "Please use `link_type: main` first.")
-                ).queue();
+                ));
                 return;
             }
             
             // Add alt account
             if (userLinkedPlayer.getAltPlayerIds().contains(playerId.toString())) {
-                event.getHook().sendMessageEmbeds(
+                CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                         EmbedUtils.errorEmbed("Already Linked", 
                                 "The player **" + playerName + "** is already linked as one of your alt accounts.")
-                ).queue();
+                ));
                 return;
             }
             
             userLinkedPlayer.addAltPlayerId(playerId.toString());
             linkedPlayerRepository.save(userLinkedPlayer);
             
-            event.getHook().sendMessageEmbeds(
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                     EmbedUtils.successEmbed("Alt Account Added", 
                             "Successfully added **" + playerName + "** as an alt account!")
-            ).queue();
+            ));
         }
         
         logger.info("User {} linked Deadside player '{}' as {}", 
@@ -374,7 +375,7 @@ public class ModalListener extends ListenerAdapter {
      * Handle premium purchase modal
      */
     private void handlePremiumPurchaseModal(ModalInteractionEvent event) {
-        event.deferReply(true).queue(); // Ephemeral response
+        CommandReplies.queue(event, event.deferReply(true)); // Ephemeral response
         
         // Extract values from the modal
         String durationStr = event.getValue("duration").getAsString();
@@ -389,17 +390,17 @@ public class ModalListener extends ListenerAdapter {
         try {
             duration = Integer.parseInt(durationStr);
             if (duration < 1 || duration > 365) {
-                event.getHook().sendMessageEmbeds(
+                CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                         EmbedUtils.errorEmbed("Invalid Duration", 
                                 "Duration must be between 1 and 365 days.")
-                ).queue();
+                ));
                 return;
             }
         } catch (NumberFormatException e) {
-            event.getHook().sendMessageEmbeds(
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                     EmbedUtils.errorEmbed("Invalid Duration", 
                             "Duration must be a number of days.")
-            ).queue();
+            ));
             return;
         }
         
@@ -409,12 +410,12 @@ public class ModalListener extends ListenerAdapter {
         
         // Check if guild already has premium
         if (premiumManager.hasPremium(guildId)) {
-            event.getHook().sendMessageEmbeds(
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                     EmbedUtils.infoEmbed("Already Premium", 
                             "This server already has an active premium subscription.\n\n" +
                             premiumManager.getPremiumStatusDetails(guildId) + "\n\n" +
                             "If you wish to extend the subscription, please wait until it expires or contact support.")
-            ).queue();
+            ));
             return;
         }
         
@@ -476,11 +477,11 @@ public class ModalListener extends ListenerAdapter {
         description.append("Click the button below to complete your purchase.");
         
         // Send payment information with link
-        event.getHook().sendMessageEmbeds(
+        CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                 EmbedUtils.premiumEmbed("Premium Purchase Summary", description.toString())
         ).addActionRow(
                 net.dv8tion.jda.api.interactions.components.buttons.Button.link(paymentLink, "Complete Purchase")
-        ).queue();
+        ));
         
         logger.info("User {} initiated premium purchase for guild {} ({})", 
                 event.getUser().getName(), event.getGuild().getName(), guildId);
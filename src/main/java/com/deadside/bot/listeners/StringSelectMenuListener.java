@@ -7,6 +7,7 @@ import com.deadside.bot.db.models.Player;
 import com.deadside.bot.db.repositories.FactionRepository;
 import com.deadside.bot.db.repositories.GameServerRepository;
 import com.deadside.bot.db.repositories.PlayerRepository;
+import com.deadside.bot.delivery.CommandReplies;
 import com.deadside.bot.premium.FeatureGate;
 import com.deadside.bot.premium.PremiumManager;
 import com.deadside.bot.utils.EmbedUtils;
@@ -47,7 +48,7 @@ public class StringSelectMenuListener extends ListenerAdapter {
             Guild guild = event.getGuild();
             if (guild != null && menuType.startsWith("premium_")) {
                 if (!premiumManager.hasPremium(guild.getIdLong())) {
-                    event.reply("This feature requires an active premium subscription.").setEphemeral(true).queue();
+                    CommandReplies.queue(event, event.reply("This feature requires an active premium subscription.").setEphemeral(true));
                     return;
                 }
             }
@@ -77,12 +78,12 @@ public class StringSelectMenuListener extends ListenerAdapter {
                 default -> {
                     // Unknown menu type
                     logger.warn("Unknown select menu type: {}", menuType);
-                    event.reply("This menu type is not yet implemented.").setEphemeral(true).queue();
+                    CommandReplies.queue(event, event.reply("This menu type is not yet implemented.").setEphemeral(true));
                 }
             }
         } catch (Exception e) {
             logger.error("Error handling select menu interaction", e);
-            event.reply("An error occurred: " + e.getMessage()).setEphemeral(true).queue();
+            CommandReplies.queue(event, event.reply("An error occurred: " + e.getMessage()).setEphemeral(true));
         }
     }
     
@@ -101,18 +102,18 @@ public class StringSelectMenuListener extends ListenerAdapter {
             GameServer server = gameServerRepository.findById(selectedServerId);
             
             if (server == null) {
-                event.reply("Server not found. It may have been deleted.").setEphemeral(true).queue();
+                CommandReplies.queue(event, event.reply("Server not found. It may have been deleted.").setEphemeral(true));
                 return;
             }
             
             // Verify guild isolation
             Guild guild = event.getGuild();
             if (guild == null || server.getGuildId() != guild.getIdLong()) {
-                event.reply("Access denied. This server belongs to a different Discord server.").setEphemeral(true).queue();
+                CommandReplies.queue(event, event.reply("Access denied. This server belongs to a different Discord server.").setEphemeral(true));
                 return;
             }
             
-            event.deferReply().queue();
+            CommandReplies.queue(event, event.deferReply());
             
             // Build server information embed
             StringBuilder description = new StringBuilder();
@@ -132,7 +133,7 @@ public class StringSelectMenuListener extends ListenerAdapter {
             description.append("• Join/Leave Notifications: ").append(server.isJoinLeaveNotificationsEnabled() ? "Enabled" : "Disabled").append("\n");
             
             // Send the message with action buttons
-            event.getHook().sendMessageEmbeds(
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                     EmbedUtils.customEmbed("Server Information: " + server.getName(), 
                             description.toString(), 
                             EmbedUtils.DEADSIDE_PRIMARY)
@@ -140,12 +141,12 @@ public class StringSelectMenuListener extends ListenerAdapter {
                     Button.primary("server:refresh:" + serverId, "Refresh"),
                     Button.secondary("server:edit:" + serverId, "Edit Settings"),
                     Button.danger("server:remove:" + serverId, "Remove Server")
-            ).queue();
+            ));
         } catch (NumberFormatException e) {
-            event.reply("Invalid server ID.").setEphemeral(true).queue();
+            CommandReplies.queue(event, event.reply("Invalid server ID.").setEphemeral(true));
         } catch (Exception e) {
             logger.error("Error handling server selection", e);
-            event.reply("An error occurred while retrieving server information.").setEphemeral(true).queue();
+            CommandReplies.queue(event, event.reply("An error occurred while retrieving server information.").setEphemeral(true));
         }
     }
     
@@ -162,18 +163,18 @@ public class StringSelectMenuListener extends ListenerAdapter {
         // Check for premium access if needed
         Guild guild = event.getGuild();
         if (guild != null && !FeatureGate.hasAccess(guild.getIdLong(), FeatureGate.Feature.BASIC_STATS)) {
-            event.reply("Advanced statistics require a premium subscription.").setEphemeral(true).queue();
+            CommandReplies.queue(event, event.reply("Advanced statistics require a premium subscription.").setEphemeral(true));
             return;
         }
         
-        event.deferReply().queue();
+        CommandReplies.queue(event, event.deferReply());
         
         // Placeholder for stats display
         // In a full implementation, this would fetch detailed stats based on selection
-        event.getHook().sendMessageEmbeds(
+        CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                 EmbedUtils.infoEmbed("Stats: " + selectedType,
                         "This would display " + selectedType + " statistics in a full implementation.")
-        ).queue();
+        ));
     }
     
     /**
@@ -189,20 +190,20 @@ public class StringSelectMenuListener extends ListenerAdapter {
         // Check for premium access
         Guild guild = event.getGuild();
         if (guild != null && !FeatureGate.hasAccess(guild.getIdLong(), FeatureGate.Feature.LEADERBOARDS)) {
-            event.reply("Leaderboards require a premium subscription.").setEphemeral(true).queue();
+            CommandReplies.queue(event, event.reply("Leaderboards require a premium subscription.").setEphemeral(true));
             return;
         }
         
-        event.deferReply().queue();
+        CommandReplies.queue(event, event.deferReply());
         
         // Placeholder for leaderboard display
         // In a full implementation, this would fetch the leaderboard data
-        event.getHook().sendMessageEmbeds(
+        CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                 EmbedUtils.infoEmbed("Leaderboard: " + selectedType,
                         "This would display the " + selectedType + " leaderboard in a full implementation.")
         ).addActionRow(
                 Button.primary("leaderboard:refresh:" + selectedType, "Refresh")
-        ).queue();
+        ));
     }
     
     /**
@@ -219,7 +220,7 @@ public class StringSelectMenuListener extends ListenerAdapter {
             // Check for premium access
             Guild guild = event.getGuild();
             if (guild != null && !FeatureGate.hasAccess(guild.getIdLong(), FeatureGate.Feature.FACTIONS)) {
-                event.reply("Factions require a premium subscription.").setEphemeral(true).queue();
+                CommandReplies.queue(event, event.reply("Factions require a premium subscription.").setEphemeral(true));
                 return;
             }
             
@@ -227,17 +228,17 @@ public class StringSelectMenuListener extends ListenerAdapter {
             Faction faction = factionRepository.findById(new org.bson.types.ObjectId(selectedFactionId));
             
             if (faction == null) {
-                event.reply("Faction not found. It may have been disbanded.").setEphemeral(true).queue();
+                CommandReplies.queue(event, event.reply("Faction not found. It may have been disbanded.").setEphemeral(true));
                 return;
             }
             
             // Verify guild isolation
             if (guild == null || faction.getGuildId() != guild.getIdLong()) {
-                event.reply("Access denied. This faction belongs to a different Discord server.").setEphemeral(true).queue();
+                CommandReplies.queue(event, event.reply("Access denied. This faction belongs to a different Discord server.").setEphemeral(true));
                 return;
             }
             
-            event.deferReply().queue();
+            CommandReplies.queue(event, event.deferReply());
             
             // Show faction details
             // Parse color for embed
@@ -279,18 +280,18 @@ public class StringSelectMenuListener extends ListenerAdapter {
             description.append("\n**Created**: <t:").append(faction.getCreated() / 1000).append(":R>");
             
             // Send faction info with action buttons
-            event.getHook().sendMessageEmbeds(
+            CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                     EmbedUtils.customEmbed("Faction: " + faction.getName(), description.toString(), embedColor)
             ).addActionRow(
                     Button.primary("faction:stats:" + factionId, "View Stats"),
                     Button.secondary("faction:members:" + factionId, "Manage Members"),
                     Button.danger("faction:leave:" + factionId, "Leave Faction")
-            ).queue();
+            ));
         } catch (NumberFormatException e) {
-            event.reply("Invalid faction ID.").setEphemeral(true).queue();
+            CommandReplies.queue(event, event.reply("Invalid faction ID.").setEphemeral(true));
         } catch (Exception e) {
             logger.error("Error handling faction selection", e);
-            event.reply("An error occurred while retrieving faction information.").setEphemeral(true).queue();
+            CommandReplies.queue(event, event.reply("An error occurred while retrieving faction information.").setEphemeral(true));
         }
     }
     
@@ -299,7 +300,7 @@ public class StringSelectMenuListener extends ListenerAdapter {
      */
     private void handleFactionRoleSelection(StringSelectInteractionEvent event, String[] menuData) {
         // Placeholder for faction role selection
-        event.reply("Faction role selection would be implemented here.").setEphemeral(true).queue();
+        CommandReplies.queue(event, event.reply("Faction role selection would be implemented here.").setEphemeral(true));
     }
     
     /**
@@ -307,7 +308,7 @@ public class StringSelectMenuListener extends ListenerAdapter {
      */
     private void handleFactionMemberSelection(StringSelectInteractionEvent event, String[] menuData) {
         // Placeholder for faction member selection
-        event.reply("Faction member selection would be implemented here.").setEphemeral(true).queue();
+        CommandReplies.queue(event, event.reply("Faction member selection would be implemented here.").setEphemeral(true));
     }
     
     /**
@@ -325,15 +326,15 @@ public class StringSelectMenuListener extends ListenerAdapter {
             double price = calculatePremiumPrice(days);
             
             // Show premium purchase confirmation
-            event.reply("You've selected a premium subscription for " + days + " days.\n" +
+            CommandReplies.queue(event, event.reply("You've selected a premium subscription for " + days + " days.\n" +
                     "Price: $" + String.format("%.2f", price) + "\n\n" +
                     "Please use the buttons below to proceed.").setEphemeral(true)
                     .addActionRow(
                             Button.success("premium:purchase:" + days, "Purchase"),
                             Button.secondary("premium:cancel", "Cancel")
-                    ).queue();
+                    ));
         } catch (NumberFormatException e) {
-            event.reply("Invalid duration.").setEphemeral(true).queue();
+            CommandReplies.queue(event, event.reply("Invalid duration.").setEphemeral(true));
         }
     }
     
@@ -348,8 +349,8 @@ public class StringSelectMenuListener extends ListenerAdapter {
         String selectedFeature = event.getValues().get(0);
         
         // Show detailed information about the selected premium feature
-        event.reply("You've selected the " + selectedFeature + " premium feature.\n\n" +
-                "This feature would be described in detail here in a full implementation.").setEphemeral(true).queue();
+        CommandReplies.queue(event, event.reply("You've selected the " + selectedFeature + " premium feature.\n\n" +
+                "This feature would be described in detail here in a full implementation.").setEphemeral(true));
     }
     
     /**
@@ -364,17 +365,17 @@ public class StringSelectMenuListener extends ListenerAdapter {
         Guild guild = event.getGuild();
         
         if (guild == null) {
-            event.reply("This menu can only be used in a server.").setEphemeral(true).queue();
+            CommandReplies.queue(event, event.reply("This menu can only be used in a server.").setEphemeral(true));
             return;
         }
         
-        event.deferReply(true).queue(); // Ephemeral response
+        CommandReplies.queue(event, event.deferReply(true)); // Ephemeral response
         
         // Placeholder for settings management
-        event.getHook().sendMessageEmbeds(
+        CommandReplies.queue(event, event.getHook().sendMessageEmbeds(
                 EmbedUtils.infoEmbed("Settings: " + selectedSetting,
                         "This would allow configuring the " + selectedSetting + " setting in a full implementation.")
-        ).queue();
+        ));
     }
     
     /**
@@ -389,8 +390,8 @@ public class StringSelectMenuListener extends ListenerAdapter {
         String channelPurpose = menuData.length > 1 ? menuData[1] : "unknown";
         
         // Store the selected channel for the specified purpose
-        event.reply("Channel <#" + selectedChannelId + "> has been set as the " + channelPurpose + " channel.")
-                .setEphemeral(true).queue();
+        CommandReplies.queue(event, event.reply("Channel <#" + selectedChannelId + "> has been set as the " + channelPurpose + " channel.")
+                .setEphemeral(true));
     }
     
     /**
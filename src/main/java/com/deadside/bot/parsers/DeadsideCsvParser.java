@@ -1,13 +1,15 @@
 package com.deadside.bot.parsers;
 
 import com.deadside.bot.db.models.GameServer;
-import com.deadside.bot.db.models.Player;
 import com.deadside.bot.db.repositories.PlayerRepository;
+import com.deadside.bot.db.repositories.PlayerStatsBatch;
+import com.deadside.bot.delivery.ChannelRouter;
+import com.deadside.bot.delivery.EmbedBatcher;
+import com.deadside.bot.delivery.OutboundDispatcher.Lane;
 import com.deadside.bot.sftp.SftpConnector;
 import com.deadside.bot.utils.EmbedUtils;
 import net.dv8tion.jda.api.EmbedBuilder;
 import net.dv8tion.jda.api.JDA;
-import net.dv8tion.jda.api.entities.Guild;
 import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -21,12 +23,16 @@ import java.util.regex.Pattern;
 /**
  * Parser for Deadside CSV death log files
  * Format: timestamp;victim;victimId;killer;killerId;weapon;distance
+ * Only the player stats keyed by Deadside ID are fed from here. The leaderboards, kill matrix and
+ * weapon stats come from the killfeed alone, as they are rebuilt from its kill records and this
+ * parser's progress is not saved across restarts.
  */
 public class DeadsideCsvParser {
     private static final Logger logger = LoggerFactory.getLogger(DeadsideCsvParser.class);
     private final JDA jda;
     private final SftpConnector sftpConnector;
     private final PlayerRepository playerRepository;
+    private final EmbedBatcher embedBatcher;
     
     // Map to keep track of processed files for each server
     private final Map<String, Set<String>> processedFiles = new HashMap<>();
@@ -35,18 +41,22 @@ public class DeadsideCsvParser {
     private static final Pattern CSV_LINE_PATTERN = Pattern.compile("^\\d{4}\\.\\d{2}\\.\\d{2}-\\d{2}\\.\\d{2}\\.\\d{2};.*;.*;.*;.*;.*;\\d+;$");
     private static final SimpleDateFormat CSV_DATE_FORMAT = new SimpleDateFormat("yyyy.MM.dd-HH.mm.ss");
     
+    static {
+        // Death log timestamps are written in UTC
+        CSV_DATE_FORMAT.setTimeZone(TimeZone.getTimeZone("UTC"));
+    }
+    
     // Death causes
     private static final Set<String> SUICIDE_CAUSES = new HashSet<>(Arrays.asList(
             "suicide_by_relocation", "suicide", "falling", "bleeding", "drowning", "starvation"
     ));
     
-    public DeadsideCsvParser(JDA jda, SftpConnector sftpConnector, PlayerRepository playerRepository) {
+    public DeadsideCsvParser(JDA jda, SftpConnector sftpConnector, PlayerRepository playerRepository,
+                             EmbedBatcher embedBatcher) {
         this.jda = jda;
         this.sftpConnector = sftpConnector;
         this.playerRepository = playerRepository;
-        
-        // Set timezone for date parsing
-        CSV_DATE_FORMAT.setTimeZone(TimeZone.getTimeZone("UTC"));
+        this.embedBatcher = embedBatcher;
     }
     
     /**
@@ -58,8 +68,8 @@ public class DeadsideCsvParser {
         int totalProcessed = 0;
         
         try {
-            // Skip if killfeed channel not set
-            if (server.getKillfeedChannelId() == 0) {
+            // Skip if killfeed channel not set, and pause while it is unavailable
+            if (!ChannelRouter.getInstance().isAvailable(server.getGuildId(), server.getKillfeedChannelId())) {
                 return 0;
             }
             
@@ -123,12 +133,44 @@ public class DeadsideCsvParser {
      * @return Number of deaths processed
      */
     private int processDeathLog(GameServer server, String content) {
+        List<DeathEntry> entries = parseDeathLog(content, server.getLastProcessedTimestamp());
+        PlayerStatsBatch stats = new PlayerStatsBatch();
+        
+        for (DeathEntry entry : entries) {
+            try {
+                processDeath(server, entry, stats);
+            } catch (Exception e) {
+                logger.warn("Error processing death log entry: {}", entry, e);
+            }
+        }
+        
+        // Write the stats for the whole file in one round trip
+        if (playerRepository.applyStats(stats) < 0) {
+            // Leave the file unprocessed and the timestamp where it was so the file is read again
+            throw new IllegalStateException("Failed to write the stats of a death log for server " + server.getName());
+        }
+        
+        // Update server's last processed timestamp
+        if (!entries.isEmpty()) {
+            server.setLastProcessedTimestamp(System.currentTimeMillis());
+        }
+        
+        return entries.size();
+    }
+    
+    /**
+     * Parse death log file content into entries, skipping lines older than the given timestamp
+     * @param content The file content
+     * @param sinceTimestamp Entries before this epoch millisecond timestamp are skipped
+     * @return The parsed death entries in file order
+     */
+    static List<DeathEntry> parseDeathLog(String content, long sinceTimestamp) {
+        List<DeathEntry> entries = new ArrayList<>();
         if (content == null || content.isEmpty()) {
-            return 0;
+            return entries;
         }
         
         String[] lines = content.split("\\n");
-        int count = 0;
         
         for (String line : lines) {
             line = line.trim();
@@ -147,103 +189,47 @@ public class DeadsideCsvParser {
                     continue;
                 }
                 
-                // Parse death log entry
-                String timestamp = parts[0];
-                String victim = parts[1];
-                String victimId = parts[2];
-                String killer = parts[3];
-                String killerId = parts[4];
-                String weapon = parts[5];
-                int distance = Integer.parseInt(parts[6]);
+                DeathEntry entry = new DeathEntry(parts[0], parts[1], parts[2], parts[3], parts[4], parts[5],
+                        Integer.parseInt(parts[6]));
                 
                 // Skip old entries (based on timestamp)
                 try {
-                    Date deathTime = CSV_DATE_FORMAT.parse(timestamp);
-                    if (deathTime.getTime() < server.getLastProcessedTimestamp()) {
+                    if (parseTimestamp(entry.timestamp) < sinceTimestamp) {
                         continue;
                     }
                 } catch (ParseException e) {
-                    logger.warn("Could not parse death timestamp: {}", timestamp);
+                    logger.warn("Could not parse death timestamp: {}", entry.timestamp);
                 }
                 
-                // Process death
-                processDeath(server, timestamp, victim, victimId, killer, killerId, weapon, distance);
-                count++;
+                entries.add(entry);
             } catch (Exception e) {
                 logger.warn("Error processing death log line: {}", line, e);
             }
         }
         
-        // Update server's last processed timestamp
-        if (count > 0) {
-            server.setLastProcessedTimestamp(System.currentTimeMillis());
-        }
-        
-        return count;
-    }
-    
-    /**
-     * Process a death event
-     */
-    private void processDeath(GameServer server, String timestamp, String victim, String victimId, 
-                             String killer, String killerId, String weapon, int distance) {
-        // Handle different death types
-        boolean isSuicide = SUICIDE_CAUSES.contains(weapon.toLowerCase()) || 
-                            victim.equals(killer);
-        
-        if (isSuicide) {
-            sendSuicideKillfeed(server, timestamp, victim, victimId, weapon);
-        } else {
-            sendPlayerKillKillfeed(server, timestamp, victim, victimId, killer, killerId, weapon, distance);
-            
-            // Update player stats
-            updateKillerStats(killer, killerId);
-            updateVictimStats(victim, victimId);
-        }
+        return entries;
     }
     
     /**
-     * Update the killer's stats
+     * Parse a death log timestamp into epoch milliseconds
      */
-    private void updateKillerStats(String killer, String killerId) {
-        try {
-            Player player = playerRepository.findByDeadsideId(killerId);
-            if (player == null) {
-                // If player doesn't exist in database, don't create yet
-                // They can be created when they link their account
-                return;
-            }
-            
-            // Update kills and score
-            player.setKills(player.getKills() + 1);
-            player.setScore(player.getScore() + 10); // +10 points per kill
-            
-            // Add kill reward
-            // TODO: Add economy reward here if implemented
-            
-            playerRepository.save(player);
-        } catch (Exception e) {
-            logger.error("Error updating killer stats for {}: {}", killer, e.getMessage(), e);
-        }
+    static long parseTimestamp(String timestamp) throws ParseException {
+        return CSV_DATE_FORMAT.parse(timestamp).getTime();
     }
     
     /**
-     * Update the victim's stats
+     * Process a death event
      */
-    private void updateVictimStats(String victim, String victimId) {
-        try {
-            Player player = playerRepository.findByDeadsideId(victimId);
-            if (player == null) {
-                // If player doesn't exist in database, don't create yet
-                return;
-            }
-            
-            // Update deaths
-            player.setDeaths(player.getDeaths() + 1);
+    private void processDeath(GameServer server, DeathEntry entry, PlayerStatsBatch stats) {
+        // Handle different death types
+        if (entry.isSuicide()) {
+            sendSuicideKillfeed(server, entry.timestamp, entry.victim, entry.victimId, entry.weapon);
+        } else {
+            sendPlayerKillKillfeed(server, entry.timestamp, entry.victim, entry.victimId,
+                    entry.killer, entry.killerId, entry.weapon, entry.distance);
             
-            playerRepository.save(player);
-        } catch (Exception e) {
-            logger.error("Error updating victim stats for {}: {}", victim, e.getMessage(), e);
+            // Update player stats (players are only created once they link their account)
+            stats.recordKillById(entry.killerId, entry.victimId);
         }
     }
     
@@ -294,22 +280,48 @@ public class DeadsideCsvParser {
      * Send embed message to the server's killfeed channel
      */
     private void sendToKillfeedChannel(GameServer server, net.dv8tion.jda.api.entities.MessageEmbed embed) {
-        Guild guild = jda.getGuildById(server.getGuildId());
-        if (guild == null) {
-            logger.warn("Guild not found for server {}: {}", server.getName(), server.getGuildId());
+        TextChannel killfeedChannel = ChannelRouter.getInstance().resolve(server.getGuildId(), server.getKillfeedChannelId());
+        if (killfeedChannel == null) {
+            // Destination is gone, the router has already reported it
             return;
         }
         
-        TextChannel killfeedChannel = guild.getTextChannelById(server.getKillfeedChannelId());
-        if (killfeedChannel == null) {
-            logger.warn("Killfeed channel not found for server {}: {}", 
-                    server.getName(), server.getKillfeedChannelId());
-            return;
+        embedBatcher.enqueue(killfeedChannel, embed, Lane.KILL);
+    }
+    
+    /**
+     * A single parsed line of a death log
+     */
+    static final class DeathEntry {
+        final String timestamp;
+        final String victim;
+        final String victimId;
+        final String killer;
+        final String killerId;
+        final String weapon;
+        final int distance;
+        
+        DeathEntry(String timestamp, String victim, String victimId, String killer, String killerId,
+                   String weapon, int distance) {
+            this.timestamp = timestamp;
+            this.victim = victim;
+            this.victimId = victimId;
+            this.killer = killer;
+            this.killerId = killerId;
+            this.weapon = weapon;
+            this.distance = distance;
         }
         
-        killfeedChannel.sendMessageEmbeds(embed).queue(
-                success -> logger.debug("Sent killfeed to channel {}", killfeedChannel.getId()),
-                error -> logger.error("Failed to send killfeed: {}", error.getMessage())
-        );
+        /**
+         * Whether this death was self-inflicted or environmental rather than a player kill
+         */
+        boolean isSuicide() {
+            return SUICIDE_CAUSES.contains(weapon.toLowerCase()) || victim.equals(killer);
+        }
+        
+        @Override
+        public String toString() {
+            return timestamp + ";" + victim + ";" + killer + ";" + weapon + ";" + distance;
+        }
     }
-}
\ No newline at end of file
+}
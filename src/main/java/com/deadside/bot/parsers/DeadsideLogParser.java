@@ -2,11 +2,14 @@ package com.deadside.bot.parsers;
 
 import com.deadside.bot.db.models.GameServer;
 import com.deadside.bot.db.repositories.GameServerRepository;
+import com.deadside.bot.delivery.ChannelRouter;
+import com.deadside.bot.delivery.EmbedBatcher;
+import com.deadside.bot.delivery.OutboundDispatcher.Lane;
 import com.deadside.bot.sftp.SftpConnector;
 import com.deadside.bot.utils.EmbedUtils;
 import net.dv8tion.jda.api.EmbedBuilder;
 import net.dv8tion.jda.api.JDA;
-import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.MessageEmbed;
 import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -14,6 +17,7 @@ import org.slf4j.LoggerFactory;
 import java.awt.*;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -29,29 +33,34 @@ public class DeadsideLogParser {
     private final JDA jda;
     private final GameServerRepository serverRepository;
     private final SftpConnector sftpConnector;
+    private final EmbedBatcher embedBatcher;
+    private final StatusBoard statusBoard;
     private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
     
     // Map to keep track of last processed line for each server
     private final Map<String, Integer> lastLineProcessed = new HashMap<>();
     
-    // Regex patterns for different event types
+    // Open digest windows, keyed by guild and server name
+    private final Map<String, ServerDigest> digests = new ConcurrentHashMap<>();
+    
+    // Regex pattern for the log line timestamp (event patterns are defined on LogEventType)
     private static final Pattern TIMESTAMP_PATTERN = Pattern.compile("\\[(\\d{4}\\.\\d{2}\\.\\d{2}-\\d{2}\\.\\d{2}\\.\\d{2}:\\d{3})\\]\\[\\s*\\d+\\]");
-    private static final Pattern PLAYER_JOIN_PATTERN = Pattern.compile("LogSFPS: \\[Login\\] Player (.+?) connected");
-    private static final Pattern PLAYER_LEAVE_PATTERN = Pattern.compile("LogSFPS: \\[Logout\\] Player (.+?) disconnected");
-    private static final Pattern PLAYER_KILLED_PATTERN = Pattern.compile("LogSFPS: \\[Kill\\] (.+?) killed (.+?) with (.+?) at distance (\\d+)");
-    private static final Pattern PLAYER_DIED_PATTERN = Pattern.compile("LogSFPS: \\[Death\\] (.+?) died from (.+?)");
-    private static final Pattern AIRDROP_PATTERN = Pattern.compile("LogSFPS: AirDrop switched to (\\w+)");
-    private static final Pattern HELI_CRASH_PATTERN = Pattern.compile("LogSFPS: Helicopter crash spawned at position (.+)");
-    private static final Pattern TRADER_EVENT_PATTERN = Pattern.compile("LogSFPS: Trader event started at (.+)");
-    private static final Pattern MISSION_PATTERN = Pattern.compile("LogSFPS: Mission (.+?) switched to (\\w+)");
+    
+    private static final String EVENT_MARKER = "LogSFPS: ";
     
     // Log parsing interval in seconds
     private static final int LOG_PARSE_INTERVAL = 60; // 1 minute
     
-    public DeadsideLogParser(JDA jda, GameServerRepository serverRepository, SftpConnector sftpConnector) {
+    // How often to check for digest windows that have ended
+    public static final int DIGEST_CHECK_INTERVAL = 10;
+    
+    public DeadsideLogParser(JDA jda, GameServerRepository serverRepository, SftpConnector sftpConnector,
+                             EmbedBatcher embedBatcher, StatusBoard statusBoard) {
         this.jda = jda;
         this.serverRepository = serverRepository;
         this.sftpConnector = sftpConnector;
+        this.embedBatcher = embedBatcher;
+        this.statusBoard = statusBoard;
     }
     
     /**
@@ -60,14 +69,17 @@ public class DeadsideLogParser {
     public void startScheduler() {
         logger.info("Starting Deadside log parser scheduler (interval: {} seconds)", LOG_PARSE_INTERVAL);
         scheduler.scheduleAtFixedRate(this::processAllServerLogs, 0, LOG_PARSE_INTERVAL, TimeUnit.SECONDS);
+        scheduler.scheduleAtFixedRate(this::flushDueDigests, DIGEST_CHECK_INTERVAL, DIGEST_CHECK_INTERVAL, TimeUnit.SECONDS);
     }
     
     /**
      * Stop the log parser scheduler
+     * Any open digest windows are sent before returning.
      */
     public void stopScheduler() {
         logger.info("Stopping Deadside log parser scheduler");
         scheduler.shutdown();
+        flushAllDigests();
     }
     
     /**
@@ -79,8 +91,8 @@ public class DeadsideLogParser {
             
             for (GameServer server : servers) {
                 try {
-                    // Skip servers without log channel configured
-                    if (server.getLogChannelId() == 0) {
+                    // Skip servers without log channel configured, and pause while it is unavailable
+                    if (!ChannelRouter.getInstance().isAvailable(server.getGuildId(), server.getLogChannelId())) {
                         continue;
                     }
                     
@@ -142,63 +154,107 @@ public class DeadsideLogParser {
     private void processLogLines(GameServer server, List<String> lines) {
         Set<String> joinedPlayers = new HashSet<>();
         Set<String> leftPlayers = new HashSet<>();
+        ServerDigest digest = getDigest(server);
+        boolean digestJoins = server.isDigestEnabled(GameServer.DIGEST_JOINS);
+        boolean digestLeaves = server.isDigestEnabled(GameServer.DIGEST_LEAVES);
+        boolean digestDeaths = server.isDigestEnabled(GameServer.DIGEST_DEATHS);
+        boolean digestEvents = server.isDigestEnabled(GameServer.DIGEST_EVENTS);
+        boolean board = server.isStatusBoardEnabled();
         
         for (String line : lines) {
-            // Extract timestamp if present
-            String timestamp = "";
-            Matcher timestampMatcher = TIMESTAMP_PATTERN.matcher(line);
-            if (timestampMatcher.find()) {
-                timestamp = timestampMatcher.group(1);
-            }
-            
-            // Player join events
-            Matcher joinMatcher = PLAYER_JOIN_PATTERN.matcher(line);
-            if (joinMatcher.find()) {
-                String playerName = joinMatcher.group(1).trim();
-                joinedPlayers.add(playerName);
-                // Process individually for immediate notification
-                sendPlayerJoinNotification(server, playerName, timestamp);
-                continue;
-            }
-            
-            // Player leave events
-            Matcher leaveMatcher = PLAYER_LEAVE_PATTERN.matcher(line);
-            if (leaveMatcher.find()) {
-                String playerName = leaveMatcher.group(1).trim();
-                leftPlayers.add(playerName);
-                // Process individually for immediate notification
-                sendPlayerLeaveNotification(server, playerName, timestamp);
+            LogEvent event = classifyLine(line);
+            if (event == null) {
                 continue;
             }
             
-            // Player killed events
-            Matcher killedMatcher = PLAYER_KILLED_PATTERN.matcher(line);
-            if (killedMatcher.find()) {
-                String killer = killedMatcher.group(1).trim();
-                String victim = killedMatcher.group(2).trim();
-                String weapon = killedMatcher.group(3).trim();
-                String distance = killedMatcher.group(4).trim();
-                
-                // Send kill notification
-                sendKillNotification(server, killer, victim, weapon, distance, timestamp);
-                continue;
+            String timestamp = event.timestamp;
+            switch (event.type) {
+                case PLAYER_JOIN -> {
+                    if (board) {
+                        statusBoard.recordJoin(server, event.value(0));
+                    }
+                    if (digestJoins) {
+                        digest.counts.addJoin(event.value(0));
+                        continue;
+                    }
+                    joinedPlayers.add(event.value(0));
+                    // Process individually for immediate notification
+                    sendPlayerJoinNotification(server, event.value(0), timestamp);
+                }
+                case PLAYER_LEAVE -> {
+                    if (board) {
+                        statusBoard.recordLeave(server, event.value(0));
+                    }
+                    if (digestLeaves) {
+                        digest.counts.addLeave(event.value(0));
+                        continue;
+                    }
+                    leftPlayers.add(event.value(0));
+                    // Process individually for immediate notification
+                    sendPlayerLeaveNotification(server, event.value(0), timestamp);
+                }
+                case PLAYER_KILLED -> {
+                    if (board) {
+                        statusBoard.recordKill(server, event.value(0), event.value(1), event.value(2), event.value(3));
+                    }
+                    sendKillNotification(server, event.value(0), event.value(1),
+                            event.value(2), event.value(3), timestamp);
+                }
+                case PLAYER_DIED -> {
+                    if (digestDeaths) {
+                        digest.counts.addDeath(event.value(0));
+                    } else {
+                        sendDeathNotification(server, event.value(0), event.value(1), timestamp);
+                    }
+                }
+                case AIRDROP, HELI_CRASH, TRADER_EVENT, MISSION -> {
+                    if (board) {
+                        // The status board replaces individual event posts
+                        recordServerEvent(server, event);
+                    } else if (digestEvents) {
+                        String title = eventDigestTitle(event);
+                        if (title != null) {
+                            digest.counts.addEvent(title);
+                        }
+                    } else {
+                        sendServerEvent(server, event);
+                    }
+                }
             }
-            
-            // Player died events
-            Matcher diedMatcher = PLAYER_DIED_PATTERN.matcher(line);
-            if (diedMatcher.find()) {
-                String player = diedMatcher.group(1).trim();
-                String cause = diedMatcher.group(2).trim();
-                
-                // Send death notification
-                sendDeathNotification(server, player, cause, timestamp);
-                continue;
+        }
+        
+        // Send summary if needed for multiple players
+        if (joinedPlayers.size() > 3) {
+            sendPlayerSummary(server, joinedPlayers, true);
+        }
+        
+        if (leftPlayers.size() > 3) {
+            sendPlayerSummary(server, leftPlayers, false);
+        }
+    }
+    
+    /**
+     * Record an airdrop, helicopter crash, trader or mission event on the server's status board
+     */
+    private void recordServerEvent(GameServer server, LogEvent event) {
+        switch (event.type) {
+            case AIRDROP -> statusBoard.recordAirdrop(server, event.value(0));
+            case HELI_CRASH -> statusBoard.recordHeliCrash(server, event.value(0));
+            case TRADER_EVENT -> statusBoard.recordTraderEvent(server, event.value(0));
+            case MISSION -> statusBoard.recordMission(server, event.value(0), event.value(1));
+            default -> {
             }
-            
-            // Airdrop events
-            Matcher airdropMatcher = AIRDROP_PATTERN.matcher(line);
-            if (airdropMatcher.find()) {
-                String status = airdropMatcher.group(1).trim();
+        }
+    }
+    
+    /**
+     * Send the notification for an airdrop, helicopter crash, trader or mission event
+     */
+    private void sendServerEvent(GameServer server, LogEvent event) {
+        String timestamp = event.timestamp;
+        switch (event.type) {
+            case AIRDROP -> {
+                String status = event.value(0);
                 if (status.equalsIgnoreCase("Waiting")) {
                     // Airdrop is now available
                     sendEventNotification(server, "Airdrop Event", "An airdrop is inbound!", 
@@ -208,32 +264,14 @@ public class DeadsideLogParser {
                     sendEventNotification(server, "Airdrop Event", "An airdrop has been deployed!", 
                             "Status: " + status, Color.BLUE, timestamp);
                 }
-                continue;
             }
-            
-            // Helicopter crash events
-            Matcher heliMatcher = HELI_CRASH_PATTERN.matcher(line);
-            if (heliMatcher.find()) {
-                String position = heliMatcher.group(1).trim();
-                sendEventNotification(server, "Helicopter Crash", "A helicopter has crashed nearby!", 
-                        "Location: " + position, new Color(150, 75, 0), timestamp); // Brown
-                continue;
-            }
-            
-            // Trader events
-            Matcher traderMatcher = TRADER_EVENT_PATTERN.matcher(line);
-            if (traderMatcher.find()) {
-                String position = traderMatcher.group(1).trim();
-                sendEventNotification(server, "Trader Event", "A special trader has appeared!", 
-                        "Location: " + position, new Color(0, 128, 0), timestamp); // Green
-                continue;
-            }
-            
-            // Mission events
-            Matcher missionMatcher = MISSION_PATTERN.matcher(line);
-            if (missionMatcher.find()) {
-                String missionName = missionMatcher.group(1).trim();
-                String status = missionMatcher.group(2).trim();
+            case HELI_CRASH -> sendEventNotification(server, "Helicopter Crash", "A helicopter has crashed nearby!", 
+                    "Location: " + event.value(0), new Color(150, 75, 0), timestamp); // Brown
+            case TRADER_EVENT -> sendEventNotification(server, "Trader Event", "A special trader has appeared!", 
+                    "Location: " + event.value(0), new Color(0, 128, 0), timestamp); // Green
+            case MISSION -> {
+                String missionName = event.value(0);
+                String status = event.value(1);
                 
                 if (status.equalsIgnoreCase("READY") || status.equalsIgnoreCase("ACTIVE")) {
                     sendEventNotification(server, "Mission Available", "A new mission is active!", 
@@ -241,16 +279,115 @@ public class DeadsideLogParser {
                             new Color(148, 0, 211), timestamp); // Purple
                 }
             }
+            default -> {
+            }
         }
-        
-        // Send summary if needed for multiple players
-        if (joinedPlayers.size() > 3) {
-            sendPlayerSummary(server, joinedPlayers, true);
+    }
+    
+    /**
+     * Get the digest title for a server event, matching the individual notification it replaces
+     * @return The title, or null if the event would not have been announced
+     */
+    private static String eventDigestTitle(LogEvent event) {
+        return switch (event.type) {
+            case AIRDROP -> {
+                String status = event.value(0);
+                yield status.equalsIgnoreCase("Waiting") || status.equalsIgnoreCase("Dropped")
+                        || status.equalsIgnoreCase("Active") ? "Airdrop" : null;
+            }
+            case HELI_CRASH -> "Helicopter Crash";
+            case TRADER_EVENT -> "Trader Event";
+            case MISSION -> {
+                String status = event.value(1);
+                yield status.equalsIgnoreCase("READY") || status.equalsIgnoreCase("ACTIVE")
+                        ? "Mission " + event.value(0) : null;
+            }
+            default -> null;
+        };
+    }
+    
+    /**
+     * Get the digest for a server, refreshing the server settings it is sent with
+     */
+    private ServerDigest getDigest(GameServer server) {
+        ServerDigest digest = digests.computeIfAbsent(server.getGuildId() + ":" + server.getName(),
+                key -> new ServerDigest());
+        digest.server = server;
+        return digest;
+    }
+    
+    /**
+     * Send digests whose window has ended
+     */
+    public void flushDueDigests() {
+        try {
+            flushDigests(false);
+        } catch (Exception e) {
+            logger.error("Error sending log digests: {}", e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Send every open digest, regardless of its window
+     */
+    public void flushAllDigests() {
+        try {
+            flushDigests(true);
+        } catch (Exception e) {
+            logger.error("Error sending log digests: {}", e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Send pending digests to their log channels
+     * @param force Send every non-empty digest regardless of its window
+     */
+    private void flushDigests(boolean force) {
+        long now = System.currentTimeMillis();
+        for (ServerDigest digest : digests.values()) {
+            GameServer server = digest.server;
+            long windowMillis = server.getDigestWindowSeconds() * 1000L;
+            if (!force && !digest.counts.isDue(now, windowMillis)) {
+                continue;
+            }
+            
+            MessageEmbed embed = digest.counts.drain(server.getName(), windowMillis);
+            if (embed != null) {
+                sendToLogChannel(server, embed, Lane.EVENT);
+            }
+        }
+    }
+    
+    /**
+     * Classify a single log line against the known event patterns
+     * @param line The raw log line
+     * @return The matched event with its captured values, or null if the line is not an event
+     */
+    static LogEvent classifyLine(String line) {
+        // Every event pattern is anchored on the LogSFPS category, so skip other lines without running the regexes
+        if (!line.contains(EVENT_MARKER)) {
+            return null;
         }
         
-        if (leftPlayers.size() > 3) {
-            sendPlayerSummary(server, leftPlayers, false);
+        for (LogEventType type : LogEventType.VALUES) {
+            Matcher matcher = type.pattern.matcher(line);
+            if (matcher.find()) {
+                String[] values = new String[matcher.groupCount()];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = matcher.group(i + 1).trim();
+                }
+                
+                // Extract timestamp if present
+                String timestamp = "";
+                Matcher timestampMatcher = TIMESTAMP_PATTERN.matcher(line);
+                if (timestampMatcher.find()) {
+                    timestamp = timestampMatcher.group(1);
+                }
+                
+                return new LogEvent(type, timestamp, values);
+            }
         }
+        return null;
     }
     
     /**
@@ -272,7 +409,7 @@ public class DeadsideLogParser {
             embed.setFooter(server.getName(), null);
         }
         
-        sendToLogChannel(server, embed.build());
+        sendToLogChannel(server, embed.build(), Lane.KILL);
     }
     
     /**
@@ -291,7 +428,7 @@ public class DeadsideLogParser {
             embed.setFooter(server.getName(), null);
         }
         
-        sendToLogChannel(server, embed.build());
+        sendToLogChannel(server, embed.build(), Lane.EVENT);
     }
     
     /**
@@ -310,7 +447,7 @@ public class DeadsideLogParser {
             embed.setFooter(server.getName(), null);
         }
         
-        sendToLogChannel(server, embed.build());
+        sendToLogChannel(server, embed.build(), Lane.JOIN_LEAVE);
     }
     
     /**
@@ -329,7 +466,7 @@ public class DeadsideLogParser {
             embed.setFooter(server.getName(), null);
         }
         
-        sendToLogChannel(server, embed.build());
+        sendToLogChannel(server, embed.build(), Lane.JOIN_LEAVE);
     }
     
     /**
@@ -358,7 +495,7 @@ public class DeadsideLogParser {
                 .setTimestamp(new Date().toInstant())
                 .setFooter(server.getName(), null);
         
-        sendToLogChannel(server, embed.build());
+        sendToLogChannel(server, embed.build(), Lane.JOIN_LEAVE);
     }
     
     /**
@@ -382,29 +519,20 @@ public class DeadsideLogParser {
             embed.setFooter(server.getName(), null);
         }
         
-        sendToLogChannel(server, embed.build());
+        sendToLogChannel(server, embed.build(), Lane.EVENT);
     }
     
     /**
      * Send embed message to the server's log channel
      */
-    private void sendToLogChannel(GameServer server, net.dv8tion.jda.api.entities.MessageEmbed embed) {
-        Guild guild = jda.getGuildById(server.getGuildId());
-        if (guild == null) {
-            logger.warn("Guild not found for server {}: {}", server.getName(), server.getGuildId());
-            return;
-        }
-        
-        TextChannel logChannel = guild.getTextChannelById(server.getLogChannelId());
+    private void sendToLogChannel(GameServer server, MessageEmbed embed, Lane lane) {
+        TextChannel logChannel = ChannelRouter.getInstance().resolve(server.getGuildId(), server.getLogChannelId());
         if (logChannel == null) {
-            logger.warn("Log channel not found for server {}: {}", server.getName(), server.getLogChannelId());
+            // Destination is gone, the router has already reported it
             return;
         }
         
-        logChannel.sendMessageEmbeds(embed).queue(
-                success -> logger.debug("Sent log notification to channel {}", logChannel.getId()),
-                error -> logger.error("Failed to send log notification: {}", error.getMessage())
-        );
+        embedBatcher.enqueue(logChannel, embed, lane);
     }
     
     /**
@@ -415,4 +543,56 @@ public class DeadsideLogParser {
         String basePath = server.getGameServerId() + "/Deadside/Saved/Logs/";
         return basePath + "Deadside.log";
     }
-}
\ No newline at end of file
+    
+    /**
+     * Event types recognised in Deadside.log, in matching order
+     */
+    enum LogEventType {
+        PLAYER_JOIN("LogSFPS: \\[Login\\] Player (.+?) connected"),
+        PLAYER_LEAVE("LogSFPS: \\[Logout\\] Player (.+?) disconnected"),
+        PLAYER_KILLED("LogSFPS: \\[Kill\\] (.+?) killed (.+?) with (.+?) at distance (\\d+)"),
+        PLAYER_DIED("LogSFPS: \\[Death\\] (.+?) died from (.+?)"),
+        AIRDROP("LogSFPS: AirDrop switched to (\\w+)"),
+        HELI_CRASH("LogSFPS: Helicopter crash spawned at position (.+)"),
+        TRADER_EVENT("LogSFPS: Trader event started at (.+)"),
+        MISSION("LogSFPS: Mission (.+?) switched to (\\w+)");
+        
+        private static final LogEventType[] VALUES = values();
+        
+        private final Pattern pattern;
+        
+        LogEventType(String regex) {
+            this.pattern = Pattern.compile(regex);
+        }
+    }
+    
+    /**
+     * Digest counters for one server, with the latest settings for that server
+     */
+    private static final class ServerDigest {
+        private final LogDigest counts = new LogDigest();
+        private volatile GameServer server;
+    }
+    
+    /**
+     * A log line that matched one of the event patterns
+     */
+    static final class LogEvent {
+        final LogEventType type;
+        final String timestamp;
+        private final String[] values;
+        
+        LogEvent(LogEventType type, String timestamp, String[] values) {
+            this.type = type;
+            this.timestamp = timestamp;
+            this.values = values;
+        }
+        
+        /**
+         * Get a captured value (0-based, in pattern group order)
+         */
+        String value(int index) {
+            return values[index];
+        }
+    }
+}
@@ -2,9 +2,20 @@ package com.deadside.bot.parsers;
 
 import com.deadside.bot.db.models.GameServer;
 import com.deadside.bot.db.models.KillRecord;
-import com.deadside.bot.db.models.Player;
+import com.deadside.bot.db.repositories.KillMatrixBatch;
+import com.deadside.bot.db.repositories.KillMatrixRepository;
 import com.deadside.bot.db.repositories.KillRecordRepository;
+import com.deadside.bot.db.repositories.KillfeedBatchRepository;
+import com.deadside.bot.db.repositories.KillfeedBatchRepository.Batch;
+import com.deadside.bot.db.repositories.LeaderboardBatch;
+import com.deadside.bot.db.repositories.LeaderboardStore;
 import com.deadside.bot.db.repositories.PlayerRepository;
+import com.deadside.bot.db.repositories.PlayerStatsBatch;
+import com.deadside.bot.db.repositories.WeaponStatsBatch;
+import com.deadside.bot.db.repositories.WeaponStatsRepository;
+import com.deadside.bot.delivery.ChannelRouter;
+import com.deadside.bot.delivery.EmbedBatcher;
+import com.deadside.bot.delivery.OutboundDispatcher.Lane;
 import com.deadside.bot.sftp.SftpManager;
 import com.deadside.bot.utils.EmbedUtils;
 import net.dv8tion.jda.api.JDA;
@@ -17,6 +28,7 @@ import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -28,7 +40,11 @@ public class KillfeedParser {
     private final SftpManager sftpManager;
     private final KillRecordRepository killRecordRepository;
     private final PlayerRepository playerRepository;
+    private final KillMatrixRepository killMatrixRepository;
+    private final WeaponStatsRepository weaponStatsRepository;
+    private final KillfeedBatchRepository batchRepository;
     private final JDA jda;
+    private final EmbedBatcher embedBatcher;
     
     // CSV format: "1970/01/01-00:00:00","PlayerName1","killed","PlayerName2","with","WeaponName","from","100m"
     private static final Pattern CSV_PATTERN = Pattern.compile(
@@ -37,31 +53,40 @@ public class KillfeedParser {
     
     private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("yyyy/MM/dd-HH:mm:ss");
     
-    public KillfeedParser(JDA jda) {
+    public KillfeedParser(JDA jda, EmbedBatcher embedBatcher) {
         this.jda = jda;
+        this.embedBatcher = embedBatcher;
         this.sftpManager = new SftpManager();
         this.killRecordRepository = new KillRecordRepository();
         this.playerRepository = new PlayerRepository();
+        this.killMatrixRepository = new KillMatrixRepository();
+        this.weaponStatsRepository = new WeaponStatsRepository();
+        this.batchRepository = new KillfeedBatchRepository();
     }
     
     /**
      * Process killfeed for a server
+     * The file is read and parsed on the calling thread; the writes run on the async database pool.
+     * The kills are posted and the server's progress moves on only once every write has succeeded,
+     * so a failed write leaves the lines to be read again on the next run. The lines are written as a
+     * batch recorded before the writes: reading them again resumes it, so the records and counters
+     * that were written the first time are skipped rather than counted twice.
      * @param server The game server to process
-     * @return Number of new kill records processed
+     * @return A future with the number of new kill records processed, 0 if any write failed
      */
-    public int processServer(GameServer server) {
+    public CompletableFuture<Integer> processServer(GameServer server) {
         try {
-            TextChannel killfeedChannel = jda.getTextChannelById(server.getKillfeedChannelId());
+            // Pause while the killfeed channel is unavailable, the router has already reported it
+            TextChannel killfeedChannel = ChannelRouter.getInstance().resolve(server.getGuildId(), server.getKillfeedChannelId());
             if (killfeedChannel == null) {
-                logger.warn("Killfeed channel not found for server: {}", server.getName());
-                return 0;
+                return CompletableFuture.completedFuture(0);
             }
             
             // Get CSV files
             List<String> files = sftpManager.getKillfeedFiles(server);
             if (files.isEmpty()) {
                 logger.warn("No killfeed files found for server: {}", server.getName());
-                return 0;
+                return CompletableFuture.completedFuture(0);
             }
             
             // Sort files by name (should be date-based)
@@ -93,55 +118,88 @@ public class KillfeedParser {
             if (fileContent.isEmpty()) {
                 logger.warn("Empty or unreadable killfeed file: {} for server: {}", 
                         lastProcessedFile, server.getName());
-                return 0;
+                return CompletableFuture.completedFuture(0);
             }
             
             String[] lines = fileContent.split("\n");
-            List<KillRecord> newRecords = new ArrayList<>();
-            int processedKills = 0;
+            String serverId = server.getId().toHexString();
+            String fileKey = serverId + ":" + lastProcessedFile;
+            long startLine = lastProcessedLine + 1;
             
-            // Process each line after the last processed line
-            for (int i = 0; i < lines.length; i++) {
-                if (i <= lastProcessedLine) continue;
-                
+            // Resume a batch whose writes failed, reading no further than it did
+            Batch resumed = batchRepository.findStartingAt(serverId, lastProcessedFile, startLine);
+            long endLine = resumed != null ? Math.min(resumed.endLine, lines.length - 1) : lines.length - 1;
+            
+            List<KillRecord> newRecords = new ArrayList<>();
+            for (int i = (int) startLine; i <= endLine; i++) {
                 String line = lines[i].trim();
                 if (line.isEmpty()) continue;
                 
                 KillRecord killRecord = parseKillRecord(line, server);
                 if (killRecord != null) {
+                    killRecord.setId(KillRecordRepository.lineId(fileKey, i, killRecord.getTimestamp()));
                     newRecords.add(killRecord);
-                    processedKills++;
-                    
-                    // Update player stats
-                    updatePlayerStats(killRecord);
-                    
-                    // Send to Discord channel
-                    sendKillfeedMessage(killfeedChannel, killRecord);
                 }
                 
                 lastProcessedLine = i;
             }
             
-            // Save all new records to database
-            if (!newRecords.isEmpty()) {
-                killRecordRepository.saveAll(newRecords);
+            String processedFile = lastProcessedFile;
+            long processedLine = lastProcessedLine;
+            if (newRecords.isEmpty()) {
+                server.updateKillfeedProgress(processedFile, processedLine);
+                return CompletableFuture.completedFuture(0);
             }
             
-            // Update server progress
-            server.updateKillfeedProgress(lastProcessedFile, lastProcessedLine);
+            Batch batch = resumed != null ? resumed
+                    : batchRepository.start(serverId, processedFile, startLine, processedLine);
+            
+            // Aggregate the kills, written once for the whole batch below
+            PlayerStatsBatch stats = new PlayerStatsBatch(batch.key);
+            LeaderboardBatch leaderboard = new LeaderboardBatch(batch.key);
+            KillMatrixBatch matchups = new KillMatrixBatch(batch.key);
+            WeaponStatsBatch weapons = new WeaponStatsBatch(batch.key);
+            for (KillRecord killRecord : newRecords) {
+                stats.recordKillByName(killRecord.getKiller(), killRecord.getVictim(), killRecord.getWeapon());
+                leaderboard.recordKill(killRecord.getGuildId(), killRecord.getServerId(),
+                        killRecord.getKiller(), killRecord.getVictim(), killRecord.getWeapon());
+                matchups.recordKill(killRecord.getGuildId(), killRecord.getKiller(), killRecord.getVictim());
+                weapons.recordKill(killRecord.getGuildId(), killRecord.getKiller(),
+                        killRecord.getWeapon(), killRecord.getDistance());
+            }
             
-            logger.info("Processed {} new kills for server: {}", processedKills, server.getName());
-            return processedKills;
+            // Save new records, player stats, leaderboards, matchups and weapon stats concurrently, all must land before progress moves on
+            CompletableFuture<Void> records = batch.recordsSaved ? CompletableFuture.completedFuture(null)
+                    : killRecordRepository.saveAllAsync(newRecords)
+                            .thenCompose(saved -> batchRepository.markRecordsSavedAsync(serverId, batch));
+            return CompletableFuture.allOf(
+                    records,
+                    playerRepository.applyStatsAsync(stats),
+                    LeaderboardStore.getInstance().applyAsync(leaderboard),
+                    killMatrixRepository.applyAsync(matchups),
+                    weaponStatsRepository.applyAsync(weapons)
+            ).thenApply(written -> {
+                for (KillRecord killRecord : newRecords) {
+                    sendKillfeedMessage(killfeedChannel, killRecord);
+                }
+                server.updateKillfeedProgress(processedFile, processedLine);
+                
+                logger.info("Processed {} new kills for server: {}", newRecords.size(), server.getName());
+                return newRecords.size();
+            }).exceptionally(e -> {
+                logger.error("Error saving killfeed for server: {}, the lines will be read again", server.getName(), e);
+                return 0;
+            });
         } catch (Exception e) {
             logger.error("Error processing killfeed for server: {}", server.getName(), e);
-            return 0;
+            return CompletableFuture.completedFuture(0);
         }
     }
     
     /**
      * Parse a CSV line into a KillRecord
      */
-    private KillRecord parseKillRecord(String line, GameServer server) {
+    static KillRecord parseKillRecord(String line, GameServer server) {
         Matcher matcher = CSV_PATTERN.matcher(line);
         if (!matcher.matches()) {
             logger.warn("Killfeed line does not match expected format: {}", line);
@@ -162,7 +220,7 @@ public class KillfeedParser {
             }
             
             long distance = Long.parseLong(distanceStr);
-            long timeMs = DATE_FORMAT.parse(timestamp).getTime();
+            long timeMs = parseTimestamp(timestamp);
             
             return new KillRecord(
                     server.getGuildId(),
@@ -187,64 +245,10 @@ public class KillfeedParser {
     }
     
     /**
-     * Update player statistics from a kill record
+     * Parse a killfeed timestamp into epoch milliseconds
      */
-    private void updatePlayerStats(KillRecord record) {
-        try {
-            // Find or create killer player
-            Player killer = playerRepository.findByName(record.getKiller());
-            if (killer == null) {
-                // Create new player with a generated ID based on name
-                killer = new Player(record.getKiller().toLowerCase().replace(" ", "_") + "_id", record.getKiller());
-                playerRepository.save(killer);
-            }
-            
-            // Find or create victim player
-            Player victim = playerRepository.findByName(record.getVictim());
-            if (victim == null) {
-                // Create new player with a generated ID based on name
-                victim = new Player(record.getVictim().toLowerCase().replace(" ", "_") + "_id", record.getVictim());
-                playerRepository.save(victim);
-            }
-            
-            // Update killer stats
-            killer.addKill();
-            playerRepository.save(killer);
-            
-            // Update victim stats
-            victim.addDeath();
-            playerRepository.save(victim);
-            
-            // Track weapon stats
-            if (killer.getMostUsedWeapon().equals(record.getWeapon())) {
-                killer.setMostUsedWeaponKills(killer.getMostUsedWeaponKills() + 1);
-            } else if (killer.getMostUsedWeaponKills() == 0) {
-                killer.setMostUsedWeapon(record.getWeapon());
-                killer.setMostUsedWeaponKills(1);
-            }
-            // More weapon tracking logic would go here
-            
-            // Track victim stats
-            if (killer.getMostKilledPlayer().equals(record.getVictim())) {
-                killer.setMostKilledPlayerCount(killer.getMostKilledPlayerCount() + 1);
-            } else if (killer.getMostKilledPlayerCount() == 0) {
-                killer.setMostKilledPlayer(record.getVictim());
-                killer.setMostKilledPlayerCount(1);
-            }
-            // More victim tracking logic would go here
-            
-            // Track killer stats for victim
-            if (victim.getKilledByMost().equals(record.getKiller())) {
-                victim.setKilledByMostCount(victim.getKilledByMostCount() + 1);
-            } else if (victim.getKilledByMostCount() == 0) {
-                victim.setKilledByMost(record.getKiller());
-                victim.setKilledByMostCount(1);
-            }
-            // More killer tracking logic would go here
-        } catch (Exception e) {
-            logger.error("Error updating player stats for kill record: {} -> {}", 
-                    record.getKiller(), record.getVictim(), e);
-        }
+    static long parseTimestamp(String timestamp) throws ParseException {
+        return DATE_FORMAT.parse(timestamp).getTime();
     }
     
     /**
@@ -266,6 +270,6 @@ public class KillfeedParser {
                 record.getTimestamp() / 1000
         );
         
-        channel.sendMessageEmbeds(EmbedUtils.killfeedEmbed(title, description)).queue();
+        embedBatcher.enqueue(channel, EmbedUtils.killfeedEmbed(title, description), Lane.KILL);
     }
 }
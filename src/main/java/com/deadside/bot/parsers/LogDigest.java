@@ -0,0 +1,127 @@
+package com.deadside.bot.parsers;
+
+import net.dv8tion.jda.api.EmbedBuilder;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+
+import java.awt.Color;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Rolling digest of log activity for one server
+ * Events are folded into per-name counters as they arrive, so nothing outlives the window
+ * and memory is bounded by the number of distinct names seen in it.
+ */
+class LogDigest {
+    private static final int TOP_NAMES = 5;
+    private static final Color DIGEST_COLOR = new Color(52, 152, 219); // Blue
+    
+    private final Map<String, Integer> joins = new HashMap<>();
+    private final Map<String, Integer> leaves = new HashMap<>();
+    private final Map<String, Integer> deaths = new HashMap<>();
+    private final Map<String, Integer> events = new HashMap<>();
+    private int joinCount;
+    private int leaveCount;
+    private int deathCount;
+    private int eventCount;
+    private long windowStart;
+    
+    synchronized void addJoin(String player) {
+        joinCount++;
+        increment(joins, player);
+    }
+    
+    synchronized void addLeave(String player) {
+        leaveCount++;
+        increment(leaves, player);
+    }
+    
+    synchronized void addDeath(String player) {
+        deathCount++;
+        increment(deaths, player);
+    }
+    
+    synchronized void addEvent(String title) {
+        eventCount++;
+        increment(events, title);
+    }
+    
+    /**
+     * Check whether the current window has ended and has anything to report
+     */
+    synchronized boolean isDue(long now, long windowMillis) {
+        return windowStart > 0 && now - windowStart >= windowMillis;
+    }
+    
+    /**
+     * Build the digest embed for the current window and start a new one
+     * @return The digest embed, or null if nothing happened in the window
+     */
+    synchronized MessageEmbed drain(String serverName, long windowMillis) {
+        if (windowStart == 0) {
+            return null;
+        }
+        
+        EmbedBuilder embed = new EmbedBuilder()
+                .setTitle("Server Activity")
+                .setDescription("Activity over the last " + formatWindow(Math.max(windowMillis,
+                        System.currentTimeMillis() - windowStart)))
+                .setColor(DIGEST_COLOR)
+                .setTimestamp(Instant.now())
+                .setFooter(serverName, null);
+        
+        addField(embed, "Joined", joinCount, joins);
+        addField(embed, "Left", leaveCount, leaves);
+        addField(embed, "Deaths", deathCount, deaths);
+        addField(embed, "Events", eventCount, events);
+        
+        joins.clear();
+        leaves.clear();
+        deaths.clear();
+        events.clear();
+        joinCount = 0;
+        leaveCount = 0;
+        deathCount = 0;
+        eventCount = 0;
+        windowStart = 0;
+        
+        return embed.build();
+    }
+    
+    private void increment(Map<String, Integer> counts, String name) {
+        if (windowStart == 0) {
+            windowStart = System.currentTimeMillis();
+        }
+        counts.merge(name, 1, Integer::sum);
+    }
+    
+    private static void addField(EmbedBuilder embed, String label, int total, Map<String, Integer> counts) {
+        if (total == 0) {
+            return;
+        }
+        
+        String top = counts.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(TOP_NAMES)
+                .map(entry -> entry.getValue() > 1 ? entry.getKey() + " ×" + entry.getValue() : entry.getKey())
+                .collect(Collectors.joining(", "));
+        
+        if (counts.size() > TOP_NAMES) {
+            top += " and " + (counts.size() - TOP_NAMES) + " more";
+        }
+        
+        embed.addField(label + " (" + total + ")", top, false);
+    }
+    
+    private static String formatWindow(long millis) {
+        long seconds = Math.round(millis / 1000.0);
+        if (seconds < 120) {
+            return seconds + " seconds";
+        }
+        return (seconds / 60) + " minutes";
+    }
+}
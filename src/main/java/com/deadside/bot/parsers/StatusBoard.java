@@ -0,0 +1,350 @@
+package com.deadside.bot.parsers;
+
+import com.deadside.bot.db.models.GameServer;
+import com.deadside.bot.db.repositories.GameServerRepository;
+import com.deadside.bot.delivery.ChannelRouter;
+import com.deadside.bot.delivery.OutboundDispatcher;
+import com.deadside.bot.delivery.OutboundDispatcher.Lane;
+import net.dv8tion.jda.api.EmbedBuilder;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
+import net.dv8tion.jda.api.exceptions.ErrorResponseException;
+import net.dv8tion.jda.api.requests.ErrorResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.awt.Color;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Live status boards for game servers
+ * Each server with a board enabled gets one pinned message that is edited in place, at most once
+ * per refresh interval, from state the log parser keeps up to date as lines are processed.
+ */
+public class StatusBoard {
+    private static final Logger logger = LoggerFactory.getLogger(StatusBoard.class);
+    private static final int RECENT_KILLS = 5;
+    private static final int TOP_KILLERS = 5;
+    private static final int MAX_MISSIONS = 10;
+    private static final Color BOARD_COLOR = new Color(46, 204, 113); // Green
+    
+    private final GameServerRepository serverRepository;
+    private final OutboundDispatcher dispatcher;
+    private final long refreshMillis;
+    private final Map<String, ServerState> boards = new ConcurrentHashMap<>();
+    
+    public StatusBoard(GameServerRepository serverRepository, OutboundDispatcher dispatcher, int refreshSeconds) {
+        this.serverRepository = serverRepository;
+        this.dispatcher = dispatcher;
+        this.refreshMillis = Math.max(5, refreshSeconds) * 1000L;
+    }
+    
+    void recordJoin(GameServer server, String player) {
+        ServerState state = getState(server);
+        synchronized (state) {
+            state.online.add(player);
+            state.dirty = true;
+        }
+    }
+    
+    void recordLeave(GameServer server, String player) {
+        ServerState state = getState(server);
+        synchronized (state) {
+            state.online.remove(player);
+            state.dirty = true;
+        }
+    }
+    
+    void recordKill(GameServer server, String killer, String victim, String weapon, String distance) {
+        ServerState state = getState(server);
+        synchronized (state) {
+            state.rollDay();
+            state.killsToday.merge(killer, 1, Integer::sum);
+            state.recentKills.addFirst("**" + killer + "** killed **" + victim + "** (" + weapon + ", " + distance + "m)");
+            if (state.recentKills.size() > RECENT_KILLS) {
+                state.recentKills.removeLast();
+            }
+            state.dirty = true;
+        }
+    }
+    
+    void recordAirdrop(GameServer server, String status) {
+        ServerState state = getState(server);
+        synchronized (state) {
+            state.airdropStatus = status;
+            state.airdropAt = Instant.now().getEpochSecond();
+            state.dirty = true;
+        }
+    }
+    
+    void recordMission(GameServer server, String mission, String status) {
+        ServerState state = getState(server);
+        synchronized (state) {
+            if (status.equalsIgnoreCase("READY") || status.equalsIgnoreCase("ACTIVE")) {
+                state.missions.put(mission, status);
+            } else {
+                state.missions.remove(mission);
+            }
+            state.dirty = true;
+        }
+    }
+    
+    void recordHeliCrash(GameServer server, String location) {
+        ServerState state = getState(server);
+        synchronized (state) {
+            state.heliCrash = location;
+            state.heliCrashAt = Instant.now().getEpochSecond();
+            state.dirty = true;
+        }
+    }
+    
+    void recordTraderEvent(GameServer server, String location) {
+        ServerState state = getState(server);
+        synchronized (state) {
+            state.trader = location;
+            state.traderAt = Instant.now().getEpochSecond();
+            state.dirty = true;
+        }
+    }
+    
+    /**
+     * Edit every board that has changed and has not been edited within the refresh interval
+     */
+    public void refreshDue() {
+        try {
+            long now = System.currentTimeMillis();
+            for (ServerState state : boards.values()) {
+                refresh(state, now, false);
+            }
+        } catch (Exception e) {
+            logger.error("Error refreshing status boards: {}", e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Edit every board that has changed, regardless of the refresh interval
+     */
+    public void refreshAll() {
+        try {
+            long now = System.currentTimeMillis();
+            for (ServerState state : boards.values()) {
+                refresh(state, now, true);
+            }
+        } catch (Exception e) {
+            logger.error("Error refreshing status boards: {}", e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Get the board state for a server, picking up any change to its board settings
+     */
+    private ServerState getState(GameServer server) {
+        ServerState state = boards.computeIfAbsent(server.getGuildId() + ":" + server.getName(),
+                key -> new ServerState());
+        synchronized (state) {
+            if (state.channelId != server.getStatusBoardChannelId()) {
+                // Board moved to another channel (or was enabled), start from the stored message if any
+                state.channelId = server.getStatusBoardChannelId();
+                state.messageId = server.getStatusBoardMessageId();
+                state.dirty = true;
+            }
+            state.server = server;
+        }
+        return state;
+    }
+    
+    private void refresh(ServerState state, long now, boolean force) {
+        GameServer server;
+        MessageEmbed embed;
+        long channelId;
+        long messageId;
+        
+        synchronized (state) {
+            if (!state.dirty || state.inFlight || state.channelId == 0
+                    || (!force && now - state.lastEdit < refreshMillis)) {
+                return;
+            }
+            server = state.server;
+            channelId = state.channelId;
+            messageId = state.messageId;
+            embed = state.buildEmbed();
+            state.dirty = false;
+            state.inFlight = true;
+            state.lastEdit = now;
+        }
+        
+        TextChannel channel = ChannelRouter.getInstance().resolve(server.getGuildId(), channelId);
+        if (channel == null) {
+            // Destination is gone, the router has already reported it
+            finish(state, true);
+            return;
+        }
+        
+        boolean queued;
+        try {
+            if (messageId == 0) {
+                queued = dispatcher.submit(Lane.EVENT, server.getGuildId(), channelId, channel.sendMessageEmbeds(embed),
+                        message -> boardPosted(state, server, channel, message),
+                        error -> boardFailed(state, server, error));
+            } else {
+                queued = dispatcher.submit(Lane.EVENT, server.getGuildId(), channelId,
+                        channel.editMessageEmbedsById(messageId, embed),
+                        message -> finish(state, false),
+                        error -> boardFailed(state, server, error));
+            }
+        } catch (Exception e) {
+            // Missing permissions and similar are thrown synchronously by JDA
+            logger.error("Failed to update status board for server {}: {}", server.getName(), e.getMessage());
+            queued = false;
+        }
+        
+        if (!queued) {
+            // Try again on the next refresh
+            finish(state, true);
+        }
+    }
+    
+    private void boardPosted(ServerState state, GameServer server, TextChannel channel, Message message) {
+        synchronized (state) {
+            if (state.channelId == channel.getIdLong()) {
+                state.messageId = message.getIdLong();
+            }
+        }
+        serverRepository.updateStatusBoardMessageId(server, message.getIdLong());
+        dispatcher.submit(Lane.EVENT, channel.getGuild().getIdLong(), channel.getIdLong(), message.pin(),
+                null, error -> logger.warn("Could not pin status board for server {}: {}", server.getName(), error.getMessage()));
+        finish(state, false);
+    }
+    
+    private void boardFailed(ServerState state, GameServer server, Throwable error) {
+        if (error instanceof ErrorResponseException response
+                && response.getErrorResponse() == ErrorResponse.UNKNOWN_MESSAGE) {
+            // Board was deleted, post a new one on the next refresh
+            synchronized (state) {
+                state.messageId = 0;
+            }
+        } else {
+            logger.error("Failed to update status board for server {}: {}", server.getName(), error.getMessage());
+        }
+        finish(state, true);
+    }
+    
+    private void finish(ServerState state, boolean retry) {
+        synchronized (state) {
+            state.inFlight = false;
+            if (retry) {
+                state.dirty = true;
+            }
+        }
+    }
+    
+    /**
+     * Incrementally maintained board contents for one server
+     */
+    private static final class ServerState {
+        private final Set<String> online = new LinkedHashSet<>();
+        private final Map<String, String> missions = new LinkedHashMap<>();
+        private final Deque<String> recentKills = new ArrayDeque<>();
+        private final Map<String, Integer> killsToday = new HashMap<>();
+        private LocalDate day = LocalDate.now(ZoneOffset.UTC);
+        private String airdropStatus;
+        private long airdropAt;
+        private String heliCrash;
+        private long heliCrashAt;
+        private String trader;
+        private long traderAt;
+        
+        private GameServer server;
+        private long channelId;
+        private long messageId;
+        private long lastEdit;
+        private boolean dirty;
+        private boolean inFlight;
+        
+        /**
+         * Reset the daily kill counts when the UTC day changes
+         */
+        private void rollDay() {
+            LocalDate today = LocalDate.now(ZoneOffset.UTC);
+            if (!today.equals(day)) {
+                day = today;
+                killsToday.clear();
+            }
+        }
+        
+        private MessageEmbed buildEmbed() {
+            rollDay();
+            
+            EmbedBuilder embed = new EmbedBuilder()
+                    .setTitle(server.getName() + " Status")
+                    .setColor(BOARD_COLOR)
+                    .setTimestamp(Instant.now())
+                    .setFooter("Last updated", null);
+            
+            embed.addField("Players Online", String.valueOf(online.size()), true);
+            embed.addField("Airdrop", airdropStatus == null ? "No airdrop yet"
+                    : airdropStatus + " <t:" + airdropAt + ":R>", true);
+            
+            embed.addField("Active Missions", listValue(missions.keySet(), MAX_MISSIONS), false);
+            
+            if (heliCrash != null) {
+                embed.addField("Helicopter Crash", heliCrash + " <t:" + heliCrashAt + ":R>", true);
+            }
+            if (trader != null) {
+                embed.addField("Trader", trader + " <t:" + traderAt + ":R>", true);
+            }
+            
+            embed.addField("Recent Kills", listValue(recentKills, RECENT_KILLS), false);
+            
+            String topKillers = killsToday.entrySet().stream()
+                    .sorted(Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder())
+                            .thenComparing(Map.Entry.comparingByKey()))
+                    .limit(TOP_KILLERS)
+                    .map(entry -> entry.getKey() + " - " + entry.getValue())
+                    .collect(Collectors.joining("\n"));
+            embed.addField("Top Killers Today", topKillers.isEmpty() ? "None" : topKillers, false);
+            
+            return embed.build();
+        }
+    }
+    
+    /**
+     * Join lines into a field value, keeping within the line limit and Discord's field length
+     */
+    private static String listValue(Collection<String> lines, int maxLines) {
+        if (lines.isEmpty()) {
+            return "None";
+        }
+        
+        StringBuilder value = new StringBuilder();
+        int shown = 0;
+        for (String line : lines) {
+            String more = "\n...and " + (lines.size() - shown) + " more";
+            if (shown == maxLines
+                    || value.length() + line.length() + 1 + more.length() > MessageEmbed.VALUE_MAX_LENGTH) {
+                value.append(shown == 0 ? more.substring(1) : more);
+                break;
+            }
+            if (shown > 0) {
+                value.append('\n');
+            }
+            value.append(line);
+            shown++;
+        }
+        return value.toString();
+    }
+}
@@ -1,15 +1,17 @@
 package com.deadside.bot.schedulers;
 
 import com.deadside.bot.db.models.GameServer;
-import com.deadside.bot.db.models.GuildConfig;
 import com.deadside.bot.db.repositories.GameServerRepository;
-import com.deadside.bot.db.repositories.GuildConfigRepository;
+import com.deadside.bot.delivery.EmbedBatcher;
 import com.deadside.bot.parsers.KillfeedParser;
 import net.dv8tion.jda.api.JDA;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Scheduler for processing killfeed data
@@ -17,20 +19,19 @@ import java.util.List;
 public class KillfeedScheduler {
     private static final Logger logger = LoggerFactory.getLogger(KillfeedScheduler.class);
     private final GameServerRepository serverRepository;
-    private final GuildConfigRepository guildConfigRepository;
     private KillfeedParser killfeedParser;
     
     public KillfeedScheduler() {
         this.serverRepository = new GameServerRepository();
-        this.guildConfigRepository = new GuildConfigRepository();
     }
     
     /**
      * Initialize the scheduler with JDA instance
      * @param jda The JDA instance
+     * @param embedBatcher The batcher used to deliver killfeed embeds
      */
-    public void initialize(JDA jda) {
-        this.killfeedParser = new KillfeedParser(jda);
+    public void initialize(JDA jda, EmbedBatcher embedBatcher) {
+        this.killfeedParser = new KillfeedParser(jda, embedBatcher);
     }
     
     /**
@@ -46,25 +47,60 @@ public class KillfeedScheduler {
             logger.info("Starting scheduled killfeed processing");
             
             List<GameServer> servers = serverRepository.findAll();
-            int totalProcessed = 0;
+            List<String> lastFiles = new ArrayList<>(servers.size());
+            List<Long> lastLines = new ArrayList<>(servers.size());
+            List<CompletableFuture<Integer>> results = new ArrayList<>(servers.size());
             
             for (GameServer server : servers) {
-                // Check if this guild has premium (if not, killfeed is still allowed)
-                GuildConfig guildConfig = guildConfigRepository.findByGuildId(server.getGuildId());
-                
-                // Process killfeed for this server
-                int processed = killfeedParser.processServer(server);
-                totalProcessed += processed;
-                
-                // Save server state with updated progress
-                if (processed > 0) {
-                    serverRepository.save(server);
+                // Process killfeed for this server; its writes overlap with reading the next server
+                lastFiles.add(server.getLastProcessedKillfeedFile());
+                lastLines.add(server.getLastProcessedKillfeedLine());
+                results.add(killfeedParser.processServer(server));
+            }
+            
+            // Wait once for every server's writes, each future has already handled its own failure
+            CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0])).join();
+            
+            List<GameServer> progressed = new ArrayList<>();
+            int totalProcessed = 0;
+            for (int i = 0; i < servers.size(); i++) {
+                GameServer server = servers.get(i);
+                totalProcessed += results.get(i).join();
+                if (!Objects.equals(lastFiles.get(i), server.getLastProcessedKillfeedFile())
+                        || lastLines.get(i) != server.getLastProcessedKillfeedLine()) {
+                    progressed.add(server);
                 }
             }
             
-            logger.info("Completed scheduled killfeed processing, total kills processed: {}", totalProcessed);
+            // Write the progress of every server that moved on as one update
+            int saved = serverRepository.updateKillfeedProgress(progressed);
+            if (saved < progressed.size()) {
+                reportUnsavedProgress(progressed);
+            }
+            
+            logger.info("Completed scheduled killfeed processing, total kills processed: {}, progress saved for {}/{} servers",
+                    totalProcessed, saved, progressed.size());
         } catch (Exception e) {
             logger.error("Error in scheduled killfeed processing", e);
         }
     }
+    
+    /**
+     * Log the servers whose stored progress is behind what this cycle processed
+     * Their lines are read again on the next cycle, from the progress that was stored.
+     */
+    private void reportUnsavedProgress(List<GameServer> progressed) {
+        for (GameServer server : progressed) {
+            GameServer stored = serverRepository.findById(server.getId().toHexString());
+            if (stored == null) {
+                // Deleted while its killfeed was read, or unreadable and already logged
+                continue;
+            }
+            if (!Objects.equals(stored.getLastProcessedKillfeedFile(), server.getLastProcessedKillfeedFile())
+                    || stored.getLastProcessedKillfeedLine() != server.getLastProcessedKillfeedLine()) {
+                logger.warn("Killfeed progress of server {} was not saved, reading again from {} line {}",
+                        server.getName(), stored.getLastProcessedKillfeedFile(), stored.getLastProcessedKillfeedLine());
+            }
+        }
+    }
 }
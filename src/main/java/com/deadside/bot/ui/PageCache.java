@@ -0,0 +1,78 @@
+package com.deadside.bot.ui;
+
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import net.dv8tion.jda.api.interactions.components.ActionRow;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Short-lived cache of rendered pages of a paged message
+ * Pages are keyed by what they show, so paging back and forth, or several users paging the same
+ * board, reuses the rendered page until it expires. The least recently used pages are dropped
+ * beyond the size limit.
+ */
+public class PageCache {
+    private final long ttlMillis;
+    private final Map<String, Page> pages;
+    
+    /**
+     * @param ttlMillis How long a page is reused, 0 to disable the cache
+     * @param maxPages The most pages kept
+     */
+    public PageCache(long ttlMillis, int maxPages) {
+        this.ttlMillis = ttlMillis;
+        this.pages = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Page> eldest) {
+                return size() > maxPages;
+            }
+        };
+    }
+    
+    /**
+     * Get a cached page
+     * @return The page, or null if it is not cached or has expired
+     */
+    public synchronized Page get(String key) {
+        Page page = pages.get(key);
+        if (page != null && page.expiresAt <= System.currentTimeMillis()) {
+            pages.remove(key);
+            return null;
+        }
+        return page;
+    }
+    
+    /**
+     * Cache a rendered page
+     */
+    public synchronized void put(String key, MessageEmbed embed, List<ActionRow> components) {
+        if (ttlMillis > 0) {
+            pages.put(key, new Page(embed, components, System.currentTimeMillis() + ttlMillis));
+        }
+    }
+    
+    /**
+     * A rendered page with its navigation components
+     */
+    public static final class Page {
+        private final MessageEmbed embed;
+        private final List<ActionRow> components;
+        private final long expiresAt;
+        
+        private Page(MessageEmbed embed, List<ActionRow> components, long expiresAt) {
+            this.embed = embed;
+            this.components = components;
+            this.expiresAt = expiresAt;
+        }
+        
+        public MessageEmbed getEmbed() {
+            return embed;
+        }
+        
+        public List<ActionRow> getComponents() {
+            return components;
+        }
+    }
+}
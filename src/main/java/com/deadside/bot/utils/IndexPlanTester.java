@@ -0,0 +1,46 @@
+package com.deadside.bot.utils;
+
+import com.deadside.bot.db.IndexManager;
+import com.deadside.bot.db.MongoDBConnection;
+import com.mongodb.client.MongoDatabase;
+import org.bson.Document;
+
+import java.util.List;
+
+/**
+ * Utility to check that every repository query is served by an index
+ * Creates the declared indexes on a MongoDB instance (a local mongod by default), explains each
+ * repository query and exits with a non-zero status if any winning plan is a collection scan.
+ */
+public class IndexPlanTester {
+    
+    private static final String DEFAULT_URI = "mongodb://localhost:27017";
+    
+    public static void main(String[] args) {
+        String uri = args.length > 0 ? args[0] : DEFAULT_URI;
+        System.out.println("======= Verifying query plans against " + uri + " =======");
+        
+        MongoDBConnection.initialize(uri);
+        try {
+            MongoDatabase database = MongoDBConnection.getInstance().getDatabase();
+            database.runCommand(new Document("ping", 1));
+            
+            IndexManager.ensureIndexes(database);
+            
+            List<String> failures = IndexManager.verifyQueryPlans(database);
+            if (failures.isEmpty()) {
+                System.out.println("All repository queries use an index");
+            } else {
+                System.out.println(failures.size() + " repository queries do not use an index:");
+                failures.forEach(failure -> System.out.println("  " + failure));
+            }
+            
+            MongoDBConnection.getInstance().close();
+            System.exit(failures.isEmpty() ? 0 : 1);
+        } catch (Exception e) {
+            System.out.println("Error verifying query plans: " + e.getMessage());
+            MongoDBConnection.getInstance().close();
+            System.exit(2);
+        }
+    }
+}
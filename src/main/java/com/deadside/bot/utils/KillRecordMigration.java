@@ -0,0 +1,138 @@
+package com.deadside.bot.utils;
+
+import com.deadside.bot.config.Config;
+import com.deadside.bot.db.MongoDBConnection;
+import com.deadside.bot.db.models.KillRecord;
+import com.deadside.bot.db.repositories.KillRecordRepository;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.InsertManyOptions;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.Sorts;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Utility to copy kill records into the time-series collection
+ * Records are copied in _id order in batches, and the last copied _id is stored after each batch
+ * so an interrupted run continues where it stopped. Records already past the retention are skipped.
+ * Pass --drop-original-line to leave the raw killfeed line out of the copies.
+ * The source collection is left untouched; drop it once killrecords.timeseries.enabled is on
+ * and the copy has been checked.
+ */
+public class KillRecordMigration {
+    
+    private static final String DEFAULT_URI = "mongodb://localhost:27017";
+    private static final String SOURCE_COLLECTION = "kill_records";
+    private static final String PROGRESS_COLLECTION = "migrations";
+    private static final int BATCH_SIZE = 1000;
+    
+    public static void main(String[] args) {
+        String uri = DEFAULT_URI;
+        boolean dropOriginalLine = false;
+        for (String arg : args) {
+            if (arg.equals("--drop-original-line")) {
+                dropOriginalLine = true;
+            } else {
+                uri = arg;
+            }
+        }
+        
+        System.out.println("======= Migrating kill records to " + KillRecordRepository.TIME_SERIES_COLLECTION_NAME
+                + " on " + uri + " =======");
+        
+        MongoDBConnection.initialize(uri);
+        try {
+            MongoDatabase database = MongoDBConnection.getInstance().getDatabase();
+            database.runCommand(new Document("ping", 1));
+            
+            int retentionDays = Config.getInstance().getKillRecordsRetentionDays();
+            KillRecordRepository.ensureTimeSeriesCollection(database, retentionDays);
+            
+            MongoCollection<KillRecord> source = database.getCollection(SOURCE_COLLECTION, KillRecord.class);
+            MongoCollection<Document> target = database.getCollection(KillRecordRepository.TIME_SERIES_COLLECTION_NAME);
+            MongoCollection<Document> progress = database.getCollection(PROGRESS_COLLECTION);
+            
+            Document marker = progress.find(Filters.eq("_id", KillRecordRepository.TIME_SERIES_COLLECTION_NAME)).first();
+            ObjectId lastId = marker != null ? marker.getObjectId("lastId") : null;
+            if (lastId != null) {
+                System.out.println("Resuming after " + lastId);
+            }
+            
+            long cutoff = retentionDays > 0 ? System.currentTimeMillis() - TimeUnit.DAYS.toMillis(retentionDays) : 0;
+            long copied = 0;
+            long skipped = 0;
+            long start = System.currentTimeMillis();
+            
+            while (true) {
+                Bson filter = lastId != null ? Filters.gt("_id", lastId) : new Document();
+                List<KillRecord> batch = source.find(filter).sort(Sorts.ascending("_id")).limit(BATCH_SIZE)
+                        .into(new ArrayList<>());
+                if (batch.isEmpty()) {
+                    break;
+                }
+                
+                List<Document> documents = new ArrayList<>(batch.size());
+                for (KillRecord record : batch) {
+                    if (record.getTimestamp() < cutoff) {
+                        skipped++;
+                        continue;
+                    }
+                    documents.add(KillRecordRepository.toTimeSeriesDocument(record, !dropOriginalLine)
+                            .append("_id", record.getId()));
+                }
+                
+                if (!documents.isEmpty()) {
+                    target.insertMany(documents, new InsertManyOptions().ordered(false));
+                    copied += documents.size();
+                }
+                
+                lastId = batch.get(batch.size() - 1).getId();
+                progress.replaceOne(Filters.eq("_id", KillRecordRepository.TIME_SERIES_COLLECTION_NAME),
+                        new Document("_id", KillRecordRepository.TIME_SERIES_COLLECTION_NAME).append("lastId", lastId),
+                        new ReplaceOptions().upsert(true));
+                
+                System.out.println("Copied " + copied + " records (" + skipped + " past retention skipped)");
+            }
+            
+            System.out.println("Migration complete in " + (System.currentTimeMillis() - start) + " ms: "
+                    + copied + " copied, " + skipped + " skipped");
+            printStorage(database, SOURCE_COLLECTION);
+            printStorage(database, KillRecordRepository.TIME_SERIES_COLLECTION_NAME);
+            System.out.println("Set killrecords.timeseries.enabled=true to start using the time-series collection");
+            
+            MongoDBConnection.getInstance().close();
+            System.exit(0);
+        } catch (Exception e) {
+            System.out.println("Error migrating kill records: " + e.getMessage());
+            MongoDBConnection.getInstance().close();
+            System.exit(2);
+        }
+    }
+    
+    /**
+     * Print the data and index size of a collection
+     */
+    private static void printStorage(MongoDatabase database, String collection) {
+        try {
+            Document stats = database.runCommand(new Document("collStats", collection));
+            System.out.println(collection + ": storage " + formatBytes(stats.get("storageSize", Number.class))
+                    + ", indexes " + formatBytes(stats.get("totalIndexSize", Number.class)));
+        } catch (Exception e) {
+            System.out.println(collection + ": storage stats unavailable (" + e.getMessage() + ")");
+        }
+    }
+    
+    private static String formatBytes(Number bytes) {
+        if (bytes == null) {
+            return "unknown";
+        }
+        return String.format("%.1f MB", bytes.doubleValue() / (1024 * 1024));
+    }
+}
@@ -0,0 +1,41 @@
+package com.deadside.bot.db;
+
+import com.mongodb.client.MongoDatabase;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.bson.Document;
+
+/**
+ * In-memory MongoDB server shared by the tests
+ * The first call starts the server and connects {@link MongoDBConnection} to it, so repositories
+ * under test run against it unchanged.
+ */
+public final class TestDatabase {
+    private static MongoServer server;
+    
+    private TestDatabase() {
+        // Utility class
+    }
+    
+    /**
+     * Get the database, starting the server and creating the indexes on first use
+     */
+    public static synchronized MongoDatabase get() {
+        if (server == null) {
+            server = new MongoServer(new MemoryBackend());
+            MongoDBConnection.initialize(server.bindAndGetConnectionString());
+            IndexManager.ensureIndexes(MongoDBConnection.getInstance().getDatabase());
+        }
+        return MongoDBConnection.getInstance().getDatabase();
+    }
+    
+    /**
+     * Delete every document of some collections, keeping their indexes
+     */
+    public static void clear(String... collectionNames) {
+        MongoDatabase database = get();
+        for (String name : collectionNames) {
+            database.getCollection(name).deleteMany(new Document());
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.deadside.bot.db.repositories;
+
+import com.deadside.bot.db.TestDatabase;
+import com.deadside.bot.db.models.KillRecord;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class KillRecordRepositoryTest {
+    private static final long GUILD_ID = 1;
+    private static final int ROLLUP_AFTER_DAYS = 30;
+    private static final long DAY = KillRollupRepository.dayOf(System.currentTimeMillis()) - TimeUnit.DAYS.toMillis(40);
+    
+    private KillRecordRepository records;
+    private KillRollupRepository rollups;
+    
+    @BeforeEach
+    void setUp() {
+        TestDatabase.clear("kill_records", KillRollupRepository.COLLECTION_NAME,
+                KillRollupRepository.SLICE_COLLECTION_NAME);
+        records = new KillRecordRepository();
+        rollups = new KillRollupRepository();
+    }
+    
+    @Test
+    void compactRollsUpAndDeletesOldRecords() {
+        records.saveAll(kills(0, 10));
+        
+        records.compact(ROLLUP_AFTER_DAYS);
+        
+        assertEquals(0, storedRecords());
+        assertEquals(10, rolledUpKills());
+        assertEquals(10, rolledUpDeaths());
+        assertNull(rollups.findPendingSlice(GUILD_ID));
+    }
+    
+    @Test
+    void sliceInterruptedWhileDeletingIsNotCountedTwice() {
+        List<KillRecord> kills = kills(0, 10);
+        records.saveAll(kills);
+        
+        // A run that wrote its rollups and deleted only some records before it stopped
+        KillRollupRepository.Slice slice = rollups.startSlice(GUILD_ID, DAY, DAY + KillRollupRepository.DAY_MILLIS);
+        rollups.apply(GUILD_ID, slice, kills);
+        recordCollection().deleteMany(Filters.in("_id", List.of(kills.get(0).getId(), kills.get(1).getId(),
+                kills.get(2).getId(), kills.get(3).getId())));
+        
+        records.compact(ROLLUP_AFTER_DAYS);
+        
+        assertEquals(0, storedRecords());
+        assertEquals(10, rolledUpKills());
+        assertEquals(10, rolledUpDeaths());
+        assertNull(rollups.findPendingSlice(GUILD_ID));
+    }
+    
+    @Test
+    void sliceInterruptedBeforeItsRollupsIsCountedOnce() {
+        records.saveAll(kills(0, 10));
+        rollups.startSlice(GUILD_ID, DAY, DAY + KillRollupRepository.DAY_MILLIS);
+        
+        records.compact(ROLLUP_AFTER_DAYS);
+        
+        assertEquals(0, storedRecords());
+        assertEquals(10, rolledUpKills());
+        assertNull(rollups.findPendingSlice(GUILD_ID));
+    }
+    
+    @Test
+    void recordsAddedToACompactedDayAreRolledUpUnderANewSlice() {
+        records.saveAll(kills(0, 10));
+        records.compact(ROLLUP_AFTER_DAYS);
+        
+        records.saveAll(kills(10, 3));
+        records.compact(ROLLUP_AFTER_DAYS);
+        
+        assertEquals(0, storedRecords());
+        assertEquals(13, rolledUpKills());
+        assertEquals(13, rolledUpDeaths());
+    }
+    
+    private static List<KillRecord> kills(int first, int count) {
+        List<KillRecord> kills = new ArrayList<>(count);
+        for (int i = first; i < first + count; i++) {
+            KillRecord kill = new KillRecord(GUILD_ID, "server", "killer" + i % 3, "victim" + i % 4,
+                    i % 2 == 0 ? "AK" : "M4", 100 + i, DAY + TimeUnit.MINUTES.toMillis(i), null);
+            kill.setId(new ObjectId());
+            kills.add(kill);
+        }
+        return kills;
+    }
+    
+    private static MongoCollection<Document> recordCollection() {
+        return TestDatabase.get().getCollection("kill_records");
+    }
+    
+    private static long storedRecords() {
+        return recordCollection().countDocuments(Filters.eq("guildId", GUILD_ID));
+    }
+    
+    private long rolledUpKills() {
+        long[] kills = {0};
+        rollups.forEachTallyInGuild(GUILD_ID, tally -> kills[0] += tally.getKills());
+        return kills[0];
+    }
+    
+    private static long rolledUpDeaths() {
+        long deaths = 0;
+        for (Document rollup : TestDatabase.get().getCollection(KillRollupRepository.COLLECTION_NAME).find()) {
+            deaths += rollup.getInteger("deaths", 0);
+        }
+        return deaths;
+    }
+}
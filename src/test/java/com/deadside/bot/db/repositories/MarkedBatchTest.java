@@ -0,0 +1,103 @@
+package com.deadside.bot.db.repositories;
+
+import com.deadside.bot.db.TestDatabase;
+import com.deadside.bot.db.models.KillRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MarkedBatchTest {
+    private static final long GUILD_ID = 1;
+    private static final String FILE = "server:2024.01.01-00.00.00.csv";
+    
+    private KillMatrixRepository matrix;
+    private KillRecordRepository records;
+    
+    @BeforeEach
+    void setUp() {
+        TestDatabase.clear(KillMatrixRepository.COLLECTION_NAME, "kill_records");
+        matrix = new KillMatrixRepository();
+        records = new KillRecordRepository();
+    }
+    
+    @Test
+    void markedBatchWrittenAgainIsCountedOnce() {
+        assertTrue(matrix.apply(matchups("batch-1", 2)));
+        assertTrue(matrix.apply(matchups("batch-1", 2)));
+        
+        assertArrayEquals(new int[] {2, 0}, matrix.findHeadToHead(GUILD_ID, "killer", "victim"));
+        assertEquals(1, matrix.findTopVictims(GUILD_ID, "killer", 10).size());
+    }
+    
+    @Test
+    void resumedBatchOnlyChangesTheRowsItMissed() {
+        assertTrue(matrix.apply(matchups("batch-1", 2)));
+        
+        KillMatrixBatch resumed = matchups("batch-1", 2);
+        resumed.recordKills(GUILD_ID, "victim", "killer", 3);
+        assertTrue(matrix.apply(resumed));
+        
+        assertArrayEquals(new int[] {2, 3}, matrix.findHeadToHead(GUILD_ID, "killer", "victim"));
+    }
+    
+    @Test
+    void batchesWithOtherMarkersAndUnmarkedBatchesAddUp() {
+        assertTrue(matrix.apply(matchups("batch-1", 2)));
+        assertTrue(matrix.apply(matchups("batch-2", 1)));
+        assertTrue(matrix.apply(matchups(null, 1)));
+        assertTrue(matrix.apply(matchups(null, 1)));
+        
+        assertArrayEquals(new int[] {5, 0}, matrix.findHeadToHead(GUILD_ID, "killer", "victim"));
+    }
+    
+    @Test
+    void reactiveWritesSkipRowsThatHoldTheMarker() {
+        matrix.applyAsync(matchups("batch-1", 2)).join();
+        matrix.applyAsync(matchups("batch-1", 2)).join();
+        matrix.applyAsync(matchups(null, 1)).join();
+        
+        assertArrayEquals(new int[] {3, 0}, matrix.findHeadToHead(GUILD_ID, "killer", "victim"));
+    }
+    
+    @Test
+    void recordsWithLineIdsAreSavedOnce() {
+        List<KillRecord> kills = lineRecords(5);
+        
+        assertTrue(records.saveAll(kills.subList(0, 3)));
+        assertTrue(records.saveAll(kills));
+        
+        assertEquals(5, records.findRecentByGuildId(GUILD_ID, 100).size());
+    }
+    
+    @Test
+    void reactiveSaveSkipsRecordsAlreadySaved() {
+        List<KillRecord> kills = lineRecords(5);
+        
+        records.saveAllAsync(kills.subList(0, 3)).join();
+        records.saveAllAsync(kills).join();
+        
+        assertEquals(5, records.findRecentByGuildIdAsync(GUILD_ID, 100).join().size());
+    }
+    
+    private static List<KillRecord> lineRecords(int count) {
+        List<KillRecord> kills = new ArrayList<>();
+        for (int line = 0; line < count; line++) {
+            KillRecord kill = new KillRecord(GUILD_ID, "server", "killer", "victim", "AK", 10, 1_700_000_000_000L, null);
+            kill.setId(KillRecordRepository.lineId(FILE, line, kill.getTimestamp()));
+            kills.add(kill);
+        }
+        return kills;
+    }
+    
+    private static KillMatrixBatch matchups(String marker, int kills) {
+        KillMatrixBatch batch = new KillMatrixBatch(marker);
+        batch.recordKills(GUILD_ID, "killer", "victim", kills);
+        return batch;
+    }
+}
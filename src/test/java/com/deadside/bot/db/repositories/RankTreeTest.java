@@ -0,0 +1,74 @@
+package com.deadside.bot.db.repositories;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RankTreeTest {
+    
+    @Test
+    void countAboveMatchesBruteForceUnderRandomAddsAndRemoves() {
+        Random random = new Random(42);
+        RankTree tree = new RankTree();
+        List<Double> values = new ArrayList<>();
+        
+        for (int step = 0; step < 20_000; step++) {
+            if (values.isEmpty() || random.nextInt(3) > 0) {
+                // Few distinct values so repeats and removals of repeated values are exercised
+                double value = random.nextInt(200) / 4.0;
+                tree.add(value);
+                values.add(value);
+            } else {
+                double value = values.remove(random.nextInt(values.size()));
+                tree.remove(value);
+            }
+            
+            if (step % 100 == 0) {
+                assertEquals(values.size(), tree.size());
+                for (int probe = 0; probe < 20; probe++) {
+                    double threshold = random.nextInt(210) / 4.0 - 1;
+                    assertEquals(countAbove(values, threshold), tree.countAbove(threshold),
+                            "count above " + threshold + " at step " + step);
+                }
+            }
+        }
+    }
+    
+    @Test
+    void countAboveExcludesEqualValues() {
+        RankTree tree = new RankTree();
+        tree.add(1.5);
+        tree.add(2.0);
+        tree.add(2.0);
+        tree.add(3.0);
+        
+        assertEquals(4, tree.countAbove(1.0));
+        assertEquals(3, tree.countAbove(1.5));
+        assertEquals(1, tree.countAbove(2.0));
+        assertEquals(0, tree.countAbove(3.0));
+    }
+    
+    @Test
+    void removingAMissingValueChangesNothing() {
+        RankTree tree = new RankTree();
+        tree.add(5);
+        tree.remove(4);
+        
+        assertEquals(1, tree.size());
+        assertEquals(1, tree.countAbove(4));
+    }
+    
+    private static int countAbove(List<Double> values, double threshold) {
+        int count = 0;
+        for (double value : values) {
+            if (Double.compare(value, threshold) > 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
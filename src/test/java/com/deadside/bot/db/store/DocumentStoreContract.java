@@ -0,0 +1,164 @@
+package com.deadside.bot.db.store;
+
+import com.deadside.bot.db.models.GameServer;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Behaviour every {@link DocumentStore} must share, run against each implementation by its subclass
+ */
+abstract class DocumentStoreContract {
+    private static final Set<String> PROGRESS_FIELDS = Set.of("lastProcessedKillfeedFile", "lastProcessedKillfeedLine");
+    
+    private DocumentStore<GameServer> store;
+    
+    /**
+     * Open an empty store of game servers
+     */
+    abstract DocumentStore<GameServer> openEmptyStore() throws Exception;
+    
+    @BeforeEach
+    void openStore() throws Exception {
+        store = openEmptyStore();
+    }
+    
+    @Test
+    void savedDocumentIsFoundByIdAndByConditions() {
+        GameServer server = save(server(1, "alpha"));
+        save(server(1, "beta"));
+        save(server(2, "gamma"));
+        
+        assertEquals("alpha", store.findById(server.getId()).getName());
+        assertEquals("beta", store.findOne(Map.of("guildId", 1L, "name", "beta")).getName());
+        assertEquals(List.of("alpha", "beta"), names(store.find(Map.of("guildId", 1L))));
+        assertEquals(List.of("alpha", "beta", "gamma"), names(store.find(Map.of())));
+        assertNull(store.findById(new ObjectId()));
+        assertNull(store.findOne(Map.of("guildId", 3L)));
+    }
+    
+    @Test
+    void saveReplacesTheDocumentWithTheSameId() {
+        GameServer server = save(server(1, "alpha"));
+        server.setHost("changed");
+        server.setKillfeedChannelId(0);
+        store.save(server.getId(), server);
+        
+        GameServer stored = store.findById(server.getId());
+        assertEquals("changed", stored.getHost());
+        assertEquals(0, stored.getKillfeedChannelId());
+        assertEquals(1, store.find(Map.of()).size());
+    }
+    
+    @Test
+    void saveKeepsTheStoredValuesOfKeptFields() {
+        GameServer server = save(server(1, "alpha"));
+        store.update(Map.of("_id", server.getId()),
+                Map.of("lastProcessedKillfeedFile", "new.csv", "lastProcessedKillfeedLine", 20L));
+        
+        // A copy read before the progress update is saved with a configuration change
+        server.setHost("changed");
+        assertTrue(store.save(server.getId(), server, PROGRESS_FIELDS));
+        
+        GameServer stored = store.findById(server.getId());
+        assertEquals("changed", stored.getHost());
+        assertEquals("new.csv", stored.getLastProcessedKillfeedFile());
+        assertEquals(20, stored.getLastProcessedKillfeedLine());
+    }
+    
+    @Test
+    void saveWithKeptFieldsDoesNotBringBackADeletedDocument() {
+        GameServer server = save(server(1, "alpha"));
+        assertTrue(store.delete(Map.of("_id", server.getId())));
+        
+        server.setHost("changed");
+        assertFalse(store.save(server.getId(), server, PROGRESS_FIELDS));
+        assertNull(store.findById(server.getId()));
+        assertTrue(store.find(Map.of()).isEmpty());
+    }
+    
+    @Test
+    void updateSetsOnlyTheGivenFields() {
+        GameServer server = save(server(1, "alpha"));
+        
+        assertTrue(store.update(Map.of("guildId", 1L, "name", "alpha"), Map.of("statusBoardMessageId", 42L)));
+        assertFalse(store.update(Map.of("guildId", 1L, "name", "missing"), Map.of("statusBoardMessageId", 7L)));
+        
+        GameServer stored = store.findById(server.getId());
+        assertEquals(42, stored.getStatusBoardMessageId());
+        assertEquals("host-alpha", stored.getHost());
+    }
+    
+    @Test
+    void updateAllCountsTheUpdatesThatMatched() {
+        GameServer alpha = save(server(1, "alpha"));
+        GameServer beta = save(server(1, "beta"));
+        
+        int matched = store.updateAll(List.of(
+                new DocumentStore.Update(Map.of("_id", alpha.getId()), Map.of("lastProcessedKillfeedLine", 10L)),
+                new DocumentStore.Update(Map.of("_id", beta.getId()), Map.of("lastProcessedKillfeedLine", 11L)),
+                new DocumentStore.Update(Map.of("_id", new ObjectId()), Map.of("lastProcessedKillfeedLine", 12L))));
+        
+        assertEquals(2, matched);
+        assertEquals(10, store.findById(alpha.getId()).getLastProcessedKillfeedLine());
+        assertEquals(11, store.findById(beta.getId()).getLastProcessedKillfeedLine());
+        assertEquals(0, store.updateAll(List.of()));
+    }
+    
+    @Test
+    void deleteRemovesTheMatchingDocument() {
+        GameServer alpha = save(server(1, "alpha"));
+        save(server(1, "beta"));
+        
+        assertTrue(store.delete(Map.of("guildId", 1L, "name", "alpha")));
+        assertFalse(store.delete(Map.of("guildId", 1L, "name", "alpha")));
+        
+        assertNull(store.findById(alpha.getId()));
+        assertEquals(List.of("beta"), names(store.find(Map.of())));
+    }
+    
+    @Test
+    void conditionOnAnArrayMatchesAnyElement() {
+        GameServer alpha = server(1, "alpha");
+        alpha.setDigestEventTypes(List.of("join", "leave"));
+        save(alpha);
+        GameServer beta = server(1, "beta");
+        beta.setDigestEventTypes(List.of("leave"));
+        save(beta);
+        
+        assertEquals(List.of("alpha"), names(store.find(Map.of("digestEventTypes", "join"))));
+        assertEquals(List.of("alpha", "beta"), names(store.find(Map.of("digestEventTypes", "leave"))));
+        assertEquals(List.of(), names(store.find(Map.of("digestEventTypes", "mission"))));
+    }
+    
+    private GameServer save(GameServer server) {
+        server.setId(new ObjectId());
+        store.save(server.getId(), server);
+        return server;
+    }
+    
+    private static GameServer server(long guildId, String name) {
+        GameServer server = new GameServer(guildId, name, "host-" + name, 7777, "user", "password", 1);
+        server.setKillfeedChannelId(100);
+        return server;
+    }
+    
+    private static List<String> names(List<GameServer> servers) {
+        List<String> names = new ArrayList<>();
+        for (GameServer server : servers) {
+            names.add(server.getName());
+        }
+        names.sort(null);
+        return names;
+    }
+}
@@ -0,0 +1,188 @@
+package com.deadside.bot.db.store;
+
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.bson.BsonInt64;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.BsonDocumentCodec;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class LocalCollectionTest {
+    private static final int NO_COMPACTION = 1_000_000;
+    
+    @TempDir
+    Path directory;
+    
+    @Test
+    void writesAreReplayedFromTheLogAfterACrash() throws IOException {
+        LocalCollection collection = open(NO_COMPACTION);
+        collection.put(document("a", 1, "x"));
+        collection.put(document("b", 1, "y"));
+        collection.put(document("c", 2, "z"));
+        collection.update(Map.of("_id", new BsonString("b")), Map.of("name", new BsonString("renamed")));
+        collection.delete(Map.of("_id", new BsonString("c")));
+        
+        // Reopen without closing, as after a crash, so the state comes from the log alone
+        LocalCollection reopened = open(NO_COMPACTION);
+        
+        assertEquals(2, reopened.size());
+        assertEquals("renamed", reopened.get(new BsonString("b")).getString("name").getValue());
+        assertNull(reopened.get(new BsonString("c")));
+        assertEquals(List.of("a", "b"), ids(reopened.find(Map.of("guildId", new BsonInt64(1)), 0)));
+    }
+    
+    @Test
+    void tornTailIsDroppedAndLaterWritesAreStillReplayed() throws IOException {
+        LocalCollection collection = open(NO_COMPACTION);
+        collection.put(document("a", 1, "x"));
+        collection.put(document("b", 1, "y"));
+        
+        // Cut the last record short, as a crash in the middle of writing it would
+        Path wal = directory.resolve("servers.wal");
+        try (FileChannel channel = FileChannel.open(wal, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+        
+        LocalCollection reopened = open(NO_COMPACTION);
+        assertEquals(List.of("a"), ids(reopened.find(Map.of(), 0)));
+        
+        // The torn record was cut off, so a write made after it is not hidden behind it
+        reopened.put(document("c", 1, "z"));
+        assertEquals(List.of("a", "c"), ids(open(NO_COMPACTION).find(Map.of(), 0)));
+    }
+    
+    @Test
+    void garbageAfterTheLastRecordIsDropped() throws IOException {
+        LocalCollection collection = open(NO_COMPACTION);
+        collection.put(document("a", 1, "x"));
+        Files.write(directory.resolve("servers.wal"), new byte[] {'P', 42, 0, 0, 0, 1, 2, 3},
+                StandardOpenOption.APPEND);
+        
+        LocalCollection reopened = open(NO_COMPACTION);
+        
+        assertEquals(List.of("a"), ids(reopened.find(Map.of(), 0)));
+        assertEquals(List.of("a"), ids(open(NO_COMPACTION).find(Map.of(), 0)));
+    }
+    
+    @Test
+    void crashBeforeTheSnapshotIsMovedKeepsTheOldSnapshotAndLog() throws IOException {
+        LocalCollection collection = open(NO_COMPACTION);
+        collection.put(document("a", 1, "x"));
+        collection.close();
+        collection = open(NO_COMPACTION);
+        collection.put(document("b", 1, "y"));
+        
+        // A compaction that stopped while writing its temporary snapshot
+        Files.write(directory.resolve("servers.bson.tmp"), new byte[] {1, 2, 3});
+        
+        LocalCollection reopened = open(NO_COMPACTION);
+        assertEquals(List.of("a", "b"), ids(reopened.find(Map.of(), 0)));
+        
+        reopened.close();
+        assertEquals(List.of("a", "b"), ids(open(NO_COMPACTION).find(Map.of(), 0)));
+    }
+    
+    @Test
+    void crashAfterTheSnapshotIsMovedReplaysTheOldLogHarmlessly() throws IOException {
+        LocalCollection collection = open(NO_COMPACTION);
+        collection.put(document("a", 1, "x"));
+        collection.put(document("b", 1, "y"));
+        collection.update(Map.of("_id", new BsonString("a")), Map.of("name", new BsonString("renamed")));
+        collection.delete(Map.of("_id", new BsonString("b")));
+        byte[] log = Files.readAllBytes(directory.resolve("servers.wal"));
+        
+        // The snapshot is in place but the log was not cleared yet
+        collection.close();
+        Files.write(directory.resolve("servers.wal"), log);
+        
+        LocalCollection reopened = open(NO_COMPACTION);
+        assertEquals(List.of("a"), ids(reopened.find(Map.of(), 0)));
+        assertEquals("renamed", reopened.get(new BsonString("a")).getString("name").getValue());
+    }
+    
+    @Test
+    void compactionKeepsEveryDocument() throws IOException {
+        LocalCollection collection = open(3);
+        for (int i = 0; i < 10; i++) {
+            collection.put(document("d" + i, i % 2, "x"));
+        }
+        collection.delete(Map.of("_id", new BsonString("d0")));
+        
+        LocalCollection reopened = open(3);
+        
+        assertEquals(9, reopened.size());
+        assertEquals(List.of("d1", "d3", "d5", "d7", "d9"), ids(reopened.find(Map.of("guildId", new BsonInt64(1)), 0)));
+    }
+    
+    @Test
+    void conditionOnAnArrayMatchesAnyElement() throws IOException {
+        LocalCollection collection = open(NO_COMPACTION);
+        collection.put(document("a", 1, "x", "y"));
+        collection.put(document("b", 1, "y"));
+        
+        // tags is indexed, roles is not
+        assertEquals(List.of("a"), ids(collection.find(Map.of("tags", new BsonString("x")), 0)));
+        assertEquals(List.of("a", "b"), ids(collection.find(Map.of("tags", new BsonString("y")), 0)));
+        assertEquals(List.of("a"), ids(collection.find(Map.of("roles", new BsonString("role-x")), 0)));
+        
+        collection.update(Map.of("_id", new BsonString("a")),
+                Map.of("tags", new BsonArray(List.of(new BsonString("z")))));
+        
+        assertEquals(List.of(), ids(collection.find(Map.of("tags", new BsonString("x")), 0)));
+        assertEquals(List.of("b"), ids(collection.find(Map.of("tags", new BsonString("y")), 0)));
+        assertEquals(List.of("a"), ids(open(NO_COMPACTION).find(Map.of("tags", new BsonString("z")), 0)));
+    }
+    
+    @Test
+    void numbersMatchWhateverTheirType() throws IOException {
+        LocalCollection collection = open(NO_COMPACTION);
+        collection.put(document("a", 1, "x"));
+        
+        assertEquals(List.of("a"), ids(collection.find(Map.of("guildId", new BsonInt32(1)), 0)));
+        assertEquals(List.of("a"), ids(collection.find(Map.of("guildId", new BsonInt64(1)), 0)));
+    }
+    
+    private LocalCollection open(int compactionRecords) throws IOException {
+        return new LocalCollection("servers", directory, List.of("guildId", "tags"), true, compactionRecords);
+    }
+    
+    private static RawBsonDocument document(String id, long guildId, String... tags) {
+        List<BsonValue> tagValues = new ArrayList<>();
+        List<BsonValue> roleValues = new ArrayList<>();
+        for (String tag : tags) {
+            tagValues.add(new BsonString(tag));
+            roleValues.add(new BsonString("role-" + tag));
+        }
+        BsonDocument document = new BsonDocument("_id", new BsonString(id))
+                .append("guildId", new BsonInt64(guildId))
+                .append("name", new BsonString(id))
+                .append("tags", new BsonArray(tagValues))
+                .append("roles", new BsonArray(roleValues));
+        return new RawBsonDocument(document, new BsonDocumentCodec());
+    }
+    
+    private static List<String> ids(List<RawBsonDocument> documents) {
+        List<String> ids = new ArrayList<>();
+        for (RawBsonDocument document : documents) {
+            ids.add(document.getString("_id").getValue());
+        }
+        ids.sort(null);
+        return ids;
+    }
+}
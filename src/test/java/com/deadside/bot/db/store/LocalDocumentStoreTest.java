@@ -0,0 +1,20 @@
+package com.deadside.bot.db.store;
+
+import com.deadside.bot.db.MongoDBConnection;
+import com.deadside.bot.db.models.GameServer;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+class LocalDocumentStoreTest extends DocumentStoreContract {
+    
+    @TempDir
+    Path directory;
+    
+    @Override
+    DocumentStore<GameServer> openEmptyStore() throws Exception {
+        LocalCollection collection = new LocalCollection("game_servers", directory, List.of("guildId"), false, 10_000);
+        return new LocalDocumentStore<>(collection, GameServer.class, MongoDBConnection.createCodecRegistry());
+    }
+}
@@ -0,0 +1,15 @@
+package com.deadside.bot.db.store;
+
+import com.deadside.bot.db.TestDatabase;
+import com.deadside.bot.db.models.GameServer;
+import com.mongodb.client.MongoCollection;
+
+class MongoDocumentStoreTest extends DocumentStoreContract {
+    
+    @Override
+    DocumentStore<GameServer> openEmptyStore() {
+        TestDatabase.clear("game_servers");
+        MongoCollection<GameServer> collection = TestDatabase.get().getCollection("game_servers", GameServer.class);
+        return new MongoDocumentStore<>(collection);
+    }
+}